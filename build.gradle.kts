@@ -25,7 +25,31 @@ subprojects {
     }
 
     tasks.getByName<Test>("test") {
-        useJUnitPlatform()
+        useJUnitPlatform {
+            excludeTags("benchmark")
+        }
+    }
+
+    // benchmarks are tests tagged with "benchmark" that print their measurements
+    tasks.register<Test>("benchmark") {
+        description = "Runs the benchmarks."
+        group = "verification"
+        val test = project.the<SourceSetContainer>()["test"]
+        testClassesDirs = test.output.classesDirs
+        classpath = test.runtimeClasspath
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
+        testLogging {
+            showStandardStreams = true
+        }
+        // options of the benchmarks, e.g. -Dbenchmark.inputs=instance.cnf,proof.drat
+        System.getProperties().forEach { (key, value) ->
+            if (key.toString().startsWith("benchmark.")) {
+                systemProperty(key.toString(), value)
+            }
+        }
+        outputs.upToDateWhen { false }
     }
 
     checkstyle {
@@ -5,6 +5,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
 import org.tukaani.xz.XZInputStream;
 
 /**
@@ -13,22 +16,67 @@ import org.tukaani.xz.XZInputStream;
  */
 public final class Compression {
 
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   private Compression() {}
 
   /**
    * Opens a buffered input stream to the given file,
-   * wrapping it in a xz decompression stream if the file name ends with ".xz".
+   * wrapping it in a decompression stream if the file name ends with ".xz" or ".gz".
+   * Compressed files are decompressed on other threads while the stream is read.
+   * xz files consisting of several blocks (as written by <code>xz -T</code>) are decompressed
+   * in parallel.
    *
    * @param file The file to open.
    * @return An input stream that can be used to read the file.
    * @throws IOException if an i/o error occurs
    */
   public static InputStream openPossiblyCompressed(Path file) throws IOException {
-    InputStream is = new BufferedInputStream(Files.newInputStream(file));
-    if (file.getFileName().toString().endsWith(".xz")) {
-      is = new XZInputStream(is);
+    String name = file.getFileName().toString();
+    if (name.endsWith(".xz")) {
+      InputStream parallel = openParallelXz(file);
+      if (parallel != null) {
+        return parallel;
+      }
+    }
+    InputStream is = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    if (name.endsWith(".xz")) {
+      is = new ReadAheadInputStream(new XZInputStream(is));
+    } else if (name.endsWith(".gz")) {
+      is = new ReadAheadInputStream(new GZIPInputStream(is, BUFFER_SIZE));
     }
     return is;
   }
 
+  // returns null if the file can't be decompressed in parallel
+  private static InputStream openParallelXz(Path file) {
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (threads < 2 || !Files.isRegularFile(file)) {
+      return null;
+    }
+    try (SeekableXZInputStream index =
+        new SeekableXZInputStream(new SeekableFileInputStream(file.toFile()))) {
+      if (!ParallelXzInputStream.isSupported(index)) {
+        return null;
+      }
+      return new ParallelXzInputStream(file.toFile(), index, threads);
+    } catch (IOException e) {
+      // e.g. a file that is still being written has no index yet, so it is read sequentially
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether the given file is marked as compressed.
+   * Only files that are not compressed can be read directly, e.g. by memory-mapping them.
+   *
+   * @param file The file to check.
+   * @return <code>true</code> if the file name ends with ".xz" or ".gz",
+   *         <code>false</code> otherwise.
+   */
+  public static boolean isCompressed(Path file) {
+    String name = file.getFileName().toString();
+    return name.endsWith(".xz") || name.endsWith(".gz");
+  }
+
 }
@@ -0,0 +1,193 @@
+package edu.kit.satviz.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+
+/**
+ * An input stream that decompresses the blocks of a multi-block xz file in parallel.
+ * Files compressed with <code>xz -T</code> consist of independent blocks, whose positions are
+ * stored in the index at the end of the file. Every decoding thread opens the file on its own,
+ * and the decoded blocks are returned in order.
+ */
+final class ParallelXzInputStream extends InputStream {
+
+  /** Files with larger blocks are not decoded in parallel, since every block is held in memory. */
+  static final long MAX_BLOCK_SIZE = 64L * 1024 * 1024;
+  /** The default amount of decoded bytes of the blocks that are decoded ahead. */
+  static final long DEFAULT_MAX_PENDING_BYTES = 128L * 1024 * 1024;
+
+  private final File file;
+  private final long[] blockSizes;
+  private final int maxPending;
+  private final long maxPendingBytes;
+  private final ExecutorService executor;
+  private final ThreadLocal<SeekableXZInputStream> decoder;
+  // all decoders opened by the threads, closed with this stream
+  private final List<SeekableXZInputStream> decoders = new ArrayList<>();
+  private boolean closed = false;
+  private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+  // the decoded size of the pending blocks
+  private long pendingBytes = 0;
+  private int nextBlock = 0;
+
+  private byte[] current = new byte[0];
+  private int position = 0;
+
+  /**
+   * Creates a stream decoding the blocks of an xz file in parallel, with the default limit of
+   * bytes decoded ahead.
+   *
+   * @param file The xz file.
+   * @param index An xz stream of the file, used to look up the blocks. It isn't closed.
+   * @param threads The amount of decoding threads.
+   */
+  ParallelXzInputStream(File file, SeekableXZInputStream index, int threads) {
+    this(file, index, threads, DEFAULT_MAX_PENDING_BYTES);
+  }
+
+  /**
+   * Creates a stream decoding the blocks of an xz file in parallel.
+   * Apart from the block that is being read, at most <code>threads + 1</code> blocks are decoded
+   * ahead, as long as their decoded size doesn't exceed <code>maxPendingBytes</code>. The next
+   * block is always decoded, even if it is larger than that.
+   *
+   * @param file The xz file.
+   * @param index An xz stream of the file, used to look up the blocks. It isn't closed.
+   * @param threads The amount of decoding threads.
+   * @param maxPendingBytes The maximum amount of decoded bytes of the blocks decoded ahead.
+   */
+  ParallelXzInputStream(File file, SeekableXZInputStream index, int threads,
+      long maxPendingBytes) {
+    this.file = file;
+    this.blockSizes = new long[index.getBlockCount()];
+    for (int i = 0; i < blockSizes.length; i++) {
+      blockSizes[i] = index.getBlockSize(i);
+    }
+    this.maxPending = threads + 1;
+    this.maxPendingBytes = maxPendingBytes;
+    this.executor = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "satviz-xz-decoder");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.decoder = ThreadLocal.withInitial(this::openDecoder);
+  }
+
+  /**
+   * Checks whether an xz file can be decoded by this class.
+   *
+   * @param index An xz stream of the file.
+   * @return <code>true</code> if the file consists of several, not too large blocks
+   */
+  static boolean isSupported(SeekableXZInputStream index) {
+    return index.getBlockCount() > 1 && index.getLargestBlockSize() <= MAX_BLOCK_SIZE;
+  }
+
+  private SeekableXZInputStream openDecoder() {
+    try {
+      SeekableXZInputStream opened = new SeekableXZInputStream(new SeekableFileInputStream(file));
+      synchronized (decoders) {
+        if (closed) {
+          opened.close();
+          throw new IOException("Stream closed");
+        }
+        decoders.add(opened);
+      }
+      return opened;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private byte[] decode(int block) throws IOException {
+    SeekableXZInputStream in = decoder.get();
+    in.seekToBlock(block);
+    byte[] bytes = new byte[(int) blockSizes[block]];
+    int read = in.readNBytes(bytes, 0, bytes.length);
+    if (read < bytes.length) {
+      throw new IOException("Unexpected end of xz block " + block);
+    }
+    return bytes;
+  }
+
+  // waits for the next block if the current one is used up, returns false at the end
+  private boolean fill() throws IOException {
+    while (position == current.length) {
+      while (nextBlock < blockSizes.length && pending.size() < maxPending
+          && (pending.isEmpty() || pendingBytes + blockSizes[nextBlock] <= maxPendingBytes)) {
+        final int block = nextBlock++;
+        pending.add(executor.submit(() -> decode(block)));
+        pendingBytes += blockSizes[block];
+      }
+      if (pending.isEmpty()) {
+        return false;
+      }
+      // the used up block can be freed while waiting for the next one
+      current = new byte[0];
+      try {
+        current = pending.remove().get();
+        pendingBytes -= current.length;
+        position = 0;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof UncheckedIOException unchecked) {
+          cause = unchecked.getCause();
+        }
+        throw cause instanceof IOException io ? io : new IOException(cause);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? current[position++] & 0xff : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    } else if (!fill()) {
+      return -1;
+    }
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    synchronized (decoders) {
+      closed = true;
+      for (SeekableXZInputStream opened : decoders) {
+        opened.close();
+      }
+      decoders.clear();
+    }
+  }
+
+}
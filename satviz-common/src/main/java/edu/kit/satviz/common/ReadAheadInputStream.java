@@ -0,0 +1,151 @@
+package edu.kit.satviz.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An input stream that reads another stream on a background thread.
+ * The bytes read are handed over in large chunks through a bounded queue, so expensive streams
+ * (e.g. decompression) keep working while the bytes read so far are being processed.
+ */
+final class ReadAheadInputStream extends InputStream {
+
+  /** The default size of a single chunk in bytes. */
+  static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+  /** The default amount of chunks that may be read ahead. */
+  static final int DEFAULT_CHUNKS = 8;
+
+  // marks the end of the stream in the queue
+  private static final byte[] END = new byte[0];
+
+  private final InputStream in;
+  private final BlockingQueue<byte[]> chunks;
+  private final Thread reader;
+  // set by the reading thread before it queues END
+  private volatile IOException failure;
+
+  private byte[] current = new byte[0];
+  private int position = 0;
+
+  /**
+   * Creates a read-ahead stream with the default chunk size and amount of chunks.
+   *
+   * @param in The stream to read from.
+   */
+  ReadAheadInputStream(InputStream in) {
+    this(in, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNKS);
+  }
+
+  /**
+   * Creates a read-ahead stream and starts reading in the background.
+   *
+   * @param in The stream to read from.
+   * @param chunkSize The size of a single chunk in bytes.
+   * @param chunkAmount The amount of chunks that may be read ahead.
+   */
+  ReadAheadInputStream(InputStream in, int chunkSize, int chunkAmount) {
+    this.in = in;
+    this.chunks = new ArrayBlockingQueue<>(chunkAmount);
+    this.reader = new Thread(() -> readAhead(chunkSize), "satviz-read-ahead");
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  private void readAhead(int chunkSize) {
+    try {
+      byte[] chunk;
+      do {
+        chunk = in.readNBytes(chunkSize);
+        chunks.put(chunk.length == 0 ? END : chunk);
+      } while (chunk.length > 0);
+    } catch (InterruptedException e) {
+      // the stream has been closed
+    } catch (Throwable t) {
+      // any failure must end the stream, otherwise the reader would wait forever
+      failure = t instanceof IOException io ? io : new IOException(t);
+      try {
+        chunks.put(END);
+      } catch (InterruptedException e) {
+        // the stream has been closed
+      }
+    } finally {
+      // only closed by this thread, so it's never closed while it is being read
+      try {
+        in.close();
+      } catch (IOException e) {
+        // nothing is read anymore
+      }
+    }
+  }
+
+  // waits for the next chunk if the current one is used up, returns false at the end
+  private boolean fill() throws IOException {
+    if (position < current.length) {
+      return true;
+    }
+    if (current != END) {
+      try {
+        current = chunks.take();
+        position = 0;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+    if (current == END && failure != null) {
+      throw failure;
+    }
+    return current != END;
+  }
+
+  // takes the next chunk only if it has already been read
+  private boolean fillIfReady() {
+    byte[] next = chunks.peek();
+    if (next == null || next == END) {
+      return false;
+    }
+    current = chunks.poll();
+    position = 0;
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? current[position++] & 0xff : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    } else if (!fill()) {
+      return -1;
+    }
+    int read = 0;
+    do {
+      int n = Math.min(len - read, current.length - position);
+      System.arraycopy(current, position, b, off + read, n);
+      position += n;
+      read += n;
+    } while (read < len && (position < current.length || fillIfReady()));
+    return read;
+  }
+
+  @Override
+  public int available() {
+    return current.length - position;
+  }
+
+  /**
+   * Stops reading ahead. The underlying stream is closed by the reading thread once it has
+   * noticed, which may be after a read that is in progress has finished.
+   */
+  @Override
+  public void close() {
+    reader.interrupt();
+  }
+
+}
@@ -0,0 +1,102 @@
+package edu.kit.satviz.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * Measures how fast {@link Compression#openPossiblyCompressed(Path)} delivers the content of
+ * plain, gzip and xz files.
+ * Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+class CompressionBenchmark {
+
+  private static final int SIZE = 64 * 1024 * 1024;
+  // the block size xz -T uses for preset 1
+  private static final int BLOCK_SIZE = 3 * 1024 * 1024;
+  private static final int RUNS = 3;
+
+  @Test
+  void formats(@TempDir Path dir) throws IOException {
+    byte[] content = clauses();
+    Path plain = dir.resolve("input.cnf");
+    Files.write(plain, content);
+    Path gz = dir.resolve("input.cnf.gz");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+      out.write(content);
+    }
+    Path xz = dir.resolve("input.cnf.xz");
+    writeXz(xz, content, content.length);
+    Path xzBlocks = dir.resolve("blocks.cnf.xz");
+    writeXz(xzBlocks, content, BLOCK_SIZE);
+
+    report("plain", plain, content.length);
+    report("gzip", gz, content.length);
+    report("xz, 1 block", xz, content.length);
+    report("xz, " + (content.length + BLOCK_SIZE - 1) / BLOCK_SIZE + " blocks", xzBlocks,
+        content.length);
+  }
+
+  // random clauses in DIMACS syntax, which compress about as well as real instances
+  private static byte[] clauses() {
+    Random random = new Random(42);
+    StringBuilder text = new StringBuilder(SIZE + 100);
+    while (text.length() < SIZE) {
+      int length = 2 + random.nextInt(6);
+      for (int i = 0; i < length; i++) {
+        int variable = 1 + random.nextInt(1_000_000);
+        text.append(random.nextBoolean() ? variable : -variable).append(' ');
+      }
+      text.append("0\n");
+    }
+    return text.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static void writeXz(Path file, byte[] content, int blockSize) throws IOException {
+    try (XZOutputStream out =
+        new XZOutputStream(Files.newOutputStream(file), new LZMA2Options(1))) {
+      for (int offset = 0; offset < content.length; offset += blockSize) {
+        out.write(content, offset, Math.min(blockSize, content.length - offset));
+        out.endBlock();
+      }
+    }
+  }
+
+  private static void report(String name, Path file, int size) throws IOException {
+    read(file, size); // warm-up
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      read(file, size);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-16s %,14d bytes %8.1f MB/s%n", name, Files.size(file),
+        size / (best / 1e9) / (1024 * 1024));
+  }
+
+  private static void read(Path file, int size) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    long total = 0;
+    try (InputStream in = Compression.openPossiblyCompressed(file)) {
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        total += read;
+      }
+    }
+    assertEquals(size, total);
+  }
+
+}
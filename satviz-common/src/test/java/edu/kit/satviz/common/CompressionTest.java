@@ -3,13 +3,16 @@ package edu.kit.satviz.common;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class CompressionTest {
 
@@ -47,4 +50,31 @@ class CompressionTest {
     var content = new String(Compression.openPossiblyCompressed(uncompressed).readAllBytes(), StandardCharsets.UTF_8);
     assertEquals("hello :)\n", content);
   }
-}
\ No newline at end of file
+
+  @Test
+  void test_openPossiblyCompressed_gzip(@TempDir Path tempDir) throws IOException {
+    Path gzip = tempDir.resolve("comp_test.txt.gz");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+      out.write("hello :)\n".getBytes(StandardCharsets.UTF_8));
+    }
+    try (var in = Compression.openPossiblyCompressed(gzip)) {
+      assertEquals("hello :)\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void test_openPossiblyCompressed_multipleBlocks(@TempDir Path tempDir) throws IOException {
+    Path xz = tempDir.resolve("blocks.xz");
+    byte[] content = ParallelXzInputStreamTest.writeBlocks(xz, 5, 10_000);
+    try (var in = Compression.openPossiblyCompressed(xz)) {
+      assertArrayEquals(content, in.readAllBytes());
+    }
+  }
+
+  @Test
+  void test_isCompressed() {
+    assertTrue(Compression.isCompressed(compressed));
+    assertTrue(Compression.isCompressed(Path.of("instance.cnf.gz")));
+    assertFalse(Compression.isCompressed(uncompressed));
+  }
+}
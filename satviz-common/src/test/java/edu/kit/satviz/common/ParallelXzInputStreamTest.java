@@ -0,0 +1,77 @@
+package edu.kit.satviz.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+import org.tukaani.xz.XZOutputStream;
+
+class ParallelXzInputStreamTest {
+
+  static byte[] writeBlocks(Path file, int blocks, int blockSize) throws IOException {
+    byte[] content = new byte[blocks * blockSize];
+    Random random = new Random(42);
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) ('0' + random.nextInt(10));
+    }
+    try (OutputStream out = new XZOutputStream(Files.newOutputStream(file), new LZMA2Options(1))) {
+      for (int i = 0; i < blocks; i++) {
+        out.write(content, i * blockSize, blockSize);
+        ((XZOutputStream) out).endBlock();
+      }
+    }
+    return content;
+  }
+
+  @Test
+  void test_read_blocksInOrder(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("blocks.xz");
+    byte[] content = writeBlocks(file, 10, 100_000);
+    try (SeekableXZInputStream index =
+        new SeekableXZInputStream(new SeekableFileInputStream(file.toFile()))) {
+      assertTrue(ParallelXzInputStream.isSupported(index));
+      try (InputStream in = new ParallelXzInputStream(file.toFile(), index, 3)) {
+        assertEquals(content[0], (byte) in.read());
+        byte[] rest = in.readAllBytes();
+        assertEquals(content.length - 1, rest.length);
+        for (int i = 0; i < rest.length; i++) {
+          assertEquals(content[i + 1], rest[i]);
+        }
+        assertEquals(-1, in.read());
+      }
+    }
+  }
+
+  @Test
+  void test_read_smallByteLimit(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("blocks.xz");
+    byte[] content = writeBlocks(file, 10, 100_000);
+    try (SeekableXZInputStream index =
+        new SeekableXZInputStream(new SeekableFileInputStream(file.toFile()))) {
+      // smaller than a single block, so the blocks are decoded one at a time
+      try (InputStream in = new ParallelXzInputStream(file.toFile(), index, 3, 1000)) {
+        assertArrayEquals(content, in.readAllBytes());
+      }
+    }
+  }
+
+  @Test
+  void test_isSupported_singleBlock(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("block.xz");
+    writeBlocks(file, 1, 1000);
+    try (SeekableXZInputStream index =
+        new SeekableXZInputStream(new SeekableFileInputStream(file.toFile()))) {
+      assertFalse(ParallelXzInputStream.isSupported(index));
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+package edu.kit.satviz.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ReadAheadInputStreamTest {
+
+  @Test
+  void test_read() throws IOException {
+    byte[] content = new byte[10_000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(content), 64, 2)) {
+      assertEquals(0, in.read());
+      assertArrayEquals(Arrays.copyOfRange(content, 1, content.length), in.readAllBytes());
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  void test_read_failure() throws IOException {
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("broken");
+      }
+    };
+    InputStream source = new SequenceInputStream(new ByteArrayInputStream(new byte[100]), failing);
+    try (InputStream in = new ReadAheadInputStream(source, 64, 2)) {
+      IOException e = assertThrows(IOException.class, in::readAllBytes);
+      assertEquals("broken", e.getMessage());
+    }
+  }
+
+  @Test
+  void test_read_uncheckedFailure() throws IOException {
+    InputStream failing = new InputStream() {
+      @Override
+      public int read() {
+        throw new IllegalStateException("broken");
+      }
+    };
+    try (InputStream in = new ReadAheadInputStream(failing, 64, 2)) {
+      IOException e = assertThrows(IOException.class, in::readAllBytes);
+      assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+  }
+
+  @Test
+  void test_close() throws IOException, InterruptedException {
+    CountDownLatch closed = new CountDownLatch(1);
+    InputStream endless = new InputStream() {
+      @Override
+      public int read() {
+        return 0;
+      }
+
+      @Override
+      public void close() {
+        closed.countDown();
+      }
+    };
+    // the reading thread blocks because the queue is full
+    InputStream in = new ReadAheadInputStream(endless, 64, 2);
+    in.close();
+    assertTrue(closed.await(10, TimeUnit.SECONDS));
+  }
+
+}
@@ -34,7 +34,9 @@ void satviz_submit_heat_update(void *graph, CHeatUpdate *);
 void satviz_recalculate_layout(void *graph);
 void satviz_adapt_layout(void *graph);
 SerializedData satviz_serialize(void *graph);
-void satviz_deserialize(void *graph, const char *data, unsigned long n);
+int satviz_deserialize(void *graph, const char *data, unsigned long n);
+int satviz_serialize_to_file(void *graph, const char *path);
+int satviz_deserialize_from_file(void *graph, const char *path);
 NodeInfo satviz_query_node(void *graph, int index);
 EdgeInfo satviz_query_edge(void *graph, int index1, int index2);
 
@@ -4,6 +4,7 @@
 #include <vector>
 #include <tuple>
 #include <iostream>
+#include <cstdint>
 
 #include <satviz/info.h>
 #include <ogdf/basic/Graph.h>
@@ -110,14 +111,23 @@ public:
 
   /**
    * Serialize the graph's contents into an output stream.
+   *
+   * The graph is written in a compact binary format containing the node positions and heat values
+   * as well as all edges and their weights.
+   *
    * @param stream the output stream
    */
   void serialize(std::ostream &stream);
   /**
    * Deserialize the graph's contents from an input stream.
+   *
+   * The snapshot replaces the contents of the graph. The whole snapshot is read and validated
+   * before the graph is modified, so the graph is left unchanged if the data is malformed.
+   *
    * @param stream the input stream
+   * @return true on success, false if the data is malformed or doesn't fit this graph
    */
-  void deserialize(std::istream &stream);
+  bool deserialize(std::istream &stream);
 
   /**
    * Build a bundle of all relevant information pertaining to one specific node in the graph.
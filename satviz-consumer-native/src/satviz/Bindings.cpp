@@ -1,6 +1,7 @@
 #include <vector>
 #include <string>
 #include <sstream>
+#include <fstream>
 #include <cstdlib>
 #include <cstring>
 
@@ -41,13 +42,32 @@ SerializedData satviz_serialize(void *graph) {
   static_cast<Graph*>(graph)->serialize(stream);
   auto size = stream.tellp();
   char *buf = (char*) malloc(static_cast<size_t>(size));
-  memcpy(buf, stream.str().c_str(), size);
+  // read back directly, stream.str() would copy the whole graph once more
+  stream.read(buf, size);
   return SerializedData { buf, static_cast<unsigned long>(size) };
 }
 
-void satviz_deserialize(void *graph, const char *data, unsigned long n) {
+int satviz_deserialize(void *graph, const char *data, unsigned long n) {
   std::stringstream stream { std::string { data, n } };
-  static_cast<Graph*>(graph)->deserialize(stream);
+  return static_cast<Graph*>(graph)->deserialize(stream) ? 0 : -1;
+}
+
+int satviz_serialize_to_file(void *graph, const char *path) {
+  std::ofstream stream { path, std::ios::binary | std::ios::trunc };
+  if (!stream) {
+    return -1;
+  }
+  static_cast<Graph*>(graph)->serialize(stream);
+  stream.flush();
+  return stream ? 0 : -1;
+}
+
+int satviz_deserialize_from_file(void *graph, const char *path) {
+  std::ifstream stream { path, std::ios::binary };
+  if (!stream) {
+    return -1;
+  }
+  return static_cast<Graph*>(graph)->deserialize(stream) ? 0 : -1;
 }
 
 void satviz_submit_weight_update(void *graph, CWeightUpdate *update) {
@@ -2,13 +2,32 @@
 #include <satviz/GraphObserver.hpp>
 
 #include <ogdf/energybased/FMMMLayout.h>
-#include <ogdf/fileformats/GraphIO.h>
 
 #include <algorithm>
+#include <cstdint>
 
 namespace satviz {
 namespace graph {
 
+namespace {
+
+// Snapshots are only ever read back by the same process, so all values are written
+// in native byte order.
+const char SNAPSHOT_MAGIC[4] = { 'S', 'V', 'G', 'S' };
+const uint32_t SNAPSHOT_VERSION = 1;
+
+template<typename T>
+void writeValue(std::ostream &stream, T value) {
+  stream.write(reinterpret_cast<const char*>(&value), sizeof(T));
+}
+
+template<typename T>
+bool readValue(std::istream &stream, T &value) {
+  return static_cast<bool>(stream.read(reinterpret_cast<char*>(&value), sizeof(T)));
+}
+
+} // namespace
+
 void Graph::initAttrs() {
   using GA = ogdf::GraphAttributes;
   attrs.init(graph, GA::nodeGraphics | GA::nodeWeight | GA::edgeGraphics | GA::edgeDoubleWeight);
@@ -136,16 +155,75 @@ void Graph::adaptLayout() {
 }
 
 void Graph::serialize(std::ostream &stream) {
-  ogdf::GraphIO::writeGDF(attrs, stream);
+  stream.write(SNAPSHOT_MAGIC, sizeof(SNAPSHOT_MAGIC));
+  writeValue(stream, SNAPSHOT_VERSION);
+  writeValue(stream, static_cast<uint32_t>(node_handles.size()));
+  writeValue(stream, static_cast<uint32_t>(graph.numberOfEdges()));
+  for (auto v : node_handles) {
+    writeValue(stream, attrs.x(v));
+    writeValue(stream, attrs.y(v));
+    writeValue(stream, static_cast<int32_t>(attrs.weight(v)));
+  }
+  for (auto e = graph.firstEdge(); e != nullptr; e = e->succ()) {
+    writeValue(stream, static_cast<int32_t>(e->source()->index()));
+    writeValue(stream, static_cast<int32_t>(e->target()->index()));
+    writeValue(stream, attrs.doubleWeight(e));
+  }
 }
 
-void Graph::deserialize(std::istream &stream) {
-  ogdf::GraphIO::readGDF(attrs, graph, stream);
-  initNodeHandles();
+bool Graph::deserialize(std::istream &stream) {
+  char magic[sizeof(SNAPSHOT_MAGIC)];
+  uint32_t version, num_nodes, num_edges;
+  if (!stream.read(magic, sizeof(magic))
+      || !std::equal(magic, magic + sizeof(magic), SNAPSHOT_MAGIC)
+      || !readValue(stream, version) || version != SNAPSHOT_VERSION
+      || !readValue(stream, num_nodes) || !readValue(stream, num_edges)) {
+    return false;
+  }
+  int n = numNodes();
+  if (num_nodes != static_cast<uint32_t>(n)) {
+    return false;
+  }
+
+  // Everything is read and checked first, so a malformed snapshot leaves the graph untouched
+  struct NodeRow { double x, y; int32_t heat; };
+  std::vector<NodeRow> node_rows(num_nodes);
+  for (auto &row : node_rows) {
+    if (!readValue(stream, row.x) || !readValue(stream, row.y) || !readValue(stream, row.heat)) {
+      return false;
+    }
+  }
+  std::vector<std::tuple<int32_t, int32_t, double> > edge_rows;
+  for (uint32_t i = 0; i < num_edges; i++) {
+    int32_t index1, index2;
+    double weight;
+    if (!readValue(stream, index1) || !readValue(stream, index2) || !readValue(stream, weight)
+        || index1 < 0 || index1 >= n || index2 < 0 || index2 >= n || !(weight > 0.0)) {
+      return false;
+    }
+    edge_rows.emplace_back(index1, index2, weight);
+  }
+
+  for (auto e = graph.firstEdge(); e != nullptr;) {
+    auto next = e->succ();
+    graph.delEdge(e);
+    e = next;
+  }
+  for (int i = 0; i < n; i++) {
+    auto v = node_handles[i];
+    attrs.x(v) = node_rows[i].x;
+    attrs.y(v) = node_rows[i].y;
+    attrs.weight(v) = node_rows[i].heat;
+  }
+  for (auto &row : edge_rows) {
+    auto e = graph.newEdge(node_handles[std::get<0>(row)], node_handles[std::get<1>(row)]);
+    attrs.doubleWeight(e) = std::get<2>(row);
+  }
 
   for (auto o : observers) {
     o->onReload();
   }
+  return true;
 }
 
 NodeInfo Graph::queryNode(int index) {
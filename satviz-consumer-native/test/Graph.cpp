@@ -113,7 +113,7 @@ TEST_F(GraphTest, Serialization) {
 
   // Change heat values, then reload previous values
   graph.submitHeatUpdate(heatUpdate1);
-  graph.deserialize(stream);
+  ASSERT_TRUE(graph.deserialize(stream));
   ASSERT_TRUE(observer.sequenceHappened("r"));
 
   // Make sure the heat value update has been properly undone
@@ -124,6 +124,46 @@ TEST_F(GraphTest, Serialization) {
   }
 }
 
+TEST_F(GraphTest, SerializationRestoresEdges) {
+  std::stringstream stream;
+  graph.recalculateLayout();
+  graph.serialize(stream);
+
+  Graph copy(numNodes);
+  ASSERT_TRUE(copy.deserialize(stream));
+  ASSERT_EQ(copy.numEdges(), graph.numEdges());
+  for (int i = 0; i < numNodes; i++) {
+    NodeInfo expected = graph.queryNode(i);
+    NodeInfo actual = copy.queryNode(i);
+    EXPECT_EQ(actual.heat, expected.heat);
+    EXPECT_EQ(actual.x, expected.x);
+    EXPECT_EQ(actual.y, expected.y);
+    if (i % 2 != 0) {
+      EXPECT_EQ(copy.queryEdge(i, (i + 1) % numNodes).weight,
+                graph.queryEdge(i, (i + 1) % numNodes).weight);
+    }
+  }
+}
+
+TEST_F(GraphTest, DeserializeMalformed) {
+  std::stringstream stream { "GDF is no longer supported" };
+  EXPECT_FALSE(graph.deserialize(stream));
+
+  std::stringstream full;
+  Graph(numNodes + 1).serialize(full);
+  EXPECT_FALSE(graph.deserialize(full));
+
+  // A truncated snapshot must not modify the graph
+  int edges = graph.numEdges();
+  std::stringstream valid;
+  Graph(numNodes).serialize(valid);
+  std::string data = valid.str();
+  std::stringstream truncated { data.substr(0, data.size() - 1) };
+  EXPECT_FALSE(graph.deserialize(truncated));
+  EXPECT_EQ(graph.numEdges(), edges);
+  EXPECT_FALSE(observer.sequenceHappened("r"));
+}
+
 TEST_F(GraphTest, SubmitWeightUpdateRegression) {
   WeightUpdate update;
   update.values.push_back(std::make_tuple<int, int, float>(0, 2, 0.0f));
@@ -14,10 +14,12 @@ import edu.kit.satviz.consumer.display.DisplayType;
 import edu.kit.satviz.consumer.display.VideoController;
 import edu.kit.satviz.consumer.graph.Graph;
 import edu.kit.satviz.consumer.graph.HeatUpdate;
+import edu.kit.satviz.consumer.graph.WeightUpdate;
 import edu.kit.satviz.consumer.gui.GuiUtils;
 import edu.kit.satviz.consumer.gui.config.ConfigStarter;
 import edu.kit.satviz.consumer.gui.visualization.VisualizationController;
 import edu.kit.satviz.consumer.gui.visualization.VisualizationStarter;
+import edu.kit.satviz.consumer.processing.AdaptiveSnapshotPolicy;
 import edu.kit.satviz.consumer.processing.ArrayNodeMapping;
 import edu.kit.satviz.consumer.processing.ClauseCoordinator;
 import edu.kit.satviz.consumer.processing.CliqueInteractionGraph;
@@ -28,15 +30,18 @@ import edu.kit.satviz.consumer.processing.Mediator;
 import edu.kit.satviz.consumer.processing.RecencyHeatmap;
 import edu.kit.satviz.consumer.processing.RingInteractionGraph;
 import edu.kit.satviz.consumer.processing.VariableInteractionGraph;
+import edu.kit.satviz.consumer.processing.WeightAccumulator;
 import edu.kit.satviz.network.pub.ConsumerConnection;
 import edu.kit.satviz.network.pub.OfferType;
 import edu.kit.satviz.network.pub.ProducerId;
 import edu.kit.satviz.network.pub.SolverId;
 import edu.kit.satviz.parsers.DimacsFile;
 import edu.kit.satviz.parsers.ParsingException;
-import edu.kit.satviz.sat.ClauseUpdate;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -46,6 +51,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -57,8 +63,17 @@ import net.sourceforge.argparse4j.inf.ArgumentParserException;
 public final class ConsumerApplication {
 
   private static final Logger logger = Logger.getLogger("Consumer");
-  private static ProducerId pid = null;
   private static final Object SYNC_OBJECT = new Object();
+  // the first producer, which the consumer waits for before starting the visualisation
+  private static ProducerId pid = null;
+  // guarded by SYNC_OBJECT
+  private static int maxProducers = ConsumerConfig.DEFAULT_MAX_PRODUCERS;
+  private static int acceptedProducers = 0;
+  private static final List<ProducerId> pendingProducers = new ArrayList<>();
+  private static Mediator mediator = null;
+  private static ConsumerConnection connection = null;
+  private static Path instancePath = null;
+  private static Long instanceHash = null;
 
   public static void main(String[] args)
       throws IOException, InterruptedException, ExecutionException {
@@ -80,27 +95,31 @@ public final class ConsumerApplication {
     Path tempDir = Files.createTempDirectory("satviz"); // TODO: 05.03.2022 make own temp?
     tempDir.toFile().deleteOnExit();
 
+    Supplier<VariableInteractionGraph> vig = () -> getVigImplementation(config);
+
     logger.finer("Reading SAT instance file");
-    InitialGraphInfo initialData = readDimacsFile(config);
+    InitialGraphInfo initialData = readDimacsFile(config, vig);
 
     logger.info("Setting up network connection");
+    instancePath = config.getInstancePath();
     ConsumerConnection connection = setupNetworkConnection(config, tempDir);
+    ConsumerApplication.connection = connection;
     logger.log(Level.INFO, "Producer {0} connected", pid);
-    if (!verifyInstanceHash(config.getInstancePath())) {
+    if (!verifyInstanceHash(pid)) {
       connection.disconnect(pid);
       System.exit(1);
       return;
     }
     
     ScheduledExecutorService glScheduler = Executors.newSingleThreadScheduledExecutor();
-    Supplier<VariableInteractionGraph> vig = () -> getVigImplementation(config);
 
-    Graph.Contraction contraction = contract(config, vig, initialData);
+    Graph.Contraction contraction = contract(config, initialData);
     logger.log(Level.INFO, "Graph contracted to {0} nodes", contraction.remainingNodes());
-    GlComponents components = initializeRendering(config, vig, contraction, initialData, glScheduler);
+    GlComponents components = initializeRendering(config, contraction, initialData, glScheduler);
 
     ClauseCoordinator coordinator = new ClauseCoordinator(components.graph,
-        tempDir, initialData.variables, components.nodeMapping);
+        tempDir, initialData.variables, components.nodeMapping,
+        config.getClauseBufferImplementation());
 
     Mediator mediator = new Mediator.MediatorBuilder()
         .setConfig(config)
@@ -108,7 +127,7 @@ public final class ConsumerApplication {
         .setController(components.controller)
         .setGraph(components.graph)
         .setCoordinator(coordinator)
-        .setHeatmap(getHeatmapImplementation(config))
+        .setHeatmapFactory(() -> getHeatmapImplementation(config))
         .setVig(vig.get())
         .createMediator();
 
@@ -117,6 +136,31 @@ public final class ConsumerApplication {
       connection.stop();
     });
 
+    if (config.getProcessingThreads() > 0) {
+      ExecutorService processingPool = Executors.newFixedThreadPool(config.getProcessingThreads());
+      coordinator.setProcessingExecutor(processingPool);
+      mediator.registerCloseAction(processingPool::shutdown);
+    }
+
+    if (config.isAsyncSnapshots()) {
+      ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor();
+      coordinator.setSnapshotExecutor(snapshotExecutor);
+      mediator.registerCloseAction(snapshotExecutor::shutdown);
+    }
+    coordinator.setSnapshotPolicy(new AdaptiveSnapshotPolicy(
+        TimeUnit.MILLISECONDS.toNanos(config.getSnapshotReplayMillis()),
+        config.getSnapshotBudgetMegabytes() * 1024 * 1024
+    ));
+    mediator.registerCloseAction(() -> {
+      ClauseCoordinator.SnapshotMetrics metrics = coordinator.getSnapshotMetrics();
+      logger.log(Level.INFO, "Took {0} snapshots ({1} ms capturing, {2} ms writing)",
+          new Object[] {
+              metrics.snapshots(),
+              TimeUnit.NANOSECONDS.toMillis(metrics.captureNanos()),
+              TimeUnit.NANOSECONDS.toMillis(metrics.persistNanos())
+          });
+    });
+
     if (!config.isNoGui()) {
       startVisualisationGui(mediator, config);
     } else {
@@ -144,8 +188,18 @@ public final class ConsumerApplication {
       });
     }
 
+    mediator.registerProducer(ConsumerApplication.pid);
     connection.connect(ConsumerApplication.pid, mediator);
 
+    // connect the producers that arrived while the visualisation was set up
+    List<ProducerId> pending;
+    synchronized (SYNC_OBJECT) {
+      ConsumerApplication.mediator = mediator;
+      pending = new ArrayList<>(pendingProducers);
+      pendingProducers.clear();
+    }
+    pending.forEach(ConsumerApplication::connectAdditionalProducer);
+
     if (config.isRecordImmediately() || config.isNoGui()) {
       mediator.startOrStopRecording();
     }
@@ -163,28 +217,27 @@ public final class ConsumerApplication {
   }
 
   private static VariableInteractionGraph getVigImplementation(ConsumerConfig config) {
-    return switch (config.getVigImplementation()) {
+    VariableInteractionGraph vig = switch (config.getVigImplementation()) {
       case RING -> new RingInteractionGraph(config.getWeightFactor());
       case CLIQUE -> new CliqueInteractionGraph(config.getWeightFactor());
     };
+    if (config.isParallelVig()) {
+      vig.setForkJoinPool(ForkJoinPool.commonPool());
+    }
+    return vig;
   }
 
-  private static Graph.Contraction contract(
-      ConsumerConfig config,
-      Supplier<? extends VariableInteractionGraph> vig,
-      InitialGraphInfo initialData
-  ) {
+  private static Graph.Contraction contract(ConsumerConfig config, InitialGraphInfo initialData) {
     logger.info("Applying graph contraction");
     try (Graph initialGraph = Graph.create(initialData.variables)) {
-      initialGraph.submitUpdate(vig.get()
-          .process(initialData.clauses, initialGraph, IdentityMapping.INSTANCE));
+      initialGraph.submitUpdate(initialData.weights);
       return initialGraph.computeContraction(config.getContractionIterations());
     }
   }
 
   private static GlComponents initializeRendering(
-      ConsumerConfig config, Supplier<? extends VariableInteractionGraph> vig,
-      Graph.Contraction contraction, InitialGraphInfo initialData, ExecutorService glScheduler
+      ConsumerConfig config, Graph.Contraction contraction, InitialGraphInfo initialData,
+      ExecutorService glScheduler
   ) throws InterruptedException, ExecutionException {
     logger.finer("Initialising OpenGL window");
 
@@ -209,8 +262,11 @@ public final class ConsumerApplication {
           u.add(i, 0);
         }
         components.graph.submitUpdate(u);
-        components.graph.submitUpdate(vig.get().process(
-            initialData.clauses, components.graph, components.nodeMapping));
+        // the edges between variables are moved to the nodes they were contracted into
+        int[] mapping = contraction.mapping();
+        WeightUpdate weights = new WeightUpdate();
+        weights.addAll(initialData.weights, variable -> mapping[variable]);
+        components.graph.submitUpdate(weights);
         components.graph.recalculateLayout();
         components.controller.resetCamera();
         components.controller.nextFrame();
@@ -222,14 +278,17 @@ public final class ConsumerApplication {
     return components;
   }
 
-  private static InitialGraphInfo readDimacsFile(ConsumerConfig config) throws IOException {
-    try (DimacsFile dimacsFile = new DimacsFile(
-        Compression.openPossiblyCompressed(config.getInstancePath()))) {
+  private static InitialGraphInfo readDimacsFile(
+      ConsumerConfig config, Supplier<? extends VariableInteractionGraph> vig
+  ) throws IOException {
+    try (DimacsFile dimacsFile = openDimacsFile(config.getInstancePath())) {
       int variableAmount = dimacsFile.getVariableAmount();
       logger.log(Level.INFO, "Instance contains {0} variables", variableAmount);
-      ClauseUpdate[] clauses = StreamSupport.stream(dimacsFile.spliterator(), false)
-          .toArray(ClauseUpdate[]::new);
-      return new InitialGraphInfo(variableAmount, clauses);
+      // memory-mapped files are split at clause boundaries and parsed on all cores.
+      // Only the edges between variables are kept, not the clauses themselves.
+      WeightUpdate weights = StreamSupport.stream(dimacsFile.spliterator(), true)
+          .collect(WeightAccumulator.collector(vig, IdentityMapping.INSTANCE));
+      return new InitialGraphInfo(variableAmount, weights);
     } catch (ParsingException e) {
       if (!config.isNoGui()) {
         // Error window.
@@ -240,6 +299,13 @@ public final class ConsumerApplication {
     }
   }
 
+  private static DimacsFile openDimacsFile(Path instance) throws IOException {
+    if (!Compression.isCompressed(instance) && Files.isRegularFile(instance)) {
+      return new DimacsFile(instance);
+    }
+    return new DimacsFile(Compression.openPossiblyCompressed(instance));
+  }
+
   private static ConsumerConfig getStartingConfig(String[] args) throws InterruptedException {
     if (args.length == 0) {
       GuiUtils.launch(ConfigStarter.class);
@@ -265,16 +331,31 @@ public final class ConsumerApplication {
     ConsumerModeConfig modeConfig = config.getModeConfig();
     boolean embedded = modeConfig.getMode() == ConsumerMode.EMBEDDED;
     int consumerPort = embedded ? 0 : ((ExternalModeConfig) modeConfig).getPort();
-    ConsumerConnection connection = new ConsumerConnection(consumerPort,
-        ConsumerApplication::newConnectionAvailable, (s) -> logger.log(Level.SEVERE,
-        "network fail: {0}", s));
-    try {
-      connection.start();
-      logger.log(Level.INFO, "Port {0} opened", String.valueOf(connection.getPort()));
-    } catch (IOException e) {
-      logger.log(Level.SEVERE, "Error while trying to start embedded producer", e);
-      System.exit(1);
-      return null;
+    synchronized (SYNC_OBJECT) {
+      maxProducers = config.getMaxProducers();
+    }
+    // decode the messages of several producers in parallel
+    int selectors = Math.min(config.getMaxProducers(), Runtime.getRuntime().availableProcessors());
+    ConsumerConnection connection = null;
+    if (embedded) {
+      // the embedded producer always runs on this machine, so TCP is not needed
+      SocketAddress socket = UnixDomainSocketAddress.of(tempDir.resolve("producer.sock"));
+      try {
+        connection = startConnection(socket, selectors);
+        logger.log(Level.INFO, "Socket {0} opened", socket);
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Unix domain socket unavailable, falling back to TCP", e);
+      }
+    }
+    if (connection == null) {
+      try {
+        connection = startConnection(new InetSocketAddress(consumerPort), selectors);
+        logger.log(Level.INFO, "Port {0} opened", String.valueOf(connection.getPort()));
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, "Error while trying to start embedded producer", e);
+        System.exit(1);
+        return null;
+      }
     }
 
     if (embedded) {
@@ -282,8 +363,11 @@ public final class ConsumerApplication {
       EmbeddedModeConfig embedConfig = (EmbeddedModeConfig) modeConfig;
       try {
         String sourcePath = embedConfig.getSourcePath().toAbsolutePath().toString();
-        List<String> baseArgs = List.of("-H", InetAddress.getLocalHost().getHostAddress(),
-            "-P", String.valueOf(connection.getPort()));
+        SocketAddress local = connection.getLocalAddress();
+        List<String> baseArgs = local instanceof UnixDomainSocketAddress unix
+            ? List.of("-U", unix.getPath().toString())
+            : List.of("-H", InetAddress.getLocalHost().getHostAddress(),
+                "-P", String.valueOf(connection.getPort()));
         List<String> additionalArgs = switch (embedConfig.getSource()) {
           case SOLVER -> List.of("-s", sourcePath, "-i", config.getInstancePath().toAbsolutePath().toString());
           case PROOF -> List.of("-p", sourcePath);
@@ -314,6 +398,15 @@ public final class ConsumerApplication {
     return connection;
   }
 
+  private static ConsumerConnection startConnection(SocketAddress address, int selectors)
+      throws IOException {
+    ConsumerConnection connection = new ConsumerConnection(address,
+        ConsumerApplication::newConnectionAvailable, (s) -> logger.log(Level.SEVERE,
+        "network fail: {0}", s), ConsumerConnection.DEFAULT_READ_BUFFER_SIZE, selectors, null);
+    connection.start();
+    return connection;
+  }
+
   private static Path extractProducer(Path tempDir) throws IOException {
     Path producerDir = Files.createTempDirectory(tempDir, "producer");
     var producerStream
@@ -330,19 +423,51 @@ public final class ConsumerApplication {
 
   private static void newConnectionAvailable(ProducerId pid) {
     synchronized (SYNC_OBJECT) {
+      if (acceptedProducers >= maxProducers) {
+        return;
+      }
+      acceptedProducers++;
       if (ConsumerApplication.pid == null) {
         ConsumerApplication.pid = pid;
         SYNC_OBJECT.notifyAll();
+        return;
+      }
+      if (mediator == null) {
+        pendingProducers.add(pid);
+        return;
       }
     }
+    connectAdditionalProducer(pid);
   }
 
-  private static boolean verifyInstanceHash(Path instancePath)
+  private static void connectAdditionalProducer(ProducerId pid) {
+    try {
+      if (!verifyInstanceHash(pid)) {
+        connection.disconnect(pid);
+        return;
+      }
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, "Could not verify SAT instance", e);
+      connection.disconnect(pid);
+      return;
+    }
+    logger.log(Level.INFO, "Producer {0} connected", pid);
+    mediator.registerProducer(pid);
+    connection.connect(pid, mediator);
+  }
+
+  private static boolean verifyInstanceHash(ProducerId pid)
       throws IOException {
     if (pid.getType() != OfferType.SOLVER) {
       return true;
     }
-    long hash = Hashing.hashContent(Files.newInputStream(instancePath));
+    long hash;
+    synchronized (SYNC_OBJECT) {
+      if (instanceHash == null) {
+        instanceHash = Hashing.hashContent(Files.newInputStream(instancePath));
+      }
+      hash = instanceHash;
+    }
     SolverId sid = (SolverId) pid;
     if (hash != sid.getInstanceHash()) {
       logger.log(Level.SEVERE, "SAT instance mismatch: {0} (local) vs {1} (remote)",
@@ -363,7 +488,7 @@ public final class ConsumerApplication {
 
   }
 
-  private record InitialGraphInfo(int variables, ClauseUpdate[] clauses) {
+  private record InitialGraphInfo(int variables, WeightUpdate weights) {
 
   }
 }
@@ -1,5 +1,8 @@
 package edu.kit.satviz.consumer.config;
 
+import edu.kit.satviz.consumer.processing.BackpressurePolicy;
+import edu.kit.satviz.consumer.processing.ClauseBuffer;
+import edu.kit.satviz.consumer.processing.ClauseBufferImplementation;
 import edu.kit.satviz.consumer.processing.Heatmap;
 import edu.kit.satviz.consumer.processing.HeatmapImplementation;
 import edu.kit.satviz.consumer.processing.VariableInteractionGraph;
@@ -43,9 +46,17 @@ public class ConsumerConfig {
   public static final int MIN_CONTRACTION_ITERATIONS = 0;
   public static final int MAX_CONTRACTION_ITERATIONS = Integer.MAX_VALUE;
   public static final int DEFAULT_CONTRACTION_ITERATIONS = 0;
+  public static final int DEFAULT_PROCESSING_THREADS = 0;
+  public static final boolean DEFAULT_PARALLEL_VIG = false;
+  public static final int DEFAULT_INGESTION_QUEUE_SIZE = 1 << 16;
+  public static final BackpressurePolicy DEFAULT_BACKPRESSURE_POLICY = BackpressurePolicy.BLOCK;
+  public static final boolean DEFAULT_ASYNC_SNAPSHOTS = true;
+  public static final long DEFAULT_SNAPSHOT_REPLAY_MILLIS = 250;
+  public static final long DEFAULT_SNAPSHOT_BUDGET_MEGABYTES = 2048;
   public static final int STEP_AMOUNT_CONTRACTION_ITERATIONS = 1;
   public static final long DEFAULT_PERIOD = 33;
   public static final int DEFAULT_VIDEO_TIMEOUT = 60;
+  public static final int DEFAULT_MAX_PRODUCERS = 1;
   public static final ConsumerMode DEFAULT_CONSUMER_MODE = ConsumerMode.EXTERNAL;
   public static final double STEP_AMOUNT_FACTOR_PROCESSED_CLAUSES = 0.05;
 
@@ -65,9 +76,19 @@ public class ConsumerConfig {
   private int windowSize = DEFAULT_WINDOW_SIZE;
   private VariableInteractionGraphImplementation vigImplementation =
       VariableInteractionGraph.DEFAULT_IMPLEMENTATION;
+  private ClauseBufferImplementation clauseBufferImplementation =
+      ClauseBuffer.DEFAULT_IMPLEMENTATION;
   private int contractionIterations = DEFAULT_CONTRACTION_ITERATIONS;
+  private int processingThreads = DEFAULT_PROCESSING_THREADS;
+  private boolean parallelVig = DEFAULT_PARALLEL_VIG;
+  private int ingestionQueueSize = DEFAULT_INGESTION_QUEUE_SIZE;
+  private BackpressurePolicy backpressurePolicy = DEFAULT_BACKPRESSURE_POLICY;
+  private boolean asyncSnapshots = DEFAULT_ASYNC_SNAPSHOTS;
+  private long snapshotReplayMillis = DEFAULT_SNAPSHOT_REPLAY_MILLIS;
+  private long snapshotBudgetMegabytes = DEFAULT_SNAPSHOT_BUDGET_MEGABYTES;
   private long period = DEFAULT_PERIOD;
   private int videoTimeout = DEFAULT_VIDEO_TIMEOUT;
+  private int maxProducers = DEFAULT_MAX_PRODUCERS;
   private Theme theme = new Theme();
 
   /**
@@ -171,6 +192,16 @@ public class ConsumerConfig {
     this.vigImplementation = vigImplementation;
   }
 
+  /**
+   * Setter-method for the clause buffer implementation.
+   *
+   * @param clauseBufferImplementation The clause buffer implementation.
+   */
+  public void setClauseBufferImplementation(
+      ClauseBufferImplementation clauseBufferImplementation) {
+    this.clauseBufferImplementation = clauseBufferImplementation;
+  }
+
   /**
    * Setter-method for the number of iterations for the graph contraction.
    *
@@ -181,6 +212,76 @@ public class ConsumerConfig {
     this.contractionIterations = contractionIterations;
   }
 
+  /**
+   * Setter-method for the number of threads used to run the clause update processors.
+   *
+   * @param processingThreads The number of worker threads. If this is {@code 0}, the processors
+   *                          are run sequentially on the rendering thread.
+   */
+  public void setProcessingThreads(int processingThreads) {
+    this.processingThreads = processingThreads;
+  }
+
+  /**
+   * Setter-method for whether large batches of clause updates should be split up and processed
+   * in parallel by the variable interaction graph.
+   *
+   * @param parallelVig <i>true</i>, if the variable interaction graph should process in parallel,
+   *                    <br><i>false</i>, if not.
+   */
+  public void setParallelVig(boolean parallelVig) {
+    this.parallelVig = parallelVig;
+  }
+
+  /**
+   * Setter-method for the capacity of the queue between the network connection and the thread
+   * that stores incoming clause updates.
+   *
+   * @param ingestionQueueSize The capacity of the queue. If this is {@code 0}, clause updates are
+   *                           stored directly on the network thread.
+   */
+  public void setIngestionQueueSize(int ingestionQueueSize) {
+    this.ingestionQueueSize = ingestionQueueSize;
+  }
+
+  /**
+   * Setter-method for what happens to incoming clause updates when the ingestion queue is full.
+   *
+   * @param backpressurePolicy The backpressure policy.
+   */
+  public void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+    this.backpressurePolicy = backpressurePolicy;
+  }
+
+  /**
+   * Setter-method for whether snapshots should be written to disk in the background.
+   *
+   * @param asyncSnapshots <i>true</i>, if snapshots should be written in the background,
+   *                       <br><i>false</i>, if they should be written on the rendering thread.
+   */
+  public void setAsyncSnapshots(boolean asyncSnapshots) {
+    this.asyncSnapshots = asyncSnapshots;
+  }
+
+  /**
+   * Setter-method for the longest time in ms that seeking should take before a new snapshot is
+   * taken.
+   *
+   * @param snapshotReplayMillis The maximum replay time in ms.
+   */
+  public void setSnapshotReplayMillis(long snapshotReplayMillis) {
+    this.snapshotReplayMillis = snapshotReplayMillis;
+  }
+
+  /**
+   * Setter-method for the maximum disk space in MB that snapshots may take up.
+   *
+   * @param snapshotBudgetMegabytes The snapshot budget in MB.
+   */
+  public void setSnapshotBudgetMegabytes(long snapshotBudgetMegabytes) {
+    this.snapshotBudgetMegabytes = snapshotBudgetMegabytes;
+  }
+
   /**
    * Setter-method for the minimal time period in ms between advancing the animation.
    *
@@ -190,6 +291,17 @@ public class ConsumerConfig {
     this.period = period;
   }
 
+  /**
+   * Setter-method for the maximum number of producers whose clause updates are visualised.
+   * The clause updates of all producers are merged into a single timeline.
+   *
+   * @param maxProducers The maximum number of producers. Producers connecting after this number
+   *                     has been reached are ignored.
+   */
+  public void setMaxProducers(int maxProducers) {
+    this.maxProducers = maxProducers;
+  }
+
   /**
    * Getter-method for more settings set within an instance of
    * the <code>ConsumerModeConfig</code> class.
@@ -292,6 +404,15 @@ public class ConsumerConfig {
     return vigImplementation;
   }
 
+  /**
+   * Getter-method for the clause buffer implementation.
+   *
+   * @return The clause buffer implementation.
+   */
+  public ClauseBufferImplementation getClauseBufferImplementation() {
+    return clauseBufferImplementation;
+  }
+
   /**
    * Getter-method for the number of iterations for the graph contraction.
    *
@@ -301,6 +422,74 @@ public class ConsumerConfig {
     return contractionIterations;
   }
 
+  /**
+   * Getter-method for the number of threads used to run the clause update processors.
+   *
+   * @return The number of worker threads, {@code 0} meaning sequential processing.
+   */
+  public int getProcessingThreads() {
+    return processingThreads;
+  }
+
+  /**
+   * Getter-method for whether large batches of clause updates should be split up and processed
+   * in parallel by the variable interaction graph.
+   *
+   * @return <i>true</i>, if the variable interaction graph should process in parallel,<br>
+   *         <i>false</i>, if not.
+   */
+  public boolean isParallelVig() {
+    return parallelVig;
+  }
+
+  /**
+   * Getter-method for the capacity of the queue between the network connection and the thread
+   * that stores incoming clause updates.
+   *
+   * @return The capacity of the queue, {@code 0} meaning no queue is used.
+   */
+  public int getIngestionQueueSize() {
+    return ingestionQueueSize;
+  }
+
+  /**
+   * Getter-method for what happens to incoming clause updates when the ingestion queue is full.
+   *
+   * @return The backpressure policy.
+   */
+  public BackpressurePolicy getBackpressurePolicy() {
+    return backpressurePolicy;
+  }
+
+  /**
+   * Getter-method for whether snapshots should be written to disk in the background.
+   *
+   * @return <i>true</i>, if snapshots should be written in the background,<br>
+   *         <i>false</i>, if they should be written on the rendering thread.
+   */
+  public boolean isAsyncSnapshots() {
+    return asyncSnapshots;
+  }
+
+  /**
+   * Getter-method for the longest time in ms that seeking should take before a new snapshot is
+   * taken.
+   *
+   * @return The maximum replay time in ms.
+   */
+  public long getSnapshotReplayMillis() {
+    return snapshotReplayMillis;
+  }
+
+  /**
+   * Getter-method for the maximum disk space in MB that snapshots may take up.
+   *
+   * @return The snapshot budget in MB.
+   */
+  public long getSnapshotBudgetMegabytes() {
+    return snapshotBudgetMegabytes;
+  }
+
   /**
    * Getter-method for the minimal time period in ms between advancing the animation.
    *
@@ -310,6 +499,15 @@ public class ConsumerConfig {
     return period;
   }
 
+  /**
+   * Getter-method for the maximum number of producers whose clause updates are visualised.
+   *
+   * @return The maximum number of producers.
+   */
+  public int getMaxProducers() {
+    return maxProducers;
+  }
+
   public int getVideoTimeout() {
     return videoTimeout;
   }
@@ -338,16 +536,27 @@ public class ConsumerConfig {
         && Objects.equals(theme, config.theme)
         && heatmapImplementation == config.heatmapImplementation
         && vigImplementation == config.vigImplementation
+        && clauseBufferImplementation == config.clauseBufferImplementation
         && contractionIterations == config.contractionIterations
+        && processingThreads == config.processingThreads
+        && parallelVig == config.parallelVig
+        && ingestionQueueSize == config.ingestionQueueSize
+        && backpressurePolicy == config.backpressurePolicy
+        && asyncSnapshots == config.asyncSnapshots
+        && snapshotReplayMillis == config.snapshotReplayMillis
+        && snapshotBudgetMegabytes == config.snapshotBudgetMegabytes
         && period == config.period
-        && videoTimeout == config.videoTimeout;
+        && videoTimeout == config.videoTimeout
+        && maxProducers == config.maxProducers;
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(modeConfig, instancePath, noGui, videoTemplatePath,
         recordImmediately, bufferSize, weightFactor, heatmapImplementation, windowSize, theme,
-        vigImplementation, contractionIterations, period, videoTimeout);
+        vigImplementation, clauseBufferImplementation, contractionIterations, processingThreads,
+        parallelVig, ingestionQueueSize, backpressurePolicy, asyncSnapshots, snapshotReplayMillis,
+        snapshotBudgetMegabytes, period, videoTimeout, maxProducers);
   }
 
 }
@@ -21,6 +21,9 @@ public class ConsumerConstraint implements Constraint<ConsumerConfig> {
     if (config.getWindowSize() <= 0) {
       fail("Window size must be greater than 0");
     }
+    if (config.getMaxProducers() <= 0) {
+      fail("Maximum number of producers must be greater than 0");
+    }
 
     if (config.getInstancePath() == null) {
       fail("No instance is set");
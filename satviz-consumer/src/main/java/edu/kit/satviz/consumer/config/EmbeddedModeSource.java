@@ -17,7 +17,7 @@ public enum EmbeddedModeSource {
   /**
    * Use a finished proof as the source.
    */
-  PROOF(List.of(".drat", ".drat.xz"));
+  PROOF(List.of(".drat", ".drat.xz", ".drat.gz"));
 
   private final List<String> fileExtensions;
 
@@ -8,6 +8,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import jdk.incubator.foreign.CLinker;
 import jdk.incubator.foreign.FunctionDescriptor;
 import jdk.incubator.foreign.MemoryAddress;
@@ -60,8 +64,20 @@ public class Graph extends NativeObject {
 
   private static final MethodHandle DESERIALIZE = lookupFunction(
       "deserialize",
-      MethodType.methodType(void.class, MemoryAddress.class, MemoryAddress.class, long.class),
-      FunctionDescriptor.ofVoid(CLinker.C_POINTER, CLinker.C_POINTER, CLinker.C_LONG)
+      MethodType.methodType(int.class, MemoryAddress.class, MemoryAddress.class, long.class),
+      FunctionDescriptor.of(CLinker.C_INT, CLinker.C_POINTER, CLinker.C_POINTER, CLinker.C_LONG)
+  );
+
+  private static final MethodHandle SERIALIZE_TO_FILE = lookupFunction(
+      "serialize_to_file",
+      MethodType.methodType(int.class, MemoryAddress.class, MemoryAddress.class),
+      FunctionDescriptor.of(CLinker.C_INT, CLinker.C_POINTER, CLinker.C_POINTER)
+  );
+
+  private static final MethodHandle DESERIALIZE_FROM_FILE = lookupFunction(
+      "deserialize_from_file",
+      MethodType.methodType(int.class, MemoryAddress.class, MemoryAddress.class),
+      FunctionDescriptor.of(CLinker.C_INT, CLinker.C_POINTER, CLinker.C_POINTER)
   );
 
   private static final MethodHandle NUM_NODES = lookupFunction(
@@ -151,17 +167,28 @@ public class Graph extends NativeObject {
    * @see #deserialize(InputStream)
    */
   public void serialize(OutputStream stream) throws IOException {
+    try (SerializedGraph data = captureSnapshot()) {
+      stream.write(data.segment.toByteArray());
+    }
+  }
+
+  /**
+   * Serialize this graph into native memory, in the format of {@link #writeSnapshot(Path)}.
+   *
+   * <p>This only copies the graph on the native side, which is much cheaper than writing it
+   * to disk. The returned object can be written to a file later, on any thread, and must be
+   * closed to free the memory.
+   *
+   * @return The serialized graph.
+   */
+  public SerializedGraph captureSnapshot() {
     try (var localScope = ResourceScope.newConfinedScope()) {
       var segment = (MemorySegment) SERIALIZE.invokeExact(
           SegmentAllocator.ofScope(localScope), getPointer());
       long n = (long) SERIALIZED_DATA.varHandle("n").get(segment);
       MemoryAddress data = MemoryAddress.ofLong(
           (long) SERIALIZED_DATA.varHandle("data").get(segment));
-      byte[] byteData = data.asSegment(n, localScope).toByteArray();
-      stream.write(byteData);
-      CLinker.freeMemory(data);
-    } catch (IOException e) {
-      throw e;
+      return new SerializedGraph(data, n);
     } catch (Throwable e) {
       throw new NativeInvocationException("Error while serializing graph", e);
     }
@@ -180,7 +207,11 @@ public class Graph extends NativeObject {
       // TODO: 25/02/2022 figure out if this is a memory leak
       MemorySegment nativeBytes = MemorySegment.allocateNative(byteData.length, localScope);
       nativeBytes.copyFrom(MemorySegment.ofArray(byteData));
-      DESERIALIZE.invokeExact(getPointer(), nativeBytes.address(), (long) byteData.length);
+      int res = (int) DESERIALIZE.invokeExact(
+          getPointer(), nativeBytes.address(), (long) byteData.length);
+      if (res != 0) {
+        throw new IOException("Malformed graph representation");
+      }
     } catch (IOException e) {
       throw e;
     } catch (Throwable e) {
@@ -189,6 +220,57 @@ public class Graph extends NativeObject {
 
   }
 
+  /**
+   * Write a snapshot of this graph directly to a file.
+   *
+   * <p>The snapshot is written by native code in a compact binary format, without copying the
+   * data to the Java heap.
+   *
+   * @param file The file to write to. It is created or overwritten.
+   * @throws IOException if the file can't be written
+   * @see #readSnapshot(Path)
+   */
+  public void writeSnapshot(Path file) throws IOException {
+    try (var localScope = ResourceScope.newConfinedScope()) {
+      int res = (int) SERIALIZE_TO_FILE.invokeExact(
+          getPointer(),
+          CLinker.toCString(file.toString(), localScope).address()
+      );
+      if (res != 0) {
+        throw new IOException("Could not write graph snapshot to " + file);
+      }
+    } catch (IOException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new NativeInvocationException("Error while serializing graph", e);
+    }
+  }
+
+  /**
+   * Read a snapshot written by {@link #writeSnapshot(Path)} into this graph.
+   *
+   * <p>The snapshot replaces the contents of this graph. If the snapshot is invalid, this graph
+   * is left unchanged.
+   *
+   * @param file The file to read from.
+   * @throws IOException if the file can't be read or doesn't contain a valid snapshot
+   */
+  public void readSnapshot(Path file) throws IOException {
+    try (var localScope = ResourceScope.newConfinedScope()) {
+      int res = (int) DESERIALIZE_FROM_FILE.invokeExact(
+          getPointer(),
+          CLinker.toCString(file.toString(), localScope).address()
+      );
+      if (res != 0) {
+        throw new IOException("Could not read graph snapshot from " + file);
+      }
+    } catch (IOException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new NativeInvocationException("Error while deserializing graph representation", e);
+    }
+  }
+
   /**
    * Query how many nodes there are in the graph.
    *
@@ -262,4 +344,62 @@ public class Graph extends NativeObject {
   public void close() {
     destroy();
   }
+
+  /**
+   * A graph that has been serialized into native memory by {@link #captureSnapshot()}.
+   */
+  public static class SerializedGraph implements AutoCloseable {
+
+    private final MemoryAddress data;
+    private final MemorySegment segment;
+    private boolean closed = false;
+
+    // Only protected because of mockup
+    protected SerializedGraph(MemoryAddress data, long size) {
+      this.data = data;
+      // shared, so that the data can be written on another thread
+      this.segment = data.asSegment(size, ResourceScope.globalScope());
+    }
+
+    /**
+     * Returns the size of the serialized graph.
+     *
+     * @return the size in bytes.
+     */
+    public long size() {
+      return segment.byteSize();
+    }
+
+    /**
+     * Write the serialized graph to a file, which can then be read by
+     * {@link Graph#readSnapshot(Path)}.
+     *
+     * @param file The file to write to. It is created or overwritten.
+     * @throws IOException if the file can't be written
+     */
+    public void writeTo(Path file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        // a byte buffer can't hold more than Integer.MAX_VALUE bytes
+        for (long offset = 0; offset < segment.byteSize(); offset += Integer.MAX_VALUE) {
+          ByteBuffer buffer = segment.asSlice(offset,
+              Math.min(Integer.MAX_VALUE, segment.byteSize() - offset)).asByteBuffer();
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+        }
+      }
+    }
+
+    /**
+     * Free the native memory. The serialized graph can't be used afterwards.
+     */
+    @Override
+    public synchronized void close() {
+      if (!closed) {
+        closed = true;
+        CLinker.freeMemory(data);
+      }
+    }
+  }
 }
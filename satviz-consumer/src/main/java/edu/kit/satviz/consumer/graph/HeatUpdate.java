@@ -5,9 +5,8 @@ import edu.kit.satviz.consumer.bindings.NativeObject;
 import edu.kit.satviz.consumer.bindings.Struct;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodType;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.StringJoiner;
 import jdk.incubator.foreign.CLinker;
 import jdk.incubator.foreign.FunctionDescriptor;
 import jdk.incubator.foreign.MemoryAccess;
@@ -34,52 +33,143 @@ public final class HeatUpdate implements GraphUpdate {
       FunctionDescriptor.ofVoid(CLinker.C_POINTER, CLinker.C_POINTER)
   );
 
-  private final Map<Integer, Float> values = new HashMap<>();
+  private static final int EMPTY = -1;
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+  // open addressing hash table with linear probing. Empty slots are marked with EMPTY. The
+  // occupied slots are listed in insertion order, so clearing and iterating don't need to scan
+  // the whole table.
+  private int[] keys;
+  private float[] heatValues;
+  private int[] occupied;
+  private int size;
+  private int shift;
+
+  // native memory that is reused across submissions, freed when this object becomes unreachable
+  private MemorySegment nativeStruct;
+  private MemorySegment nativeIndices;
+  private MemorySegment nativeHeatValues;
+  private int nativeCapacity;
+
+  /**
+   * Create a new, empty {@code HeatUpdate}.
+   */
+  public HeatUpdate() {
+    allocateTable(DEFAULT_CAPACITY);
+  }
+
+  private void allocateTable(int capacity) {
+    keys = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    heatValues = new float[capacity];
+    // the table grows as soon as more than half of it is occupied
+    occupied = new int[(capacity >>> 1) + 1];
+    size = 0;
+    shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+  }
 
   /**
    * Add a node whose heat should be adjusted via this batch of updates.<br>
    * If there already is a heat value stored for the given index,
    * it will be replaced iff the given value is greater than the existing one.
    *
-   * @param index The index of the node to update
+   * @param index The (non-negative) index of the node to update
    * @param heat The new heat value, a value between 0.0f and 1.0f
    */
   public void add(int index, float heat) {
-    values.merge(index, heat, Float::max);
+    int slot = slot(index);
+    if (keys[slot] == index) {
+      heatValues[slot] = Math.max(heatValues[slot], heat);
+      return;
+    }
+    keys[slot] = index;
+    heatValues[slot] = heat;
+    occupied[size] = slot;
+    if (++size > keys.length >>> 1) {
+      grow();
+    }
+  }
+
+  /**
+   * Remove all nodes from this update. The internal storage is kept, so that this object can be
+   * reused for another batch of updates.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      keys[occupied[i]] = EMPTY;
+    }
+    size = 0;
+  }
+
+  /**
+   * Returns the amount of distinct nodes in this update.
+   *
+   * @return the size of this update.
+   */
+  public int size() {
+    return size;
+  }
+
+  // returns the slot containing the key or the empty slot where it would be inserted
+  private int slot(int key) {
+    int mask = keys.length - 1;
+    int slot = (key * HASH_MULTIPLIER) >>> shift;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    float[] oldHeatValues = heatValues;
+    int[] oldOccupied = occupied;
+    int oldSize = size;
+    allocateTable(oldKeys.length * 2);
+    for (int i = 0; i < oldSize; i++) {
+      int oldSlot = oldOccupied[i];
+      int slot = slot(oldKeys[oldSlot]);
+      keys[slot] = oldKeys[oldSlot];
+      heatValues[slot] = oldHeatValues[oldSlot];
+      occupied[size++] = slot;
+    }
   }
 
   @Override
   public void submitTo(Graph graph) {
-    if (values.isEmpty()) {
+    if (size == 0) {
       return;
     }
-    try (ResourceScope local = ResourceScope.newConfinedScope()) {
-      MemorySegment segment = toSegment(local);
-      SUBMIT_HEAT_UPDATE.invokeExact(graph.getPointer(), segment.address());
+    try {
+      SUBMIT_HEAT_UPDATE.invokeExact(graph.getPointer(), toSegment().address());
     } catch (Throwable e) {
       throw new NativeInvocationException("Error while submitting heat update", e);
     }
   }
 
-  private MemorySegment toSegment(ResourceScope scope) {
-    MemorySegment segment = STRUCT.allocateNew(scope);
-    int size = values.size();
-    MemorySegment indices = MemorySegment.allocateNative(
-        MemoryLayout.sequenceLayout(size, CLinker.C_INT), scope);
-    MemorySegment heatValues = MemorySegment.allocateNative(
-        MemoryLayout.sequenceLayout(size, CLinker.C_FLOAT), scope);
-    STRUCT.varHandle("n").set(segment, size);
-    STRUCT.varHandle("index").set(segment, indices.address().toRawLongValue());
-    STRUCT.varHandle("heat").set(segment, heatValues.address().toRawLongValue());
+  private MemorySegment toSegment() {
+    if (nativeCapacity < size) {
+      // implicit scopes are freed once the segments become unreachable
+      ResourceScope scope = ResourceScope.newImplicitScope();
+      nativeCapacity = Math.max(size, keys.length >>> 1);
+      nativeStruct = STRUCT.allocateNew(scope);
+      nativeIndices = MemorySegment.allocateNative(
+          MemoryLayout.sequenceLayout(nativeCapacity, CLinker.C_INT), scope);
+      nativeHeatValues = MemorySegment.allocateNative(
+          MemoryLayout.sequenceLayout(nativeCapacity, CLinker.C_FLOAT), scope);
+      STRUCT.varHandle("index").set(nativeStruct, nativeIndices.address().toRawLongValue());
+      STRUCT.varHandle("heat").set(nativeStruct, nativeHeatValues.address().toRawLongValue());
+    }
+    STRUCT.varHandle("n").set(nativeStruct, size);
     long intSize = CLinker.C_INT.byteSize();
     long floatSize = CLinker.C_FLOAT.byteSize();
-    int index = 0;
-    for (var entry : values.entrySet()) {
-      MemoryAccess.setIntAtOffset(indices, index * intSize, entry.getKey());
-      MemoryAccess.setFloatAtOffset(heatValues, index * floatSize, entry.getValue());
-      index++;
+    for (int i = 0; i < size; i++) {
+      int slot = occupied[i];
+      MemoryAccess.setIntAtOffset(nativeIndices, i * intSize, keys[slot]);
+      MemoryAccess.setFloatAtOffset(nativeHeatValues, i * floatSize, heatValues[slot]);
     }
-    return segment;
+    return nativeStruct;
   }
 
   @Override
@@ -91,16 +181,38 @@ public final class HeatUpdate implements GraphUpdate {
       return false;
     }
     HeatUpdate update = (HeatUpdate) o;
-    return Objects.equals(values, update.values);
+    if (size != update.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      int key = keys[occupied[i]];
+      int slot = update.slot(key);
+      if (update.keys[slot] != key
+          || Float.floatToIntBits(update.heatValues[slot])
+          != Float.floatToIntBits(heatValues[occupied[i]])) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(values);
+    int hash = 0;
+    for (int i = 0; i < size; i++) {
+      int slot = occupied[i];
+      hash += keys[slot] ^ Float.hashCode(heatValues[slot]);
+    }
+    return hash;
   }
 
   @Override
   public String toString() {
+    StringJoiner values = new StringJoiner(", ", "{", "}");
+    for (int i = 0; i < size; i++) {
+      int slot = occupied[i];
+      values.add(keys[slot] + "=" + heatValues[slot]);
+    }
     return "HeatUpdate{" + "values=" + values + '}';
   }
 }
@@ -5,9 +5,9 @@ import edu.kit.satviz.consumer.bindings.NativeObject;
 import edu.kit.satviz.consumer.bindings.Struct;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodType;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.function.IntUnaryOperator;
 import jdk.incubator.foreign.CLinker;
 import jdk.incubator.foreign.FunctionDescriptor;
 import jdk.incubator.foreign.MemoryAccess;
@@ -35,59 +35,193 @@ public final class WeightUpdate implements GraphUpdate {
       FunctionDescriptor.ofVoid(CLinker.C_POINTER, CLinker.C_POINTER)
   );
 
-  private final Map<Edge, Float> values = new HashMap<>();
+  private static final long EMPTY = -1L;
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  // open addressing hash table with linear probing. Keys are packed edges (index1 in the upper,
+  // index2 in the lower 32 bits), empty slots are marked with EMPTY. The occupied slots are
+  // listed in insertion order, so clearing and iterating don't need to scan the whole table.
+  private long[] keys;
+  private float[] weights;
+  private int[] occupied;
+  private int size;
+  private int shift;
+
+  // native memory that is reused across submissions, freed when this object becomes unreachable
+  private MemorySegment nativeStruct;
+  private MemorySegment nativeIndices1;
+  private MemorySegment nativeIndices2;
+  private MemorySegment nativeWeights;
+  private int nativeCapacity;
+
+  /**
+   * Create a new, empty {@code WeightUpdate}.
+   */
+  public WeightUpdate() {
+    allocateTable(DEFAULT_CAPACITY);
+  }
+
+  private void allocateTable(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    weights = new float[capacity];
+    // the table grows as soon as more than half of it is occupied
+    occupied = new int[(capacity >>> 1) + 1];
+    size = 0;
+    shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+  }
 
   /**
    * Add an edge whose weight should be adjusted via this batch of updates.
    * This method may be called multiple times for the same indices, in which case the new weight
    *     is added to the old value.
-   * Only call this method with ordered indices, i.e., <code>index1 < index2</code>.
+   * Only call this method with ordered, non-negative indices, i.e.,
+   *     <code>0 <= index1 < index2</code>.
    *
    * @param index1 One end of the edge
    * @param index2 The other end of the edge
    * @param weight The amount to add to the current edge weight
    */
   public void add(int index1, int index2, float weight) {
-    values.merge(new Edge(index1, index2), weight, Float::sum);
+    long key = pack(index1, index2);
+    int slot = slot(key);
+    if (keys[slot] == key) {
+      weights[slot] += weight;
+      return;
+    }
+    keys[slot] = key;
+    weights[slot] = weight;
+    occupied[size] = slot;
+    if (++size > keys.length >>> 1) {
+      grow();
+    }
+  }
+
+  /**
+   * Add all the weight deltas of another {@code WeightUpdate} to this one.
+   *
+   * @param other The other update.
+   */
+  public void addAll(WeightUpdate other) {
+    for (int i = 0; i < other.size; i++) {
+      int slot = other.occupied[i];
+      long key = other.keys[slot];
+      add((int) (key >>> 32), (int) key, other.weights[slot]);
+    }
+  }
+
+  /**
+   * Add all the weight deltas of another {@code WeightUpdate} to this one, after mapping the
+   *     indices of each of its edges. Edges that are mapped to the same edge are merged.
+   * This is used to move weights from one graph to a contracted version of it, without
+   *     computing them again.
+   *
+   * @param other The other update.
+   * @param indexMapping A mapping from the indices of {@code other} to the indices of this update.
+   */
+  public void addAll(WeightUpdate other, IntUnaryOperator indexMapping) {
+    for (int i = 0; i < other.size; i++) {
+      int slot = other.occupied[i];
+      long key = other.keys[slot];
+      add(indexMapping.applyAsInt((int) (key >>> 32)), indexMapping.applyAsInt((int) key),
+          other.weights[slot]);
+    }
+  }
+
+  /**
+   * Remove all edges from this update. The internal storage is kept, so that this object can be
+   * reused for another batch of updates.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      keys[occupied[i]] = EMPTY;
+    }
+    size = 0;
+  }
+
+  /**
+   * Returns the amount of distinct edges in this update.
+   *
+   * @return the size of this update.
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean contains(Edge edge) {
+    long key = pack(edge.index1(), edge.index2());
+    return keys[slot(key)] == key;
+  }
+
+  private static long pack(int index1, int index2) {
+    return ((long) index1 << 32) | (index2 & 0xffffffffL);
+  }
+
+  // returns the slot containing the key or the empty slot where it would be inserted
+  private int slot(long key) {
+    int mask = keys.length - 1;
+    int slot = (int) ((key * HASH_MULTIPLIER) >>> shift);
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    float[] oldWeights = weights;
+    int[] oldOccupied = occupied;
+    int oldSize = size;
+    allocateTable(oldKeys.length * 2);
+    for (int i = 0; i < oldSize; i++) {
+      int oldSlot = oldOccupied[i];
+      int slot = slot(oldKeys[oldSlot]);
+      keys[slot] = oldKeys[oldSlot];
+      weights[slot] = oldWeights[oldSlot];
+      occupied[size++] = slot;
+    }
   }
 
   @Override
   public void submitTo(Graph graph) {
-    if (values.isEmpty()) {
+    if (size == 0) {
       return;
     }
-    try (ResourceScope local = ResourceScope.newConfinedScope()) {
-      MemorySegment segment = toSegment(local);
-      SUBMIT_WEIGHT_UPDATE.invokeExact(graph.getPointer(), segment.address());
+    try {
+      SUBMIT_WEIGHT_UPDATE.invokeExact(graph.getPointer(), toSegment().address());
     } catch (Throwable e) {
       throw new NativeInvocationException("Error while submitting weight update", e);
     }
   }
 
-  private MemorySegment toSegment(ResourceScope scope) {
-    MemorySegment segment = STRUCT.allocateNew(scope);
-    int size = values.size();
-    MemorySegment indices1 = MemorySegment.allocateNative(
-        MemoryLayout.sequenceLayout(size, CLinker.C_INT), scope);
-    MemorySegment indices2 = MemorySegment.allocateNative(
-        MemoryLayout.sequenceLayout(size, CLinker.C_INT), scope);
-    MemorySegment weights = MemorySegment.allocateNative(
-        MemoryLayout.sequenceLayout(size, CLinker.C_FLOAT), scope);
-    STRUCT.varHandle("n").set(segment, size);
-    STRUCT.varHandle("index1").set(segment, indices1.address().toRawLongValue());
-    STRUCT.varHandle("index2").set(segment, indices2.address().toRawLongValue());
-    STRUCT.varHandle("weight").set(segment, weights.address().toRawLongValue());
+  private MemorySegment toSegment() {
+    if (nativeCapacity < size) {
+      // implicit scopes are freed once the segments become unreachable
+      ResourceScope scope = ResourceScope.newImplicitScope();
+      nativeCapacity = Math.max(size, keys.length >>> 1);
+      nativeStruct = STRUCT.allocateNew(scope);
+      nativeIndices1 = MemorySegment.allocateNative(
+          MemoryLayout.sequenceLayout(nativeCapacity, CLinker.C_INT), scope);
+      nativeIndices2 = MemorySegment.allocateNative(
+          MemoryLayout.sequenceLayout(nativeCapacity, CLinker.C_INT), scope);
+      nativeWeights = MemorySegment.allocateNative(
+          MemoryLayout.sequenceLayout(nativeCapacity, CLinker.C_FLOAT), scope);
+      STRUCT.varHandle("index1").set(nativeStruct, nativeIndices1.address().toRawLongValue());
+      STRUCT.varHandle("index2").set(nativeStruct, nativeIndices2.address().toRawLongValue());
+      STRUCT.varHandle("weight").set(nativeStruct, nativeWeights.address().toRawLongValue());
+    }
+    STRUCT.varHandle("n").set(nativeStruct, size);
     long intSize = CLinker.C_INT.byteSize();
     long floatSize = CLinker.C_FLOAT.byteSize();
-    int index = 0;
-    for (var entry : values.entrySet()) {
-      Edge edge = entry.getKey();
-      MemoryAccess.setIntAtOffset(indices1, index * intSize, edge.index1());
-      MemoryAccess.setIntAtOffset(indices2, index * intSize, edge.index2());
-      MemoryAccess.setFloatAtOffset(weights, index * floatSize, entry.getValue());
-      index++;
+    for (int i = 0; i < size; i++) {
+      int slot = occupied[i];
+      long key = keys[slot];
+      MemoryAccess.setIntAtOffset(nativeIndices1, i * intSize, (int) (key >>> 32));
+      MemoryAccess.setIntAtOffset(nativeIndices2, i * intSize, (int) key);
+      MemoryAccess.setFloatAtOffset(nativeWeights, i * floatSize, weights[slot]);
     }
-    return segment;
+    return nativeStruct;
   }
 
   @Override
@@ -99,20 +233,38 @@ public final class WeightUpdate implements GraphUpdate {
       return false;
     }
     WeightUpdate that = (WeightUpdate) o;
-    return Objects.equals(values, that.values);
-  }
-
-  public boolean contains(Edge edge) {
-    return values.containsKey(edge);
+    if (size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      long key = keys[occupied[i]];
+      int slot = that.slot(key);
+      if (that.keys[slot] != key || Float.floatToIntBits(that.weights[slot])
+          != Float.floatToIntBits(weights[occupied[i]])) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(values);
+    int hash = 0;
+    for (int i = 0; i < size; i++) {
+      int slot = occupied[i];
+      hash += Long.hashCode(keys[slot]) ^ Float.hashCode(weights[slot]);
+    }
+    return hash;
   }
 
   @Override
   public String toString() {
+    StringJoiner values = new StringJoiner(", ", "{", "}");
+    for (int i = 0; i < size; i++) {
+      int slot = occupied[i];
+      long key = keys[slot];
+      values.add(new Edge((int) (key >>> 32), (int) key) + "=" + weights[slot]);
+    }
     return "WeightUpdate{" + "values=" + values + '}';
   }
 }
@@ -168,7 +168,7 @@ public class GeneralConfigController extends ConfigController {
   private void selectSatInstanceFile() {
     FileChooser fileChooser = new FileChooser();
     var filter = new FileChooser.ExtensionFilter(
-        "SAT Instances", "*.cnf", "*.cnf.xz");
+        "SAT Instances", "*.cnf", "*.cnf.xz", "*.cnf.gz");
     fileChooser.getExtensionFilters().addAll(filter, GuiUtils.ALL_FILES);
 
     File file = fileChooser.showOpenDialog(null);
@@ -5,6 +5,10 @@ import edu.kit.satviz.consumer.config.Theme;
 import edu.kit.satviz.consumer.config.WeightFactor;
 import edu.kit.satviz.consumer.gui.GuiUtils;
 import edu.kit.satviz.consumer.processing.Mediator;
+import edu.kit.satviz.consumer.processing.ProducerTracker;
+import edu.kit.satviz.network.pub.ProducerId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
@@ -34,6 +38,8 @@ public class VisualizationController {
   private static final String PLAY_SYMBOL = "▶";
   private static final String PAUSE_SYMBOL = "⏸";
   private static final String TOTAL_CLAUSES_DELIMITER = "/ ";
+  private static final String ALL_PRODUCERS = "All";
+  private static final String PRODUCER_PREFIX = "Producer ";
 
   // ATTRIBUTES (FXML)
 
@@ -46,6 +52,8 @@ public class VisualizationController {
   @FXML
   private Spinner<Integer> windowSizeSpinner;
   @FXML
+  private ChoiceBox<String> heatmapProducerChoiceBox;
+  @FXML
   private ColorPicker coldColorColorPicker;
   @FXML
   private ColorPicker hotColorColorPicker;
@@ -77,6 +85,8 @@ public class VisualizationController {
 
   private final Mediator mediator;
   private final ConsumerConfig config;
+  // the producers that can be chosen in heatmapProducerChoiceBox, after the entry for all
+  private final List<ProducerId> heatmapProducers = new ArrayList<>();
 
   private boolean recording;
   private boolean recordingPaused;
@@ -128,6 +138,9 @@ public class VisualizationController {
 
     GuiUtils.setOnFocusLost(windowSizeSpinner, this::updateWindowSize);
 
+    heatmapProducerChoiceBox.setItems(FXCollections.observableArrayList(ALL_PRODUCERS));
+    heatmapProducerChoiceBox.setValue(ALL_PRODUCERS);
+
     Theme theme = config.getTheme();
     coldColorColorPicker.setValue(theme.getColdColor());
     hotColorColorPicker.setValue(theme.getHotColor());
@@ -188,6 +201,14 @@ public class VisualizationController {
     mediator.updateWindowSize(windowSizeSpinner.getValue());
   }
 
+  @FXML
+  private void updateHeatmapProducer() {
+    int index = heatmapProducerChoiceBox.getSelectionModel().getSelectedIndex();
+    if (index >= 0) {
+      mediator.showHeatmapOf(index == 0 ? null : heatmapProducers.get(index - 1));
+    }
+  }
+
   @FXML
   private void updateHeatmapColdColor() {
     mediator.updateHeatmapColdColor(coldColorColorPicker.getValue());
@@ -299,9 +320,17 @@ public class VisualizationController {
     long currentUpdate = mediator.currentUpdate();
     long amountToStepBy =
         (long) (ConsumerConfig.STEP_AMOUNT_FACTOR_PROCESSED_CLAUSES * totalUpdates);
+    List<ProducerTracker.Summary> producers = mediator.getProducerTracker().getSummaries();
 
     // execute on JavaFX application thread
     Platform.runLater(() -> {
+      // offer the heatmaps of producers that connected in the meantime
+      for (int i = heatmapProducers.size(); i < producers.size(); i++) {
+        ProducerId pid = producers.get(i).pid();
+        heatmapProducers.add(pid);
+        heatmapProducerChoiceBox.getItems().add(PRODUCER_PREFIX + pid.getId());
+      }
+
       // update spinner
       processedClausesSpinner.getEditor().textProperty().removeListener(
           processedClausesSpinnerLongValidationListener);
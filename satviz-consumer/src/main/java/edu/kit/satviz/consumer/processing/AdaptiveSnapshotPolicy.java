@@ -0,0 +1,83 @@
+package edu.kit.satviz.consumer.processing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * A {@link SnapshotPolicy} that places snapshots based on the time it takes to replay clause
+ * updates and keeps the total size of all snapshots within a budget.
+ *
+ * <p>A snapshot is taken as soon as seeking to the current update would take longer than a
+ * given amount of time. Whenever the snapshots exceed the budget, snapshots are discarded one by
+ * one, always choosing the one whose removal leaves the smallest gap between its neighbours.
+ * Gaps between older snapshots are weighted up to half as much as gaps between recent ones, so
+ * older snapshots are thinned out first, while the largest gap (and therefore the worst-case
+ * replay distance) stays within about twice that of an even spacing with the same number of
+ * snapshots.
+ * The first and the most recent snapshot are always kept.
+ */
+public class AdaptiveSnapshotPolicy implements SnapshotPolicy {
+
+  private final long maxReplayNanos;
+  private final long maxBytes;
+
+  /**
+   * Create a new {@code AdaptiveSnapshotPolicy}.
+   *
+   * @param maxReplayNanos The replay time in nanoseconds after which a snapshot is taken.
+   * @param maxBytes The maximum total size of all snapshots in bytes.
+   */
+  public AdaptiveSnapshotPolicy(long maxReplayNanos, long maxBytes) {
+    if (maxReplayNanos < 1 || maxBytes < 1) {
+      throw new IllegalArgumentException("Replay time and snapshot budget must be positive");
+    }
+    this.maxReplayNanos = maxReplayNanos;
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public boolean shouldTakeSnapshot(long replayDistance, long replayNanos) {
+    return replayDistance > 0 && replayNanos >= maxReplayNanos;
+  }
+
+  @Override
+  public Collection<Long> selectEvictions(NavigableMap<Long, Long> snapshotSizes) {
+    long total = 0;
+    for (long size : snapshotSizes.values()) {
+      total += size;
+    }
+    if (total <= maxBytes) {
+      return List.of();
+    }
+
+    List<Long> indices = new ArrayList<>(snapshotSizes.size());
+    List<Long> sizes = new ArrayList<>(snapshotSizes.size());
+    for (Map.Entry<Long, Long> entry : snapshotSizes.entrySet()) {
+      indices.add(entry.getKey());
+      sizes.add(entry.getValue());
+    }
+    long latest = indices.get(indices.size() - 1);
+    List<Long> evictions = new ArrayList<>();
+    while (total > maxBytes && indices.size() > 2) {
+      int best = -1;
+      double bestScore = Double.POSITIVE_INFINITY;
+      for (int i = 1; i < indices.size() - 1; i++) {
+        long gap = indices.get(i + 1) - indices.get(i - 1);
+        // between 0 for the most recent and 1 for the oldest snapshots
+        double age = (double) (latest - indices.get(i)) / Math.max(latest, 1);
+        double score = gap / (1 + age);
+        if (score < bestScore) {
+          bestScore = score;
+          best = i;
+        }
+      }
+      evictions.add(indices.remove(best));
+      total -= sizes.remove(best);
+    }
+    return evictions;
+  }
+
+}
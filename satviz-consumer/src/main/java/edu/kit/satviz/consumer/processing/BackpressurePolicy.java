@@ -0,0 +1,19 @@
+package edu.kit.satviz.consumer.processing;
+
+/**
+ * Enumerates the ways a {@link ClauseIngestor} can react when its queue is full.
+ */
+public enum BackpressurePolicy {
+
+  /** Wait until the ingestion thread has made room in the queue. */
+  BLOCK,
+  /** Discard the clause update. */
+  DROP,
+  /**
+   * Move the clause update to an overflow queue in memory. The overflow queue holds at most
+   * {@value ClauseIngestor#SPILL_FACTOR} times the capacity of the queue. If it is full as well,
+   * wait like {@link #BLOCK}.
+   */
+  SPILL
+
+}
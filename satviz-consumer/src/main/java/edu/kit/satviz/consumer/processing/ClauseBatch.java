@@ -0,0 +1,292 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reusable, columnar sequence of {@link ClauseUpdate}s.
+ *
+ * <p>Instead of one object per clause update, a {@code ClauseBatch} stores the literals of all
+ * its clauses in a single flat array. A second array contains the offset at which each clause
+ * begins, and a third one the type of each clause update. This allows large amounts of clause
+ * updates to be read and processed without allocating objects for each of them. Every clause
+ * update also has a source, which identifies the producer it was received from.
+ *
+ * <p>A batch can be {@link #clear() cleared} and refilled as often as needed; its internal arrays
+ * grow on demand and are kept across uses.
+ *
+ * <p>This class is not thread safe.
+ */
+public final class ClauseBatch {
+
+  /** The source of clause updates that don't belong to a specific producer. */
+  public static final int NO_SOURCE = 0;
+
+  private static final byte ADD_ID = ClauseUpdate.Type.ADD.getId();
+  private static final int DEFAULT_CLAUSE_CAPACITY = 16;
+  private static final int DEFAULT_LITERAL_CAPACITY = 64;
+
+  private int[] literals;
+  // offsets[i] is the index of the first literal of clause i. offsets[size] is the end.
+  private int[] offsets;
+  private byte[] types;
+  private int[] sources;
+  private int size;
+
+  /**
+   * Create a new, empty {@code ClauseBatch}.
+   */
+  public ClauseBatch() {
+    this(DEFAULT_CLAUSE_CAPACITY, DEFAULT_LITERAL_CAPACITY);
+  }
+
+  /**
+   * Create a new, empty {@code ClauseBatch} with the given initial capacities.
+   *
+   * @param clauseCapacity The amount of clause updates this batch can hold before growing.
+   * @param literalCapacity The amount of literals this batch can hold before growing.
+   */
+  public ClauseBatch(int clauseCapacity, int literalCapacity) {
+    this.literals = new int[Math.max(literalCapacity, 1)];
+    this.offsets = new int[Math.max(clauseCapacity, 1) + 1];
+    this.types = new byte[Math.max(clauseCapacity, 1)];
+    this.sources = new int[types.length];
+    this.size = 0;
+  }
+
+  /**
+   * Create a new {@code ClauseBatch} containing the given clause updates.
+   *
+   * @param updates The clause updates.
+   * @return a new {@code ClauseBatch}
+   */
+  public static ClauseBatch of(ClauseUpdate... updates) {
+    int literalAmount = 0;
+    for (ClauseUpdate update : updates) {
+      literalAmount += update.clause().literals().length;
+    }
+    ClauseBatch batch = new ClauseBatch(updates.length, literalAmount);
+    for (ClauseUpdate update : updates) {
+      batch.add(update);
+    }
+    return batch;
+  }
+
+  /**
+   * Remove all clause updates from this batch. The internal storage is kept.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Append a clause update to this batch.
+   *
+   * @param update The clause update.
+   */
+  public void add(ClauseUpdate update) {
+    add(update.type(), update.clause().literals());
+  }
+
+  /**
+   * Append a clause update to this batch.
+   *
+   * @param type The type of the clause update.
+   * @param clause The literals of the clause. The array is copied.
+   */
+  public void add(ClauseUpdate.Type type, int... clause) {
+    add(type, clause, 0, clause.length);
+  }
+
+  /* Appends a clause update of another batch, including its source. */
+  void add(ClauseBatch batch, int index) {
+    add(batch.getType(index), batch.literals, batch.offsets[index], batch.offsets[index + 1]);
+    sources[size - 1] = batch.sources[index];
+  }
+
+  private void add(ClauseUpdate.Type type, int[] clause, int from, int to) {
+    beginClause(type);
+    int start = offsets[size];
+    ensureLiteralCapacity(start + to - from);
+    System.arraycopy(clause, from, literals, start, to - from);
+    offsets[size + 1] = start + to - from;
+    endClause();
+  }
+
+  /* Begins a new clause update. Its literals can then be added one by one using addLiteral(int).
+     The clause is only part of the batch after endClause() has been called. */
+  void beginClause(ClauseUpdate.Type type) {
+    if (size == types.length) {
+      int newCapacity = types.length * 2;
+      types = Arrays.copyOf(types, newCapacity);
+      sources = Arrays.copyOf(sources, newCapacity);
+      offsets = Arrays.copyOf(offsets, newCapacity + 1);
+    }
+    types[size] = type.getId();
+    sources[size] = NO_SOURCE;
+    offsets[size + 1] = offsets[size];
+  }
+
+  void addLiteral(int literal) {
+    int end = offsets[size + 1];
+    if (end == literals.length) {
+      ensureLiteralCapacity(end + 1);
+    }
+    literals[end] = literal;
+    offsets[size + 1] = end + 1;
+  }
+
+  void endClause() {
+    size++;
+  }
+
+  private void ensureLiteralCapacity(int capacity) {
+    if (capacity > literals.length) {
+      literals = Arrays.copyOf(literals, Math.max(capacity, literals.length * 2));
+    }
+  }
+
+  /**
+   * Returns the amount of clause updates in this batch.
+   *
+   * @return the size of this batch.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the type of a clause update.
+   *
+   * @param index The index of the clause update in this batch.
+   * @return The type of the clause update.
+   */
+  public ClauseUpdate.Type getType(int index) {
+    Objects.checkIndex(index, size);
+    return types[index] == ADD_ID ? ClauseUpdate.Type.ADD : ClauseUpdate.Type.REMOVE;
+  }
+
+  /**
+   * Returns the source of a clause update, i.e. the producer it was received from.
+   *
+   * @param index The index of the clause update in this batch.
+   * @return The source, or {@link #NO_SOURCE} if it is unknown.
+   */
+  public int getSource(int index) {
+    Objects.checkIndex(index, size);
+    return sources[index];
+  }
+
+  /* Sets the source of a clause update, used when the batch is read from a clause buffer. */
+  void setSource(int index, int source) {
+    sources[index] = source;
+  }
+
+  /**
+   * Returns the amount of literals in the clause of a clause update.
+   *
+   * @param index The index of the clause update in this batch.
+   * @return The length of the clause.
+   */
+  public int getClauseLength(int index) {
+    Objects.checkIndex(index, size);
+    return offsets[index + 1] - offsets[index];
+  }
+
+  /**
+   * Returns a single literal of the clause of a clause update.
+   *
+   * @param index The index of the clause update in this batch.
+   * @param literalIndex The index of the literal in the clause.
+   * @return The literal.
+   */
+  public int getLiteral(int index, int literalIndex) {
+    Objects.checkIndex(literalIndex, getClauseLength(index));
+    return literals[offsets[index] + literalIndex];
+  }
+
+  /**
+   * Copies the literals of the clause of a clause update to an array.
+   *
+   * @param index The index of the clause update in this batch.
+   * @param dest The destination array. It needs to be at least as long as the clause.
+   * @return The amount of literals copied, i.e. the length of the clause.
+   */
+  public int copyLiterals(int index, int[] dest) {
+    int length = getClauseLength(index);
+    System.arraycopy(literals, offsets[index], dest, 0, length);
+    return length;
+  }
+
+  /**
+   * Materialises the clause of a clause update as a new {@link Clause} object.
+   *
+   * @param index The index of the clause update in this batch.
+   * @return The clause.
+   */
+  public Clause getClause(int index) {
+    Objects.checkIndex(index, size);
+    return new Clause(Arrays.copyOfRange(literals, offsets[index], offsets[index + 1]));
+  }
+
+  /**
+   * Materialises a clause update of this batch as a new {@link ClauseUpdate} object.
+   *
+   * @param index The index of the clause update in this batch.
+   * @return The clause update.
+   */
+  public ClauseUpdate get(int index) {
+    return new ClauseUpdate(getClause(index), getType(index));
+  }
+
+  /**
+   * Materialises all clause updates of this batch.
+   *
+   * @return A new array containing the clause updates of this batch, in order.
+   */
+  public ClauseUpdate[] toClauseUpdates() {
+    ClauseUpdate[] updates = new ClauseUpdate[size];
+    for (int i = 0; i < size; i++) {
+      updates[i] = get(i);
+    }
+    return updates;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ClauseBatch that = (ClauseBatch) o;
+    return size == that.size
+        && Arrays.equals(types, 0, size, that.types, 0, size)
+        && Arrays.equals(sources, 0, size, that.sources, 0, size)
+        && Arrays.equals(offsets, 0, size + 1, that.offsets, 0, size + 1)
+        && Arrays.equals(literals, 0, offsets[size], that.literals, 0, offsets[size]);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = size;
+    for (int i = 0; i < size; i++) {
+      result = 31 * result + types[i];
+      result = 31 * result + sources[i];
+      result = 31 * result + offsets[i + 1];
+    }
+    for (int i = 0; i < offsets[size]; i++) {
+      result = 31 * result + literals[i];
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ClauseBatch" + Arrays.toString(toClauseUpdates());
+  }
+
+}
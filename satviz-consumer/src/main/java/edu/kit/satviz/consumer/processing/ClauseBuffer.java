@@ -0,0 +1,120 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.SerializationException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * An append-only, ranged random access storage for {@link ClauseUpdate}s.
+ *
+ * @see ClauseBufferImplementation
+ */
+public interface ClauseBuffer extends AutoCloseable {
+
+  ClauseBufferImplementation DEFAULT_IMPLEMENTATION = ClauseBufferImplementation.FILE_STREAM;
+
+  /**
+   * Add a clause update to this buffer.
+   *
+   * @param update the {@link ClauseUpdate}.
+   * @throws IOException if the update can't be stored due to an I/O error.
+   */
+  void addClauseUpdate(ClauseUpdate update) throws IOException;
+
+  /**
+   * Add a range of clause updates to this buffer, in order.
+   *
+   * <p>This is equivalent to calling {@link #addClauseUpdate(ClauseUpdate)} for each update, but
+   * implementations may store the updates more efficiently.
+   *
+   * @param updates An array containing the clause updates.
+   * @param offset The index of the first update to add.
+   * @param length The amount of updates to add.
+   * @throws IOException if the updates can't be stored due to an I/O error.
+   * @throws IndexOutOfBoundsException if the range is out of bounds of {@code updates}.
+   */
+  default void addClauseUpdates(ClauseUpdate[] updates, int offset, int length)
+      throws IOException {
+    Objects.checkFromIndexSize(offset, length, updates.length);
+    for (int i = offset; i < offset + length; i++) {
+      addClauseUpdate(updates[i]);
+    }
+  }
+
+  /**
+   * Get a number of clause updates starting from a specific index.
+   *
+   * <p>This method is <em>lenient</em>: If the {@code index} is valid but the number of clauses
+   * requested is more than this buffer holds after the index, it reads the maximum amount of clause
+   * updates possible.<br>
+   * E.g., for {@link #size()} {@code == 4}, {@code index == 1} and {@code numUpdates == 6},
+   * 3 clause updates will be read.
+   *
+   * @param index The index of the first clause
+   * @param numUpdates The number of clause updates to read, starting from {@code index}
+   * @return An array of {@link ClauseUpdate}s. As explained in the summary, it is not guaranteed to
+   *         be of length {@code numUpdates}.
+   * @throws IOException if an I/O error occurs.
+   * @throws SerializationException If a clause update cannot be deserialised.
+   *                                This can only happen if the files used by the implementation
+   *                                are modified from the outside.
+   * @throws IndexOutOfBoundsException if {@code index >=} {@link #size()} or {@code index < 0}
+   * @throws IllegalArgumentException if {@code numUpdates < 0}
+   */
+  ClauseUpdate[] getClauseUpdates(long index, int numUpdates)
+      throws IOException, SerializationException;
+
+  /**
+   * Read a number of clause updates starting from a specific index into a {@link ClauseBatch}.
+   *
+   * <p>The batch is {@link ClauseBatch#clear() cleared} first. Like
+   * {@link #getClauseUpdates(long, int)}, this method is lenient regarding {@code numUpdates}.
+   *
+   * @param index The index of the first clause
+   * @param numUpdates The number of clause updates to read, starting from {@code index}
+   * @param batch The batch to fill.
+   * @return The amount of clause updates actually read.
+   * @throws IOException if an I/O error occurs.
+   * @throws SerializationException If a clause update cannot be deserialised.
+   * @throws IndexOutOfBoundsException if {@code index >=} {@link #size()} or {@code index < 0}
+   * @throws IllegalArgumentException if {@code numUpdates < 0}
+   * @see #getClauseUpdates(long, int)
+   */
+  int readClauseUpdates(long index, int numUpdates, ClauseBatch batch)
+      throws IOException, SerializationException;
+
+  /**
+   * Returns the number of clause updates stored in this buffer.
+   *
+   * @return the size of this buffer.
+   */
+  long size();
+
+  /**
+   * Closes this buffer.<br>
+   * After performing this operation, this buffer must not be used anymore.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  void close() throws IOException;
+
+  /**
+   * Create a new, empty buffer of the given implementation.
+   *
+   * @param implementation The kind of buffer to create.
+   * @param dir The directory where the data will be stored.
+   * @return a new {@code ClauseBuffer}
+   * @throws IOException if an I/O error occurs.
+   */
+  static ClauseBuffer create(ClauseBufferImplementation implementation, Path dir)
+      throws IOException {
+    return switch (implementation) {
+      case FILE_STREAM -> new ExternalClauseBuffer(dir);
+      case MEMORY_MAPPED -> new MappedClauseBuffer(dir);
+    };
+  }
+
+}
@@ -0,0 +1,11 @@
+package edu.kit.satviz.consumer.processing;
+
+/**
+ * Enumerates all the implementations of a {@link ClauseBuffer}.
+ */
+public enum ClauseBufferImplementation {
+
+  FILE_STREAM,
+  MEMORY_MAPPED
+
+}
@@ -1,12 +1,15 @@
 package edu.kit.satviz.consumer.processing;
 
 import edu.kit.satviz.consumer.graph.Graph;
+import edu.kit.satviz.consumer.graph.GraphUpdate;
 import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.serial.SerializationException;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -14,18 +17,33 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntUnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A class that manages incoming {@link ClauseUpdate}s. A {@code ClauseCoordinator}
  * <ul>
- *   <li>stores clause updates sequentially in an {@link ExternalClauseBuffer}</li>
+ *   <li>stores clause updates sequentially in a {@link ClauseBuffer}, along with the source
+ *   (producer) of each update</li>
  *   <li>manages snapshots of {@link ClauseUpdateProcessor}s and {@link Graph}s</li>
  *   <li>calls registered {@link ClauseUpdateProcessor}s when visualization is advanced</li>
  *   <li>holds a cursor pointing to the most recently processed clause update</li>
@@ -33,8 +51,9 @@ import java.util.function.IntUnaryOperator;
  *
  * <p><strong>Snapshots</strong> can be created via {@link #takeSnapshot()}, which will serialise
  * the current state of the graph and the currently registered {@link ClauseUpdateProcessor}s
- * to a temporary file. When {@link #seekToUpdate(long)} is used, the snapshot closest to the
- * desired index will be deserialised and loaded.
+ * to temporary files. When {@link #seekToUpdate(long)} is used, the snapshot closest to the
+ * desired index will be deserialised and loaded. {@link #takeSnapshotIfDue()} leaves the decision
+ * when to take a snapshot, and which snapshots to keep, to a {@link SnapshotPolicy}.
  *
  * <p>Instances of this class hold closeable resources. It should therefore be ensured that
  * {@code ClauseCoordinator}s are {@link #close() closed} after usage.
@@ -43,12 +62,24 @@ import java.util.function.IntUnaryOperator;
  */
 public class ClauseCoordinator implements AutoCloseable {
 
+  /** The snapshot period of the default {@link FixedSnapshotPolicy}. */
+  public static final long DEFAULT_SNAPSHOT_PERIOD = 5000;
+
+  private static final Logger logger = Logger.getLogger("ClauseCoordinator");
+  // weight of the most recent measurement in the moving average of the replay cost
+  private static final double REPLAY_COST_SMOOTHING = 0.1;
+
   private final Path tempDir;
   private final Path snapshotDir;
   private final TreeMap<Long, Snapshot> snapshots;
   private final List<ClauseUpdateProcessor> processors;
   private final Graph graph;
-  private final ExternalClauseBuffer buffer;
+  private final ClauseBuffer buffer;
+  private final ClauseSources sources;
+  // reused for every advancement, guarded by stateLock
+  private final ClauseBatch batch;
+  // guarded by validationLock
+  private final ClauseValidator validator;
 
   // snapshotLock provides mutual exclusion for snapshot creation and loading
   private final ReentrantLock snapshotLock;
@@ -57,14 +88,26 @@ public class ClauseCoordinator implements AutoCloseable {
   // processorLock provides mutual exclusion for addProcessor and takeSnapshot to coordinate
   // change detection in the list of processors. it is not needed to access the list elsewhere.
   private final ReentrantLock processorLock;
-  private final int variableAmount;
+  private final ReentrantLock validationLock;
   private final IntUnaryOperator nodeMapping;
+  private final Set<CompletableFuture<Void>> pendingSnapshots;
+  private final AtomicLong snapshotCount;
+  private final AtomicLong captureNanos;
+  private final AtomicLong persistNanos;
 
   // currentUpdate is volatile, even though the stateLock prevents concurrent modification already.
   // this is because while updates to currentUpdate need to be consistent and coordinated,
   // concurrent reads are legal. to ensure a consistent and up-to-date view of currentUpdate, it is
   // therefore marked volatile.
   private volatile long currentUpdate;
+  private volatile ExecutorService processingExecutor;
+  private volatile Executor snapshotExecutor;
+  private volatile SnapshotPolicy snapshotPolicy;
+  // moving average of the time it takes to advance by one clause update
+  private volatile double replayNanosPerUpdate;
+  // the index of the most recently taken snapshot, which may not be written yet.
+  // guarded by snapshotLock
+  private long lastSnapshotIndex;
 
   /**
    * Create a new {@code ClauseCoordinator}.
@@ -77,10 +120,27 @@ public class ClauseCoordinator implements AutoCloseable {
    */
   public ClauseCoordinator(
       Graph graph, Path tempDir, int variableAmount, IntUnaryOperator nodeMapping
+  ) throws IOException {
+    this(graph, tempDir, variableAmount, nodeMapping, ClauseBuffer.DEFAULT_IMPLEMENTATION);
+  }
+
+  /**
+   * Create a new {@code ClauseCoordinator} that stores its clause updates in a specific kind of
+   * {@link ClauseBuffer}.
+   *
+   * @param graph The underlying graph
+   * @param tempDir The directory where the internal files used by this class will be stored.
+   * @param variableAmount The amount of variables in the corresponding SAT instance.
+   * @param nodeMapping A mapping from variables to nodes.
+   * @param bufferImplementation The implementation of the clause buffer to use.
+   * @throws IOException If there is an I/O error while setting up the internal files
+   */
+  public ClauseCoordinator(
+      Graph graph, Path tempDir, int variableAmount, IntUnaryOperator nodeMapping,
+      ClauseBufferImplementation bufferImplementation
   ) throws IOException {
     this.graph = graph;
     this.tempDir = tempDir;
-    this.variableAmount = variableAmount;
     this.nodeMapping = nodeMapping;
 
     this.snapshotDir = Files.createTempDirectory(tempDir, "satviz-snapshots");
@@ -88,12 +148,23 @@ public class ClauseCoordinator implements AutoCloseable {
     this.snapshots = new TreeMap<>();
     this.processors = new CopyOnWriteArrayList<>();
     this.currentUpdate = 0;
-    this.buffer = new ExternalClauseBuffer(tempDir);
+    this.buffer = ClauseBuffer.create(bufferImplementation, tempDir);
+    this.sources = new ClauseSources();
+    this.batch = new ClauseBatch();
     this.snapshotLock = new ReentrantLock();
     this.stateLock = new ReentrantLock();
     this.processorLock = new ReentrantLock();
+    this.validationLock = new ReentrantLock();
+    this.validator = new ClauseValidator(variableAmount);
+    this.pendingSnapshots = ConcurrentHashMap.newKeySet();
+    this.snapshotCount = new AtomicLong();
+    this.captureNanos = new AtomicLong();
+    this.persistNanos = new AtomicLong();
+    this.snapshotPolicy = new FixedSnapshotPolicy(DEFAULT_SNAPSHOT_PERIOD);
+    this.replayNanosPerUpdate = 0;
+    this.lastSnapshotIndex = 0;
     // so the initial snapshot has something to compare the processor list against
-    this.snapshots.put(0L, new Snapshot(null, new ClauseUpdateProcessor[0]));
+    this.snapshots.put(0L, new Snapshot(null, null, new ClauseUpdateProcessor[0], 0));
     // take initial snapshot to have a baseline in the snapshots TreeMap
     takeSnapshot();
   }
@@ -208,15 +279,28 @@ public class ClauseCoordinator implements AutoCloseable {
     stateLock.lock();
     int actual;
     try {
-      ClauseUpdate[] updates = buffer.getClauseUpdates(currentUpdate, numUpdates);
-      actual = updates.length;
-      for (ClauseUpdateProcessor processor : processors) {
-        graph.submitUpdate(processor.process(updates, graph, nodeMapping));
+      long start = System.nanoTime();
+      actual = buffer.readClauseUpdates(currentUpdate, numUpdates, batch);
+      sources.fill(currentUpdate, batch);
+      ExecutorService executor = processingExecutor;
+      if (executor == null || processors.size() < 2) {
+        for (ClauseUpdateProcessor processor : processors) {
+          graph.submitUpdate(processor.process(batch, graph, nodeMapping));
+        }
+      } else {
+        processConcurrently(executor);
       }
       // this operation is not atomic although currentUpdate is volatile.
       // However, this is no problem because write access to currentUpdate is always coordinated
       // using stateLock.
-      currentUpdate += updates.length;
+      currentUpdate += actual;
+      if (actual > 0) {
+        double nanosPerUpdate = (double) (System.nanoTime() - start) / actual;
+        replayNanosPerUpdate = (replayNanosPerUpdate == 0)
+            ? nanosPerUpdate
+            : (1 - REPLAY_COST_SMOOTHING) * replayNanosPerUpdate
+                + REPLAY_COST_SMOOTHING * nanosPerUpdate;
+      }
     } finally {
       stateLock.unlock();
       snapshotLock.unlock();
@@ -224,10 +308,135 @@ public class ClauseCoordinator implements AutoCloseable {
     return actual;
   }
 
+  // runs all processors on the executor, but submits their updates in registration order
+  private void processConcurrently(ExecutorService executor) {
+    List<Future<GraphUpdate>> results = new ArrayList<>(processors.size());
+    for (ClauseUpdateProcessor processor : processors) {
+      results.add(executor.submit(() -> processor.process(batch, graph, nodeMapping)));
+    }
+    // all processors need to be finished before returning because the batch is reused.
+    // interrupts are therefore deferred until all results are available.
+    GraphUpdate[] updates = new GraphUpdate[results.size()];
+    Throwable failure = null;
+    boolean interrupted = false;
+    for (int i = 0; i < updates.length; i++) {
+      while (true) {
+        try {
+          updates[i] = results.get(i).get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          failure = (failure == null) ? e.getCause() : failure;
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    } else if (failure instanceof Error error) {
+      throw error;
+    } else if (failure != null) {
+      throw new IllegalStateException("Unexpected exception while processing", failure);
+    }
+    for (GraphUpdate update : updates) {
+      graph.submitUpdate(update);
+    }
+  }
+
+  /**
+   * Set the executor that is used to run the registered processors when advancing.
+   *
+   * <p>If an executor is set, all processors work on the same clause updates concurrently.
+   * Their resulting {@link GraphUpdate}s are still submitted to the graph in the order in which
+   * the processors were added, on the thread that advances this coordinator. The processors
+   * therefore need to be independent of each other.<br>
+   * If no executor is set (the default), the processors are run one after another on the
+   * advancing thread.
+   *
+   * <p>This coordinator does not shut down the executor.
+   *
+   * @param executor The executor, or {@code null} to process sequentially.
+   */
+  public void setProcessingExecutor(ExecutorService executor) {
+    this.processingExecutor = executor;
+  }
+
+  /**
+   * Set the executor that is used to write snapshots to disk.
+   *
+   * <p>If an executor is set, {@link #takeSnapshot()} only captures the state of the graph and
+   * the processors in memory. Writing it to disk happens on the executor, and the snapshot can
+   * only be used by {@link #seekToUpdate(long)} once it has been written.<br>
+   * If no executor is set (the default), snapshots are written on the calling thread.
+   *
+   * <p>This coordinator does not shut down the executor, but {@link #close()} waits for all
+   * snapshots that are still being written.
+   *
+   * @param executor The executor, or {@code null} to write snapshots synchronously.
+   */
+  public void setSnapshotExecutor(Executor executor) {
+    this.snapshotExecutor = executor;
+  }
+
+  /**
+   * Set the policy that decides when snapshots are taken by {@link #takeSnapshotIfDue()} and which
+   * snapshots are kept.
+   *
+   * <p>By default, a {@link FixedSnapshotPolicy} with a period of
+   * {@value #DEFAULT_SNAPSHOT_PERIOD} clause updates is used.
+   *
+   * @param policy The snapshot policy.
+   */
+  public void setSnapshotPolicy(SnapshotPolicy policy) {
+    this.snapshotPolicy = Objects.requireNonNull(policy);
+  }
+
+  /**
+   * Take a snapshot at the {@link #currentUpdate() current update} if the
+   * {@link #setSnapshotPolicy(SnapshotPolicy) snapshot policy} decides that one is due.
+   *
+   * <p>The policy is given the distance from the closest preceding snapshot to the current update,
+   * and an estimate of how long it would take to replay it. The estimate is based on the time
+   * it has recently taken to advance this coordinator.
+   *
+   * @return <i>true</i>, if a snapshot was taken,<br>
+   *         <i>false</i>, if not.
+   * @throws IOException If an I/O error occurs
+   */
+  public boolean takeSnapshotIfDue() throws IOException {
+    if (snapshotLock.isHeldByCurrentThread()) {
+      return false;
+    }
+    snapshotLock.lock();
+    try {
+      long current = currentUpdate();
+      long closest = snapshots.floorKey(current);
+      if (lastSnapshotIndex <= current) {
+        closest = Math.max(closest, lastSnapshotIndex);
+      }
+      long distance = current - closest;
+      long replayNanos = (long) (distance * replayNanosPerUpdate);
+      if (!snapshotPolicy.shouldTakeSnapshot(distance, replayNanos)) {
+        return false;
+      }
+      snapshot();
+      return true;
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
   /**
    * Take a snapshot at the {@link #currentUpdate() current update}.<br>
    * This will serialise the underlying {@link Graph} and registered {@link ClauseUpdateProcessor}s.
    *
+   * <p>If a {@link #setSnapshotExecutor(Executor) snapshot executor} is set, the snapshot is
+   * written to disk in the background.
+   *
    * @throws IOException If an I/O error occurs
    */
   public void takeSnapshot() throws IOException {
@@ -239,20 +448,21 @@ public class ClauseCoordinator implements AutoCloseable {
     // snapshots are locked to prevent overlapping snapshot creation and to synchronise access
     // to the snapshots TreeMap
     snapshotLock.lock();
+    try {
+      snapshot();
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  // must be called while holding snapshotLock
+  private void snapshot() throws IOException {
     // processors are locked so that updates happen either before or after taking the snapshot
     processorLock.lock();
     try {
+      long start = System.nanoTime();
       long current = currentUpdate();
-      Path snapshotFile = Files.createTempFile(snapshotDir, "snapshot", null);
-      snapshotFile.toFile().deleteOnExit();
-      try (var stream = new BufferedOutputStream(Files.newOutputStream(snapshotFile))) {
-        for (ClauseUpdateProcessor processor : processors) {
-          processor.serialize(stream);
-        }
-        graph.serialize(stream);
-        stream.flush();
-      }
-
+      lastSnapshotIndex = current;
       // if the processor list has changed since the last snapshot, create a new snapshot array.
       // otherwise, reuse the processors snapshot from the most recent snapshot
       ClauseUpdateProcessor[] mostRecentProcessors = snapshots.floorEntry(current)
@@ -261,16 +471,132 @@ public class ClauseCoordinator implements AutoCloseable {
           Arrays.asList(mostRecentProcessors).equals(processors)
               ? mostRecentProcessors
               : this.processors.toArray(new ClauseUpdateProcessor[0]);
-      snapshots.put(current, new Snapshot(snapshotFile, processorsSnapshot));
+
+      Executor executor = snapshotExecutor;
+      if (executor == null) {
+        snapshots.put(current, writeSnapshot(processorsSnapshot));
+        captureNanos.addAndGet(System.nanoTime() - start);
+        snapshotCount.incrementAndGet();
+        evictSnapshots();
+        return;
+      }
+
+      // capture the state in memory. this is cheap compared to writing it to disk.
+      ByteArrayOutputStream processorData = new ByteArrayOutputStream();
+      for (ClauseUpdateProcessor processor : processorsSnapshot) {
+        processor.serialize(processorData);
+      }
+      // the graph is copied in native memory, it never passes through the Java heap
+      Graph.SerializedGraph graphData = graph.captureSnapshot();
+      captureNanos.addAndGet(System.nanoTime() - start);
+
+      CompletableFuture<Void> persist;
+      try {
+        persist = CompletableFuture.runAsync(
+            () -> persistSnapshot(current, processorsSnapshot, processorData, graphData), executor
+        );
+      } catch (RuntimeException e) {
+        graphData.close();
+        throw e;
+      }
+      pendingSnapshots.add(persist);
+      persist.whenComplete((result, e) -> {
+        pendingSnapshots.remove(persist);
+        if (e != null) {
+          logger.log(Level.WARNING, "Could not write snapshot at update " + current, e);
+        }
+      });
     } finally {
       processorLock.unlock();
+    }
+  }
+
+  private Snapshot writeSnapshot(ClauseUpdateProcessor[] processorsSnapshot) throws IOException {
+    Path snapshotFile = Files.createTempFile(snapshotDir, "snapshot", null);
+    snapshotFile.toFile().deleteOnExit();
+    try (var stream = new BufferedOutputStream(Files.newOutputStream(snapshotFile))) {
+      for (ClauseUpdateProcessor processor : processorsSnapshot) {
+        processor.serialize(stream);
+      }
+      stream.flush();
+    }
+    // the graph is written by native code directly, as it is by far the largest part
+    Path graphFile = Files.createTempFile(snapshotDir, "snapshot-graph", null);
+    graphFile.toFile().deleteOnExit();
+    graph.writeSnapshot(graphFile);
+    long bytes = Files.size(snapshotFile) + Files.size(graphFile);
+    return new Snapshot(snapshotFile, graphFile, processorsSnapshot, bytes);
+  }
+
+  private void persistSnapshot(
+      long index, ClauseUpdateProcessor[] processorsSnapshot,
+      ByteArrayOutputStream processorData, Graph.SerializedGraph graphData
+  ) {
+    long start = System.nanoTime();
+    Snapshot snapshot;
+    try (graphData) {
+      Path snapshotFile = Files.createTempFile(snapshotDir, "snapshot", null);
+      snapshotFile.toFile().deleteOnExit();
+      try (var stream = Files.newOutputStream(snapshotFile)) {
+        processorData.writeTo(stream);
+      }
+      Path graphFile = Files.createTempFile(snapshotDir, "snapshot-graph", null);
+      graphFile.toFile().deleteOnExit();
+      graphData.writeTo(graphFile);
+      snapshot = new Snapshot(
+          snapshotFile, graphFile, processorsSnapshot, processorData.size() + graphData.size()
+      );
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    persistNanos.addAndGet(System.nanoTime() - start);
+
+    // the snapshot only becomes visible once it has been written completely
+    snapshotLock.lock();
+    try {
+      snapshots.put(index, snapshot);
+      snapshotCount.incrementAndGet();
+      evictSnapshots();
+    } finally {
       snapshotLock.unlock();
     }
+  }
+
+  // must be called while holding snapshotLock
+  private void evictSnapshots() {
+    NavigableMap<Long, Long> sizes = new TreeMap<>();
+    for (Map.Entry<Long, Snapshot> entry : snapshots.entrySet()) {
+      sizes.put(entry.getKey(), entry.getValue().bytes());
+    }
+    for (long index : snapshotPolicy.selectEvictions(Collections.unmodifiableNavigableMap(sizes))) {
+      // the initial snapshot is the baseline every seek can fall back to
+      if (index == 0) {
+        continue;
+      }
+      Snapshot snapshot = snapshots.remove(index);
+      if (snapshot == null) {
+        continue;
+      }
+      try {
+        Files.deleteIfExists(snapshot.file());
+        Files.deleteIfExists(snapshot.graphFile());
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Could not delete snapshot at update " + index, e);
+      }
+    }
+  }
 
+  /**
+   * Returns statistics about the snapshots taken by this coordinator.
+   *
+   * @return A {@link SnapshotMetrics} object.
+   */
+  public SnapshotMetrics getSnapshotMetrics() {
+    return new SnapshotMetrics(snapshotCount.get(), captureNanos.get(), persistNanos.get());
   }
 
   /**
-   * Append a clause update to this coordinator.
+   * Append a clause update without a source to this coordinator.
    *
    * @param clauseUpdate the update to add
    * @throws IOException if an I/O error occurs
@@ -278,11 +604,89 @@ public class ClauseCoordinator implements AutoCloseable {
    *                                  not valid for the underlying SAT instance
    */
   public void addClauseUpdate(ClauseUpdate clauseUpdate) throws IOException {
-    if (isValidClauseUpdate(clauseUpdate)) {
+    addClauseUpdate(clauseUpdate, ClauseBatch.NO_SOURCE);
+  }
+
+  /**
+   * Append a clause update to this coordinator.
+   *
+   * @param clauseUpdate the update to add
+   * @param source The source of the update, as returned by {@link ClauseBatch#getSource(int)}
+   *               when the update is processed.
+   * @throws IOException if an I/O error occurs
+   * @throws IllegalArgumentException if the given clause update is
+   *                                  not valid for the underlying SAT instance
+   */
+  public void addClauseUpdate(ClauseUpdate clauseUpdate, int source) throws IOException {
+    validationLock.lock();
+    try {
+      if (!validator.isValid(clauseUpdate)) {
+        throw new IllegalArgumentException(clauseUpdate + " is invalid.");
+      }
+      sources.record(buffer.size(), source);
       buffer.addClauseUpdate(clauseUpdate);
-    } else {
-      throw new IllegalArgumentException(clauseUpdate + " is invalid.");
+    } finally {
+      validationLock.unlock();
+    }
+  }
+
+  /**
+   * Append a range of clause updates without a source to this coordinator, skipping invalid ones.
+   *
+   * @param clauseUpdates An array containing the updates to add.
+   * @param offset The index of the first update to add.
+   * @param length The amount of updates to add.
+   * @return The amount of updates that were left out because they are invalid.
+   * @throws IOException if an I/O error occurs
+   * @throws IndexOutOfBoundsException if the range is out of bounds of {@code clauseUpdates}.
+   * @see #addClauseUpdates(ClauseUpdate[], int, int, int)
+   */
+  public int addClauseUpdates(ClauseUpdate[] clauseUpdates, int offset, int length)
+      throws IOException {
+    return addClauseUpdates(clauseUpdates, offset, length, ClauseBatch.NO_SOURCE);
+  }
+
+  /**
+   * Append a range of clause updates to this coordinator, skipping invalid ones.
+   *
+   * <p>Unlike {@link #addClauseUpdate(ClauseUpdate)}, this method does not throw if a clause
+   * update is not valid for the underlying SAT instance. Such updates are left out instead, and
+   * all valid updates are appended in order.
+   *
+   * @param clauseUpdates An array containing the updates to add.
+   * @param offset The index of the first update to add.
+   * @param length The amount of updates to add.
+   * @param source The source of the updates, as returned by {@link ClauseBatch#getSource(int)}
+   *               when they are processed.
+   * @return The amount of updates that were left out because they are invalid.
+   * @throws IOException if an I/O error occurs
+   * @throws IndexOutOfBoundsException if the range is out of bounds of {@code clauseUpdates}.
+   */
+  public int addClauseUpdates(ClauseUpdate[] clauseUpdates, int offset, int length, int source)
+      throws IOException {
+    Objects.checkFromIndexSize(offset, length, clauseUpdates.length);
+    int end = offset + length;
+    int rejected = 0;
+    validationLock.lock();
+    try {
+      // valid updates are appended in contiguous runs
+      int runStart = offset;
+      while (runStart < end) {
+        int invalid = validator.findInvalid(clauseUpdates, runStart, end);
+        if (invalid > runStart) {
+          // recorded first, so the source is known as soon as the updates can be read
+          sources.record(buffer.size(), source);
+          buffer.addClauseUpdates(clauseUpdates, runStart, invalid - runStart);
+        }
+        if (invalid < end) {
+          rejected++;
+        }
+        runStart = invalid + 1;
+      }
+    } finally {
+      validationLock.unlock();
     }
+    return rejected;
   }
 
   private long loadClosestSnapshot(long index) throws IOException, SerializationException {
@@ -306,8 +710,8 @@ public class ClauseCoordinator implements AutoCloseable {
           for (ClauseUpdateProcessor processor : snapshotProcessors) {
             processor.deserialize(stream);
           }
-          graph.deserialize(stream);
         }
+        graph.readSnapshot(snapshot.graphFile());
 
         // lock processors so processor updates don't interleave
         processorLock.lock();
@@ -338,23 +742,16 @@ public class ClauseCoordinator implements AutoCloseable {
     }
   }
 
-  private boolean isValidClauseUpdate(ClauseUpdate update) {
-    int[] literals = update.clause().literals();
-    for (int i = 0; i < literals.length; i++) {
-      if (Math.abs(literals[i]) > variableAmount || literals[i] == 0) {
-        return false;
-      }
-      for (int j = i + 1; j < literals.length; j++) {
-        if (Math.abs(literals[i]) == Math.abs(literals[j])) {
-          return false;
-        }
-      }
-    }
-    return true;
-  }
-
   @Override
   public void close() throws IOException {
+    // snapshots that are still being written would otherwise fail or leave files behind
+    for (CompletableFuture<Void> pending : pendingSnapshots) {
+      try {
+        pending.join();
+      } catch (CompletionException | CancellationException e) {
+        // already logged
+      }
+    }
     buffer.close();
     // delete tempDir
     Files.walkFileTree(tempDir, new SimpleFileVisitor<>() {
@@ -375,7 +772,21 @@ public class ClauseCoordinator implements AutoCloseable {
     });
   }
 
-  private record Snapshot(Path file, ClauseUpdateProcessor[] processors) {
+  private record Snapshot(
+      Path file, Path graphFile, ClauseUpdateProcessor[] processors, long bytes
+  ) {
+
+  }
+
+  /**
+   * Statistics about the snapshots taken by a {@code ClauseCoordinator}.
+   *
+   * @param snapshots The amount of snapshots that have been completed.
+   * @param captureNanos The total time spent taking snapshots on the thread calling
+   *                     {@link #takeSnapshot()}, in nanoseconds.
+   * @param persistNanos The total time spent writing snapshots in the background, in nanoseconds.
+   */
+  public record SnapshotMetrics(long snapshots, long captureNanos, long persistNanos) {
 
   }
 
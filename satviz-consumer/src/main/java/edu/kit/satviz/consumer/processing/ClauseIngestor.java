@@ -0,0 +1,359 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A queue that decouples receiving {@link ClauseUpdate}s from storing them in a
+ * {@link ClauseCoordinator}.
+ *
+ * <p>Clause updates are {@link #offer(ClauseUpdate) offered} by a single producing thread
+ * (usually the network thread) and put into a bounded, lock-free ring buffer. A dedicated
+ * ingestion thread takes them out in batches and {@link ClauseCoordinator#addClauseUpdates(
+ * ClauseUpdate[], int, int) appends} them to the coordinator. This way, the producing thread never
+ * waits for disk I/O, only for the queue if it is full. What happens in that case is determined
+ * by the {@link BackpressurePolicy}.
+ *
+ * <p>Invalid clause updates are not rejected by {@link #offer(ClauseUpdate)}, but left out by the
+ * ingestion thread and {@link #getRejectedCount() counted}.
+ *
+ * <p>{@link #offer(ClauseUpdate)} must only be called by one thread at a time. All other methods
+ * are thread safe. If several producers send clause updates concurrently, each of them should
+ * have its own ingestor, which also tags its updates with the source of the producer.
+ */
+public class ClauseIngestor implements AutoCloseable {
+
+  /**
+   * How many times the capacity of the queue the overflow queue of the
+   * {@link BackpressurePolicy#SPILL SPILL} policy may hold.
+   */
+  public static final int SPILL_FACTOR = 8;
+
+  private static final Logger logger = Logger.getLogger("ClauseIngestor");
+
+  private static final int MAX_BATCH_SIZE = 4096;
+
+  private final ClauseCoordinator coordinator;
+  private final BackpressurePolicy policy;
+  private final int source;
+  private final ClauseUpdate[] ring;
+  // the sequence number of the update in each slot, so the ring and the overflow queue can be
+  // merged back in the order in which the updates were offered
+  private final long[] sequences;
+  private final int mask;
+  private final Queue<Spilled> overflow;
+  private final long overflowCapacity;
+  private final Thread thread;
+
+  // head is only written by the ingestion thread, tail only by the producing thread
+  private final AtomicLong head;
+  private final AtomicLong tail;
+  // counts the updates in the overflow queue, whose size() is not constant time
+  private final AtomicLong overflowSize;
+  private final AtomicLong stallNanos;
+  private final AtomicLong dropped;
+  private final AtomicLong spilled;
+  private final AtomicLong ingested;
+  private final AtomicLong rejected;
+
+  // owned by the producing thread
+  private long cachedHead;
+  private long nextSequence;
+
+  private volatile boolean running;
+  // set before a thread parks, so the other side knows that it has to be unparked. Both sides
+  // publish their progress with a volatile write and check the flag afterwards, which ensures
+  // that no wake-up is missed.
+  private volatile boolean ingestorWaiting;
+  private volatile Thread blockedProducer;
+  private volatile boolean ingestionStopped;
+
+  /**
+   * Create a new {@code ClauseIngestor} for clause updates without a source.
+   * The ingestion thread is started right away.
+   *
+   * @param coordinator The coordinator to which clause updates are added.
+   * @param capacity The capacity of the queue. It is rounded up to the next power of two.
+   * @param policy What to do with clause updates that are offered while the queue is full.
+   * @throws IllegalArgumentException if {@code capacity < 1}
+   */
+  public ClauseIngestor(ClauseCoordinator coordinator, int capacity, BackpressurePolicy policy) {
+    this(coordinator, capacity, policy, ClauseBatch.NO_SOURCE);
+  }
+
+  /**
+   * Create a new {@code ClauseIngestor}. The ingestion thread is started right away.
+   *
+   * @param coordinator The coordinator to which clause updates are added.
+   * @param capacity The capacity of the queue. It is rounded up to the next power of two.
+   * @param policy What to do with clause updates that are offered while the queue is full.
+   * @param source The source with which the clause updates are added to the coordinator.
+   * @throws IllegalArgumentException if {@code capacity < 1}
+   */
+  public ClauseIngestor(ClauseCoordinator coordinator, int capacity, BackpressurePolicy policy,
+      int source) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid queue capacity: " + capacity);
+    }
+    this.coordinator = Objects.requireNonNull(coordinator);
+    this.policy = Objects.requireNonNull(policy);
+    this.source = source;
+    int size = Integer.highestOneBit(capacity);
+    size = (size < capacity) ? size << 1 : size;
+    this.ring = new ClauseUpdate[size];
+    this.sequences = new long[size];
+    this.mask = size - 1;
+    this.overflow = new ConcurrentLinkedQueue<>();
+    this.overflowCapacity = (long) SPILL_FACTOR * size;
+    this.head = new AtomicLong();
+    this.tail = new AtomicLong();
+    this.overflowSize = new AtomicLong();
+    this.stallNanos = new AtomicLong();
+    this.dropped = new AtomicLong();
+    this.spilled = new AtomicLong();
+    this.ingested = new AtomicLong();
+    this.rejected = new AtomicLong();
+    this.cachedHead = 0;
+    this.nextSequence = 0;
+    this.running = true;
+    this.thread = new Thread(this::ingest, "satviz-clause-ingestion");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Queue a clause update to be added to the coordinator.
+   *
+   * <p>If the queue is full, this method either waits, discards the update or moves it to a
+   * bounded overflow queue, depending on the {@link BackpressurePolicy}.
+   *
+   * @param update The clause update.
+   * @return <i>true</i>, if the update was queued,<br>
+   *         <i>false</i>, if it was discarded.
+   * @throws IllegalStateException if this ingestor is closed.
+   */
+  public boolean offer(ClauseUpdate update) {
+    Objects.requireNonNull(update);
+    if (!running) {
+      throw new IllegalStateException("Ingestor is closed");
+    }
+    long t = tail.getPlain();
+    if (t - cachedHead == ring.length && t - (cachedHead = head.getAcquire()) == ring.length) {
+      switch (policy) {
+        case DROP -> {
+          dropped.incrementAndGet();
+          return false;
+        }
+        case SPILL -> {
+          if (overflowSize.get() < overflowCapacity) {
+            // counted before it is added, so the size is never underestimated
+            overflowSize.incrementAndGet();
+            overflow.add(new Spilled(nextSequence++, update));
+            spilled.incrementAndGet();
+            signalIngestor();
+            return true;
+          }
+          // the overflow queue is full as well
+          awaitSpace(t);
+        }
+        case BLOCK -> awaitSpace(t);
+      }
+    }
+    int index = (int) t & mask;
+    ring[index] = update;
+    sequences[index] = nextSequence++;
+    tail.set(t + 1);
+    signalIngestor();
+    return true;
+  }
+
+  private void awaitSpace(long t) {
+    long start = System.nanoTime();
+    blockedProducer = Thread.currentThread();
+    try {
+      while (t - (cachedHead = head.get()) == ring.length) {
+        if (ingestionStopped) {
+          throw new IllegalStateException("Ingestion thread is not running");
+        }
+        LockSupport.park(this);
+      }
+    } finally {
+      blockedProducer = null;
+    }
+    stallNanos.addAndGet(System.nanoTime() - start);
+  }
+
+  private void signalIngestor() {
+    if (ingestorWaiting) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void signalProducer() {
+    Thread producer = blockedProducer;
+    if (producer != null) {
+      LockSupport.unpark(producer);
+    }
+  }
+
+  private void ingest() {
+    try {
+      ingestLoop();
+    } finally {
+      // a blocked producer has to notice that there is no ingestion thread anymore
+      ingestionStopped = true;
+      signalProducer();
+    }
+  }
+
+  private void ingestLoop() {
+    ClauseUpdate[] batch = new ClauseUpdate[Math.min(ring.length, MAX_BATCH_SIZE)];
+    long expectedSequence = 0;
+    while (true) {
+      int n = 0;
+      long h = head.getPlain();
+      long t = tail.getAcquire();
+      while (n < batch.length) {
+        if (h == t) {
+          t = tail.getAcquire();
+        }
+        int index = (int) h & mask;
+        if (h < t && sequences[index] == expectedSequence) {
+          batch[n++] = ring[index];
+          ring[index] = null;
+          h++;
+        } else {
+          Spilled next = overflow.peek();
+          if (next == null || next.sequence() != expectedSequence) {
+            break;
+          }
+          overflow.poll();
+          overflowSize.decrementAndGet();
+          batch[n++] = next.update();
+        }
+        expectedSequence++;
+      }
+      head.set(h);
+      signalProducer();
+
+      if (n > 0) {
+        append(batch, n);
+      } else if (running) {
+        ingestorWaiting = true;
+        if (running && tail.get() == head.getPlain() && overflow.isEmpty()) {
+          LockSupport.park(this);
+        }
+        ingestorWaiting = false;
+      } else if (tail.get() == head.getPlain() && overflow.isEmpty()) {
+        // closed and everything has been ingested
+        return;
+      }
+    }
+  }
+
+  private void append(ClauseUpdate[] batch, int n) {
+    try {
+      int rejectedUpdates = coordinator.addClauseUpdates(batch, 0, n, source);
+      ingested.addAndGet(n - rejectedUpdates);
+      if (rejectedUpdates > 0) {
+        rejected.addAndGet(rejectedUpdates);
+        logger.log(Level.WARNING, "Left out {0} invalid clause updates", rejectedUpdates);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.SEVERE, "Could not store clause updates", e);
+    } finally {
+      Arrays.fill(batch, 0, n, null);
+    }
+  }
+
+  /**
+   * Returns the amount of clause updates that are currently waiting to be ingested.
+   *
+   * @return The current queue depth, including spilled updates.
+   */
+  public long getQueueDepth() {
+    return tail.get() - head.get() + overflowSize.get();
+  }
+
+  /**
+   * Returns the total time {@link #offer(ClauseUpdate)} has spent waiting for a full queue.
+   *
+   * @return The stall time in nanoseconds.
+   */
+  public long getStallNanos() {
+    return stallNanos.get();
+  }
+
+  /**
+   * Returns the amount of clause updates that were discarded because the queue was full.
+   *
+   * @return The number of dropped updates.
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Returns the amount of clause updates that were moved to the overflow queue.
+   *
+   * @return The number of spilled updates.
+   */
+  public long getSpilledCount() {
+    return spilled.get();
+  }
+
+  /**
+   * Returns the amount of clause updates that were added to the coordinator.
+   *
+   * @return The number of ingested updates.
+   */
+  public long getIngestedCount() {
+    return ingested.get();
+  }
+
+  /**
+   * Returns the amount of clause updates that were left out because they are invalid.
+   *
+   * @return The number of rejected updates.
+   */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  /**
+   * Stops accepting clause updates and waits until all queued updates have been added to the
+   * coordinator.
+   *
+   * <p>This must not be called while another thread is still offering updates.
+   *
+   * @throws InterruptedException if interrupted while waiting for the ingestion thread.
+   */
+  @Override
+  public synchronized void close() throws InterruptedException {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(thread);
+    thread.join();
+    logger.log(Level.INFO, "Ingested {0} clause updates ({1} rejected, {2} dropped, {3} spilled,"
+        + " {4} ms stalled)", new Object[] {
+            ingested.get(), rejected.get(), dropped.get(), spilled.get(),
+            TimeUnit.NANOSECONDS.toMillis(stallNanos.get())
+        });
+  }
+
+  private record Spilled(long sequence, ClauseUpdate update) {
+
+  }
+
+}
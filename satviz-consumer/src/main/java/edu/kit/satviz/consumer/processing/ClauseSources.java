@@ -0,0 +1,68 @@
+package edu.kit.satviz.consumer.processing;
+
+import java.util.Arrays;
+
+/**
+ * Records the source of every clause update in a timeline, i.e. the producer it was received
+ * from.
+ *
+ * <p>Consecutive clause updates of the same source are stored as a single run. Since clause
+ * updates are usually appended in batches, only a few bytes per batch are needed. Clause updates
+ * in front of the first run have no source.
+ *
+ * <p>This class is thread safe.
+ */
+final class ClauseSources {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  // runStarts[i] is the index of the first clause update of run i, runSources[i] its source
+  private long[] runStarts = new long[INITIAL_CAPACITY];
+  private int[] runSources = new int[INITIAL_CAPACITY];
+  private int runs = 0;
+
+  /**
+   * Record the source of clause updates that are appended to the timeline.<br>
+   * Runs that start at or behind {@code start} are discarded, so recording the same range again
+   * (e.g. after appending it failed) overwrites it.
+   *
+   * @param start The index of the first clause update.
+   * @param source The source of the clause updates from {@code start} on.
+   */
+  synchronized void record(long start, int source) {
+    while (runs > 0 && runStarts[runs - 1] >= start) {
+      runs--;
+    }
+    if (runs > 0 && runSources[runs - 1] == source) {
+      return;
+    }
+    if (runs == runStarts.length) {
+      runStarts = Arrays.copyOf(runStarts, runs * 2);
+      runSources = Arrays.copyOf(runSources, runs * 2);
+    }
+    runStarts[runs] = start;
+    runSources[runs] = source;
+    runs++;
+  }
+
+  /**
+   * Set the sources of the clause updates in a batch.
+   *
+   * @param from The index of the first clause update of the batch in the timeline.
+   * @param batch The batch.
+   */
+  synchronized void fill(long from, ClauseBatch batch) {
+    // the last run that starts at or before from, -1 if there is none
+    int run = Arrays.binarySearch(runStarts, 0, runs, from);
+    if (run < 0) {
+      run = -run - 2;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      while (run + 1 < runs && runStarts[run + 1] <= from + i) {
+        run++;
+      }
+      batch.setSource(i, run < 0 ? ClauseBatch.NO_SOURCE : runSources[run]);
+    }
+  }
+
+}
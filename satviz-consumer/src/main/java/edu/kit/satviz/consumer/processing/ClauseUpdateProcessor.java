@@ -16,7 +16,9 @@ import java.util.function.IntUnaryOperator;
 public interface ClauseUpdateProcessor {
 
   /**
-   * This method processes an array of the {@code ClauseUpdate}s into {@code GraphUpdate}s.
+   * This method processes an array of the {@code ClauseUpdate}s into {@code GraphUpdate}s.<br>
+   * <i>Note: Implementations may reuse the returned {@code GraphUpdate} for subsequent calls.
+   * It should therefore be submitted before this processor is invoked again.</i>
    *
    * @param clauseUpdates An array of {@code ClauseUpdate}s.
    * @param graph An instance of the {@code Graph} class.
@@ -25,6 +27,21 @@ public interface ClauseUpdateProcessor {
    */
   GraphUpdate process(ClauseUpdate[] clauseUpdates, Graph graph, IntUnaryOperator nodeMapping);
 
+  /**
+   * This method processes a {@code ClauseBatch} into {@code GraphUpdate}s.<br>
+   * The result must be the same as for {@link #process(ClauseUpdate[], Graph, IntUnaryOperator)}
+   * with the same clause updates. By default, the batch is converted to an array of
+   * {@code ClauseUpdate}s; implementations may override this method to avoid that.
+   *
+   * @param batch A {@code ClauseBatch}. It must not be modified or retained by this method.
+   * @param graph An instance of the {@code Graph} class.
+   * @param nodeMapping A mapping from literals to nodes in the {@code graph}.
+   * @return An instance of the {@code GraphUpdate} class.
+   */
+  default GraphUpdate process(ClauseBatch batch, Graph graph, IntUnaryOperator nodeMapping) {
+    return process(batch.toClauseUpdates(), graph, nodeMapping);
+  }
+
   /**
    * This method serializes the internal state of the processor.<br>
    * <i>Note: Not every processor needs internal state.</i>
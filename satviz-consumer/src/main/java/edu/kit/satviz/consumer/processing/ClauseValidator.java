@@ -0,0 +1,80 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.util.Arrays;
+
+/**
+ * Checks whether clause updates are valid for a SAT instance, i.e. whether all of their literals
+ * refer to existing variables and no variable occurs more than once.
+ *
+ * <p>Each check takes time linear in the length of the clause and does not allocate. To detect
+ * duplicate variables, the validator stamps every variable it sees with the number of the current
+ * check. A variable occurs twice if it already carries the current stamp.
+ *
+ * <p>This class is not thread safe.
+ */
+final class ClauseValidator {
+
+  private final int variableAmount;
+  private final int[] stamps;
+  private int currentStamp;
+
+  /**
+   * Create a new validator.
+   *
+   * @param variableAmount The amount of variables in the SAT instance.
+   */
+  ClauseValidator(int variableAmount) {
+    this.variableAmount = variableAmount;
+    this.stamps = new int[variableAmount + 1];
+    this.currentStamp = 0;
+  }
+
+  /**
+   * Checks whether a clause update is valid.
+   *
+   * @param update The clause update.
+   * @return <i>true</i>, if the update is valid,<br>
+   *         <i>false</i>, if not.
+   */
+  boolean isValid(ClauseUpdate update) {
+    int stamp = nextStamp();
+    for (int literal : update.clause().literals()) {
+      // literal == Integer.MIN_VALUE is caught by variable < 1, because its absolute value
+      // is negative
+      int variable = Math.abs(literal);
+      if (variable < 1 || variable > variableAmount || stamps[variable] == stamp) {
+        return false;
+      }
+      stamps[variable] = stamp;
+    }
+    return true;
+  }
+
+  /**
+   * Finds the first invalid clause update in a range.
+   *
+   * @param updates An array containing the clause updates.
+   * @param from The index of the first update to check, inclusive.
+   * @param to The index of the last update to check, exclusive.
+   * @return The index of the first invalid update, or {@code to} if all updates are valid.
+   */
+  int findInvalid(ClauseUpdate[] updates, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!isValid(updates[i])) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  private int nextStamp() {
+    if (++currentStamp == 0) {
+      // the stamps have wrapped around, so old stamps could be mistaken for current ones
+      Arrays.fill(stamps, 0);
+      currentStamp = 1;
+    }
+    return currentStamp;
+  }
+
+}
@@ -2,8 +2,10 @@ package edu.kit.satviz.consumer.processing;
 
 import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.serial.ClauseUpdateSerializer;
+import edu.kit.satviz.serial.DeltaClauseSerializer;
 import edu.kit.satviz.serial.SerialBuilder;
 import edu.kit.satviz.serial.SerializationException;
+import edu.kit.satviz.serial.VarInt;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -13,6 +15,7 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -27,10 +30,13 @@ import java.util.concurrent.locks.ReentrantLock;
  *           The lookup table file contains the byte at which each clause begins in the clause file.
  *           Hence, whenever a clause is added, it is first serialised to the clause file, then
  *           its beginning byte number is written to the lookup file.
+ *           Clauses are serialised using {@link DeltaClauseSerializer}, which stores the
+ *           differences between variables wherever that is smaller than the variables themselves.
  */
-public class ExternalClauseBuffer implements AutoCloseable {
+public class ExternalClauseBuffer implements ClauseBuffer {
 
-  private static final ClauseUpdateSerializer updateSerializer = new ClauseUpdateSerializer();
+  private static final ClauseUpdateSerializer updateSerializer =
+      new ClauseUpdateSerializer(new DeltaClauseSerializer());
 
   private final Lock outputLock;
   private final Lock readLock;
@@ -41,6 +47,8 @@ public class ExternalClauseBuffer implements AutoCloseable {
 
   private volatile long size;
   private long nextClauseBegin;
+  // reused for batch reads, guarded by readLock
+  private ByteBuffer readBuffer;
 
   /**
    * Create and initialise a new {@code ExternalClauseBuffer} with no initial clauses.
@@ -61,6 +69,7 @@ public class ExternalClauseBuffer implements AutoCloseable {
     this.clauseOutStream = new BufferedOutputStream(Files.newOutputStream(clauseFile));
     this.size = 0;
     this.nextClauseBegin = 0;
+    this.readBuffer = ByteBuffer.allocate(0);
     writeInitialClauseBegin();
   }
 
@@ -74,6 +83,7 @@ public class ExternalClauseBuffer implements AutoCloseable {
    * @param update the {@link ClauseUpdate}.
    * @throws IOException if the update can't be stored due to an I/O error.
    */
+  @Override
   public void addClauseUpdate(ClauseUpdate update) throws IOException {
     Objects.requireNonNull(update);
     ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
@@ -97,6 +107,38 @@ public class ExternalClauseBuffer implements AutoCloseable {
     }
   }
 
+  @Override
+  public void addClauseUpdates(ClauseUpdate[] updates, int offset, int length)
+      throws IOException {
+    Objects.checkFromIndexSize(offset, length, updates.length);
+    // serialise everything up front so the lock is only held for the actual writes
+    ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+    int[] ends = new int[length];
+    for (int i = 0; i < length; i++) {
+      ClauseUpdate update = Objects.requireNonNull(updates[offset + i]);
+      try {
+        updateSerializer.serialize(update, byteArrayStream);
+      } catch (SerializationException e) {
+        throw new RuntimeException("Unexpected exception while serializing " + update, e);
+      }
+      ends[i] = byteArrayStream.size();
+    }
+
+    ByteBuffer buf = ByteBuffer.allocate(length * Long.BYTES);
+    outputLock.lock();
+    try {
+      byteArrayStream.writeTo(clauseOutStream);
+      for (int end : ends) {
+        buf.putLong(nextClauseBegin + end);
+      }
+      nextClauseBegin += byteArrayStream.size();
+      clauseLookupOutStream.write(buf.array());
+      size += length;
+    } finally {
+      outputLock.unlock();
+    }
+  }
+
   /**
    * Get a number of clause updates starting from a specific index.
    *
@@ -117,6 +159,7 @@ public class ExternalClauseBuffer implements AutoCloseable {
    * @throws IndexOutOfBoundsException if {@code index >=} {@link #size()} or {@code index < 0}
    * @throws IllegalArgumentException if {@code numUpdates < 0}
    */
+  @Override
   public ClauseUpdate[] getClauseUpdates(long index, int numUpdates)
       throws IOException, SerializationException {
     if (index < 0 || index >= size) {
@@ -144,6 +187,71 @@ public class ExternalClauseBuffer implements AutoCloseable {
     }
   }
 
+  @Override
+  public int readClauseUpdates(long index, int numUpdates, ClauseBatch batch)
+      throws IOException, SerializationException {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("For clause update index " + index);
+    }
+    if (numUpdates < 0) {
+      throw new IllegalArgumentException("Number of updates must be non-negative");
+    }
+    outputLock.lock();
+    try {
+      flush();
+    } finally {
+      outputLock.unlock();
+    }
+
+    readLock.lock();
+    try {
+      batch.clear();
+      int actualNumUpdates = (int) Math.min(numUpdates, size - index);
+      readUpdatesIntoBatch(index, actualNumUpdates, batch);
+      return actualNumUpdates;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  // read clause updates from given index, reading the entire data all at once and decoding
+  // it directly into the batch
+  private void readUpdatesIntoBatch(long index, int numUpdates, ClauseBatch batch)
+      throws IOException, SerializationException {
+    clauseLookupReadFile.seek(index * Long.BYTES);
+    long beginningByte = clauseLookupReadFile.readLong();
+    clauseLookupReadFile.seek((index + numUpdates) * Long.BYTES);
+    long endingByte = clauseLookupReadFile.readLong();
+    int length = (int) (endingByte - beginningByte);
+    if (readBuffer.capacity() < length) {
+      readBuffer = ByteBuffer.allocate(Math.max(length, readBuffer.capacity() * 2));
+    }
+    clauseReadFile.seek(beginningByte);
+    clauseReadFile.readFully(readBuffer.array(), 0, length);
+
+    readBuffer.clear().limit(length);
+    for (int i = 0; i < numUpdates; i++) {
+      ClauseUpdate.Type type;
+      try {
+        type = ClauseUpdate.Type.getById(readBuffer.get());
+      } catch (NoSuchElementException e) {
+        throw new SerializationException("invalid clause update type");
+      }
+      batch.beginClause(type);
+      // see DeltaClauseSerializer for the format
+      long header = VarInt.read(readBuffer);
+      boolean delta = (header & 1) != 0;
+      int previous = 0;
+      for (long j = 0; j < header >>> 1; j++) {
+        long value = VarInt.read(readBuffer);
+        int literal = delta ? VarInt.toDeltaLiteral(previous, value) : VarInt.toLiteral(value);
+        batch.addLiteral(literal);
+        previous = Math.abs(literal);
+      }
+      batch.endClause();
+    }
+  }
+
   // read clause updates from the given index byte by byte, without any buffering.
   /*private void readUpdatesBufferless(long index, ClauseUpdate[] updates)
       throws IOException, SerializationException {
@@ -210,6 +318,7 @@ public class ExternalClauseBuffer implements AutoCloseable {
    *
    * @return the size of this buffer.
    */
+  @Override
   public long size() {
     return size;
   }
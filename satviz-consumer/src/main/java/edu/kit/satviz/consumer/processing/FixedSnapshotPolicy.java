@@ -0,0 +1,37 @@
+package edu.kit.satviz.consumer.processing;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * A {@link SnapshotPolicy} that takes a snapshot every fixed amount of clause updates and never
+ * discards any snapshots.
+ */
+public class FixedSnapshotPolicy implements SnapshotPolicy {
+
+  private final long period;
+
+  /**
+   * Create a new {@code FixedSnapshotPolicy}.
+   *
+   * @param period The amount of clause updates between two snapshots.
+   */
+  public FixedSnapshotPolicy(long period) {
+    if (period < 1) {
+      throw new IllegalArgumentException("Snapshot period must be positive: " + period);
+    }
+    this.period = period;
+  }
+
+  @Override
+  public boolean shouldTakeSnapshot(long replayDistance, long replayNanos) {
+    return replayDistance >= period;
+  }
+
+  @Override
+  public Collection<Long> selectEvictions(NavigableMap<Long, Long> snapshotSizes) {
+    return List.of();
+  }
+
+}
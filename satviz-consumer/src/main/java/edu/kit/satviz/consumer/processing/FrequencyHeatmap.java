@@ -48,22 +48,41 @@ public class FrequencyHeatmap extends Heatmap {
 
   @Override
   public HeatUpdate process(ClauseUpdate[] updates, Graph graph, IntUnaryOperator nodeMapping) {
-    int totalAmount = cursor;
+    int totalAmount = cursor + updates.length;
     boolean full = false;
     for (ClauseUpdate update : updates) {
-      Clause clause = update.clause();
-      Clause previous = recentClauses[cursor];
-      if (previous != null) {
-        // if we encounter an existing element, the ring buffer is full and
-        // the variables' frequencies need to be decremented
-        full = true;
-        decreaseFrequencies(previous);
-      }
-      recentClauses[cursor] = clause;
-      increaseFrequencies(clause);
-      totalAmount++;
-      increaseCursor();
+      full |= addClause(update.clause());
+    }
+    return createUpdate(totalAmount, full, nodeMapping);
+  }
+
+  @Override
+  public HeatUpdate process(ClauseBatch batch, Graph graph, IntUnaryOperator nodeMapping) {
+    int totalAmount = cursor + batch.size();
+    int first = skipOverwritten(batch);
+    // skipped entries would have replaced clauses, or each other
+    boolean full = first > 0;
+    for (int i = first; i < batch.size(); i++) {
+      full |= addClause(batch.getClause(i));
     }
+    return createUpdate(totalAmount, full, nodeMapping);
+  }
+
+  /* Add a clause to the ring buffer, returns whether an existing clause was replaced */
+  private boolean addClause(Clause clause) {
+    Clause previous = recentClauses[cursor];
+    if (previous != null) {
+      // if we encounter an existing element, the ring buffer is full and
+      // the variables' frequencies need to be decremented
+      decreaseFrequencies(previous);
+    }
+    recentClauses[cursor] = clause;
+    increaseFrequencies(clause);
+    increaseCursor();
+    return previous != null;
+  }
+
+  private HeatUpdate createUpdate(int totalAmount, boolean full, IntUnaryOperator nodeMapping) {
     return populateUpdate(
         switch (strategy) {
           case MAX_FREQUENCY -> frequencies.values().stream().reduce(1, Math::max);
@@ -88,7 +107,7 @@ public class FrequencyHeatmap extends Heatmap {
   /* Calculate the updated heat values for each node based on its frequency and the total amount
    of nodes currently being updated. */
   private HeatUpdate populateUpdate(int totalAmount, IntUnaryOperator nodeMapping) {
-    HeatUpdate update = new HeatUpdate();
+    HeatUpdate update = clearedHeatUpdate();
     var iterator = frequencies.entrySet().iterator();
     while (iterator.hasNext()) {
       var entry = iterator.next();
@@ -1,7 +1,9 @@
 package edu.kit.satviz.consumer.processing;
 
+import edu.kit.satviz.consumer.graph.Graph;
 import edu.kit.satviz.consumer.graph.HeatUpdate;
 import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.serial.ClauseSerializer;
 import edu.kit.satviz.serial.IntSerializer;
 import edu.kit.satviz.serial.SerializationException;
@@ -10,6 +12,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.IntUnaryOperator;
 
 /**
  * A kind of {@code ClauseUpdateProcessor} that realises a heatmap of variables (nodes).
@@ -25,6 +28,7 @@ public abstract class Heatmap implements ClauseUpdateProcessor {
 
   protected Clause[] recentClauses;
   protected int cursor;
+  private HeatUpdate heatUpdate;
 
   /**
    * Create a heatmap with the given initial size.
@@ -106,12 +110,56 @@ public abstract class Heatmap implements ClauseUpdateProcessor {
     return recentClauses.length;
   }
 
+  @Override
+  public abstract HeatUpdate process(ClauseUpdate[] clauseUpdates, Graph graph,
+      IntUnaryOperator nodeMapping);
+
+  @Override
+  public abstract HeatUpdate process(ClauseBatch batch, Graph graph, IntUnaryOperator nodeMapping);
+
   protected abstract void removeClause(Clause clause);
 
+  /**
+   * Returns an empty {@link HeatUpdate} to fill with the result of processing.<br>
+   * To avoid allocations, the same object is cleared and returned on every call.
+   *
+   * @return an empty {@code HeatUpdate}
+   */
+  protected final HeatUpdate clearedHeatUpdate() {
+    if (heatUpdate == null) {
+      heatUpdate = new HeatUpdate();
+    } else {
+      heatUpdate.clear();
+    }
+    return heatUpdate;
+  }
+
+  /* Adds every variable that is currently hot with a heat of 0 to an update, which cools them
+     down unless the update already contains a higher heat for them. */
+  final void addCooledDown(HeatUpdate update, IntUnaryOperator nodeMapping) {
+    for (Clause clause : recentClauses) {
+      if (clause != null) {
+        for (int literal : clause.literals()) {
+          update.add(nodeMapping.applyAsInt(Math.abs(literal)), 0);
+        }
+      }
+    }
+  }
+
   protected final void increaseCursor() {
     cursor = (cursor + 1) % recentClauses.length;
   }
 
+  /* Skips the entries at the start of a batch that would be overwritten by later entries of the
+     same batch, because the batch is larger than the window. The cursor is moved as if they had
+     been added, so the window ends up the same without creating their clauses.
+     Returns the index of the first entry to add. */
+  protected final int skipOverwritten(ClauseBatch batch) {
+    int skipped = Math.max(0, batch.size() - recentClauses.length);
+    cursor = (int) ((cursor + (long) skipped) % recentClauses.length);
+    return skipped;
+  }
+
   /* Deserialising means resetting the entire heatmap,
      done by first resetting the clauses that were serialised, then the current clauses */
   @Override
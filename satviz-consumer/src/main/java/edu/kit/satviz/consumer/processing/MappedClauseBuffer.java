@@ -0,0 +1,273 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.SerializationException;
+import edu.kit.satviz.serial.VarInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.incubator.foreign.MemoryAccess;
+import jdk.incubator.foreign.MemorySegment;
+import jdk.incubator.foreign.ResourceScope;
+
+/**
+ * A memory-mapped, append-only, ranged random access storage for {@link ClauseUpdate}s.
+ *
+ * <p>Like {@link ExternalClauseBuffer}, this class stores its data in temporary files, but
+ * accesses them through memory-mapped regions instead of streams. Reading a range of clause
+ * updates therefore neither flushes nor seeks, and the clause data is decoded in place.
+ *
+ * @implNote The same two-file layout as in {@link ExternalClauseBuffer} is used: a clause file
+ *           with all clause updates, and a lookup file with the byte offset at which each clause
+ *           update begins. Unlike in {@link ExternalClauseBuffer}, whose clause file uses
+ *           {@link edu.kit.satviz.serial.DeltaClauseSerializer}, the clauses are stored in the
+ *           variable-length binary DRAT format, so the two clause files are not interchangeable.
+ *           Both files are mapped in fixed-size regions of {@value #REGION_SIZE} bytes. New
+ *           regions are mapped whenever the existing ones are exhausted.
+ */
+public class MappedClauseBuffer implements ClauseBuffer {
+
+  private static final int REGION_SHIFT = 26;
+  private static final long REGION_SIZE = 1L << REGION_SHIFT;
+  private static final long REGION_MASK = REGION_SIZE - 1;
+
+  private final Lock outputLock;
+  private final Lock readLock;
+  private final ResourceScope scope;
+  private final Path lookupFile;
+  private final Path clauseFile;
+
+  // the region arrays are replaced (never modified) when growing, so readers always see
+  // a consistent array.
+  private volatile MemorySegment[] lookupRegions;
+  private volatile MemorySegment[] clauseRegions;
+  private volatile long size;
+  private volatile boolean closed;
+  private long nextClauseBegin;
+  // reused for reads spanning several regions, guarded by readLock
+  private ByteBuffer spanBuffer;
+
+  /**
+   * Create and initialise a new {@code MappedClauseBuffer} with no initial clauses.
+   *
+   * @param dir The directory where the data will be stored.
+   * @throws IOException if an I/O error occurs.
+   */
+  public MappedClauseBuffer(Path dir) throws IOException {
+    this.outputLock = new ReentrantLock();
+    this.readLock = new ReentrantLock();
+    this.scope = ResourceScope.newSharedScope();
+    this.lookupFile = Files.createTempFile(dir, "satviz-clause-lookup", null);
+    this.clauseFile = Files.createTempFile(dir, "satviz-clauses", null);
+    lookupFile.toFile().deleteOnExit();
+    clauseFile.toFile().deleteOnExit();
+    this.lookupRegions = new MemorySegment[] {mapRegion(lookupFile, 0)};
+    this.clauseRegions = new MemorySegment[] {mapRegion(clauseFile, 0)};
+    this.size = 0;
+    this.closed = false;
+    this.nextClauseBegin = 0;
+    this.spanBuffer = ByteBuffer.allocate(0);
+    // the first clause begins at byte 0
+    MemoryAccess.setLongAtOffset(lookupRegions[0], 0, 0);
+  }
+
+  private MemorySegment mapRegion(Path file, int region) throws IOException {
+    return MemorySegment.mapFile(
+        file, region * REGION_SIZE, REGION_SIZE, FileChannel.MapMode.READ_WRITE, scope
+    );
+  }
+
+  private MemorySegment[] ensureRegions(Path file, MemorySegment[] regions, long end)
+      throws IOException {
+    int required = (int) ((end - 1) >>> REGION_SHIFT) + 1;
+    if (required <= regions.length) {
+      return regions;
+    }
+    MemorySegment[] grown = Arrays.copyOf(regions, required);
+    for (int i = regions.length; i < required; i++) {
+      grown[i] = mapRegion(file, i);
+    }
+    return grown;
+  }
+
+  @Override
+  public void addClauseUpdate(ClauseUpdate update) throws IOException {
+    Objects.requireNonNull(update);
+    outputLock.lock();
+    try {
+      ensureOpen();
+      append(update);
+    } finally {
+      outputLock.unlock();
+    }
+  }
+
+  @Override
+  public void addClauseUpdates(ClauseUpdate[] updates, int offset, int length)
+      throws IOException {
+    Objects.checkFromIndexSize(offset, length, updates.length);
+    outputLock.lock();
+    try {
+      ensureOpen();
+      for (int i = offset; i < offset + length; i++) {
+        append(Objects.requireNonNull(updates[i]));
+      }
+    } finally {
+      outputLock.unlock();
+    }
+  }
+
+  // must be called while holding outputLock
+  private void append(ClauseUpdate update) throws IOException {
+    int[] literals = update.clause().literals();
+    long maxEnd = nextClauseBegin + 2 + (long) literals.length * VarInt.MAX_BYTES;
+    clauseRegions = ensureRegions(clauseFile, clauseRegions, maxEnd);
+    lookupRegions = ensureRegions(lookupFile, lookupRegions, (size + 2) * Long.BYTES);
+
+    MemorySegment[] regions = clauseRegions;
+    long pos = nextClauseBegin;
+    putByte(regions, pos++, update.type().getId());
+    for (int literal : literals) {
+      long unsigned = VarInt.toUnsignedMapping(literal);
+      while ((unsigned & ~0x7f) != 0) {
+        putByte(regions, pos++, (byte) ((unsigned & 0x7f) | 0x80));
+        unsigned >>>= 7;
+      }
+      putByte(regions, pos++, (byte) unsigned);
+    }
+    putByte(regions, pos++, (byte) 0);
+    nextClauseBegin = pos;
+
+    long lookupPos = (size + 1) * Long.BYTES;
+    MemoryAccess.setLongAtOffset(
+        lookupRegions[(int) (lookupPos >>> REGION_SHIFT)], lookupPos & REGION_MASK, pos
+    );
+    // publish the update only after all of its data has been written
+    size++;
+  }
+
+  @Override
+  public ClauseUpdate[] getClauseUpdates(long index, int numUpdates)
+      throws IOException, SerializationException {
+    ClauseBatch batch = new ClauseBatch();
+    readClauseUpdates(index, numUpdates, batch);
+    return batch.toClauseUpdates();
+  }
+
+  @Override
+  public int readClauseUpdates(long index, int numUpdates, ClauseBatch batch)
+      throws IOException, SerializationException {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("For clause update index " + index);
+    }
+    if (numUpdates < 0) {
+      throw new IllegalArgumentException("Number of updates must be non-negative");
+    }
+
+    readLock.lock();
+    try {
+      ensureOpen();
+      batch.clear();
+      int actualNumUpdates = (int) Math.min(numUpdates, size - index);
+      ByteBuffer data = view(getClauseBegin(index), getClauseBegin(index + actualNumUpdates));
+      for (int i = 0; i < actualNumUpdates; i++) {
+        decodeUpdate(data, batch);
+      }
+      return actualNumUpdates;
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  private long getClauseBegin(long index) {
+    long lookupPos = index * Long.BYTES;
+    return MemoryAccess.getLongAtOffset(
+        lookupRegions[(int) (lookupPos >>> REGION_SHIFT)], lookupPos & REGION_MASK
+    );
+  }
+
+  // returns the clause data between two positions, which is copied if it spans several regions
+  private ByteBuffer view(long begin, long end) {
+    MemorySegment[] regions = clauseRegions;
+    int region = (int) (begin >>> REGION_SHIFT);
+    if (region == (int) ((end - 1) >>> REGION_SHIFT)) {
+      return regions[region].asSlice(begin & REGION_MASK, end - begin).asByteBuffer();
+    }
+    int length = (int) (end - begin);
+    if (spanBuffer.capacity() < length) {
+      spanBuffer = ByteBuffer.allocate(Math.max(length, spanBuffer.capacity() * 2));
+    }
+    spanBuffer.clear().limit(length);
+    for (long pos = begin; pos < end; ) {
+      MemorySegment segment = regions[(int) (pos >>> REGION_SHIFT)];
+      long offset = pos & REGION_MASK;
+      int n = (int) Math.min(end - pos, REGION_SIZE - offset);
+      spanBuffer.put(segment.asSlice(offset, n).asByteBuffer());
+      pos += n;
+    }
+    return spanBuffer.flip();
+  }
+
+  // decodes the clause update at the position of the data into the batch
+  private static void decodeUpdate(ByteBuffer data, ClauseBatch batch)
+      throws SerializationException {
+    ClauseUpdate.Type type;
+    try {
+      type = ClauseUpdate.Type.getById(data.get());
+    } catch (NoSuchElementException e) {
+      throw new SerializationException("invalid clause update type");
+    }
+    batch.beginClause(type);
+    long unsigned;
+    while ((unsigned = VarInt.read(data)) != 0) {
+      batch.addLiteral(VarInt.toLiteral(unsigned));
+    }
+    batch.endClause();
+  }
+
+  private static void putByte(MemorySegment[] regions, long pos, byte b) {
+    MemoryAccess.setByteAtOffset(regions[(int) (pos >>> REGION_SHIFT)], pos & REGION_MASK, b);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Buffer is closed");
+    }
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Closes this buffer and unmaps all of its regions.<br>
+   * After performing this operation, this buffer must not be used anymore.
+   *
+   * <p>Note: this <strong>does not</strong> delete the temporary files created by this buffer.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  public void close() throws IOException {
+    outputLock.lock();
+    readLock.lock();
+    try {
+      if (!closed) {
+        closed = true;
+        scope.close();
+      }
+    } finally {
+      readLock.unlock();
+      outputLock.unlock();
+    }
+  }
+
+}
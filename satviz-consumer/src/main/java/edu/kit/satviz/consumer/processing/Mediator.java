@@ -7,16 +7,20 @@ import edu.kit.satviz.consumer.display.VideoController;
 import edu.kit.satviz.consumer.graph.Graph;
 import edu.kit.satviz.network.pub.ConsumerConnectionListener;
 import edu.kit.satviz.network.pub.ProducerId;
+import edu.kit.satviz.network.pub.ProducerStatistics;
 import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.sat.SatAssignment;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.scene.paint.Color;
@@ -29,7 +33,7 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
   private final Graph graph;
   private final VideoController videoController;
   private final ClauseCoordinator coordinator;
-  private final Heatmap heatmap;
+  private final ProducerHeatmaps heatmaps;
   private final VariableInteractionGraph vig;
   private final ConsumerConfig config;
   private final ScheduledExecutorService glScheduler;
@@ -38,24 +42,26 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
   private final List<Runnable> closeActions;
   private final List<Runnable> frameActions;
   private final Theme theme;
+  private final ProducerTracker producers;
+  // every producer has its own ingestor, since ClauseIngestor.offer must not be called
+  // concurrently and a full queue should only hold up the producer that filled it
+  private final Map<ProducerId, ClauseIngestor> ingestors;
 
   private boolean recording;
   private boolean recordingPaused;
   private int recordedVideos;
-  private int clauseCount;
   private volatile Future<?> currentRender;
   private boolean isRendering;
 
   private volatile boolean visualizationPaused;
   private volatile int clausesPerAdvance;
-  private volatile int snapshotPeriod;
 
   private Mediator(
       ScheduledExecutorService glScheduler,
       Graph graph,
       VideoController controller,
       ClauseCoordinator coordinator,
-      Heatmap heatmap,
+      Supplier<Heatmap> heatmapFactory,
       VariableInteractionGraph vig,
       ConsumerConfig config
   ) {
@@ -63,7 +69,7 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
     this.graph = graph;
     this.videoController = controller;
     this.coordinator = coordinator;
-    this.heatmap = heatmap;
+    this.heatmaps = new ProducerHeatmaps(heatmapFactory.get(), heatmapFactory);
     this.vig = vig;
     this.config = config;
     this.recording = false;
@@ -73,13 +79,13 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
     this.isRendering = false;
     this.clausesPerAdvance = config.getBufferSize();
     this.period = config.getPeriod();
-    this.clauseCount = 0;
-    this.snapshotPeriod = clausesPerAdvance * 500;
     this.taskQueue = new LinkedBlockingQueue<>();
     this.closeActions = new CopyOnWriteArrayList<>();
     this.frameActions = new CopyOnWriteArrayList<>();
     this.theme = config.getTheme();
-    coordinator.addProcessor(heatmap);
+    this.producers = new ProducerTracker();
+    this.ingestors = new ConcurrentHashMap<>();
+    coordinator.addProcessor(heatmaps);
     coordinator.addProcessor(vig);
   }
 
@@ -88,7 +94,19 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
   }
 
   public void updateWindowSize(int windowSize) {
-    taskQueue.offer(() -> heatmap.setHeatmapSize(windowSize));
+    taskQueue.offer(() -> heatmaps.setHeatmapSize(windowSize));
+  }
+
+  /**
+   * Show the heatmap of a single producer, which only considers the clause updates of that
+   * producer.
+   *
+   * @param pid The ID of the producer, or <code>null</code> to show the heatmap of the clause
+   *            updates of all producers.
+   */
+  public void showHeatmapOf(ProducerId pid) {
+    int source = (pid == null) ? ClauseBatch.NO_SOURCE : producers.getSource(pid);
+    taskQueue.offer(() -> heatmaps.show(source));
   }
 
   public void updateHeatmapColdColor(Color color) {
@@ -191,6 +209,34 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
     return coordinator.totalUpdateCount();
   }
 
+  /**
+   * Register a producer whose clause updates are added to the timeline of this mediator.
+   * If several producers are registered, their clause updates are merged in the order in which
+   * they arrive, tagged with the producer they came from. Every producer has its own heatmap
+   * (see {@link #showHeatmapOf(ProducerId)}) and, if enabled, its own ingestion queue.
+   * The mediator is closed once all registered producers have terminated abnormally.
+   *
+   * @param pid The ID of the producer.
+   */
+  public void registerProducer(ProducerId pid) {
+    producers.register(pid);
+    ingestor(pid);
+  }
+
+  // returns the ingestor of a producer, or null if clause updates are added directly
+  private ClauseIngestor ingestor(ProducerId pid) {
+    int queueSize = config.getIngestionQueueSize();
+    if (queueSize < 1) {
+      return null;
+    }
+    return ingestors.computeIfAbsent(pid, p -> new ClauseIngestor(coordinator, queueSize,
+        config.getBackpressurePolicy(), producers.getSource(p)));
+  }
+
+  public ProducerTracker getProducerTracker() {
+    return producers;
+  }
+
   public void registerCloseAction(Runnable closeAction) {
     closeActions.add(closeAction);
   }
@@ -203,7 +249,7 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
     try {
       long start = System.currentTimeMillis();
       if (!visualizationPaused) {
-        clauseCount += coordinator.advanceVisualization(clausesPerAdvance);
+        coordinator.advanceVisualization(clausesPerAdvance);
       }
       videoController.nextFrame();
       while (!taskQueue.isEmpty()) {
@@ -212,10 +258,7 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
 
       frameActions.forEach(Runnable::run);
 
-      if (clauseCount >= snapshotPeriod) {
-        coordinator.takeSnapshot();
-        clauseCount = 0;
-      }
+      coordinator.takeSnapshotIfDue();
       long end = System.currentTimeMillis();
       // mutual exclusion for isRendering: only schedule next frame if isRendering=true
       synchronized (renderLock) {
@@ -233,27 +276,54 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
 
   @Override
   public void onClauseUpdate(ProducerId pid, ClauseUpdate c) {
+    int source = ClauseBatch.NO_SOURCE;
+    if (pid != null) { // clause updates may also be added without a producer
+      producers.countClauseUpdate(pid);
+      ClauseIngestor ingestor = ingestor(pid);
+      if (ingestor != null) {
+        // the listener calls of one producer never overlap
+        ingestor.offer(c);
+        return;
+      }
+      source = producers.getSource(pid);
+    }
     try {
-      coordinator.addClauseUpdate(c);
+      coordinator.addClauseUpdate(c, source);
     } catch (IOException e) { // TODO: 10/02/2022
       e.printStackTrace();
       throw new RuntimeException(e);
     }
   }
 
+  @Override
+  public void onStatistics(ProducerId pid, ProducerStatistics stats) {
+    logger.log(Level.INFO,
+        "Connection {0} sent {1} clause updates, dropped {2}, blocked for {3} ms",
+        new Object[] {pid.getId(), stats.queuedClauses(), stats.droppedClauses(),
+            TimeUnit.NANOSECONDS.toMillis(stats.blockedNanos())});
+  }
+
   @Override
   public void onTerminateSolved(ProducerId pid, SatAssignment assign) {
-    logger.info("Connection terminated - Result: satisfiable");
+    producers.terminate(pid, ProducerTracker.State.SOLVED);
+    logger.log(Level.INFO, "Connection {0} terminated - Result: satisfiable", pid.getId());
   }
 
   @Override
   public void onTerminateRefuted(ProducerId pid) {
-    logger.info("Connection terminated - Result: not satisfiable");
+    producers.terminate(pid, ProducerTracker.State.REFUTED);
+    logger.log(Level.INFO, "Connection {0} terminated - Result: not satisfiable", pid.getId());
   }
 
   @Override
   public void onTerminateOtherwise(ProducerId pid, String reason) {
-    logger.log(Level.WARNING, "Connection terminated: {0}", reason);
+    producers.terminate(pid, ProducerTracker.State.FAILED);
+    logger.log(Level.WARNING, "Connection {0} terminated: {1}",
+        new Object[] {pid.getId(), reason});
+    if (producers.getActiveCount() > 0) {
+      // keep visualising the clause updates of the remaining producers
+      return;
+    }
     try {
       close();
     } catch (Exception e) {
@@ -284,6 +354,13 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
     }).get();
     glScheduler.shutdown();
     closeActions.forEach(Runnable::run);
+    for (ProducerTracker.Summary summary : producers.getSummaries()) {
+      logger.log(Level.INFO, "Connection {0}: {1} clause updates, {2}", new Object[] {
+          summary.pid().getId(), summary.clauseUpdates(), summary.state()});
+    }
+    for (ClauseIngestor ingestor : ingestors.values()) {
+      ingestor.close();
+    }
     coordinator.close();
   }
 
@@ -292,7 +369,7 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
     private Graph graph;
     private VideoController controller;
     private ClauseCoordinator coordinator;
-    private Heatmap heatmap;
+    private Supplier<Heatmap> heatmapFactory;
     private VariableInteractionGraph vig;
     private ConsumerConfig config;
     private ScheduledExecutorService glScheduler;
@@ -312,8 +389,8 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
       return this;
     }
 
-    public MediatorBuilder setHeatmap(Heatmap heatmap) {
-      this.heatmap = heatmap;
+    public MediatorBuilder setHeatmapFactory(Supplier<Heatmap> heatmapFactory) {
+      this.heatmapFactory = heatmapFactory;
       return this;
     }
 
@@ -338,7 +415,7 @@ public class Mediator implements ConsumerConnectionListener, AutoCloseable {
           graph,
           controller,
           coordinator,
-          heatmap,
+          heatmapFactory,
           vig,
           config
       );
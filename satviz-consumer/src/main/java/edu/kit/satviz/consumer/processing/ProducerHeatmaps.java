@@ -0,0 +1,181 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.consumer.graph.Graph;
+import edu.kit.satviz.consumer.graph.HeatUpdate;
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.IntSerializer;
+import edu.kit.satviz.serial.SerializationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * A {@code ClauseUpdateProcessor} that keeps a separate {@link Heatmap} for every source
+ * (producer) of a merged timeline, in addition to one heatmap of all clause updates.
+ *
+ * <p>Every heatmap of a source only considers the clause updates of that source, which are
+ * identified by {@link ClauseBatch#getSource(int)}. All heatmaps are kept up to date, but since
+ * a graph can only show one heat value per node, only the heat of the {@link #show(int) shown}
+ * heatmap is returned. When the shown heatmap changes, the nodes that are only hot in the
+ * previously shown heatmap are cooled down.
+ *
+ * <p>This class is not thread safe.
+ */
+public class ProducerHeatmaps implements ClauseUpdateProcessor {
+
+  private static final IntSerializer intSerializer = new IntSerializer();
+
+  private final Heatmap merged;
+  private final Supplier<Heatmap> factory;
+  // the heatmap of source s is at index s - 1, created once the first update of s is processed
+  private final List<Heatmap> heatmaps;
+  // the clause updates of each source in the current batch
+  private final List<ClauseBatch> sourceBatches;
+  private int shown;
+  private Heatmap previouslyShown;
+
+  /**
+   * Create a set of heatmaps. Initially, the heatmap of all clause updates is shown.
+   *
+   * @param merged The heatmap considering all clause updates.
+   * @param factory Creates the heatmap of a source. Its size is adjusted to the size of
+   *                {@code merged}.
+   */
+  public ProducerHeatmaps(Heatmap merged, Supplier<Heatmap> factory) {
+    this.merged = Objects.requireNonNull(merged);
+    this.factory = Objects.requireNonNull(factory);
+    this.heatmaps = new ArrayList<>();
+    this.sourceBatches = new ArrayList<>();
+    this.shown = ClauseBatch.NO_SOURCE;
+  }
+
+  /**
+   * Choose the heatmap whose heat is returned from now on.
+   *
+   * @param source The source whose heatmap is shown, or {@link ClauseBatch#NO_SOURCE} to show
+   *               the heatmap of all clause updates.
+   * @throws IllegalArgumentException if {@code source} is negative.
+   */
+  public void show(int source) {
+    if (source < 0) {
+      throw new IllegalArgumentException("Invalid source: " + source);
+    }
+    if (source != shown) {
+      if (previouslyShown == null) {
+        previouslyShown = heatmap(shown);
+      }
+      shown = source;
+    }
+  }
+
+  /**
+   * Get the source whose heatmap is shown.
+   *
+   * @return The source, or {@link ClauseBatch#NO_SOURCE} if the heatmap of all clause updates is
+   *         shown.
+   */
+  public int getShown() {
+    return shown;
+  }
+
+  /**
+   * (Re)set the size of all heatmaps.
+   *
+   * @param heatmapSize The amount of clauses to consider at a time.
+   * @see Heatmap#setHeatmapSize(int)
+   */
+  public void setHeatmapSize(int heatmapSize) {
+    merged.setHeatmapSize(heatmapSize);
+    for (Heatmap heatmap : heatmaps) {
+      heatmap.setHeatmapSize(heatmapSize);
+    }
+  }
+
+  private Heatmap heatmap(int source) {
+    if (source == ClauseBatch.NO_SOURCE) {
+      return merged;
+    }
+    while (heatmaps.size() < source) {
+      Heatmap created = factory.get();
+      created.setHeatmapSize(merged.getHeatmapSize());
+      heatmaps.add(created);
+      sourceBatches.add(new ClauseBatch());
+    }
+    return heatmaps.get(source - 1);
+  }
+
+  @Override
+  public HeatUpdate process(ClauseUpdate[] clauseUpdates, Graph graph,
+      IntUnaryOperator nodeMapping) {
+    return process(ClauseBatch.of(clauseUpdates), graph, nodeMapping);
+  }
+
+  @Override
+  public HeatUpdate process(ClauseBatch batch, Graph graph, IntUnaryOperator nodeMapping) {
+    HeatUpdate update = merged.process(batch, graph, nodeMapping);
+    for (ClauseBatch sourceBatch : sourceBatches) {
+      sourceBatch.clear();
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      int source = batch.getSource(i);
+      if (source != ClauseBatch.NO_SOURCE) {
+        heatmap(source);
+        sourceBatches.get(source - 1).add(batch, i);
+      }
+    }
+    heatmap(shown);
+    for (int i = 0; i < heatmaps.size(); i++) {
+      ClauseBatch sourceBatch = sourceBatches.get(i);
+      // the shown heatmap always returns the heat of all its nodes, even without new updates
+      if (sourceBatch.size() > 0 || i + 1 == shown) {
+        HeatUpdate sourceUpdate = heatmaps.get(i).process(sourceBatch, graph, nodeMapping);
+        if (i + 1 == shown) {
+          update = sourceUpdate;
+        }
+      }
+    }
+    if (previouslyShown != null) {
+      previouslyShown.addCooledDown(update, nodeMapping);
+      previouslyShown = null;
+    }
+    return update;
+  }
+
+  /* The heatmap of all clause updates is serialised first, followed by the amount of
+     source heatmaps and the heatmaps themselves. */
+  @Override
+  public void serialize(OutputStream out) throws IOException {
+    merged.serialize(out);
+    intSerializer.serialize(heatmaps.size(), out);
+    for (Heatmap heatmap : heatmaps) {
+      heatmap.serialize(out);
+    }
+  }
+
+  @Override
+  public void deserialize(InputStream in) throws IOException, SerializationException {
+    merged.deserialize(in);
+    int amount = intSerializer.deserialize(in);
+    for (int source = 1; source <= amount; source++) {
+      heatmap(source).deserialize(in);
+    }
+    // sources that appeared after the snapshot was taken
+    for (int i = amount; i < heatmaps.size(); i++) {
+      heatmaps.get(i).reset();
+    }
+  }
+
+  @Override
+  public void reset() {
+    merged.reset();
+    for (Heatmap heatmap : heatmaps) {
+      heatmap.reset();
+    }
+  }
+
+}
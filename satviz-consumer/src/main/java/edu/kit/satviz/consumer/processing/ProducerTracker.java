@@ -0,0 +1,159 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.network.pub.ProducerId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the producers whose clause updates are merged into a single timeline.
+ *
+ * <p>For every producer, the amount of received clause updates and the way it terminated are
+ * recorded, so that several solvers working on the same instance can be compared. Every producer
+ * is also assigned a source, with which its clause updates are tagged in the timeline. Sources
+ * are numbered from 1 in the order in which the producers were registered.
+ *
+ * <p>This class is thread safe. Updates of different producers may be counted concurrently.
+ */
+public class ProducerTracker {
+
+  /**
+   * The state of a single producer.
+   */
+  public enum State {
+    /** The producer is connected and may send more clause updates. */
+    ACTIVE,
+    /** The producer found a satisfying assignment. */
+    SOLVED,
+    /** The producer proved that the instance is unsatisfiable. */
+    REFUTED,
+    /** The producer terminated for another reason, e.g. because the connection failed. */
+    FAILED
+  }
+
+  /**
+   * A summary of the activity of a single producer.
+   *
+   * @param pid The ID of the producer.
+   * @param clauseUpdates The amount of clause updates received from the producer.
+   * @param state The current state of the producer.
+   */
+  public record Summary(ProducerId pid, long clauseUpdates, State state) {
+  }
+
+  private static class Entry {
+    private final ProducerId pid;
+    private final int source;
+    private final LongAdder clauseUpdates = new LongAdder();
+    private volatile State state = State.ACTIVE;
+
+    private Entry(ProducerId pid, int source) {
+      this.pid = pid;
+      this.source = source;
+    }
+  }
+
+  private final Map<ProducerId, Entry> entries = new ConcurrentHashMap<>();
+  // the same entries in the order in which the producers were registered
+  private final List<Entry> orderedEntries = new CopyOnWriteArrayList<>();
+  private final AtomicInteger activeCount = new AtomicInteger();
+
+  /**
+   * Register a producer. Registering the same producer twice has no effect.
+   *
+   * @param pid The ID of the producer.
+   */
+  public void register(ProducerId pid) {
+    getEntry(pid);
+  }
+
+  /**
+   * Get the source with which the clause updates of a producer are tagged. Unknown producers are
+   * registered.
+   *
+   * @param pid The ID of the producer.
+   * @return The source, which is at least 1.
+   * @see ClauseBatch#getSource(int)
+   */
+  public int getSource(ProducerId pid) {
+    return getEntry(pid).source;
+  }
+
+  /**
+   * Count a clause update received from a producer. Unknown producers are registered.
+   *
+   * @param pid The ID of the producer.
+   */
+  public void countClauseUpdate(ProducerId pid) {
+    getEntry(pid).clauseUpdates.increment();
+  }
+
+  /**
+   * Mark a producer as terminated. Unknown producers are registered first.
+   *
+   * @param pid The ID of the producer.
+   * @param state The way the producer terminated, not {@link State#ACTIVE}.
+   * @return <i>true</i>, if the producer was active before,<br>
+   *         <i>false</i>, if it had already terminated.
+   * @throws IllegalArgumentException if {@code state} is {@link State#ACTIVE}.
+   */
+  public boolean terminate(ProducerId pid, State state) {
+    if (Objects.requireNonNull(state) == State.ACTIVE) {
+      throw new IllegalArgumentException("Producers can't be reactivated");
+    }
+    Entry entry = getEntry(pid);
+    synchronized (entry) {
+      if (entry.state != State.ACTIVE) {
+        return false;
+      }
+      entry.state = state;
+    }
+    activeCount.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * Get the amount of producers that have not terminated yet.
+   *
+   * @return The amount of active producers.
+   */
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  /**
+   * Get a summary of every producer, in the order in which they were registered.
+   *
+   * @return A list of summaries.
+   */
+  public List<Summary> getSummaries() {
+    List<Summary> summaries = new ArrayList<>(orderedEntries.size());
+    for (Entry entry : orderedEntries) {
+      summaries.add(new Summary(entry.pid, entry.clauseUpdates.sum(), entry.state));
+    }
+    return summaries;
+  }
+
+  private Entry getEntry(ProducerId pid) {
+    Objects.requireNonNull(pid);
+    Entry entry = entries.get(pid);
+    if (entry != null) {
+      return entry;
+    }
+    return entries.computeIfAbsent(pid, p -> {
+      Entry created;
+      // so that the sources match the order of the summaries
+      synchronized (orderedEntries) {
+        created = new Entry(p, orderedEntries.size() + 1);
+        orderedEntries.add(created);
+      }
+      activeCount.incrementAndGet();
+      return created;
+    });
+  }
+}
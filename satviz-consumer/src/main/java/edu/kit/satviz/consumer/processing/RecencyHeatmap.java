@@ -29,18 +29,32 @@ public class RecencyHeatmap extends Heatmap {
 
   @Override
   public HeatUpdate process(ClauseUpdate[] updates, Graph graph, IntUnaryOperator nodeMapping) {
-
     for (ClauseUpdate update : updates) {
-      Clause previous = recentClauses[cursor];
-      if (previous != null) {
-        removeClause(previous);
-      }
-      recentClauses[cursor] = update.clause();
-      increaseCursor();
+      addClause(update.clause());
+    }
+    return createUpdate(nodeMapping);
+  }
+
+  @Override
+  public HeatUpdate process(ClauseBatch batch, Graph graph, IntUnaryOperator nodeMapping) {
+    for (int i = skipOverwritten(batch); i < batch.size(); i++) {
+      addClause(batch.getClause(i));
     }
+    return createUpdate(nodeMapping);
+  }
+
+  private void addClause(Clause clause) {
+    Clause previous = recentClauses[cursor];
+    if (previous != null) {
+      removeClause(previous);
+    }
+    recentClauses[cursor] = clause;
+    increaseCursor();
+  }
 
+  private HeatUpdate createUpdate(IntUnaryOperator nodeMapping) {
     int size = recentClauses.length;
-    HeatUpdate update = new HeatUpdate();
+    HeatUpdate update = clearedHeatUpdate();
     zeroPendingVariables(update, nodeMapping);
     for (int i = 1; i <= size; i++) {
       Clause subject = recentClauses[(i + cursor - 1) % size];
@@ -18,17 +18,18 @@ public class RingInteractionGraph extends VariableInteractionGraph {
 
   @Override
   protected void process(
-      WeightUpdate weightUpdate, int[] variables, float weight, IntUnaryOperator nodeMapping
+      WeightUpdate weightUpdate, int[] variables, int length, float weight,
+      IntUnaryOperator nodeMapping
   ) {
-    Arrays.sort(variables);
-    for (int i = 0; i < variables.length - 1; i++) {
+    Arrays.sort(variables, 0, length);
+    for (int i = 0; i < length - 1; i++) {
       weightUpdate.add(
           nodeMapping.applyAsInt(variables[i]), nodeMapping.applyAsInt(variables[i + 1]), weight
       );
     }
     weightUpdate.add(
         nodeMapping.applyAsInt(variables[0]),
-        nodeMapping.applyAsInt(variables[variables.length - 1]),
+        nodeMapping.applyAsInt(variables[length - 1]),
         weight
     );
   }
@@ -0,0 +1,36 @@
+package edu.kit.satviz.consumer.processing;
+
+import java.util.Collection;
+import java.util.NavigableMap;
+
+/**
+ * Decides when a {@link ClauseCoordinator} takes snapshots and which snapshots it keeps.
+ *
+ * @see FixedSnapshotPolicy
+ * @see AdaptiveSnapshotPolicy
+ */
+public interface SnapshotPolicy {
+
+  /**
+   * Decides whether a snapshot should be taken at the current update.
+   *
+   * @param replayDistance The amount of clause updates between the closest preceding snapshot
+   *                       and the current update.
+   * @param replayNanos The estimated time in nanoseconds it takes to replay these updates,
+   *                    i.e. the time it would take to seek to the current update.
+   * @return <i>true</i>, if a snapshot should be taken,<br>
+   *         <i>false</i>, if not.
+   */
+  boolean shouldTakeSnapshot(long replayDistance, long replayNanos);
+
+  /**
+   * Selects snapshots that should be discarded.
+   *
+   * <p>The first snapshot (at index {@code 0}) is never discarded, even if it is selected.
+   *
+   * @param snapshotSizes The indices of all current snapshots, mapped to their size in bytes.
+   * @return The indices of the snapshots to discard.
+   */
+  Collection<Long> selectEvictions(NavigableMap<Long, Long> snapshotSizes);
+
+}
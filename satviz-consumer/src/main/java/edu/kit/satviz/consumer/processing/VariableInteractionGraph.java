@@ -9,6 +9,9 @@ import edu.kit.satviz.serial.StringSerializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.IntUnaryOperator;
 
 /**
@@ -24,8 +27,19 @@ public abstract class VariableInteractionGraph implements ClauseUpdateProcessor
   public static final VariableInteractionGraphImplementation DEFAULT_IMPLEMENTATION =
       VariableInteractionGraphImplementation.RING;
 
+  /** The amount of clauses processed by a single task when processing in parallel. */
+  public static final int CHUNK_SIZE = 1024;
+
   private WeightFactor weightFactor;
   private final StringSerializer serializer;
+  // scratch space for the variables of the clause currently being processed
+  private int[] variables;
+  private WeightUpdate reusableUpdate;
+  private ForkJoinPool forkJoinPool;
+  // partial results of the chunks, reused for every parallel call to process
+  private WeightUpdate[] partials;
+  // scratch space of the threads processing chunks
+  private final ThreadLocal<int[]> chunkVariables;
 
   /**
    * Create a VIG with the given initial {@code WeightFactor}.
@@ -35,6 +49,9 @@ public abstract class VariableInteractionGraph implements ClauseUpdateProcessor
   protected VariableInteractionGraph(WeightFactor weightFactor) {
     this.weightFactor = weightFactor;
     this.serializer = new StringSerializer();
+    this.variables = new int[16];
+    this.partials = new WeightUpdate[0];
+    this.chunkVariables = ThreadLocal.withInitial(() -> new int[16]);
   }
 
   /**
@@ -46,6 +63,19 @@ public abstract class VariableInteractionGraph implements ClauseUpdateProcessor
     this.weightFactor = weightFactor;
   }
 
+  /**
+   * Sets the pool used to process large amounts of clause updates in parallel.<br>
+   * If a pool is set, the clause updates passed to {@code process} are split into chunks of
+   * {@value #CHUNK_SIZE} clauses that are processed in parallel and merged afterwards.
+   * The result is deterministic, but weights may differ from the sequential result
+   * by floating point rounding because they are summed in a different order.
+   *
+   * @param forkJoinPool The pool to use, or {@code null} to process sequentially (the default).
+   */
+  public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
+  }
+
   /**
    * This getter-method returns the {@code WeightFactor}, which is currently used for processing.
    *
@@ -59,27 +89,168 @@ public abstract class VariableInteractionGraph implements ClauseUpdateProcessor
   public WeightUpdate process(
       ClauseUpdate[] clauseUpdates, Graph graph, IntUnaryOperator nodeMapping
   ) {
-    WeightUpdate weightUpdate = new WeightUpdate();
+    if (isParallel(clauseUpdates.length)) {
+      return process(ClauseBatch.of(clauseUpdates), graph, nodeMapping);
+    }
+    WeightUpdate weightUpdate = clearedWeightUpdate();
     for (ClauseUpdate clauseUpdate : clauseUpdates) {
       int[] literals = clauseUpdate.clause().literals();
       if (literals.length < 2) {
         continue;
       }
+      variables = ensureCapacity(variables, literals.length);
       for (int i = 0; i < literals.length; i++) {
-        literals[i] = Math.abs(literals[i]);
+        variables[i] = Math.abs(literals[i]);
       }
+      processClause(weightUpdate, variables, literals.length, clauseUpdate.type(), nodeMapping);
+    }
+    return weightUpdate;
+  }
 
-      float weight = (float) weightFactor.apply(literals.length);
-      weight = (clauseUpdate.type() == ClauseUpdate.Type.ADD) ? weight : -weight;
-      process(weightUpdate, literals, weight, nodeMapping);
+  @Override
+  public WeightUpdate process(ClauseBatch batch, Graph graph, IntUnaryOperator nodeMapping) {
+    if (isParallel(batch.size())) {
+      ensurePartials((batch.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+      return forkJoinPool.invoke(new ChunkTask(batch, 0, batch.size(), nodeMapping));
     }
+    WeightUpdate weightUpdate = clearedWeightUpdate();
+    variables = processRange(batch, 0, batch.size(), weightUpdate, variables, nodeMapping);
     return weightUpdate;
   }
 
+  /**
+   * Adds the weight changes caused by a batch of clause updates to an existing
+   * {@code WeightUpdate}.<br>
+   * Unlike {@code process}, this always runs on the calling thread and doesn't clear the
+   * {@code WeightUpdate}, so that the weight changes of many batches can be accumulated.
+   *
+   * @param batch The clause updates.
+   * @param weightUpdate The {@code WeightUpdate} to add the weight changes to.
+   * @param nodeMapping A mapping from variables to nodes.
+   */
+  public void processInto(
+      ClauseBatch batch, WeightUpdate weightUpdate, IntUnaryOperator nodeMapping
+  ) {
+    variables = processRange(batch, 0, batch.size(), weightUpdate, variables, nodeMapping);
+  }
+
+  private boolean isParallel(int clauses) {
+    return forkJoinPool != null && clauses > CHUNK_SIZE;
+  }
+
+  // processes the clauses [from, to) of the batch, returns the (possibly grown) scratch array
+  private int[] processRange(
+      ClauseBatch batch, int from, int to, WeightUpdate weightUpdate, int[] scratch,
+      IntUnaryOperator nodeMapping
+  ) {
+    for (int i = from; i < to; i++) {
+      int length = batch.getClauseLength(i);
+      if (length < 2) {
+        continue;
+      }
+      scratch = ensureCapacity(scratch, length);
+      batch.copyLiterals(i, scratch);
+      for (int j = 0; j < length; j++) {
+        scratch[j] = Math.abs(scratch[j]);
+      }
+      processClause(weightUpdate, scratch, length, batch.getType(i), nodeMapping);
+    }
+    return scratch;
+  }
+
+  // the same WeightUpdate is reused for every sequential call to process to avoid allocations
+  private WeightUpdate clearedWeightUpdate() {
+    if (reusableUpdate == null) {
+      reusableUpdate = new WeightUpdate();
+    } else {
+      reusableUpdate.clear();
+    }
+    return reusableUpdate;
+  }
+
+  private void ensurePartials(int chunks) {
+    if (partials.length < chunks) {
+      int oldLength = partials.length;
+      partials = Arrays.copyOf(partials, chunks);
+      for (int i = oldLength; i < chunks; i++) {
+        partials[i] = new WeightUpdate();
+      }
+    }
+  }
+
+  private static int[] ensureCapacity(int[] array, int length) {
+    return array.length < length ? new int[Math.max(length, array.length * 2)] : array;
+  }
+
+  private void processClause(
+      WeightUpdate weightUpdate, int[] variables, int length, ClauseUpdate.Type type,
+      IntUnaryOperator nodeMapping
+  ) {
+    float weight = (float) weightFactor.apply(length);
+    weight = (type == ClauseUpdate.Type.ADD) ? weight : -weight;
+    process(weightUpdate, variables, length, weight, nodeMapping);
+  }
+
+  /**
+   * Adds the weight changes for a single clause to a {@code WeightUpdate}.
+   *
+   * @param weightUpdate The {@code WeightUpdate} to add to.
+   * @param variables The (positive) variables of the clause. Only the first
+   *                  {@code length} elements are valid; implementations may reorder them.
+   * @param length The amount of variables in the clause.
+   * @param weight The weight change for the clause.
+   * @param nodeMapping A mapping from variables to nodes.
+   * @implSpec This method may be called concurrently for different clauses if a
+   *           {@link #setForkJoinPool(ForkJoinPool) fork-join pool} is set.
+   */
   protected abstract void process(
-      WeightUpdate weightUpdate, int[] variables, float weight, IntUnaryOperator nodeMapping
+      WeightUpdate weightUpdate, int[] variables, int length, float weight,
+      IntUnaryOperator nodeMapping
   );
 
+  /* Processes a range of a batch by recursively splitting it into chunks of CHUNK_SIZE clauses.
+     The split points only depend on the range, and partial results are always merged left to
+     right, so the result is the same no matter how the tasks are scheduled.
+     Every chunk uses the partial WeightUpdate of its index, and ranges are merged into the
+     partial of their first chunk, so no WeightUpdate is allocated once the pool is large enough. */
+  private final class ChunkTask extends RecursiveTask<WeightUpdate> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ClauseBatch batch;
+    private final int from;
+    private final int to;
+    private final IntUnaryOperator nodeMapping;
+
+    private ChunkTask(ClauseBatch batch, int from, int to, IntUnaryOperator nodeMapping) {
+      this.batch = batch;
+      this.from = from;
+      this.to = to;
+      this.nodeMapping = nodeMapping;
+    }
+
+    @Override
+    protected WeightUpdate compute() {
+      int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      if (chunks <= 1) {
+        WeightUpdate partial = partials[from / CHUNK_SIZE];
+        partial.clear();
+        chunkVariables.set(
+            processRange(batch, from, to, partial, chunkVariables.get(), nodeMapping)
+        );
+        return partial;
+      }
+      int mid = from + (chunks / 2) * CHUNK_SIZE;
+      ChunkTask left = new ChunkTask(batch, from, mid, nodeMapping);
+      ChunkTask right = new ChunkTask(batch, mid, to, nodeMapping);
+      left.fork();
+      WeightUpdate rightResult = right.compute();
+      WeightUpdate result = left.join();
+      result.addAll(rightResult);
+      return result;
+    }
+  }
+
   @Override
   public void serialize(OutputStream out) {
     try {
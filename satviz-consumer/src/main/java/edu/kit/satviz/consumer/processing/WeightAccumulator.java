@@ -0,0 +1,105 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.consumer.graph.WeightUpdate;
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Accumulates the weight changes caused by a sequence of clause updates in a single
+ * {@link WeightUpdate}.
+ *
+ * <p>Clause updates are collected in a {@link ClauseBatch} of at most {@value #BATCH_SIZE}
+ * clauses, which is passed to a {@link VariableInteractionGraph} whenever it is full. This way,
+ * the clause updates don't have to be kept in memory, and the memory needed only depends on the
+ * amount of edges.
+ *
+ * <p>This class is not thread safe; use {@link #collector(Supplier, IntUnaryOperator)} to
+ * accumulate a parallel stream.
+ */
+public final class WeightAccumulator {
+
+  /** The amount of clause updates that are processed at once. */
+  public static final int BATCH_SIZE = 4096;
+
+  private final VariableInteractionGraph vig;
+  private final IntUnaryOperator nodeMapping;
+  private final ClauseBatch batch;
+  private final WeightUpdate weightUpdate;
+
+  /**
+   * Create a new, empty {@code WeightAccumulator}.
+   *
+   * @param vig The VIG used to process the clause updates, which must not be used elsewhere.
+   * @param nodeMapping A mapping from variables to nodes.
+   */
+  public WeightAccumulator(VariableInteractionGraph vig, IntUnaryOperator nodeMapping) {
+    this.vig = vig;
+    this.nodeMapping = nodeMapping;
+    this.batch = new ClauseBatch(BATCH_SIZE, BATCH_SIZE * 4);
+    this.weightUpdate = new WeightUpdate();
+  }
+
+  /**
+   * Returns a collector that accumulates the weight changes of a stream of clause updates.
+   * Every part of a parallel stream is processed by its own VIG.
+   *
+   * @param vig A supplier of VIGs.
+   * @param nodeMapping A mapping from variables to nodes.
+   * @return a collector returning the accumulated weight changes
+   */
+  public static Collector<ClauseUpdate, ?, WeightUpdate> collector(
+      Supplier<? extends VariableInteractionGraph> vig, IntUnaryOperator nodeMapping
+  ) {
+    return Collector.of(
+        () -> new WeightAccumulator(vig.get(), nodeMapping),
+        WeightAccumulator::add,
+        WeightAccumulator::combine,
+        WeightAccumulator::finish
+    );
+  }
+
+  /**
+   * Add the weight changes of a clause update.
+   *
+   * @param clauseUpdate The clause update.
+   */
+  public void add(ClauseUpdate clauseUpdate) {
+    batch.add(clauseUpdate);
+    if (batch.size() >= BATCH_SIZE) {
+      flush();
+    }
+  }
+
+  /**
+   * Add all weight changes accumulated by another {@code WeightAccumulator}.
+   *
+   * @param other The other accumulator.
+   * @return this accumulator
+   */
+  public WeightAccumulator combine(WeightAccumulator other) {
+    flush();
+    other.flush();
+    weightUpdate.addAll(other.weightUpdate);
+    return this;
+  }
+
+  /**
+   * Returns the accumulated weight changes.
+   *
+   * @return a {@code WeightUpdate} containing the weight changes of all added clause updates.
+   */
+  public WeightUpdate finish() {
+    flush();
+    return weightUpdate;
+  }
+
+  private void flush() {
+    if (batch.size() > 0) {
+      vig.processInto(batch, weightUpdate, nodeMapping);
+      batch.clear();
+    }
+  }
+
+}
@@ -2,8 +2,11 @@ package edu.kit.satviz.consumer.graph;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -66,4 +69,53 @@ class GraphTest {
     assertTrue(output.toByteArray().length > 0);
   }
 
+  @Test
+  void test_deserialize_malformed() {
+    var input = new ByteArrayInputStream(new byte[] {1, 2, 3});
+    assertThrows(IOException.class, () -> graph.deserialize(input));
+  }
+
+  @Test
+  void test_writeSnapshot_readSnapshot() throws IOException {
+    Path file = Files.createTempFile("satviz-graph", null);
+    try {
+      var update = new WeightUpdate();
+      update.add(0, 1, 1.0f);
+      graph.submitUpdate(update);
+      graph.writeSnapshot(file);
+
+      update.clear();
+      update.add(0, 1, -1.0f);
+      update.add(1, 2, 2.0f);
+      graph.submitUpdate(update);
+      graph.readSnapshot(file);
+      assertEquals(new EdgeInfo(new Edge(0, 1), 1), graph.queryEdge(0, 1));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void test_captureSnapshot() throws IOException {
+    Path file = Files.createTempFile("satviz-graph", null);
+    try {
+      var update = new WeightUpdate();
+      update.add(0, 1, 1.0f);
+      graph.submitUpdate(update);
+      try (Graph.SerializedGraph data = graph.captureSnapshot()) {
+        assertTrue(data.size() > 0);
+        data.writeTo(file);
+        assertEquals(data.size(), Files.size(file));
+      }
+
+      update.clear();
+      update.add(0, 1, -1.0f);
+      graph.submitUpdate(update);
+      graph.readSnapshot(file);
+      assertEquals(new EdgeInfo(new Edge(0, 1), 1), graph.queryEdge(0, 1));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
 }
@@ -0,0 +1,108 @@
+package edu.kit.satviz.consumer.graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WeightUpdateTest {
+
+  private WeightUpdate update;
+
+  @BeforeEach
+  void setUp() {
+    update = new WeightUpdate();
+  }
+
+  @Test
+  void test_add_accumulates() {
+    update.add(0, 1, 1.0f);
+    update.add(0, 1, 0.5f);
+    update.add(1, 0, 2.0f);
+    assertEquals(2, update.size());
+    var expected = new WeightUpdate();
+    expected.add(1, 0, 2.0f);
+    expected.add(0, 1, 1.5f);
+    assertEquals(expected, update);
+    assertEquals(expected.hashCode(), update.hashCode());
+  }
+
+  @Test
+  void test_add_grows() {
+    for (int i = 0; i < 1000; i++) {
+      update.add(i, i + 1, i);
+    }
+    assertEquals(1000, update.size());
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(update.contains(new Edge(i, i + 1)));
+    }
+    assertFalse(update.contains(new Edge(1, 0)));
+  }
+
+  @Test
+  void test_clear() {
+    update.add(2, 3, 1.0f);
+    update.clear();
+    assertEquals(0, update.size());
+    assertFalse(update.contains(new Edge(2, 3)));
+    assertEquals(new WeightUpdate(), update);
+  }
+
+  @Test
+  void test_clear_reuse() {
+    for (int i = 0; i < 1000; i++) {
+      update.add(i, i + 1, i);
+    }
+    update.clear();
+    assertEquals(new WeightUpdate(), update);
+    update.add(2, 3, 1.0f);
+    update.add(2, 3, 1.0f);
+    assertEquals(1, update.size());
+    assertFalse(update.contains(new Edge(0, 1)));
+    var expected = new WeightUpdate();
+    expected.add(2, 3, 2.0f);
+    assertEquals(expected, update);
+  }
+
+  @Test
+  void test_addAll() {
+    var other = new WeightUpdate();
+    other.add(0, 1, 1.0f);
+    other.add(4, 5, 2.0f);
+    update.add(0, 1, 1.0f);
+    update.addAll(other);
+    var expected = new WeightUpdate();
+    expected.add(0, 1, 2.0f);
+    expected.add(4, 5, 2.0f);
+    assertEquals(expected, update);
+  }
+
+  @Test
+  void test_addAll_mapped() {
+    var other = new WeightUpdate();
+    other.add(0, 1, 1.0f);
+    other.add(0, 2, 2.0f);
+    other.add(2, 3, 3.0f);
+    int[] mapping = {0, 1, 1, 2};
+    update.addAll(other, i -> mapping[i]);
+    var expected = new WeightUpdate();
+    expected.add(0, 1, 3.0f);
+    expected.add(1, 2, 3.0f);
+    assertEquals(expected, update);
+  }
+
+  @Test
+  void test_submitTo_reused() {
+    try (Graph graph = Graph.create(3)) {
+      update.add(0, 1, 1.0f);
+      graph.submitUpdate(update);
+      update.clear();
+      update.add(0, 1, 1.0f);
+      update.add(1, 2, 2.0f);
+      graph.submitUpdate(update);
+      assertEquals(new EdgeInfo(new Edge(0, 1), 2), graph.queryEdge(0, 1));
+      assertEquals(new EdgeInfo(new Edge(1, 2), 2), graph.queryEdge(1, 2));
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+package edu.kit.satviz.consumer.processing;
+
+import org.junit.jupiter.api.Test;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveSnapshotPolicyTest {
+
+  private static NavigableMap<Long, Long> evenlySpaced(int amount, long spacing, long size) {
+    NavigableMap<Long, Long> snapshots = new TreeMap<>();
+    for (int i = 0; i < amount; i++) {
+      snapshots.put(i * spacing, size);
+    }
+    return snapshots;
+  }
+
+  @Test
+  void test_constructor_invalid() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveSnapshotPolicy(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveSnapshotPolicy(1, 0));
+  }
+
+  @Test
+  void test_shouldTakeSnapshot() {
+    SnapshotPolicy policy = new AdaptiveSnapshotPolicy(1000, 1);
+    assertFalse(policy.shouldTakeSnapshot(10, 999));
+    assertTrue(policy.shouldTakeSnapshot(10, 1000));
+    // there is nothing to replay, no matter how slow replaying is
+    assertFalse(policy.shouldTakeSnapshot(0, 5000));
+  }
+
+  @Test
+  void test_selectEvictions_withinBudget() {
+    SnapshotPolicy policy = new AdaptiveSnapshotPolicy(1, 100);
+    assertTrue(policy.selectEvictions(evenlySpaced(10, 50, 10)).isEmpty());
+  }
+
+  @Test
+  void test_selectEvictions_overBudget() {
+    SnapshotPolicy policy = new AdaptiveSnapshotPolicy(1, 55);
+    NavigableMap<Long, Long> snapshots = evenlySpaced(10, 50, 10);
+    Collection<Long> evictions = policy.selectEvictions(snapshots);
+    assertTrue(evictions.size() >= 5);
+    // the first and the most recent snapshot are kept
+    assertFalse(evictions.contains(0L));
+    assertFalse(evictions.contains(450L));
+    evictions.forEach(snapshots::remove);
+    assertTrue(snapshots.values().stream().mapToLong(Long::longValue).sum() <= 55);
+  }
+
+  @Test
+  void test_selectEvictions_oldFirst() {
+    SnapshotPolicy policy = new AdaptiveSnapshotPolicy(1, 90);
+    Collection<Long> evictions = policy.selectEvictions(evenlySpaced(10, 50, 10));
+    // with even spacing, the oldest snapshot that may be removed is the cheapest to remove
+    assertTrue(evictions.contains(50L));
+    assertFalse(evictions.contains(400L));
+  }
+
+  @Test
+  void test_selectEvictions_keepsFirstAndLatest() {
+    SnapshotPolicy policy = new AdaptiveSnapshotPolicy(1, 1);
+    Collection<Long> evictions = policy.selectEvictions(evenlySpaced(2, 50, 10));
+    assertTrue(evictions.isEmpty());
+  }
+
+}
@@ -0,0 +1,56 @@
+package edu.kit.satviz.consumer.processing;
+
+import static edu.kit.satviz.consumer.processing.Constants.UPDATES;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClauseBatchTest {
+
+  private ClauseBatch batch;
+
+  @BeforeEach
+  void setUp() {
+    batch = new ClauseBatch(1, 1);
+  }
+
+  @Test
+  void test_add_grows() {
+    for (ClauseUpdate update : UPDATES) {
+      batch.add(update);
+    }
+    assertEquals(UPDATES.length, batch.size());
+    assertArrayEquals(UPDATES, batch.toClauseUpdates());
+  }
+
+  @Test
+  void test_accessors() {
+    batch.add(ClauseUpdate.Type.REMOVE, 4, -2, 7);
+    batch.add(ClauseUpdate.Type.ADD);
+    assertEquals(ClauseUpdate.Type.REMOVE, batch.getType(0));
+    assertEquals(ClauseUpdate.Type.ADD, batch.getType(1));
+    assertEquals(3, batch.getClauseLength(0));
+    assertEquals(0, batch.getClauseLength(1));
+    assertEquals(-2, batch.getLiteral(0, 1));
+    assertEquals(new Clause(new int[] {4, -2, 7}), batch.getClause(0));
+    int[] dest = new int[3];
+    assertEquals(3, batch.copyLiterals(0, dest));
+    assertArrayEquals(new int[] {4, -2, 7}, dest);
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.getLiteral(0, 3));
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.getType(2));
+  }
+
+  @Test
+  void test_clear() {
+    batch.add(UPDATES[0]);
+    batch.clear();
+    assertEquals(0, batch.size());
+    batch.add(UPDATES[1]);
+    assertEquals(ClauseBatch.of(UPDATES[1]), batch);
+    assertEquals(ClauseBatch.of(UPDATES[1]).hashCode(), batch.hashCode());
+  }
+
+}
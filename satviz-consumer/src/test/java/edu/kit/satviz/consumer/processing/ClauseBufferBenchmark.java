@@ -0,0 +1,81 @@
+package edu.kit.satviz.consumer.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.SerializationException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Measures the range reads per second of the {@link ClauseBuffer} implementations.
+ * Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+class ClauseBufferBenchmark {
+
+  private static final long[] SIZES = {1_000_000, 10_000_000};
+  private static final int CHUNK = 10_000;
+  private static final int RANGE = 1_000;
+  private static final long DURATION_NANOS = 2_000_000_000L;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void fileStream() throws IOException, SerializationException {
+    rangeReads(ClauseBufferImplementation.FILE_STREAM);
+  }
+
+  @Test
+  void memoryMapped() throws IOException, SerializationException {
+    rangeReads(ClauseBufferImplementation.MEMORY_MAPPED);
+  }
+
+  private void rangeReads(ClauseBufferImplementation implementation)
+      throws IOException, SerializationException {
+    for (long size : SIZES) {
+      Path bufferDir = Files.createTempDirectory(dir, "buffer");
+      try (ClauseBuffer buffer = ClauseBuffer.create(implementation, bufferDir)) {
+        fill(buffer, size);
+        Random random = new Random(42);
+        ClauseBatch batch = new ClauseBatch();
+        long reads = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+          long index = (long) (random.nextDouble() * (size - RANGE));
+          assertEquals(RANGE, buffer.readClauseUpdates(index, RANGE, batch));
+          reads++;
+          elapsed = System.nanoTime() - start;
+        } while (elapsed < DURATION_NANOS);
+        System.out.printf("%-14s %,12d updates: %,10.0f reads/s of %d updates%n",
+            implementation, size, reads / (elapsed / 1e9), RANGE);
+      }
+    }
+  }
+
+  private static void fill(ClauseBuffer buffer, long size) throws IOException {
+    Random random = new Random(42);
+    ClauseUpdate[] chunk = new ClauseUpdate[CHUNK];
+    for (long added = 0; added < size; added += CHUNK) {
+      for (int i = 0; i < CHUNK; i++) {
+        // mostly short clauses, some long learned ones
+        int[] literals = new int[2 + random.nextInt(random.nextInt(10) == 0 ? 100 : 6)];
+        for (int j = 0; j < literals.length; j++) {
+          int variable = 1 + random.nextInt(1_000_000);
+          literals[j] = random.nextBoolean() ? variable : -variable;
+        }
+        chunk[i] = ClauseUpdate.of(
+            random.nextInt(8) == 0 ? ClauseUpdate.Type.REMOVE : ClauseUpdate.Type.ADD, literals);
+      }
+      buffer.addClauseUpdates(chunk, 0, CHUNK);
+    }
+  }
+
+}
@@ -1,6 +1,7 @@
 package edu.kit.satviz.consumer.processing;
 
 import edu.kit.satviz.consumer.graph.Graph;
+import edu.kit.satviz.consumer.graph.GraphUpdate;
 import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.serial.SerializationException;
 import java.nio.file.Files;
@@ -9,21 +10,31 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntUnaryOperator;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class ClauseCoordinatorTest {
 
@@ -77,7 +88,7 @@ class ClauseCoordinatorTest {
       processor1AdvanceCalls++;
     }
     verify(processor1, times(processor1AdvanceCalls)).process(
-        notNull(), eq(graph), eq(DEFAULT_NODE_MAPPING)
+        any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING)
     );
     coordinator.addProcessor(processor2);
     while (clausesAdded < clauseUpdates.length) {
@@ -86,10 +97,10 @@ class ClauseCoordinatorTest {
       processor2AdvanceCalls++;
     }
     verify(processor1, times(processor1AdvanceCalls)).process(
-            notNull(), eq(graph), eq(DEFAULT_NODE_MAPPING)
+            any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING)
     );
     verify(processor2, times(processor2AdvanceCalls)).process(
-        notNull(), eq(graph), eq(DEFAULT_NODE_MAPPING)
+        any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING)
     );
   }
 
@@ -113,18 +124,56 @@ class ClauseCoordinatorTest {
       coordinator.addClauseUpdate(update);
     }
     assertEquals(4, coordinator.totalUpdateCount());
-    verify(processor1, never()).process(notNull(), eq(graph), eq(DEFAULT_NODE_MAPPING));
+    verify(processor1, never()).process(
+        any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING)
+    );
     coordinator.advanceVisualization(1);
     verify(processor1).process(
-        Arrays.copyOfRange(clauseUpdates, 0, 1), graph, DEFAULT_NODE_MAPPING
+        ClauseBatch.of(Arrays.copyOfRange(clauseUpdates, 0, 1)), graph, DEFAULT_NODE_MAPPING
+    );
+  }
+
+  @Test
+  void test_addClauseUpdates() throws IOException, SerializationException {
+    ClauseUpdate[] updates = {
+        clauseUpdates[0],
+        ClauseUpdate.of(ClauseUpdate.Type.ADD, 1, 7),
+        clauseUpdates[1],
+        ClauseUpdate.of(ClauseUpdate.Type.ADD, 2, -2),
+        clauseUpdates[2]
+    };
+    assertEquals(2, coordinator.addClauseUpdates(updates, 0, updates.length));
+    assertEquals(3, coordinator.totalUpdateCount());
+    coordinator.advanceVisualization(3);
+    verify(processor1).process(
+        ClauseBatch.of(Arrays.copyOfRange(clauseUpdates, 0, 3)), graph, DEFAULT_NODE_MAPPING
     );
   }
 
+  @Test
+  void test_addClauseUpdates_sources() throws IOException, SerializationException {
+    coordinator.addClauseUpdate(clauseUpdates[0]);
+    coordinator.addClauseUpdates(clauseUpdates, 1, 2, 2);
+    coordinator.addClauseUpdate(clauseUpdates[3], 1);
+    coordinator.addClauseUpdates(clauseUpdates, 4, 2, 1);
+    int[] sources = new int[6];
+    doAnswer(invocation -> {
+      ClauseBatch batch = invocation.getArgument(0);
+      for (int i = 0; i < batch.size(); i++) {
+        sources[(int) coordinator.currentUpdate() + i] = batch.getSource(i);
+      }
+      return null;
+    }).when(processor1).process(any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING));
+    coordinator.advanceVisualization(2);
+    coordinator.advanceVisualization(4);
+    assertArrayEquals(new int[] {ClauseBatch.NO_SOURCE, 2, 2, 1, 1, 1}, sources);
+  }
+
   // takeSnapshot
 
   @Test
   void test_takeSnapshot_initialSnapshot() throws IOException {
-    verify(graph).serialize(any());
+    verify(graph).writeSnapshot(any());
   }
 
   @Test
@@ -134,7 +183,7 @@ class ClauseCoordinatorTest {
     }
     coordinator.advanceVisualization(3);
     coordinator.takeSnapshot();
-    verify(graph, times(2)).serialize(any());
+    verify(graph, times(2)).writeSnapshot(any());
     verify(processor1).serialize(any());
   }
 
@@ -148,10 +197,10 @@ class ClauseCoordinatorTest {
     }
     assertEquals(0, coordinator.currentUpdate());
     coordinator.seekToUpdate(4);
-    verify(processor1).process(someUpdates, graph, DEFAULT_NODE_MAPPING);
+    verify(processor1).process(ClauseBatch.of(someUpdates), graph, DEFAULT_NODE_MAPPING);
     assertEquals(4, coordinator.currentUpdate());
     // unnecessary deserialization should be avoided
-    verify(graph, never()).deserialize(any());
+    verify(graph, never()).readSnapshot(any());
     verify(processor1, never()).deserialize(any());
   }
 
@@ -169,7 +218,7 @@ class ClauseCoordinatorTest {
     coordinator.seekToUpdate(3);
     assertEquals(3, coordinator.currentUpdate());
     // unnecessary deserialization should be avoided
-    verify(graph, never()).deserialize(any());
+    verify(graph, never()).readSnapshot(any());
     verify(processor1, never()).deserialize(any());
   }
 
@@ -186,7 +235,7 @@ class ClauseCoordinatorTest {
 
     coordinator.seekToUpdate(6);
     assertEquals(6, coordinator.currentUpdate());
-    verify(graph).deserialize(any());
+    verify(graph).readSnapshot(any());
     verify(processor1).deserialize(any());
   }
 
@@ -207,8 +256,8 @@ class ClauseCoordinatorTest {
     coordinator.takeSnapshot(); // first serialization of processor2
     // -  -  -  p  =  =  =  = >pp ~  ~
 
-    verify(processor1, times(2)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
-    verify(processor2, times(1)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor1, times(2)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor2, times(1)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
 
     // -  -  -  p  =  =  =  = >pp ~  ~
     coordinator.seekToUpdate(5);
@@ -219,8 +268,8 @@ class ClauseCoordinatorTest {
     verify(processor1, times(0)).reset();
     verify(processor2, times(0)).deserialize(any());
     verify(processor2, times(1)).reset();
-    verify(processor1, times(3)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
-    verify(processor2, times(2)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor1, times(3)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor2, times(2)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
 
     // -  -  -  p >c  =  =  =  pp ~  ~
     coordinator.takeSnapshot(); // serializing reset state of processor2 (not necessary)
@@ -236,8 +285,8 @@ class ClauseCoordinatorTest {
     verify(processor1, times(1)).reset();
     verify(processor2, times(0)).deserialize(any());
     verify(processor2, times(2)).reset();
-    verify(processor1, times(4)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
-    verify(processor2, times(3)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor1, times(4)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor2, times(3)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
 
     // = >c  -  p  pp =  =  =  pp ~  ~
     coordinator.seekToUpdate(7);
@@ -249,8 +298,8 @@ class ClauseCoordinatorTest {
     verify(processor1, times(1)).reset();
     verify(processor2, times(1)).deserialize(any());
     verify(processor2, times(2)).reset();
-    verify(processor1, times(5)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
-    verify(processor2, times(4)).process(any(), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor1, times(5)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
+    verify(processor2, times(4)).process(any(ClauseBatch.class), any(), eq(DEFAULT_NODE_MAPPING));
   }
 
   @Test
@@ -263,6 +312,109 @@ class ClauseCoordinatorTest {
     assertThrows(IllegalArgumentException.class, () -> coordinator.seekToUpdate(-1));
   }
 
+  @Test
+  void test_advanceVisualization_concurrent() throws IOException, SerializationException {
+    GraphUpdate update1 = mock(GraphUpdate.class);
+    GraphUpdate update2 = mock(GraphUpdate.class);
+    when(processor1.process(any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING)))
+        .thenReturn(update1);
+    when(processor2.process(any(ClauseBatch.class), eq(graph), eq(DEFAULT_NODE_MAPPING)))
+        .thenReturn(update2);
+    coordinator.addProcessor(processor2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      coordinator.setProcessingExecutor(executor);
+      for (ClauseUpdate update : Arrays.copyOfRange(clauseUpdates, 0, 4)) {
+        coordinator.addClauseUpdate(update);
+      }
+      assertEquals(4, coordinator.advanceVisualization(4));
+    } finally {
+      executor.shutdown();
+    }
+    InOrder inOrder = inOrder(graph);
+    inOrder.verify(graph).submitUpdate(update1);
+    inOrder.verify(graph).submitUpdate(update2);
+    assertEquals(4, coordinator.currentUpdate());
+  }
+
+  @Test
+  void test_takeSnapshot_async()
+      throws IOException, SerializationException, InterruptedException {
+    for (ClauseUpdate update : Arrays.copyOfRange(clauseUpdates, 0, 11)) {
+      coordinator.addClauseUpdate(update);
+    }
+    Graph.SerializedGraph graphData = mock(Graph.SerializedGraph.class);
+    when(graph.captureSnapshot()).thenReturn(graphData);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      coordinator.setSnapshotExecutor(executor);
+      coordinator.advanceVisualization(4);
+      coordinator.takeSnapshot();
+      coordinator.advanceVisualization(5);
+      coordinator.takeSnapshot();
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    // the state is captured in memory, only the initial snapshot is written directly
+    verify(graph, times(2)).captureSnapshot();
+    verify(graph, never()).serialize(any());
+    verify(graph, times(1)).writeSnapshot(any());
+    verify(graphData, times(2)).writeTo(any());
+    verify(graphData, times(2)).close();
+    assertEquals(3, coordinator.getSnapshotMetrics().snapshots());
+
+    coordinator.seekToUpdate(6);
+    assertEquals(6, coordinator.currentUpdate());
+    verify(graph).readSnapshot(any());
+    verify(processor1).deserialize(any());
+  }
+
+  @Test
+  void test_takeSnapshotIfDue() throws SerializationException, IOException {
+    for (ClauseUpdate update : Arrays.copyOfRange(clauseUpdates, 0, 10)) {
+      coordinator.addClauseUpdate(update);
+    }
+    coordinator.setSnapshotPolicy(new FixedSnapshotPolicy(4));
+    coordinator.advanceVisualization(3);
+    assertFalse(coordinator.takeSnapshotIfDue());
+    coordinator.advanceVisualization(1);
+    assertTrue(coordinator.takeSnapshotIfDue());
+    assertFalse(coordinator.takeSnapshotIfDue());
+    coordinator.advanceVisualization(4);
+    assertTrue(coordinator.takeSnapshotIfDue());
+    verify(graph, times(3)).writeSnapshot(any());
+  }
+
+  @Test
+  void test_takeSnapshot_evictions() throws SerializationException, IOException {
+    for (ClauseUpdate update : Arrays.copyOfRange(clauseUpdates, 0, 10)) {
+      coordinator.addClauseUpdate(update);
+    }
+    doAnswer(invocation -> {
+      invocation.<OutputStream>getArgument(0).write(1);
+      return null;
+    }).when(processor1).serialize(any());
+    // keeps only the initial and the most recent snapshot
+    coordinator.setSnapshotPolicy(new AdaptiveSnapshotPolicy(1, 1));
+    coordinator.advanceVisualization(3);
+    coordinator.takeSnapshot();
+    coordinator.advanceVisualization(3);
+    coordinator.takeSnapshot();
+    coordinator.advanceVisualization(3);
+    coordinator.takeSnapshot();
+    // the snapshots are stored in a directory inside of the temporary directory
+    try (var files = Files.walk(Paths.get(TEMP_DIR))) {
+      assertEquals(2, files.filter(f -> f.getFileName().toString().startsWith("snapshot-graph"))
+          .count());
+    }
+
+    // the snapshots at updates 3 and 6 are gone, so this has to start from the initial snapshot
+    coordinator.seekToUpdate(4);
+    assertEquals(4, coordinator.currentUpdate());
+    verify(processor1, never()).deserialize(any());
+  }
+
   @AfterEach
   void clean() throws IOException {
     coordinator.close();
@@ -0,0 +1,129 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClauseIngestorTest {
+
+  private static final int CAPACITY = 4;
+  private static final int UPDATES = 1000;
+
+  private ClauseCoordinator coordinator;
+  private List<ClauseUpdate> ingested;
+  private CountDownLatch release;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    coordinator = mock(ClauseCoordinator.class);
+    ingested = Collections.synchronizedList(new ArrayList<>());
+    release = new CountDownLatch(0);
+    when(coordinator.addClauseUpdates(any(), anyInt(), anyInt(), anyInt()))
+        .thenAnswer(invocation -> {
+          release.await();
+          ClauseUpdate[] updates = invocation.getArgument(0);
+          int offset = invocation.getArgument(1);
+          int length = invocation.getArgument(2);
+          ingested.addAll(Arrays.asList(updates).subList(offset, offset + length));
+          return 0;
+        });
+  }
+
+  private List<ClauseUpdate> offerAll(ClauseIngestor ingestor) {
+    List<ClauseUpdate> offered = new ArrayList<>();
+    for (int i = 1; i <= UPDATES; i++) {
+      ClauseUpdate update = ClauseUpdate.of(ClauseUpdate.Type.ADD, i);
+      if (ingestor.offer(update)) {
+        offered.add(update);
+      }
+      if (i == UPDATES / 2) {
+        release.countDown();
+      }
+    }
+    return offered;
+  }
+
+  @Test
+  void test_offer_block() throws InterruptedException {
+    ClauseIngestor ingestor = new ClauseIngestor(coordinator, CAPACITY, BackpressurePolicy.BLOCK);
+    List<ClauseUpdate> offered = offerAll(ingestor);
+    ingestor.close();
+    assertEquals(UPDATES, offered.size());
+    assertEquals(offered, ingested);
+    assertEquals(UPDATES, ingestor.getIngestedCount());
+    assertEquals(0, ingestor.getQueueDepth());
+  }
+
+  @Test
+  void test_offer_drop() throws InterruptedException {
+    release = new CountDownLatch(1);
+    ClauseIngestor ingestor = new ClauseIngestor(coordinator, CAPACITY, BackpressurePolicy.DROP);
+    List<ClauseUpdate> offered = offerAll(ingestor);
+    ingestor.close();
+    assertTrue(ingestor.getDroppedCount() > 0);
+    assertEquals(UPDATES, offered.size() + ingestor.getDroppedCount());
+    assertEquals(offered, ingested);
+  }
+
+  @Test
+  void test_offer_spill() throws InterruptedException {
+    release = new CountDownLatch(1);
+    ClauseIngestor ingestor = new ClauseIngestor(coordinator, CAPACITY, BackpressurePolicy.SPILL);
+    // once the queue and the overflow queue are full, offer() has to wait for the coordinator
+    long limit = (long) (ClauseIngestor.SPILL_FACTOR + 1) * CAPACITY;
+    Thread releaser = new Thread(() -> {
+      while (ingestor.getQueueDepth() < limit) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+    });
+    releaser.start();
+    List<ClauseUpdate> offered = offerAll(ingestor);
+    releaser.join();
+    ingestor.close();
+    assertTrue(ingestor.getSpilledCount() >= ClauseIngestor.SPILL_FACTOR * CAPACITY);
+    assertTrue(ingestor.getStallNanos() > 0);
+    assertEquals(UPDATES, offered.size());
+    // spilled updates must still be ingested in the order they were offered
+    assertEquals(offered, ingested);
+  }
+
+  @Test
+  void test_offer_rejected() throws IOException, InterruptedException {
+    doAnswer(invocation -> {
+      int length = invocation.getArgument(2);
+      return length;
+    }).when(coordinator).addClauseUpdates(any(), anyInt(), anyInt(), anyInt());
+    ClauseIngestor ingestor = new ClauseIngestor(coordinator, CAPACITY, BackpressurePolicy.BLOCK);
+    ingestor.offer(ClauseUpdate.of(ClauseUpdate.Type.ADD, 1, -1));
+    ingestor.close();
+    assertEquals(1, ingestor.getRejectedCount());
+    assertEquals(0, ingestor.getIngestedCount());
+  }
+
+  @Test
+  void test_offer_afterClose() throws InterruptedException {
+    ClauseIngestor ingestor = new ClauseIngestor(coordinator, CAPACITY, BackpressurePolicy.BLOCK);
+    ingestor.close();
+    ClauseUpdate update = ClauseUpdate.of(ClauseUpdate.Type.ADD, 1);
+    assertThrows(IllegalStateException.class, () -> ingestor.offer(update));
+    assertFalse(ingested.contains(update));
+  }
+
+}
@@ -0,0 +1,102 @@
+package edu.kit.satviz.consumer.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures clause validation with the stamps of {@link ClauseValidator}, compared to the nested
+ * loops used before, on learned clauses of realistic lengths.
+ * Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+class ClauseValidatorBenchmark {
+
+  private static final int VARIABLES = 1_000_000;
+  private static final int MAX_LENGTH = 2000;
+  // consecutive variables of a clause are at most 3 apart
+  private static final int VARIABLE_AMOUNT = VARIABLES + 3 * MAX_LENGTH;
+  private static final int CLAUSES = 200_000;
+  private static final int RUNS = 5;
+
+  private static ClauseUpdate[] updates;
+  private static long literals;
+
+  @BeforeAll
+  static void setUp() {
+    Random random = new Random(42);
+    updates = new ClauseUpdate[CLAUSES];
+    for (int i = 0; i < CLAUSES; i++) {
+      // learned clause lengths are roughly log-normal: mostly a few dozen literals, but
+      // clauses learned during restarts can have hundreds
+      int length = (int) Math.min(MAX_LENGTH, Math.max(1, Math.exp(3 + random.nextGaussian())));
+      int[] clause = new int[length];
+      int variable = 1 + random.nextInt(VARIABLES - length);
+      for (int j = 0; j < length; j++) {
+        variable += 1 + random.nextInt(3);
+        clause[j] = random.nextBoolean() ? variable : -variable;
+      }
+      // shuffle, so that the variables are not sorted
+      for (int j = length - 1; j > 0; j--) {
+        int k = random.nextInt(j + 1);
+        int tmp = clause[j];
+        clause[j] = clause[k];
+        clause[k] = tmp;
+      }
+      updates[i] = ClauseUpdate.of(ClauseUpdate.Type.ADD, clause);
+      literals += length;
+    }
+  }
+
+  @Test
+  void validate() {
+    ClauseValidator validator = new ClauseValidator(VARIABLE_AMOUNT);
+    report("stamps", () -> validator.findInvalid(updates, 0, updates.length));
+    report("nested loops", () -> {
+      for (int i = 0; i < updates.length; i++) {
+        if (!isValidQuadratic(updates[i], VARIABLE_AMOUNT)) {
+          return i;
+        }
+      }
+      return updates.length;
+    });
+  }
+
+  private static boolean isValidQuadratic(ClauseUpdate update, int variableAmount) {
+    int[] clause = update.clause().literals();
+    for (int i = 0; i < clause.length; i++) {
+      int variable = Math.abs(clause[i]);
+      if (variable < 1 || variable > variableAmount) {
+        return false;
+      }
+      for (int j = i + 1; j < clause.length; j++) {
+        if (variable == Math.abs(clause[j])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void report(String name, Run run) {
+    assertEquals(updates.length, run.findInvalid()); // warm-up
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      assertEquals(updates.length, run.findInvalid());
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-14s %,14.0f clauses/s %,16.0f literals/s%n", name,
+        CLAUSES / (best / 1e9), literals / (best / 1e9));
+  }
+
+  @FunctionalInterface
+  private interface Run {
+    int findInvalid();
+  }
+
+}
@@ -0,0 +1,59 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClauseValidatorTest {
+
+  private static final int VARIABLES = 10;
+
+  private ClauseValidator validator;
+
+  @BeforeEach
+  void setUp() {
+    validator = new ClauseValidator(VARIABLES);
+  }
+
+  private static ClauseUpdate add(int... literals) {
+    return ClauseUpdate.of(ClauseUpdate.Type.ADD, literals);
+  }
+
+  @Test
+  void test_isValid() {
+    assertTrue(validator.isValid(add()));
+    assertTrue(validator.isValid(add(1, -2, 10)));
+    assertTrue(validator.isValid(add(-10, 9, 8, 7, 6, 5, 4, 3, 2, 1)));
+  }
+
+  @Test
+  void test_isValid_outOfRange() {
+    assertFalse(validator.isValid(add(1, 11)));
+    assertFalse(validator.isValid(add(-11)));
+    assertFalse(validator.isValid(add(0)));
+    assertFalse(validator.isValid(add(Integer.MIN_VALUE)));
+  }
+
+  @Test
+  void test_isValid_duplicates() {
+    assertFalse(validator.isValid(add(1, 2, 1)));
+    assertFalse(validator.isValid(add(3, -3)));
+    // variables seen by previous checks must not count as duplicates
+    assertTrue(validator.isValid(add(1, 2, 3)));
+    assertTrue(validator.isValid(add(3, 2, 1)));
+  }
+
+  @Test
+  void test_findInvalid() {
+    ClauseUpdate[] updates = {add(1, 2), add(2, 3), add(4, 4), add(5), add(12)};
+    assertEquals(2, validator.findInvalid(updates, 0, updates.length));
+    assertEquals(2, validator.findInvalid(updates, 2, updates.length));
+    assertEquals(4, validator.findInvalid(updates, 3, updates.length));
+    assertEquals(2, validator.findInvalid(updates, 0, 2));
+  }
+
+}
@@ -12,6 +12,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.IntUnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -107,4 +109,33 @@ class CliqueInteractionGraphTest {
     }
   }
 
-}
\ No newline at end of file
+  /**
+   * This test checks that processing a large batch in parallel yields the same result as
+   * processing it sequentially.
+   */
+  @Test
+  void test_process_parallel() {
+    Random random = new Random(42);
+    ClauseBatch batch = new ClauseBatch();
+    for (int i = 0; i < 10 * VariableInteractionGraph.CHUNK_SIZE + 17; i++) {
+      int[] literals = random.ints(1, 201).distinct().limit(2 + random.nextInt(30)).toArray();
+      for (int j = 0; j < literals.length; j++) {
+        literals[j] = random.nextBoolean() ? literals[j] : -literals[j];
+      }
+      batch.add(random.nextBoolean() ? ClauseUpdate.Type.ADD : ClauseUpdate.Type.REMOVE, literals);
+    }
+    WeightUpdate expected = vig.process(batch, null, DEFAULT_NODE_MAPPING);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      VariableInteractionGraph parallelVig = new CliqueInteractionGraph(INITIAL_FACTOR);
+      parallelVig.setForkJoinPool(pool);
+      assertEquals(expected, parallelVig.process(batch, null, DEFAULT_NODE_MAPPING));
+      assertEquals(
+          expected, parallelVig.process(batch.toClauseUpdates(), null, DEFAULT_NODE_MAPPING)
+      );
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
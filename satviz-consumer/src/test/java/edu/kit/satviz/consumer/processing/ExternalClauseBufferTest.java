@@ -29,14 +29,18 @@ class ExternalClauseBufferTest {
   };
 
   private Path testDir;
-  private ExternalClauseBuffer buffer;
+  ClauseBuffer buffer;
 
   @BeforeEach
   void setUp() throws IOException {
     Path parent = Paths.get("build/test-files");
     Files.createDirectories(parent);
     testDir = Files.createTempDirectory(parent, "buffer-test");
-    buffer = new ExternalClauseBuffer(testDir);
+    buffer = createBuffer(testDir);
+  }
+
+  ClauseBuffer createBuffer(Path dir) throws IOException {
+    return new ExternalClauseBuffer(dir);
   }
 
   @AfterEach
@@ -105,6 +109,24 @@ class ExternalClauseBufferTest {
     assertArrayEquals(expected, result);
   }
 
+  @Test
+  void test_readClauseUpdates() throws IOException, SerializationException {
+    addUpdates();
+    ClauseBatch batch = ClauseBatch.of(EXAMPLE_UPDATE);
+    assertEquals(3, buffer.readClauseUpdates(1, 3, batch));
+    assertEquals(ClauseBatch.of(Arrays.copyOfRange(UPDATES, 1, 4)), batch);
+    assertEquals(2, buffer.readClauseUpdates(3, 10, batch));
+    assertArrayEquals(Arrays.copyOfRange(UPDATES, 3, 5), batch.toClauseUpdates());
+  }
+
+  @Test
+  void test_addClauseUpdates() throws IOException, SerializationException {
+    buffer.addClauseUpdate(UPDATES[0]);
+    buffer.addClauseUpdates(UPDATES, 1, UPDATES.length - 1);
+    assertEquals(UPDATES.length, buffer.size());
+    assertArrayEquals(UPDATES, buffer.getClauseUpdates(0, UPDATES.length));
+  }
+
   @Test
   void test_close() throws IOException, SerializationException {
     buffer.addClauseUpdate(EXAMPLE_UPDATE);
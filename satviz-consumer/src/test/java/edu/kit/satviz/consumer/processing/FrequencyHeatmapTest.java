@@ -90,5 +90,27 @@ class FrequencyHeatmapTest {
     test_process_single();
   }
 
+  @Test
+  void test_process_batchLargerThanWindow() {
+    for (FrequencyHeatmap.HeatStrategy strategy : FrequencyHeatmap.HeatStrategy.values()) {
+      Heatmap reference = new FrequencyHeatmap(2, strategy);
+      heatmap = new FrequencyHeatmap(2, strategy);
+      for (Heatmap h : new Heatmap[] {reference, heatmap}) {
+        h.process(new ClauseUpdate[] {UPDATES[0]}, null, DEFAULT_NODE_MAPPING);
+      }
+      // the first two clauses of the batch are overwritten by the last two
+      var expected = reference.process(
+          Arrays.copyOfRange(UPDATES, 1, 5), null, DEFAULT_NODE_MAPPING
+      );
+      var result = heatmap.process(
+          ClauseBatch.of(Arrays.copyOfRange(UPDATES, 1, 5)), null, DEFAULT_NODE_MAPPING
+      );
+      assertEquals(expected, result);
 
+      // the window continues at the same position
+      expected = reference.process(new ClauseUpdate[] {UPDATES[0]}, null, DEFAULT_NODE_MAPPING);
+      result = heatmap.process(ClauseBatch.of(UPDATES[0]), null, DEFAULT_NODE_MAPPING);
+      assertEquals(expected, result);
+    }
+  }
 }
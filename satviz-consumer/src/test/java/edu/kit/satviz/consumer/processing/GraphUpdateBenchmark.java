@@ -0,0 +1,166 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.consumer.config.WeightFactor;
+import edu.kit.satviz.consumer.graph.Edge;
+import edu.kit.satviz.consumer.graph.HeatUpdate;
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the primitive tables of {@code WeightUpdate} and {@code HeatUpdate} with the boxing
+ * {@code HashMap}s they replaced, for ring and clique VIG workloads.
+ * Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+class GraphUpdateBenchmark {
+
+  private static final int VARIABLES = 100_000;
+  private static final int FRAME = 10_000;
+  private static final int FRAMES = 20;
+  private static final int RUNS = 5;
+
+  private static ClauseBatch[] frames;
+
+  @BeforeAll
+  static void setUp() {
+    Random random = new Random(42);
+    frames = new ClauseBatch[FRAMES];
+    for (int f = 0; f < FRAMES; f++) {
+      frames[f] = new ClauseBatch();
+      for (int i = 0; i < FRAME; i++) {
+        // mostly short clauses, some long learned ones
+        int[] literals = new int[2 + random.nextInt(random.nextInt(10) == 0 ? 60 : 6)];
+        for (int j = 0; j < literals.length; j++) {
+          int variable = 1 + random.nextInt(VARIABLES);
+          literals[j] = random.nextBoolean() ? variable : -variable;
+        }
+        frames[f].add(ClauseUpdate.of(ClauseUpdate.Type.ADD, literals));
+      }
+    }
+  }
+
+  @Test
+  void ring() {
+    VariableInteractionGraph vig = new RingInteractionGraph(WeightFactor.RECIPROCAL);
+    report("ring, WeightUpdate", () -> {
+      long size = 0;
+      for (ClauseBatch frame : frames) {
+        size += vig.process(frame, null, IdentityMapping.INSTANCE).size();
+      }
+      return size;
+    });
+    report("ring, HashMap", () -> {
+      long size = 0;
+      for (ClauseBatch frame : frames) {
+        Map<Edge, Float> values = new HashMap<>();
+        for (int i = 0; i < frame.size(); i++) {
+          int[] variables = variables(frame, i);
+          Arrays.sort(variables);
+          float weight = 1.0f / variables.length;
+          for (int j = 0; j < variables.length - 1; j++) {
+            values.merge(new Edge(variables[j], variables[j + 1]), weight, Float::sum);
+          }
+          values.merge(new Edge(variables[0], variables[variables.length - 1]), weight,
+              Float::sum);
+        }
+        size += values.size();
+      }
+      return size;
+    });
+  }
+
+  @Test
+  void clique() {
+    VariableInteractionGraph vig = new CliqueInteractionGraph(WeightFactor.RECIPROCAL);
+    report("clique, WeightUpdate", () -> {
+      long size = 0;
+      for (ClauseBatch frame : frames) {
+        size += vig.process(frame, null, IdentityMapping.INSTANCE).size();
+      }
+      return size;
+    });
+    report("clique, HashMap", () -> {
+      long size = 0;
+      for (ClauseBatch frame : frames) {
+        Map<Edge, Float> values = new HashMap<>();
+        for (int i = 0; i < frame.size(); i++) {
+          int[] variables = variables(frame, i);
+          float weight = 1.0f / variables.length;
+          for (int j = 0; j < variables.length; j++) {
+            for (int k = j + 1; k < variables.length; k++) {
+              int min = Math.min(variables[j], variables[k]);
+              int max = Math.max(variables[j], variables[k]);
+              values.merge(new Edge(min, max), weight, Float::sum);
+            }
+          }
+        }
+        size += values.size();
+      }
+      return size;
+    });
+  }
+
+  @Test
+  void heat() {
+    HeatUpdate update = new HeatUpdate();
+    report("heat, HeatUpdate", () -> {
+      long size = 0;
+      for (ClauseBatch frame : frames) {
+        update.clear();
+        for (int i = 0; i < frame.size(); i++) {
+          for (int variable : variables(frame, i)) {
+            update.add(variable, 1.0f);
+          }
+        }
+        size += update.size();
+      }
+      return size;
+    });
+    report("heat, HashMap", () -> {
+      long size = 0;
+      for (ClauseBatch frame : frames) {
+        Map<Integer, Float> values = new HashMap<>();
+        for (int i = 0; i < frame.size(); i++) {
+          for (int variable : variables(frame, i)) {
+            values.put(variable, 1.0f);
+          }
+        }
+        size += values.size();
+      }
+      return size;
+    });
+  }
+
+  private static int[] variables(ClauseBatch frame, int index) {
+    int[] variables = new int[frame.getClauseLength(index)];
+    frame.copyLiterals(index, variables);
+    for (int i = 0; i < variables.length; i++) {
+      variables[i] = Math.abs(variables[i]);
+    }
+    return variables;
+  }
+
+  private static void report(String name, Run run) {
+    run.process(); // warm-up
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      run.process();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-22s %,10.0f frames/s of %d clauses%n", name, FRAMES / (best / 1e9),
+        FRAME);
+  }
+
+  @FunctionalInterface
+  private interface Run {
+    long process();
+  }
+
+}
@@ -0,0 +1,43 @@
+package edu.kit.satviz.consumer.processing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.sat.ClauseUpdate.Type;
+import edu.kit.satviz.serial.SerializationException;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class MappedClauseBufferTest extends ExternalClauseBufferTest {
+
+  @Override
+  ClauseBuffer createBuffer(Path dir) throws IOException {
+    return new MappedClauseBuffer(dir);
+  }
+
+  @Test
+  void test_getClauseUpdates_largeLiterals() throws IOException, SerializationException {
+    ClauseUpdate update = ClauseUpdate.of(Type.ADD, 63, -64, 8191, -8192, 1 << 28, -(1 << 29));
+    buffer.addClauseUpdate(update);
+    assertArrayEquals(new ClauseUpdate[] { update }, buffer.getClauseUpdates(0, 1));
+  }
+
+  @Test
+  void test_getClauseUpdates_interleaved() throws IOException, SerializationException {
+    for (int i = 1; i <= 1000; i++) {
+      buffer.addClauseUpdate(ClauseUpdate.of(i % 2 == 0 ? Type.ADD : Type.REMOVE, i, -i - 1));
+      ClauseUpdate[] result = buffer.getClauseUpdates(i - 1, 1);
+      assertEquals(ClauseUpdate.of(i % 2 == 0 ? Type.ADD : Type.REMOVE, i, -i - 1), result[0]);
+    }
+    assertEquals(1000, buffer.size());
+    assertEquals(1000, buffer.getClauseUpdates(0, 2000).length);
+  }
+
+  @Test
+  void test_addClauseUpdate_afterClose() throws IOException {
+    buffer.close();
+    assertThrows(IOException.class, () -> buffer.addClauseUpdate(ClauseUpdate.of(Type.ADD, 1)));
+  }
+
+}
@@ -3,6 +3,9 @@ package edu.kit.satviz.consumer.processing;
 import edu.kit.satviz.consumer.config.ConsumerConfig;
 import edu.kit.satviz.consumer.display.VideoController;
 import edu.kit.satviz.consumer.graph.Graph;
+import edu.kit.satviz.network.pub.ProducerId;
+import edu.kit.satviz.network.pub.ProofId;
+import edu.kit.satviz.network.pub.SolverId;
 import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,7 +43,7 @@ public class MediatorTest {
         .setGraph(graph)
         .setController(controller)
         .setCoordinator(coordinator)
-        .setHeatmap(heatmap)
+        .setHeatmapFactory(() -> heatmap)
         .setVig(vig)
         .setConfig(config)
         .createMediator();
@@ -99,12 +102,29 @@ public class MediatorTest {
     med.onClauseUpdate(null, c);
     try {
       med.close();
-      verify(coordinator).addClauseUpdate(c);
+      verify(coordinator).addClauseUpdate(c, ClauseBatch.NO_SOURCE);
     } catch (Exception e) {
       fail();
     }
   }
 
+  @Test
+  void testOnClauseUpdate_producers() throws Exception {
+    when(config.getIngestionQueueSize()).thenReturn(4);
+    when(config.getBackpressurePolicy()).thenReturn(BackpressurePolicy.BLOCK);
+    ProducerId solver = new SolverId("cadical", false, 42);
+    ProducerId proof = new ProofId();
+    med.registerProducer(solver);
+    ClauseUpdate c = ClauseUpdate.of(ClauseUpdate.Type.ADD, 1, 2);
+    med.onClauseUpdate(proof, c);
+    med.onClauseUpdate(solver, c);
+    med.close();
+    // every producer has its own ingestor, which tags the updates with the producer's source
+    verify(coordinator).addClauseUpdates(any(), eq(0), eq(1), eq(1));
+    verify(coordinator).addClauseUpdates(any(), eq(0), eq(1), eq(2));
+    assertEquals(2, med.getProducerTracker().getSummaries().size());
+  }
+
   @Test
   void testStartStopRecording() {
     when(config.getVideoTemplatePath()).thenReturn("test.ogv");
@@ -0,0 +1,82 @@
+package edu.kit.satviz.consumer.processing;
+
+import static edu.kit.satviz.consumer.processing.Constants.UPDATES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.kit.satviz.consumer.graph.HeatUpdate;
+import edu.kit.satviz.serial.SerializationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProducerHeatmapsTest {
+
+  private ProducerHeatmaps heatmaps;
+  private ClauseBatch batch;
+
+  @BeforeEach
+  void setUp() {
+    heatmaps = new ProducerHeatmaps(new RecencyHeatmap(3), () -> new RecencyHeatmap(10));
+    // UPDATES[0] and UPDATES[2] from source 1, UPDATES[1] from source 2
+    batch = ClauseBatch.of(UPDATES[0], UPDATES[1], UPDATES[2]);
+    batch.setSource(0, 1);
+    batch.setSource(1, 2);
+    batch.setSource(2, 1);
+  }
+
+  @Test
+  void test_process_merged() {
+    var result = heatmaps.process(batch, null, IdentityMapping.INSTANCE);
+    var expected = new RecencyHeatmap(3).process(
+        ClauseBatch.of(UPDATES[0], UPDATES[1], UPDATES[2]), null, IdentityMapping.INSTANCE
+    );
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void test_process_shown() {
+    heatmaps.process(batch, null, IdentityMapping.INSTANCE);
+    heatmaps.show(2);
+    var result = heatmaps.process(new ClauseBatch(), null, IdentityMapping.INSTANCE);
+    HeatUpdate expected = new RecencyHeatmap(3).process(
+        ClauseBatch.of(UPDATES[1]), null, IdentityMapping.INSTANCE
+    );
+    // the variables that are only hot in the merged heatmap are cooled down
+    for (int node = 0; node < 6; node++) {
+      expected.add(node, 0);
+    }
+    assertEquals(expected, result);
+    assertEquals(2, heatmaps.getShown());
+
+    // source heatmaps get the size of the merged heatmap
+    heatmaps.show(1);
+    result = heatmaps.process(new ClauseBatch(), null, IdentityMapping.INSTANCE);
+    expected = new RecencyHeatmap(3).process(
+        ClauseBatch.of(UPDATES[0], UPDATES[2]), null, IdentityMapping.INSTANCE
+    );
+    expected.add(3, 0);
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void test_show_invalid() {
+    assertThrows(IllegalArgumentException.class, () -> heatmaps.show(-1));
+  }
+
+  @Test
+  void test_serialize() throws IOException, SerializationException {
+    heatmaps.process(batch, null, IdentityMapping.INSTANCE);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    heatmaps.serialize(out);
+
+    ProducerHeatmaps restored =
+        new ProducerHeatmaps(new RecencyHeatmap(3), () -> new RecencyHeatmap(3));
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    restored.deserialize(in);
+    assertEquals(0, in.available());
+  }
+
+}
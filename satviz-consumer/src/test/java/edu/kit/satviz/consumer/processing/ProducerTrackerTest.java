@@ -0,0 +1,91 @@
+package edu.kit.satviz.consumer.processing;
+
+import edu.kit.satviz.network.pub.ProducerId;
+import edu.kit.satviz.network.pub.ProofId;
+import edu.kit.satviz.network.pub.SolverId;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProducerTrackerTest {
+
+  private ProducerTracker tracker;
+  private ProducerId solver;
+  private ProducerId proof;
+
+  @BeforeEach
+  void setUp() {
+    tracker = new ProducerTracker();
+    solver = new SolverId("cadical", false, 42);
+    proof = new ProofId();
+  }
+
+  @Test
+  void test_countClauseUpdate() {
+    tracker.register(solver);
+    tracker.register(proof);
+    tracker.register(solver);
+    for (int i = 0; i < 3; i++) {
+      tracker.countClauseUpdate(proof);
+    }
+    tracker.countClauseUpdate(solver);
+
+    List<ProducerTracker.Summary> summaries = tracker.getSummaries();
+    assertEquals(List.of(
+        new ProducerTracker.Summary(solver, 1, ProducerTracker.State.ACTIVE),
+        new ProducerTracker.Summary(proof, 3, ProducerTracker.State.ACTIVE)
+    ), summaries);
+    assertEquals(2, tracker.getActiveCount());
+  }
+
+  @Test
+  void test_getSource() {
+    tracker.register(solver);
+    assertEquals(2, tracker.getSource(proof));
+    assertEquals(1, tracker.getSource(solver));
+    assertEquals(solver, tracker.getSummaries().get(0).pid());
+  }
+
+  @Test
+  void test_terminate() {
+    tracker.register(solver);
+    tracker.register(proof);
+
+    assertTrue(tracker.terminate(solver, ProducerTracker.State.SOLVED));
+    assertEquals(1, tracker.getActiveCount());
+    // terminating twice has no effect
+    assertFalse(tracker.terminate(solver, ProducerTracker.State.FAILED));
+    assertTrue(tracker.terminate(proof, ProducerTracker.State.FAILED));
+    assertEquals(0, tracker.getActiveCount());
+
+    assertEquals(ProducerTracker.State.SOLVED, tracker.getSummaries().get(0).state());
+    assertEquals(ProducerTracker.State.FAILED, tracker.getSummaries().get(1).state());
+    assertThrows(IllegalArgumentException.class,
+        () -> tracker.terminate(solver, ProducerTracker.State.ACTIVE));
+  }
+
+  @Test
+  void test_countClauseUpdate_concurrent() throws InterruptedException {
+    List<ProducerId> pids = List.of(solver, proof, new ProofId(), new ProofId());
+    List<Thread> threads = new ArrayList<>();
+    for (ProducerId pid : pids) {
+      Thread t = new Thread(() -> {
+        for (int i = 0; i < 10000; i++) {
+          tracker.countClauseUpdate(pid);
+        }
+      });
+      threads.add(t);
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+
+    assertEquals(pids.size(), tracker.getActiveCount());
+    for (ProducerTracker.Summary summary : tracker.getSummaries()) {
+      assertEquals(10000, summary.clauseUpdates());
+    }
+  }
+}
@@ -94,4 +94,41 @@ class RecencyHeatmapTest {
     assertEquals(expected, result);
   }
 
+  @Test
+  void test_process_batch() {
+    Heatmap reference = new RecencyHeatmap(3);
+    reference.process(Arrays.copyOfRange(UPDATES, 0, 2), null, IdentityMapping.INSTANCE);
+    var expected = reference.process(
+        Arrays.copyOfRange(UPDATES, 2, 5), null, IdentityMapping.INSTANCE
+    );
+    heatmap.process(
+        ClauseBatch.of(Arrays.copyOfRange(UPDATES, 0, 2)), null, IdentityMapping.INSTANCE
+    );
+    var result = heatmap.process(
+        ClauseBatch.of(Arrays.copyOfRange(UPDATES, 2, 5)), null, IdentityMapping.INSTANCE
+    );
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void test_process_batchLargerThanWindow() {
+    Heatmap reference = new RecencyHeatmap(2);
+    heatmap = new RecencyHeatmap(2);
+    for (Heatmap h : new Heatmap[] {reference, heatmap}) {
+      h.process(new ClauseUpdate[] {UPDATES[0]}, null, IdentityMapping.INSTANCE);
+    }
+    // the first two clauses of the batch are overwritten by the last two
+    var expected = reference.process(
+        Arrays.copyOfRange(UPDATES, 1, 5), null, IdentityMapping.INSTANCE
+    );
+    var result = heatmap.process(
+        ClauseBatch.of(Arrays.copyOfRange(UPDATES, 1, 5)), null, IdentityMapping.INSTANCE
+    );
+    assertEquals(expected, result);
+
+    // the window continues at the same position
+    expected = reference.process(new ClauseUpdate[] {UPDATES[0]}, null, IdentityMapping.INSTANCE);
+    result = heatmap.process(ClauseBatch.of(UPDATES[0]), null, IdentityMapping.INSTANCE);
+    assertEquals(expected, result);
+  }
 }
@@ -36,4 +36,12 @@ class RingInteractionGraphTest {
     var expected = new WeightUpdate();
     assertEquals(expected, result);
   }
+
+  @Test
+  void test_process_batch() {
+    var expected = new RingInteractionGraph(WeightFactor.CONSTANT)
+        .process(UPDATES, null, IdentityMapping.INSTANCE);
+    var result = vig.process(ClauseBatch.of(UPDATES), null, IdentityMapping.INSTANCE);
+    assertEquals(expected, result);
+  }
 }
@@ -0,0 +1,38 @@
+package edu.kit.satviz.consumer.processing;
+
+import static edu.kit.satviz.consumer.processing.Constants.UPDATES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.kit.satviz.consumer.config.WeightFactor;
+import edu.kit.satviz.consumer.graph.WeightUpdate;
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class WeightAccumulatorTest {
+
+  @Test
+  void test_finish() {
+    var accumulator = new WeightAccumulator(
+        new RingInteractionGraph(WeightFactor.CONSTANT), IdentityMapping.INSTANCE);
+    Arrays.stream(UPDATES).forEach(accumulator::add);
+    var expected = new RingInteractionGraph(WeightFactor.CONSTANT)
+        .process(UPDATES, null, IdentityMapping.INSTANCE);
+    assertEquals(expected, accumulator.finish());
+  }
+
+  @Test
+  void test_collector_parallel() {
+    // more clause updates than fit into a single batch
+    ClauseUpdate[] updates = IntStream.range(0, 5 * WeightAccumulator.BATCH_SIZE)
+        .mapToObj(i -> UPDATES[i % UPDATES.length])
+        .toArray(ClauseUpdate[]::new);
+    var expected = new CliqueInteractionGraph(WeightFactor.CONSTANT)
+        .process(updates, null, IdentityMapping.INSTANCE);
+    WeightUpdate result = Arrays.stream(updates).parallel().collect(WeightAccumulator.collector(
+        () -> new CliqueInteractionGraph(WeightFactor.CONSTANT), IdentityMapping.INSTANCE));
+    assertEquals(expected, result);
+  }
+
+}
@@ -4,5 +4,6 @@ plugins {
 
 dependencies {
     implementation(project(":satviz-serial"))
+    implementation("org.lz4:lz4-java:1.8.0")
     api(project(":satviz-sat"))
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package edu.kit.satviz.network.general;
+
+import edu.kit.satviz.serial.SerializationException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Decodes the LZ4 blocks written by a {@link BlockEncoder}.
+ * Blocks may arrive split into arbitrary pieces; incomplete blocks are kept until the rest of
+ *     them arrives.
+ * This class is not thread-safe.
+ */
+class BlockDecoder {
+
+  /**
+   * Receives the contents of decoded blocks.
+   */
+  @FunctionalInterface
+  interface BlockConsumer {
+    void accept(ByteBuffer block) throws SerializationException;
+  }
+
+  private static final LZ4SafeDecompressor DECOMPRESSOR =
+      LZ4Factory.fastestInstance().safeDecompressor();
+
+  private final ByteBuffer header = ByteBuffer.allocate(BlockEncoder.HEADER_SIZE)
+      .order(ByteOrder.LITTLE_ENDIAN);
+  private ByteBuffer data = ByteBuffer.allocate(0);
+  private byte[] block = new byte[0];
+  private int blockLength;
+  private boolean readingHeader = true;
+
+  /**
+   * Decodes as many blocks as possible from the given bytes.
+   * All remaining bytes are consumed.
+   * @param in the encoded bytes
+   * @param out receives the contents of each complete block
+   * @throws SerializationException if the bytes do not encode valid blocks, or if thrown by
+   *     {@code out}
+   */
+  void decode(ByteBuffer in, BlockConsumer out) throws SerializationException {
+    while (in.hasRemaining()) {
+      if (readingHeader) {
+        transfer(in, header);
+        if (header.hasRemaining()) {
+          return;
+        }
+        startBlock(header.getInt(0), header.getInt(4));
+        header.clear();
+        readingHeader = false;
+      }
+
+      transfer(in, data);
+      if (data.hasRemaining()) {
+        return;
+      }
+      out.accept(finishBlock());
+      readingHeader = true;
+    }
+  }
+
+  private void startBlock(int length, int compressedLength) throws SerializationException {
+    if (length < 1 || length > BlockEncoder.MAX_BLOCK_SIZE || compressedLength < 1
+        || compressedLength > BlockEncoder.maxCompressedLength(length)) {
+      throw new SerializationException("invalid block header");
+    }
+    if (data.capacity() < compressedLength) {
+      data = ByteBuffer.allocate(compressedLength);
+    }
+    data.clear().limit(compressedLength);
+    blockLength = length;
+  }
+
+  private ByteBuffer finishBlock() throws SerializationException {
+    int compressedLength = data.limit();
+    if (compressedLength == blockLength) { // stored without compression
+      data.flip();
+      return data;
+    }
+    if (block.length < blockLength) {
+      block = new byte[blockLength];
+    }
+    try {
+      int length = DECOMPRESSOR.decompress(data.array(), 0, compressedLength,
+          block, 0, blockLength);
+      if (length != blockLength) {
+        throw new SerializationException("block length does not match header");
+      }
+    } catch (LZ4Exception e) {
+      throw new SerializationException("corrupt block");
+    }
+    return ByteBuffer.wrap(block, 0, blockLength);
+  }
+
+  private static void transfer(ByteBuffer src, ByteBuffer dst) {
+    int n = Math.min(src.remaining(), dst.remaining());
+    ByteBuffer slice = src.slice(src.position(), n);
+    dst.put(slice);
+    src.position(src.position() + n);
+  }
+}
@@ -0,0 +1,120 @@
+package edu.kit.satviz.network.general;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Collects outgoing bytes and compresses them into LZ4 blocks.
+ * Each block starts with a header of two little-endian integers: the uncompressed length and the
+ *     compressed length of the block. If compression does not make a block smaller, it is stored
+ *     as is, in which case both lengths are equal.
+ * This class is not thread-safe.
+ */
+class BlockEncoder {
+  /** The size of the header in front of each block. */
+  static final int HEADER_SIZE = 8;
+  /** The maximum amount of uncompressed bytes in a single block. */
+  static final int MAX_BLOCK_SIZE = 4 * 1024 * 1024;
+
+  private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+  private final int blockSize;
+  private byte[] pending;
+  private int pendingLength = 0;
+  private ByteBuffer out;
+
+  /**
+   * Creates a new block encoder.
+   * @param blockSize the amount of uncompressed bytes after which a block should be written
+   * @throws IllegalArgumentException if the block size is not positive or too large
+   */
+  BlockEncoder(int blockSize) {
+    if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE) {
+      throw new IllegalArgumentException("invalid block size " + blockSize);
+    }
+    this.blockSize = blockSize;
+    this.pending = new byte[blockSize];
+    this.out = ByteBuffer.allocate(HEADER_SIZE + COMPRESSOR.maxCompressedLength(blockSize))
+        .order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Returns the maximum size of a compressed block.
+   * @param length the uncompressed length of the block
+   * @return the maximum compressed length, without the header
+   */
+  static int maxCompressedLength(int length) {
+    return COMPRESSOR.maxCompressedLength(length);
+  }
+
+  /**
+   * Adds bytes to the current block.
+   * The block may grow beyond the block size, so that messages are never split across blocks
+   *     unless they are larger than {@link #MAX_BLOCK_SIZE}.
+   * @param src the bytes; all remaining bytes are consumed
+   */
+  void append(ByteBuffer src) {
+    int len = src.remaining();
+    if (pendingLength + len > pending.length) {
+      pending = Arrays.copyOf(pending, Math.max(pendingLength + len, 2 * pending.length));
+    }
+    src.get(pending, pendingLength, len);
+    pendingLength += len;
+  }
+
+  /**
+   * Returns whether the current block has reached the block size.
+   * @return true if the block should be written
+   */
+  boolean isFull() {
+    return pendingLength >= blockSize;
+  }
+
+  /**
+   * Returns whether there are bytes that have not been encoded yet.
+   * @return true if the current block is not empty
+   */
+  boolean hasPending() {
+    return pendingLength > 0;
+  }
+
+  /**
+   * Encodes all pending bytes into one or more blocks and clears the current block.
+   * The returned buffer is only valid until the next call to this method.
+   * @return the encoded blocks, ready to be written
+   */
+  ByteBuffer encode() {
+    int worstCase = 0;
+    for (int off = 0; off < pendingLength; off += MAX_BLOCK_SIZE) {
+      int len = Math.min(MAX_BLOCK_SIZE, pendingLength - off);
+      worstCase += HEADER_SIZE + COMPRESSOR.maxCompressedLength(len);
+    }
+    if (out.capacity() < worstCase) {
+      out = ByteBuffer.allocate(worstCase).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    out.clear();
+    for (int off = 0; off < pendingLength; off += MAX_BLOCK_SIZE) {
+      int len = Math.min(MAX_BLOCK_SIZE, pendingLength - off);
+      int headerPos = out.position();
+      int dataPos = headerPos + HEADER_SIZE;
+      int compressedLength = COMPRESSOR.compress(pending, off, len,
+          out.array(), dataPos, out.capacity() - dataPos);
+      if (compressedLength >= len) {
+        System.arraycopy(pending, off, out.array(), dataPos, len);
+        compressedLength = len;
+      }
+      out.putInt(headerPos, len);
+      out.putInt(headerPos + 4, compressedLength);
+      out.position(dataPos + compressedLength);
+    }
+    out.flip();
+    pendingLength = 0;
+    if (pending.length > blockSize) { // don't keep a huge buffer for a single large message
+      pending = new byte[blockSize];
+    }
+    return out;
+  }
+}
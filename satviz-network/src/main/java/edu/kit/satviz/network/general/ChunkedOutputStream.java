@@ -0,0 +1,141 @@
+package edu.kit.satviz.network.general;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An output stream that collects bytes in reusable direct buffers of a fixed size.
+ * The buffers can be written to a channel with a single gathering write, without copying them
+ *     first. After {@link #reset()}, the same buffers are used again, so writing to this stream
+ *     does not allocate memory once enough buffers exist.
+ * This class is not thread-safe.
+ */
+class ChunkedOutputStream extends OutputStream {
+  /** The size of each buffer in bytes. */
+  static final int CHUNK_SIZE = 16 * 1024;
+  /** The maximum amount of buffers kept after a reset; more are only needed for huge messages. */
+  private static final int RETAINED_CHUNKS = 64;
+
+  private ByteBuffer[] chunks = new ByteBuffer[4];
+  private int allocated = 0;
+  private int current = 0;
+  private long size = 0;
+
+  private int markChunk = 0;
+  private int markPosition = 0;
+  private long markSize = 0;
+
+  @Override
+  public void write(int b) {
+    currentChunk().put((byte) b);
+    size++;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    while (len > 0) {
+      ByteBuffer chunk = currentChunk();
+      int n = Math.min(len, chunk.remaining());
+      chunk.put(b, off, n);
+      off += n;
+      len -= n;
+      size += n;
+    }
+  }
+
+  private ByteBuffer currentChunk() {
+    if (allocated == 0) {
+      allocate();
+    }
+    ByteBuffer chunk = chunks[current];
+    if (!chunk.hasRemaining()) {
+      current++;
+      if (current == allocated) {
+        allocate();
+      }
+      chunk = chunks[current];
+    }
+    return chunk;
+  }
+
+  private void allocate() {
+    if (allocated == chunks.length) {
+      chunks = Arrays.copyOf(chunks, chunks.length * 2);
+    }
+    chunks[allocated++] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+  }
+
+  /**
+   * Returns the amount of bytes written since the last reset.
+   * @return the size in bytes
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * Remembers the current end of the stream, so that bytes written afterwards can be discarded.
+   */
+  void mark() {
+    markChunk = current;
+    markPosition = allocated == 0 ? 0 : chunks[current].position();
+    markSize = size;
+  }
+
+  /**
+   * Discards all bytes written since the last call to {@link #mark()}.
+   */
+  void resetToMark() {
+    for (int i = markChunk + 1; i <= current && i < allocated; i++) {
+      chunks[i].clear();
+    }
+    if (allocated > 0) {
+      chunks[markChunk].position(markPosition);
+    }
+    current = markChunk;
+    size = markSize;
+  }
+
+  /**
+   * Prepares the written bytes for reading.
+   * The returned buffers are positioned at the start of the written bytes; the stream must not be
+   *     written to until {@link #reset()} is called.
+   * @return the amount of buffers at the start of {@link #chunks()} that contain bytes
+   */
+  int flip() {
+    if (size == 0) {
+      return 0;
+    }
+    for (int i = 0; i <= current; i++) {
+      chunks[i].flip();
+    }
+    return current + 1;
+  }
+
+  /**
+   * Returns the underlying buffers.
+   * @return the buffers; only the ones counted by {@link #flip()} are in use
+   */
+  ByteBuffer[] chunks() {
+    return chunks;
+  }
+
+  /**
+   * Discards all written bytes, keeping the buffers for reuse.
+   */
+  void reset() {
+    for (int i = 0; i <= current && i < allocated; i++) {
+      chunks[i].clear();
+    }
+    if (allocated > RETAINED_CHUNKS) {
+      Arrays.fill(chunks, RETAINED_CHUNKS, allocated, null);
+      allocated = RETAINED_CHUNKS;
+    }
+    current = 0;
+    size = 0;
+    markChunk = 0;
+    markPosition = 0;
+    markSize = 0;
+  }
+}
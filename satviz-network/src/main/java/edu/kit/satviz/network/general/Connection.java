@@ -2,31 +2,61 @@ package edu.kit.satviz.network.general;
 
 import edu.kit.satviz.serial.SerialBuilder;
 import edu.kit.satviz.serial.SerializationException;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
+import java.nio.file.Files;
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A client connection to send and receive {@link NetworkMessage}s.
  * Reading is done asynchronously, while writing is done synchronously.
+ * Each direction of the connection can be switched to LZ4 compressed blocks independently, after
+ *     both sides have agreed on it. Compressed writes are collected until a block is full or
+ *     {@link #flush()} is called.
+ * Messages are encoded into reusable direct buffers. Several messages can be collected using
+ *     {@link #append(byte, Object)} and sent together with a single gathering write.
+ * The connection may use TCP or, between processes on the same machine, a Unix domain socket.
  * This is a wrapper around {@link SocketChannel}.
  */
 public class Connection implements AutoCloseable {
+  /** Default size of the read buffer in bytes. */
+  public static final int DEFAULT_READ_BUFFER_SIZE = 64 * 1024;
+  /** Maximum amount of uncompressed bytes per compressed block. */
+  public static final int MAX_BLOCK_SIZE = BlockEncoder.MAX_BLOCK_SIZE;
+  /** The amount of appended bytes after which they are written without waiting for a commit. */
+  private static final int MAX_APPENDED_SIZE = 1024 * 1024;
+
   private final SocketChannel chan;
   private final NetworkBlueprint bp;
   private byte currentType;
   private SerialBuilder<?> currentBuilder = null;
-  private final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+  // builders are reused for all messages of the same type
+  private final SerialBuilder<?>[] builders = new SerialBuilder<?>[256];
+  private final ByteBuffer readBuffer;
+  private final ChunkedOutputStream writeBuffer = new ChunkedOutputStream();
+  // only opened if the socket's send buffer is full, closed by close(), guarded by SYNC_CLOSE
+  private Selector writeSelector = null;
+  private boolean closed = false;
+  private BlockDecoder decoder = null;
+  private BlockEncoder encoder = null;
+  private long flushIntervalNanos;
+  private long pendingSince;
+  private long bytesWritten = 0;
 
   private boolean readingFailed = false;
   private boolean writingFailed = false;
   private final Object SYNC_READ = new Object();
   private final Object SYNC_WRITE = new Object();
+  private final Object SYNC_CLOSE = new Object();
 
   /**
    * Creates a new connection by opening a socket channel and connecting to the specified address.
@@ -38,11 +68,66 @@ public class Connection implements AutoCloseable {
    * @throws IOException if an I/O error occurs
    */
   public Connection(String address, int port, NetworkBlueprint bp) throws IOException {
+    this(address, port, bp, DEFAULT_READ_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new connection by opening a socket channel and connecting to the specified address.
+   * @param address the remote address
+   * @param port the remote port
+   * @param bp the types of messages
+   * @param readBufferSize the size of the read buffer in bytes, i.e., the maximum amount of bytes
+   *     processed by a single call to {@link #read()}
+   * @throws ConnectException if the connection is refused remotely, i.e., no-one is listening on
+   *     the remote port.
+   * @throws IOException if an I/O error occurs
+   */
+  public Connection(String address, int port, NetworkBlueprint bp, int readBufferSize)
+      throws IOException {
+    this(new InetSocketAddress(address, port), bp, readBufferSize);
+  }
+
+  /**
+   * Creates a new connection by opening a socket channel and connecting to the specified address.
+   * The address may be an {@link InetSocketAddress} for a TCP connection, or a
+   *     {@link UnixDomainSocketAddress} for a connection to another process on the same machine.
+   * @param address the remote address
+   * @param bp the types of messages
+   * @param readBufferSize the size of the read buffer in bytes, i.e., the maximum amount of bytes
+   *     processed by a single call to {@link #read()}
+   * @throws ConnectException if the connection is refused remotely, i.e., no-one is listening on
+   *     the remote address.
+   * @throws IOException if an I/O error occurs
+   */
+  public Connection(SocketAddress address, NetworkBlueprint bp, int readBufferSize)
+      throws IOException {
     this.bp = bp;
-    this.chan = SocketChannel.open();
-    this.chan.configureBlocking(true);
-    this.chan.connect(new InetSocketAddress(address, port));
-    this.chan.configureBlocking(false);
+    this.readBuffer = ByteBuffer.allocateDirect(readBufferSize);
+    this.chan = openChannel(address);
+    try {
+      this.chan.configureBlocking(true);
+      this.chan.connect(address);
+      this.chan.configureBlocking(false);
+    } catch (SocketException e) {
+      this.chan.close();
+      if (address instanceof UnixDomainSocketAddress unix && Files.notExists(unix.getPath())) {
+        // the socket file is created when the server binds, so no-one is listening yet
+        ConnectException refused = new ConnectException("no socket at " + unix.getPath());
+        refused.initCause(e);
+        throw refused;
+      }
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      this.chan.close();
+      throw e;
+    }
+  }
+
+  private static SocketChannel openChannel(SocketAddress address) throws IOException {
+    if (address instanceof UnixDomainSocketAddress) {
+      return SocketChannel.open(StandardProtocolFamily.UNIX);
+    }
+    return SocketChannel.open();
   }
 
   /**
@@ -52,7 +137,20 @@ public class Connection implements AutoCloseable {
    * @throws IllegalArgumentException if the channel is blocking or not connected
    */
   public Connection(SocketChannel chan, NetworkBlueprint bp) {
+    this(chan, bp, DEFAULT_READ_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new connection with an already connected socket.
+   * @param chan the socket channel
+   * @param bp the types of messages
+   * @param readBufferSize the size of the read buffer in bytes, i.e., the maximum amount of bytes
+   *     processed by a single call to {@link #read()}
+   * @throws IllegalArgumentException if the channel is blocking or not connected
+   */
+  public Connection(SocketChannel chan, NetworkBlueprint bp, int readBufferSize) {
     this.bp = bp;
+    this.readBuffer = ByteBuffer.allocateDirect(readBufferSize);
     if (chan.isBlocking() || !chan.isConnected()) {
       throw new IllegalArgumentException("blocking or not connected socket channel");
     }
@@ -61,12 +159,12 @@ public class Connection implements AutoCloseable {
 
   /**
    * Returns the remote address.
-   * @return remote address, {@code null} if not connected
+   * @return remote address, {@code null} if not connected or connected via a Unix domain socket
    * @throws ClosedChannelException if the channel is closed
    * @throws IOException if an I/O error occurs
    */
   public InetSocketAddress getRemoteAddress() throws IOException {
-    return (InetSocketAddress) chan.getRemoteAddress();
+    return chan.getRemoteAddress() instanceof InetSocketAddress remote ? remote : null;
   }
 
   /**
@@ -79,31 +177,65 @@ public class Connection implements AutoCloseable {
     chan.register(sel, ops);
   }
 
-  private NetworkMessage processByte(byte b) throws SerializationException {
-    if (currentBuilder == null) {
-      currentType = b;
-      currentBuilder = bp.getBuilder(b);
-      if (currentBuilder == null) { // didn't get builder
-        readingFailed = true;
-        throw new SerializationException("no builder available for type " + b);
+  /**
+   * Decompresses all bytes read from now on.
+   * Must be called before the first compressed block can arrive.
+   */
+  public void enableDecompression() {
+    synchronized (SYNC_READ) {
+      if (decoder == null) {
+        decoder = new BlockDecoder();
       }
-      return null;
     }
+  }
 
-    boolean done;
-    try {
-      done = currentBuilder.addByte(b);
-    } catch (SerializationException e) {
-      readingFailed = true;
-      throw e;
+  /**
+   * Compresses all messages written from now on.
+   * Messages are only sent once the current block has reached the given size, the oldest
+   *     message in the block has waited for the flush interval, or {@link #flush()} is called.
+   *     Note that the flush interval is only checked on writes; callers that may stop writing
+   *     have to call {@link #flush()} themselves, see {@link #nanosUntilFlush()}.
+   * @param blockSize the amount of uncompressed bytes per block
+   * @param flushInterval the maximum time in ms that a message is held back
+   * @throws IllegalArgumentException if the block size is not positive or too large
+   */
+  public void enableCompression(int blockSize, long flushInterval) {
+    synchronized (SYNC_WRITE) {
+      if (encoder == null) {
+        encoder = new BlockEncoder(blockSize);
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+      }
     }
+  }
+
+  private void processBytes(ByteBuffer in, Queue<NetworkMessage> messages)
+      throws SerializationException {
+    while (in.hasRemaining()) {
+      if (currentBuilder == null) {
+        currentType = in.get();
+        currentBuilder = getBuilder(currentType);
+        if (currentBuilder == null) { // didn't get builder
+          throw new SerializationException("no builder available for type " + currentType);
+        }
+      }
 
-    if (done) {
-      NetworkMessage msg = new NetworkMessage(currentType, currentBuilder.getObject());
-      currentBuilder = null; // remove last builder
-      return msg;
+      // decodes as much of the message as is available
+      if (currentBuilder.addBytes(in)) {
+        messages.add(new NetworkMessage(currentType, currentBuilder.getObject()));
+        currentBuilder = null; // remove last builder
+      }
     }
-    return null;
+  }
+
+  private SerialBuilder<?> getBuilder(byte type) {
+    SerialBuilder<?> builder = builders[Byte.toUnsignedInt(type)];
+    if (builder == null) {
+      builder = bp.getBuilder(type);
+      builders[Byte.toUnsignedInt(type)] = builder;
+    } else {
+      builder.reset();
+    }
+    return builder;
   }
 
   /**
@@ -125,15 +257,19 @@ public class Connection implements AutoCloseable {
       }
 
       readBuffer.clear();
-      int numBytesAhead = chan.read(readBuffer);
+      chan.read(readBuffer); // if this returns 0 or -1, the buffer stays empty
       readBuffer.flip();
 
       Queue<NetworkMessage> messages = new ArrayDeque<>();
-      while (numBytesAhead-- > 0) { // if chan.read() returned 0 or -1 we do nothing
-        NetworkMessage msg = processByte(readBuffer.get());
-        if (msg != null) {
-          messages.add(msg);
+      try {
+        if (decoder != null) {
+          decoder.decode(readBuffer, block -> processBytes(block, messages));
+        } else {
+          processBytes(readBuffer, messages);
         }
+      } catch (SerializationException e) {
+        readingFailed = true;
+        throw e;
       }
       return messages;
     }
@@ -154,29 +290,174 @@ public class Connection implements AutoCloseable {
    * @throws SerializationException if the message cannot be encoded for this connection
    */
   public void write(byte type, Object obj) throws IOException, SerializationException {
+    synchronized (SYNC_WRITE) {
+      append(type, obj);
+      commit();
+    }
+  }
+
+  /**
+   * Encodes a {@link NetworkMessage} without writing it to this connection yet.
+   * Appended messages are written in order by the next call to {@link #commit()},
+   *     {@link #write(byte, Object)} or {@link #flush()}, or once they take up too much space.
+   * Serialization errors are handled like in {@link #write(byte, Object)}; the message that
+   *     failed is discarded, but messages appended before are kept.
+   * This method is thread-safe.
+   * @param type the message type
+   * @param obj the message object
+   * @throws IOException if an I/O error occurs
+   * @throws SerializationException if the message cannot be encoded for this connection
+   */
+  public void append(byte type, Object obj) throws IOException, SerializationException {
     synchronized (SYNC_WRITE) {
       if (writingFailed) {
         throw new SerializationException("failed previously");
       }
 
-      ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-      byteOut.write(type);
+      writeBuffer.mark();
+      writeBuffer.write(type);
       try {
-        bp.serialize(type, obj, byteOut);
+        bp.serialize(type, obj, writeBuffer);
       } catch (SerializationException e) {
+        writeBuffer.resetToMark();
         writingFailed = true;
         throw e;
       }
-      ByteBuffer writeBuffer = ByteBuffer.wrap(byteOut.toByteArray());
+      if (writeBuffer.size() >= MAX_APPENDED_SIZE) {
+        commit();
+      }
+    }
+  }
 
-      while (writeBuffer.hasRemaining()) { // force synchronous
-        // if another thread calls close(), this method may throw
-        // ClosedChannelException or AsynchronousCloseException
-        chan.write(writeBuffer);
+  /**
+   * Writes all appended messages to this connection, using a single gathering write if possible.
+   * If compression is enabled, the messages are added to the current block instead, which is
+   *     only written once it is full or the flush interval has passed.
+   * This method is thread-safe.
+   * @throws IOException if an I/O error occurs
+   */
+  public void commit() throws IOException {
+    synchronized (SYNC_WRITE) {
+      int numChunks = writeBuffer.flip();
+      if (numChunks == 0) {
+        return;
+      }
+      try {
+        if (encoder != null) {
+          if (!encoder.hasPending()) {
+            pendingSince = System.nanoTime();
+          }
+          ByteBuffer[] chunks = writeBuffer.chunks();
+          for (int i = 0; i < numChunks; i++) {
+            encoder.append(chunks[i]);
+          }
+          if (encoder.isFull() || System.nanoTime() - pendingSince >= flushIntervalNanos) {
+            writeFully(encoder.encode());
+          }
+        } else {
+          writeFully(writeBuffer.chunks(), numChunks);
+        }
+      } finally {
+        writeBuffer.reset();
       }
     }
   }
 
+  /**
+   * Writes all appended messages and all messages that are held back for compression.
+   * This method is thread-safe.
+   * @throws IOException if an I/O error occurs
+   */
+  public void flush() throws IOException {
+    synchronized (SYNC_WRITE) {
+      commit();
+      if (encoder != null && encoder.hasPending()) {
+        writeFully(encoder.encode());
+      }
+    }
+  }
+
+  /**
+   * Returns the time until the oldest message held back for compression has to be flushed.
+   * @return the time in ns, 0 if overdue, or {@link Long#MAX_VALUE} if no messages are held back
+   */
+  public long nanosUntilFlush() {
+    synchronized (SYNC_WRITE) {
+      if (encoder == null || !encoder.hasPending()) {
+        return Long.MAX_VALUE;
+      }
+      return Math.max(0, pendingSince + flushIntervalNanos - System.nanoTime());
+    }
+  }
+
+  /**
+   * Returns the amount of bytes that have been written to the socket so far.
+   * @return bytes on the wire, after compression
+   */
+  public long getBytesWritten() {
+    synchronized (SYNC_WRITE) {
+      return bytesWritten;
+    }
+  }
+
+  private void writeFully(ByteBuffer buf) throws IOException {
+    bytesWritten += buf.remaining();
+    while (buf.hasRemaining()) { // force synchronous
+      // if another thread calls close(), this method may throw
+      // ClosedChannelException or AsynchronousCloseException
+      if (chan.write(buf) == 0) {
+        awaitWritable();
+      }
+    }
+  }
+
+  private void writeFully(ByteBuffer[] bufs, int length) throws IOException {
+    long remaining = 0;
+    for (int i = 0; i < length; i++) {
+      remaining += bufs[i].remaining();
+    }
+    bytesWritten += remaining;
+    int offset = 0;
+    while (remaining > 0) { // force synchronous
+      long written = chan.write(bufs, offset, length - offset);
+      remaining -= written;
+      while (offset < length && !bufs[offset].hasRemaining()) {
+        offset++; // skip buffers that were written completely
+      }
+      if (written == 0) {
+        awaitWritable();
+      }
+    }
+  }
+
+  private void awaitWritable() throws IOException {
+    // the socket's send buffer is full; wait until there is space again instead of spinning
+    Selector sel;
+    synchronized (SYNC_CLOSE) {
+      if (closed) {
+        throw new AsynchronousCloseException();
+      }
+      sel = writeSelector;
+      if (sel == null) {
+        sel = Selector.open();
+        try {
+          chan.register(sel, SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+          sel.close();
+          throw e;
+        }
+        writeSelector = sel;
+      }
+    }
+    // no timeout: a concurrent close() closes the selector, which wakes up the select
+    try {
+      sel.select();
+      sel.selectedKeys().clear();
+    } catch (ClosedSelectorException e) {
+      throw new AsynchronousCloseException();
+    }
+  }
+
   /**
    * Closes this channel.
    * Calling this method may cause concurrent reads or writes to fail.
@@ -188,5 +469,17 @@ public class Connection implements AutoCloseable {
       // do nothing more; don't propagate exceptions to the outside
       // shutdown should not throw exceptions
     }
+    Selector sel;
+    synchronized (SYNC_CLOSE) {
+      closed = true;
+      sel = writeSelector;
+    }
+    if (sel != null) {
+      try {
+        sel.close();
+      } catch (Exception e) {
+        // same as above
+      }
+    }
   }
 }
\ No newline at end of file
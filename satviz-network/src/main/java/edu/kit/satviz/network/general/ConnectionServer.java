@@ -3,11 +3,16 @@ package edu.kit.satviz.network.general;
 import edu.kit.satviz.serial.SerializationException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
@@ -20,22 +25,38 @@ import java.util.concurrent.CopyOnWriteArrayList;
  *     writing to connections is synchronous.
  * The active connections are identified by an ID, which is a small, non-negative integer.
  * IDs are passed out sequentially, starting at 0. No ID is ever reused for another connection.
+ * The server may use several selectors, so that multiple threads can read and decode messages
+ *     at the same time. Each connection is assigned to a single selector in a round-robin fashion,
+ *     so its messages are always read in order by the thread polling that selector.
+ *     New connections are only accepted by selector 0.
+ * The server either accepts TCP connections or connections via a Unix domain socket.
  */
 public class ConnectionServer implements AutoCloseable {
 
   private final NetworkBlueprint bp;
+  private final int readBufferSize;
   private int numConnections = 0;
   private final List<Connection> connections = new CopyOnWriteArrayList<>();
-  private final Selector sel;
+  private final SelectorState[] selectors;
   private final ServerSocketChannel serverChan;
+  // the socket file to delete on close, null for TCP
+  private final Path socketPath;
 
-  private Iterator<SelectionKey> selectedEvents = null;
-  private int currentReadId;
-  private Queue<NetworkMessage> currentRead;
-
-  private final Object SYNC_READ = new Object();
   private final Object SYNC_CONNECTIONS = new Object();
 
+  private static class SelectorState {
+    private final Selector sel;
+    private Iterator<SelectionKey> selectedEvents = null;
+    private int currentReadId;
+    private Queue<NetworkMessage> currentRead;
+
+    private final Object SYNC_READ = new Object();
+
+    private SelectorState(Selector sel) {
+      this.sel = sel;
+    }
+  }
+
   /**
    * Creates a new connection server by opening a server socket channel.
    * @param bp the types of messages
@@ -43,23 +64,106 @@ public class ConnectionServer implements AutoCloseable {
    * @throws IOException if an I/O error occurs
    */
   public ConnectionServer(int port, NetworkBlueprint bp) throws IOException {
+    this(port, bp, Connection.DEFAULT_READ_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new connection server by opening a server socket channel.
+   * @param bp the types of messages
+   * @param port the server port, 0 for automatic assignment
+   * @param readBufferSize the size of the read buffer of each connection in bytes
+   * @throws IOException if an I/O error occurs
+   */
+  public ConnectionServer(int port, NetworkBlueprint bp, int readBufferSize) throws IOException {
+    this(port, bp, readBufferSize, 1);
+  }
+
+  /**
+   * Creates a new connection server by opening a server socket channel.
+   * @param bp the types of messages
+   * @param port the server port, 0 for automatic assignment
+   * @param readBufferSize the size of the read buffer of each connection in bytes
+   * @param numSelectors the amount of selectors that may be polled concurrently
+   * @throws IllegalArgumentException if the amount of selectors is not positive
+   * @throws IOException if an I/O error occurs
+   */
+  public ConnectionServer(int port, NetworkBlueprint bp, int readBufferSize, int numSelectors)
+      throws IOException {
+    // bind to wildcard IP address
+    this(new InetSocketAddress(port), bp, readBufferSize, numSelectors);
+  }
+
+  /**
+   * Creates a new connection server by opening a server socket channel bound to the given address.
+   * The address may be an {@link InetSocketAddress} to accept TCP connections, or a
+   *     {@link UnixDomainSocketAddress} to accept connections from other processes on the same
+   *     machine. In the latter case, no file may exist at the path yet; the socket file is deleted
+   *     again when this server is closed.
+   * @param address the local address to bind to
+   * @param bp the types of messages
+   * @param readBufferSize the size of the read buffer of each connection in bytes
+   * @param numSelectors the amount of selectors that may be polled concurrently
+   * @throws IllegalArgumentException if the amount of selectors is not positive
+   * @throws IOException if an I/O error occurs
+   */
+  public ConnectionServer(SocketAddress address, NetworkBlueprint bp, int readBufferSize,
+      int numSelectors) throws IOException {
+    if (numSelectors < 1) {
+      throw new IllegalArgumentException("invalid amount of selectors " + numSelectors);
+    }
     this.bp = bp;
-    this.sel = Selector.open();
-    this.serverChan = ServerSocketChannel.open();
+    this.readBufferSize = readBufferSize;
+    this.selectors = new SelectorState[numSelectors];
+    for (int i = 0; i < numSelectors; i++) {
+      this.selectors[i] = new SelectorState(Selector.open());
+    }
+    if (address instanceof UnixDomainSocketAddress unix) {
+      this.serverChan = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+      this.socketPath = unix.getPath();
+    } else {
+      this.serverChan = ServerSocketChannel.open();
+      this.socketPath = null;
+    }
     this.serverChan.configureBlocking(false);
-    this.serverChan.register(this.sel, SelectionKey.OP_ACCEPT);
-    // bind to wildcard IP address
-    this.serverChan.bind(new InetSocketAddress(port));
+    this.serverChan.register(this.selectors[0].sel, SelectionKey.OP_ACCEPT);
+    try {
+      this.serverChan.bind(address);
+    } catch (IOException e) {
+      // not close(), as the socket file might belong to someone else
+      this.serverChan.close();
+      for (SelectorState state : selectors) {
+        state.sel.close();
+      }
+      throw e;
+    }
   }
 
   /**
    * Returns the local address that this server is bound to.
-   * @return local address
+   * @return local address, {@code null} if bound to a Unix domain socket
    * @throws ClosedChannelException if the channel is closed
    * @throws IOException if an I/O error occurs
    */
   public InetSocketAddress getLocalAddress() throws IOException {
-    return (InetSocketAddress) serverChan.getLocalAddress();
+    return serverChan.getLocalAddress() instanceof InetSocketAddress local ? local : null;
+  }
+
+  /**
+   * Returns the local address that this server is bound to, which may be a Unix domain socket.
+   * @return local address
+   * @throws ClosedChannelException if the channel is closed
+   * @throws IOException if an I/O error occurs
+   */
+  public SocketAddress getLocalSocketAddress() throws IOException {
+    return serverChan.getLocalAddress();
+  }
+
+  /**
+   * Returns the amount of selectors of this server.
+   * @return the amount of selectors, at least 1
+   */
+  public int getNumSelectors() {
+    return selectors.length;
   }
 
   private PollEvent accept() {
@@ -69,9 +173,15 @@ public class ConnectionServer implements AutoCloseable {
       try {
         SocketChannel client = serverChan.accept();
         client.configureBlocking(false);
+        // add the connection before registering it, as another thread may read from it right away
+        connections.add(new Connection(client, bp, readBufferSize));
+        Selector sel = selectors[numConnections % selectors.length].sel;
         // attach connection ID for quick find
         client.register(sel, SelectionKey.OP_READ, numConnections);
-        connections.add(new Connection(client, bp));
+        if (sel != selectors[0].sel) {
+          // the other selector may be blocked in a select that does not know about this channel
+          sel.wakeup();
+        }
       } catch (Exception e) {
         return new PollEvent(PollEvent.EventType.FAIL, -1, e);
       }
@@ -80,31 +190,36 @@ public class ConnectionServer implements AutoCloseable {
   }
 
   /**
-   * Returns the next of the previously polled events, without polling for new ones.
+   * Returns the next of the previously polled events of selector 0, without polling for new ones.
    * @return pending event, possibly {@code null}
    */
   public PollEvent pollPrevious() {
+    return pollPrevious(selectors[0]);
+  }
+
+  private PollEvent pollPrevious(SelectorState state) {
     do {
-      if (currentRead != null && !currentRead.isEmpty()) {
-        return new PollEvent(PollEvent.EventType.READ, currentReadId, currentRead.poll());
+      if (state.currentRead != null && !state.currentRead.isEmpty()) {
+        return new PollEvent(PollEvent.EventType.READ, state.currentReadId,
+            state.currentRead.poll());
       }
-      if (selectedEvents == null || !selectedEvents.hasNext()) {
+      if (state.selectedEvents == null || !state.selectedEvents.hasNext()) {
         break;
       }
 
-      SelectionKey key = selectedEvents.next();
-      selectedEvents.remove(); // avoid processing the same key twice
+      SelectionKey key = state.selectedEvents.next();
+      state.selectedEvents.remove(); // avoid processing the same key twice
 
       if (key.isAcceptable()) {
         return accept();
       } else if (key.isReadable()) {
-        currentReadId = (int) key.attachment();
-        Connection conn = connections.get(currentReadId);
+        state.currentReadId = (int) key.attachment();
+        Connection conn = connections.get(state.currentReadId);
         try {
-          currentRead = conn.read();
+          state.currentRead = conn.read();
         } catch (Exception e) {
-          currentRead = null;
-          return new PollEvent(PollEvent.EventType.FAIL, currentReadId, e);
+          state.currentRead = null;
+          return new PollEvent(PollEvent.EventType.FAIL, state.currentReadId, e);
         }
       }
     } while (true); // finite loop because iterator has finite length
@@ -114,29 +229,78 @@ public class ConnectionServer implements AutoCloseable {
 
   /**
    * Polls for a single event on the server socket or on any of the registered connections.
-   * If there are no events pending, waits for at most 1000 ms for new events occurring.
-   * This method is thread-safe; concurrent calls will always block until the pending poll
-   *     operation is complete.
+   * This is the same as {@code poll(0)}; with more than one selector, only the connections
+   *     assigned to selector 0 are polled.
+   * @return an event, possibly {@code null}
+   * @see #poll(int)
+   */
+  public PollEvent poll() {
+    return poll(0);
+  }
+
+  /**
+   * Polls for a single event on the connections assigned to one of the selectors.
+   * This is the same as {@code poll(selector, 1000)}.
+   * @param selector the index of the selector
+   * @return an event, possibly {@code null}
+   * @throws IndexOutOfBoundsException if the selector index is invalid
+   * @see #poll(int, long)
+   */
+  public PollEvent poll(int selector) {
+    return poll(selector, 1000);
+  }
+
+  /**
+   * Polls for a single event on the connections assigned to one of the selectors.
+   * The server socket is only polled by selector 0.
+   * If there are no events pending, waits for new events occurring, until the timeout expires or
+   *     {@link #wakeup()} is called.
+   * This method is thread-safe; concurrent calls for the same selector will always block until
+   *     the pending poll operation is complete, while different selectors can be polled in
+   *     parallel.
    * This method does not throw any exceptions, but rather returns them as events. This way, the
    *     caller can find out which connection produced the exception.
+   * @param selector the index of the selector
+   * @param timeout the maximum time to wait in ms, 0 to wait until an event occurs or the
+   *     selector is woken up
    * @return an event, possibly {@code null}
+   * @throws IndexOutOfBoundsException if the selector index is invalid
+   * @throws IllegalArgumentException if the timeout is negative
    */
-  public PollEvent poll() {
-    synchronized (SYNC_READ) {
-      PollEvent event = pollPrevious();
+  public PollEvent poll(int selector, long timeout) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("negative timeout");
+    }
+    SelectorState state = selectors[selector];
+    synchronized (state.SYNC_READ) {
+      PollEvent event = pollPrevious(state);
       if (event != null) {
         return event;
       }
 
       // found no events remaining; poll new
       try {
-        sel.select(1000);
+        state.sel.select(timeout);
       } catch (Exception e) {
         return new PollEvent(PollEvent.EventType.FAIL, -1, e);
       }
-      selectedEvents = sel.selectedKeys().iterator();
+      state.selectedEvents = state.sel.selectedKeys().iterator();
+
+      return pollPrevious(state);
+    }
+  }
 
-      return pollPrevious();
+  /**
+   * Causes pending and future polls of all selectors to return immediately, even if no events
+   *     occurred.
+   * Each selector returns early at most once per call of this method.
+   * Has no effect if this server is closed.
+   */
+  public void wakeup() {
+    for (SelectorState state : selectors) {
+      if (state.sel.isOpen()) {
+        state.sel.wakeup();
+      }
     }
   }
 
@@ -156,10 +320,21 @@ public class ConnectionServer implements AutoCloseable {
     conn.write(type, obj);
   }
 
+  /**
+   * Decompresses all bytes read from one of the registered connections from now on.
+   * @param id the connection ID
+   * @throws IndexOutOfBoundsException if the ID is invalid
+   * @see Connection#enableDecompression()
+   */
+  public void enableDecompression(int id) {
+    Connection conn = connections.get(id);
+    conn.enableDecompression();
+  }
+
   /**
    * Returns the remove address of one of the registered connections.
    * @param id the connection ID
-   * @return the address of the connection
+   * @return the address of the connection, {@code null} for Unix domain socket connections
    * @throws IndexOutOfBoundsException if the ID is invalid
    * @throws IOException if an I/O error occurs
    */
@@ -189,10 +364,22 @@ public class ConnectionServer implements AutoCloseable {
       }
       try {
         serverChan.close();
+        if (socketPath != null) {
+          // Unix domain sockets are not removed when the channel is closed
+          Files.deleteIfExists(socketPath);
+        }
       } catch (Exception e) {
         // do nothing more; don't propagate exceptions to the outside
         // shutdown should not throw exceptions
       }
+      for (SelectorState state : selectors) {
+        try {
+          // also releases the channels that are still registered with the selector
+          state.sel.close();
+        } catch (Exception e) {
+          // same as above
+        }
+      }
     }
   }
 }
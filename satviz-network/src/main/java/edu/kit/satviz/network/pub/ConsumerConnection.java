@@ -1,5 +1,6 @@
 package edu.kit.satviz.network.pub;
 
+import edu.kit.satviz.network.general.Connection;
 import edu.kit.satviz.network.general.ConnectionServer;
 import edu.kit.satviz.network.general.NetworkMessage;
 import edu.kit.satviz.network.general.PollEvent;
@@ -8,10 +9,16 @@ import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.sat.SatAssignment;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 // if there is time, make sure serialization or class cast errors are properly handled
@@ -23,22 +30,46 @@ import java.util.function.Consumer;
  * {@link ConsumerConnectionListener}, and can be started or stopped independently.
  * The common use case of the connect listener is to install a {@link ConsumerConnectionListener}
  * for the new connection. Additionally, a fail listener is called when a global error occurs.
+ * Messages are read by one or more selector threads. By default, listeners are called directly
+ * on these threads; alternatively, an {@link Executor} may be given to call the listeners on.
+ * Either way, the listener calls for a single producer always happen one after another, in the
+ * order in which the messages were received.
  */
 public class ConsumerConnection {
+  /** The default size of the read buffer of each producer connection in bytes. */
+  public static final int DEFAULT_READ_BUFFER_SIZE = Connection.DEFAULT_READ_BUFFER_SIZE;
+  /** The default amount of selector threads. */
+  public static final int DEFAULT_NUM_SELECTORS = 1;
+  /** The maximum amount of messages per producer that may wait for the listener executor. */
+  private static final int MAX_PENDING_TASKS = 1024;
+  /** The maximum amount of messages per producer handled by a single executor task. */
+  private static final int MAX_TASKS_PER_RUN = 256;
+
   private final Object SYNC_START = new Object();
   private boolean started = false;
   private volatile boolean shouldClose = false;
+  private volatile String closeFailMessage = null;
 
   private static class ConnectionData {
     public ProducerId pid = null;
     public ConsumerConnectionListener ls = null;
     public boolean isDisconnected = false;
+    public int version = 1;
+    public boolean compression = false;
+    // listener calls waiting for the executor, guarded by the queue itself
+    public final Queue<Runnable> tasks = new ArrayDeque<>();
+    public boolean dispatching = false;
   }
 
-  private final int port;
+  private final SocketAddress address;
+  private final int readBufferSize;
+  private final int numSelectors;
+  private final Executor listenerExecutor;
   private final Consumer<ProducerId> lsConnect;
   private final Consumer<String> lsFail;
-  private final List<ConnectionData> connections = new CopyOnWriteArrayList<>();
+  // the selector threads may read from a connection before its ACCEPT event has been handled
+  private final Map<Integer, ConnectionData> connections = new ConcurrentHashMap<>();
+  private Thread[] selectorThreads = null;
 
   private ConnectionServer server = null;
 
@@ -49,7 +80,65 @@ public class ConsumerConnection {
    * @param lsFail the fail listener
    */
   public ConsumerConnection(int port, Consumer<ProducerId> lsConnect, Consumer<String> lsFail) {
-    this.port = port;
+    this(port, lsConnect, lsFail, DEFAULT_READ_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new connection servicing an arbitrary number of producers.
+   * @param port the port on which to listen for producers
+   * @param lsConnect the connect listener, not {@code null}
+   * @param lsFail the fail listener
+   * @param readBufferSize the size of the read buffer of each producer connection in bytes
+   */
+  public ConsumerConnection(int port, Consumer<ProducerId> lsConnect, Consumer<String> lsFail,
+      int readBufferSize) {
+    this(port, lsConnect, lsFail, readBufferSize, DEFAULT_NUM_SELECTORS, null);
+  }
+
+  /**
+   * Creates a new connection servicing an arbitrary number of producers.
+   * The producers are distributed among several selector threads, each of which reads and
+   *     decodes the messages of its producers. This is useful if there are many producers.
+   * If a listener executor is given, it is used to call the listeners of all producers, so that a
+   *     slow listener does not keep the selector threads from reading.
+   * @param port the port on which to listen for producers
+   * @param lsConnect the connect listener, not {@code null}
+   * @param lsFail the fail listener
+   * @param readBufferSize the size of the read buffer of each producer connection in bytes
+   * @param numSelectors the amount of selector threads
+   * @param listenerExecutor the executor to call listeners on, {@code null} to call them on the
+   *     selector threads
+   * @throws IllegalArgumentException if the amount of selector threads is not positive
+   */
+  public ConsumerConnection(int port, Consumer<ProducerId> lsConnect, Consumer<String> lsFail,
+      int readBufferSize, int numSelectors, Executor listenerExecutor) {
+    this(new InetSocketAddress(port), lsConnect, lsFail, readBufferSize, numSelectors,
+        listenerExecutor);
+  }
+
+  /**
+   * Creates a new connection servicing an arbitrary number of producers, listening on the given
+   *     address.
+   * Using a {@link java.net.UnixDomainSocketAddress} avoids the overhead of TCP if all producers
+   *     run on the same machine. Producers connected this way have no remote address.
+   * @param address the address on which to listen for producers
+   * @param lsConnect the connect listener, not {@code null}
+   * @param lsFail the fail listener
+   * @param readBufferSize the size of the read buffer of each producer connection in bytes
+   * @param numSelectors the amount of selector threads
+   * @param listenerExecutor the executor to call listeners on, {@code null} to call them on the
+   *     selector threads
+   * @throws IllegalArgumentException if the amount of selector threads is not positive
+   */
+  public ConsumerConnection(SocketAddress address, Consumer<ProducerId> lsConnect,
+      Consumer<String> lsFail, int readBufferSize, int numSelectors, Executor listenerExecutor) {
+    if (numSelectors < 1) {
+      throw new IllegalArgumentException("invalid amount of selectors " + numSelectors);
+    }
+    this.address = Objects.requireNonNull(address);
+    this.readBufferSize = readBufferSize;
+    this.numSelectors = numSelectors;
+    this.listenerExecutor = listenerExecutor;
     this.lsConnect = Objects.requireNonNull(lsConnect);
     this.lsFail = Objects.requireNonNullElse(lsFail, (s) -> {});
   }
@@ -61,12 +150,13 @@ public class ConsumerConnection {
    * @param failMessage the fail message, {@code null} if orderly close
    */
   private void doClose(String failMessage) {
-    // Note: at the moment this is only called from the worker thread! This has numerous
-    // advantages: not having to check that no new connections arrive while we close, no
-    // global synchronization, no checking if server != null, ...
+    // Note: at the moment this is only called from the first selector thread, after all other
+    // selector threads have finished! This has numerous advantages: not having to check that no
+    // new connections arrive while we close, no global synchronization, no checking if
+    // server != null, ...
 
     // close all single connections
-    for (ConnectionData conn : connections) {
+    for (ConnectionData conn : connections.values()) {
       disconnect(conn, failMessage);
     }
 
@@ -77,8 +167,67 @@ public class ConsumerConnection {
     }
   }
 
-  private void read(int id, NetworkMessage msg) {
-    ConnectionData conn = connections.get(id);
+  private ConnectionData getConnection(int id) {
+    return connections.computeIfAbsent(id, (i) -> new ConnectionData());
+  }
+
+  /**
+   * Calls the listeners for one message of a connection, either directly or on the listener
+   * executor.
+   * Blocks while too many messages of this connection are waiting for the executor.
+   * @param conn the connection
+   * @param task the listener calls
+   */
+  private void dispatch(ConnectionData conn, Runnable task) {
+    if (listenerExecutor == null) {
+      task.run();
+      return;
+    }
+    synchronized (conn.tasks) {
+      while (conn.tasks.size() >= MAX_PENDING_TASKS && !shouldClose) {
+        try {
+          conn.tasks.wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      conn.tasks.add(task);
+      if (conn.dispatching) {
+        return; // the running executor task will take care of this one as well
+      }
+      conn.dispatching = true;
+    }
+    try {
+      listenerExecutor.execute(() -> runTasks(conn));
+    } catch (RejectedExecutionException e) {
+      // the executor was shut down; call the listeners ourselves instead of losing messages
+      runTasks(conn);
+    }
+  }
+
+  private void runTasks(ConnectionData conn) {
+    for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+      Runnable task;
+      synchronized (conn.tasks) {
+        task = conn.tasks.poll();
+        if (task == null) {
+          conn.dispatching = false;
+          return;
+        }
+        conn.tasks.notifyAll();
+      }
+      task.run();
+    }
+    // give the other connections a chance, but keep the order of this one
+    try {
+      listenerExecutor.execute(() -> runTasks(conn));
+    } catch (RejectedExecutionException e) {
+      runTasks(conn);
+    }
+  }
+
+  private void read(int id, ConnectionData conn, NetworkMessage msg) {
     switch (msg.type()) {
       case MessageTypes.OFFER -> {
         InetSocketAddress remote;
@@ -90,6 +239,8 @@ public class ConsumerConnection {
         }
         @SuppressWarnings("unchecked")
         Map<String, String> offerData = (Map<String, String>) msg.object();
+        conn.version = MessageTypes.parseVersion(offerData.get("version"));
+        conn.compression = MessageTypes.COMPRESSION_LZ4.equals(offerData.get("compression"));
         if (offerData.get("type").equals("solver")) {
           conn.pid = new SolverId(
               id, remote,
@@ -108,7 +259,7 @@ public class ConsumerConnection {
         // bottleneck
         lsConnect.accept(conn.pid);
       }
-      case MessageTypes.CLAUSE_ADD -> {
+      case MessageTypes.CLAUSE_ADD, MessageTypes.CLAUSE_ADD_DELTA -> {
         synchronized (conn) {
           if (conn.isDisconnected || conn.ls == null) {
             break;
@@ -118,7 +269,7 @@ public class ConsumerConnection {
           ));
         }
       }
-      case MessageTypes.CLAUSE_DEL -> {
+      case MessageTypes.CLAUSE_DEL, MessageTypes.CLAUSE_DEL_DELTA -> {
         synchronized (conn) {
           if (conn.isDisconnected || conn.ls == null) {
             break;
@@ -128,6 +279,28 @@ public class ConsumerConnection {
           ));
         }
       }
+      case MessageTypes.CLAUSE_BATCH, MessageTypes.CLAUSE_BATCH_DELTA -> {
+        synchronized (conn) {
+          if (conn.isDisconnected || conn.ls == null) {
+            break;
+          }
+          @SuppressWarnings("unchecked")
+          List<ClauseUpdate> batch = (List<ClauseUpdate>) msg.object();
+          for (ClauseUpdate c : batch) {
+            conn.ls.onClauseUpdate(conn.pid, c);
+          }
+        }
+      }
+      case MessageTypes.STATS -> {
+        synchronized (conn) {
+          if (conn.isDisconnected || conn.ls == null) {
+            break;
+          }
+          @SuppressWarnings("unchecked")
+          Map<String, String> statsData = (Map<String, String>) msg.object();
+          conn.ls.onStatistics(conn.pid, ProducerStatistics.fromMap(statsData));
+        }
+      }
       case MessageTypes.TERM_SOLVE -> {
         synchronized (conn) {
           if (conn.isDisconnected) {
@@ -164,16 +337,10 @@ public class ConsumerConnection {
     }
   }
 
-  private void threadMain() {
-    PollEvent event;
-    while (true) {
-      if (shouldClose) {
-        // TODO performance-wise, don't do this in every loop iteration
-        // only if the server has to wait (methods for that are already in place)
-        doClose(null);
-        return;
-      }
-      event = server.poll();
+  private void threadMain(int selector) {
+    // the poll only returns without an event if the server is woken up, which happens on close
+    while (!shouldClose) {
+      PollEvent event = server.poll(selector, 0);
       if (event == null) {
         continue;
       }
@@ -181,38 +348,50 @@ public class ConsumerConnection {
       if (event.id() == -1) {
         // global fail. try our best to close the connections, even though the sends will probably
         // not go through
-        doClose("internal server error");
-        return;
+        closeFailMessage = "internal server error";
+        shouldClose = true;
+        server.wakeup(); // let the other selector threads finish as well
+        break;
       }
 
+      ConnectionData conn = getConnection(event.id());
       switch (event.type()) {
         case ACCEPT -> {
-          // Note: we would need to synchronize this if the close action could be performed on
-          // another thread than this one
-          connections.add(new ConnectionData());
+          // nothing to do, the connection data has just been created
         }
         case READ -> {
           NetworkMessage msg = (NetworkMessage) event.obj();
-          read(event.id(), msg);
+          dispatch(conn, () -> read(event.id(), conn, msg));
         }
-        case FAIL -> {
-          ConnectionData conn = connections.get(event.id());
+        case FAIL -> dispatch(conn, () -> {
           synchronized (conn) {
             if (conn.isDisconnected) {
-              break;
+              return;
             }
             conn.isDisconnected = true;
             if (conn.ls != null) {
               conn.ls.onTerminateOtherwise(conn.pid, ((Exception) event.obj()).getMessage());
             }
           }
+        });
+      }
+    }
+
+    if (selector == 0) {
+      // the first selector thread closes everything once the others are done
+      for (int i = 1; i < selectorThreads.length; i++) {
+        try {
+          selectorThreads[i].join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
         }
       }
+      doClose(closeFailMessage);
     }
   }
 
   /**
-   * Starts this ConsumerConnection by creating a {@link ConnectionServer} and worker thread to
+   * Starts this ConsumerConnection by creating a {@link ConnectionServer} and selector threads to
    * read messages.
    * This method has no effect if {@code stop()} was called before.
    * @throws IllegalStateException if {@code start()} has already been called
@@ -235,9 +414,18 @@ public class ConsumerConnection {
         return;
       }
 
-      server = new ConnectionServer(port, MessageTypes.satvizBlueprint);
+      server = new ConnectionServer(address, MessageTypes.satvizBlueprint, readBufferSize,
+          numSelectors);
 
-      new Thread(this::threadMain).start();
+      selectorThreads = new Thread[numSelectors];
+      for (int i = 0; i < numSelectors; i++) {
+        final int selector = i;
+        selectorThreads[i] = new Thread(() -> threadMain(selector),
+            "satviz-consumer-selector-" + i);
+      }
+      for (Thread t : selectorThreads) {
+        t.start();
+      }
     }
   }
 
@@ -245,7 +433,12 @@ public class ConsumerConnection {
    * Signals this server that it should disconnect all producers and close all underlying sockets.
    */
   public void stop() {
-      shouldClose = true;
+    shouldClose = true;
+    synchronized (SYNC_START) {
+      if (server != null) {
+        server.wakeup();
+      }
+    }
   }
 
   /**
@@ -259,14 +452,27 @@ public class ConsumerConnection {
   public boolean connect(ProducerId pid, ConsumerConnectionListener ls) {
     // Note: this method can only be called if the worker thread already runs
     // no need to test if server != null
-    ConnectionData conn = connections.get(pid.getId());
+    ConnectionData conn = getConnection(pid.getId());
     synchronized (conn) {
       if (conn.isDisconnected || conn.ls != null) {
         return false;
       }
       conn.ls = ls;
       try {
-        server.write(pid.getId(), MessageTypes.START, null);
+        if (conn.version >= 2) {
+          // tell the producer which version we agree on, so it may use newer message types
+          int version = Math.min(conn.version, MessageTypes.PROTOCOL_VERSION);
+          Map<String, String> startData = new HashMap<>();
+          startData.put("version", Integer.toString(version));
+          if (conn.compression) {
+            // the producer only sends compressed blocks after receiving this message
+            server.enableDecompression(pid.getId());
+            startData.put("compression", MessageTypes.COMPRESSION_LZ4);
+          }
+          server.write(pid.getId(), MessageTypes.START_NEGOTIATED, startData);
+        } else {
+          server.write(pid.getId(), MessageTypes.START, null);
+        }
       } catch (Exception e) {
         conn.ls = null;
         return false;
@@ -303,10 +509,25 @@ public class ConsumerConnection {
    * @return whether the message was sent or not
    */
   public boolean disconnect(ProducerId pid) {
-    return disconnect(connections.get(pid.getId()), null);
+    return disconnect(getConnection(pid.getId()), null);
   }
 
+  /**
+   * Returns the port on which this connection listens for producers.
+   * @return the port, -1 if listening on a Unix domain socket
+   * @throws IOException if an I/O error occurs
+   */
   public int getPort() throws IOException {
-    return server.getLocalAddress().getPort();
+    InetSocketAddress local = server.getLocalAddress();
+    return local == null ? -1 : local.getPort();
+  }
+
+  /**
+   * Returns the address on which this connection listens for producers.
+   * @return the local address, which is either a TCP address or a Unix domain socket address
+   * @throws IOException if an I/O error occurs
+   */
+  public SocketAddress getLocalAddress() throws IOException {
+    return server.getLocalSocketAddress();
   }
 }
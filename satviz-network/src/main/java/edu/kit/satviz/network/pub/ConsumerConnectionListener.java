@@ -18,6 +18,17 @@ public interface ConsumerConnectionListener {
     // do nothing
   }
 
+  /**
+   * Called when the producer sent statistics about its send queue.
+   * This happens right before the producer terminates.
+   *
+   * @param pid ID of sending producer
+   * @param stats the statistics
+   */
+  default void onStatistics(ProducerId pid, ProducerStatistics stats) {
+    // do nothing
+  }
+
   /**
    * Called when a satisfying SAT assignment was sent.
    *
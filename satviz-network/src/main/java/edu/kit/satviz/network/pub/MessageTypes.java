@@ -17,13 +17,35 @@ public final class MessageTypes {
   public static final byte OFFER = 1;
   public static final byte START = 2;
   public static final byte STOP = 3;
+  public static final byte START_NEGOTIATED = 4;
 
   public static final byte TERM_SOLVE = 8;
   public static final byte TERM_REFUTE = 9;
   public static final byte TERM_OTHER = 10;
+  public static final byte STATS = 11;
 
   public static final byte CLAUSE_ADD = 'a';
   public static final byte CLAUSE_DEL = 'd';
+  public static final byte CLAUSE_BATCH = 'b';
+  public static final byte CLAUSE_ADD_DELTA = 'A';
+  public static final byte CLAUSE_DEL_DELTA = 'D';
+  public static final byte CLAUSE_BATCH_DELTA = 'B';
+
+  /**
+   * The newest protocol version, as sent in the {@code version} field of an {@link #OFFER}.
+   * Version 2 adds {@link #START_NEGOTIATED}, {@link #CLAUSE_BATCH} and {@link #STATS}.
+   * In version 2, the producer may also ask for compression by sending the {@code compression}
+   * field with the value {@link #COMPRESSION_LZ4} in its offer. If the consumer repeats the field
+   * in its {@link #START_NEGOTIATED} message, all following bytes from the producer are sent in
+   * LZ4 blocks.
+   * Version 3 adds {@link #CLAUSE_ADD_DELTA}, {@link #CLAUSE_DEL_DELTA} and
+   * {@link #CLAUSE_BATCH_DELTA}, which encode clauses using {@link DeltaClauseSerializer}.
+   * It only stores the differences between variables for clauses that become smaller that way.
+   */
+  public static final int PROTOCOL_VERSION = 3;
+
+  /** The only compression method, as sent in the {@code compression} field. */
+  public static final String COMPRESSION_LZ4 = "lz4";
 
   /**
    * All the message types for satviz communication.
@@ -33,11 +55,31 @@ public final class MessageTypes {
           Map.entry(OFFER, new StringMapSerializer()),
           Map.entry(START, new NullSerializer()),
           Map.entry(STOP, new NullSerializer()),
+          Map.entry(START_NEGOTIATED, new StringMapSerializer()),
           Map.entry(TERM_SOLVE, new SatAssignmentSerializer()),
           Map.entry(TERM_REFUTE, new NullSerializer()),
           Map.entry(TERM_OTHER, new StringSerializer()),
+          Map.entry(STATS, new StringMapSerializer()),
           Map.entry(CLAUSE_ADD, new ClauseSerializer()),
-          Map.entry(CLAUSE_DEL, new ClauseSerializer())
+          Map.entry(CLAUSE_DEL, new ClauseSerializer()),
+          Map.entry(CLAUSE_BATCH, new ClauseUpdateBatchSerializer()),
+          Map.entry(CLAUSE_ADD_DELTA, new DeltaClauseSerializer()),
+          Map.entry(CLAUSE_DEL_DELTA, new DeltaClauseSerializer()),
+          Map.entry(CLAUSE_BATCH_DELTA, new ClauseUpdateBatchSerializer(
+              new ClauseUpdateSerializer(new DeltaClauseSerializer())))
       )
   );
+
+  /**
+   * Parses the {@code version} field of an {@link #OFFER} or {@link #START_NEGOTIATED} message.
+   * @param version the field value, possibly {@code null}
+   * @return the protocol version, 1 if the value is not a valid version
+   */
+  static int parseVersion(String version) {
+    try {
+      return Math.max(1, Integer.parseInt(version));
+    } catch (NumberFormatException e) {
+      return 1; // peers that don't send a valid version only speak the first version
+    }
+  }
 }
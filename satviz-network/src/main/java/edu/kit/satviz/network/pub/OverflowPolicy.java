@@ -0,0 +1,14 @@
+package edu.kit.satviz.network.pub;
+
+/**
+ * What a {@link ProducerConnection} does with clause updates that are sent while its send queue
+ * is full.
+ */
+public enum OverflowPolicy {
+  /** Wait until there is space in the queue, slowing down the sender. */
+  BLOCK,
+  /** Discard the oldest queued clause update to make space for the new one. */
+  DROP_OLDEST,
+  /** Discard new clause updates, except every few of them, which replace the oldest one. */
+  SAMPLE
+}
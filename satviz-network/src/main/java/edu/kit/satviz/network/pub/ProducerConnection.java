@@ -2,24 +2,60 @@ package edu.kit.satviz.network.pub;
 
 import edu.kit.satviz.network.general.Connection;
 import edu.kit.satviz.network.general.NetworkMessage;
+import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.sat.SatAssignment;
-import edu.kit.satviz.serial.SerializationException;
+import edu.kit.satviz.serial.ClauseSerializer;
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The producer part of a satviz network connection.
  * State changes are communicated via the {@link ProducerConnectionListener}. {@code onConnect} is
  *     called once the consumer sends the START signal. {@code onDisconnect} is called if an
  *     internal error occurs or the consumer sends the STOP signal.
+ * Clause updates are put into a bounded queue and sent by a separate writer thread, so that the
+ *     sender is not slowed down by the network. What happens if the queue is full is determined
+ *     by the {@link OverflowPolicy}.
+ * If the consumer supports it, clause updates are not sent one by one, but collected into batches
+ *     that are sent once they are large enough or the oldest update has waited long enough.
+ * Optionally, the connection can be compressed using LZ4, see {@link #enableCompression}.
  */
 public class ProducerConnection {
+  /** Default maximum amount of clause updates in one batch. */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+  /** Default maximum time in ms that a clause update is held back to fill a batch. */
+  public static final long DEFAULT_MAX_BATCH_DELAY = 10;
+  /** Default capacity of the send queue. */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+  /** Default policy for clause updates sent while the queue is full. */
+  public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+  /** Default amount of uncompressed bytes per compressed block. */
+  public static final int DEFAULT_COMPRESSION_BLOCK_SIZE = 64 * 1024;
+  /** Default maximum time in ms that bytes are held back to fill a compressed block. */
+  public static final long DEFAULT_COMPRESSION_FLUSH_INTERVAL = 50;
+
+  /** With {@link OverflowPolicy#SAMPLE}, one in this many overflowing updates is kept. */
+  private static final int SAMPLE_INTERVAL = 16;
+  /** Maximum amount of clause updates the writer thread takes from the queue at once. */
+  private static final int MAX_DRAIN = 4096;
+  /** Put into the queue to wake up the writer thread when closing; never sent. */
+  private static final ClauseUpdate STOP_WRITER =
+      new ClauseUpdate(new Clause(new int[0]), ClauseUpdate.Type.ADD);
+
   private enum State {
     INIT,
     ESTABLISHING,
@@ -28,14 +64,43 @@ public class ProducerConnection {
     CLOSED
   }
 
-  private final String address;
-  private final int port;
+  private final SocketAddress address;
+  private final int maxBatchSize;
+  private final long maxBatchDelayNanos;
+  private final OverflowPolicy overflowPolicy;
+  private int compressionBlockSize = 0; // 0 if compression is disabled
+  private long compressionFlushInterval;
+  private boolean compressing = false;
   private ProducerId pid = null;
   private ProducerConnectionListener ls = null;
 
   private Connection client = null;
+  private Selector sel = null;
   private final Object SYNC_STATE = new Object();
-  private State state = State.INIT;
+  // only written while holding SYNC_STATE, but read without it when queueing clause updates
+  private volatile State state = State.INIT;
+  private int version = 1;
+  // message types for clause updates, depending on the version
+  private byte clauseAddType = MessageTypes.CLAUSE_ADD;
+  private byte clauseDelType = MessageTypes.CLAUSE_DEL;
+  private byte clauseBatchType = MessageTypes.CLAUSE_BATCH;
+
+  private final BlockingQueue<ClauseUpdate> queue;
+  private Thread writer = null;
+  private volatile boolean writerClosing = false;
+  private volatile boolean writerStopped = false;
+  // whether queued clause updates are still sent after closing, guarded by SYNC_STATE
+  private boolean drainOnClose = true;
+  private boolean writeFailed = false;
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong blockedNanos = new AtomicLong();
+  private final AtomicLong overflows = new AtomicLong();
+
+  // only used if batches were negotiated, guarded by SYNC_STATE
+  private boolean batching = false;
+  private final List<ClauseUpdate> batch = new ArrayList<>();
+  private long batchDeadline;
 
   private String termMessage = null;
   private byte termByte = 0;
@@ -48,12 +113,76 @@ public class ProducerConnection {
    * @param port the consumer port
    */
   public ProducerConnection(String address, int port) {
-    this.address = address;
-    this.port = port;
+    this(address, port, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_DELAY);
+  }
+
+  /**
+   * Creates a new connection to a consumer.
+   * Does not try to connect to the consumer; this is done in {@code establish()}.
+   * @param address the consumer address
+   * @param port the consumer port
+   * @param maxBatchSize the maximum amount of clause updates sent in one batch, 1 to disable
+   *     batching
+   * @param maxBatchDelay the maximum time in ms that a clause update is held back to fill a batch
+   */
+  public ProducerConnection(String address, int port, int maxBatchSize, long maxBatchDelay) {
+    this(address, port, maxBatchSize, maxBatchDelay, DEFAULT_QUEUE_CAPACITY,
+        DEFAULT_OVERFLOW_POLICY);
+  }
+
+  /**
+   * Creates a new connection to a consumer.
+   * Does not try to connect to the consumer; this is done in {@code establish()}.
+   * @param address the consumer address
+   * @param port the consumer port
+   * @param maxBatchSize the maximum amount of clause updates sent in one batch, 1 to disable
+   *     batching
+   * @param maxBatchDelay the maximum time in ms that a clause update is held back to fill a batch
+   * @param queueCapacity the maximum amount of clause updates waiting to be sent
+   * @param overflowPolicy what to do with clause updates while the queue is full
+   */
+  public ProducerConnection(String address, int port, int maxBatchSize, long maxBatchDelay,
+      int queueCapacity, OverflowPolicy overflowPolicy) {
+    // resolved when establishing the connection
+    this(InetSocketAddress.createUnresolved(address, port), maxBatchSize, maxBatchDelay,
+        queueCapacity, overflowPolicy);
+  }
+
+  /**
+   * Creates a new connection to a consumer listening on the given address.
+   * Does not try to connect to the consumer; this is done in {@code establish()}.
+   * If the consumer runs on the same machine, a {@link java.net.UnixDomainSocketAddress} can be
+   *     used instead of a TCP address.
+   * @param address the consumer address
+   * @param maxBatchSize the maximum amount of clause updates sent in one batch, 1 to disable
+   *     batching
+   * @param maxBatchDelay the maximum time in ms that a clause update is held back to fill a batch
+   * @param queueCapacity the maximum amount of clause updates waiting to be sent
+   * @param overflowPolicy what to do with clause updates while the queue is full
+   */
+  public ProducerConnection(SocketAddress address, int maxBatchSize, long maxBatchDelay,
+      int queueCapacity, OverflowPolicy overflowPolicy) {
+    if (maxBatchSize < 1 || maxBatchDelay < 0) {
+      throw new IllegalArgumentException("invalid batch size or delay");
+    }
+    this.address = Objects.requireNonNull(address);
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelay);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+  }
+
+  private static SocketAddress resolve(SocketAddress address) {
+    if (address instanceof InetSocketAddress inet && inet.isUnresolved()) {
+      // look the host up on every attempt, it may not be known yet
+      return new InetSocketAddress(inet.getHostString(), inet.getPort());
+    }
+    return address;
   }
 
   private void doClose(String termMessage, byte termByte, Object termObject) {
-    // Note: at the moment this is only called from the worker thread!
+    // Note: at the moment this is only called from the worker thread, and never while holding
+    // SYNC_STATE!
 
     synchronized (SYNC_STATE) {
       if (state == State.CLOSED) { // user closed
@@ -62,15 +191,46 @@ public class ProducerConnection {
         termObject = this.termObject;
       }
       state = State.CLOSED;
+      // clause updates that are still queued were sent before the termination
+      drainOnClose = termByte != 0;
+    }
 
+    // the writer thread needs SYNC_STATE to send the remaining clause updates
+    stopWriter();
+
+    synchronized (SYNC_STATE) {
       if (termByte != 0) {
+        // clause updates that are still held back were sent before the termination
+        if (!batch.isEmpty()) {
+          try {
+            client.write(clauseBatchType, batch);
+          } catch (Exception e) {
+            // nothing
+          }
+          batch.clear();
+        }
+        if (version >= 2) {
+          try {
+            client.write(MessageTypes.STATS, getStatistics().toMap());
+          } catch (Exception e) {
+            // nothing
+          }
+        }
         try {
           client.write(termByte, termObject);
+          client.flush();
         } catch (Exception e) {
           // nothing
         }
       }
       client.close();
+      if (sel != null) {
+        try {
+          sel.close();
+        } catch (Exception e) {
+          // nothing
+        }
+      }
 
       if (termMessage != null) {
         ls.onDisconnect(termMessage);
@@ -87,7 +247,10 @@ public class ProducerConnection {
    */
   private boolean doEstablish() {
     Map<String, String> offerData = new HashMap<>();
-    offerData.put("version", "1");
+    offerData.put("version", Integer.toString(MessageTypes.PROTOCOL_VERSION));
+    if (compressionBlockSize > 0) {
+      offerData.put("compression", MessageTypes.COMPRESSION_LZ4);
+    }
     if (pid.getType() == OfferType.SOLVER) {
       SolverId sid = (SolverId) pid;
       offerData.put("type", "solver");
@@ -101,7 +264,8 @@ public class ProducerConnection {
     synchronized (SYNC_STATE) {
       while (client == null && state == State.ESTABLISHING) {
         try {
-          client = new Connection(address, port, MessageTypes.satvizBlueprint);
+          client = new Connection(resolve(address), MessageTypes.satvizBlueprint,
+              Connection.DEFAULT_READ_BUFFER_SIZE);
         } catch (ConnectException e) {
           // connection refused by remote machine (no-one listening on port)
           // try again later
@@ -146,9 +310,11 @@ public class ProducerConnection {
       return;
     }
 
-    Selector sel = null;
     try {
-      sel = Selector.open();
+      // assigned while holding SYNC_STATE, so the terminate methods can wake up the selector
+      synchronized (SYNC_STATE) {
+        sel = Selector.open();
+      }
       client.register(sel, SelectionKey.OP_READ);
     } catch (Exception e) {
       if (sel != null) {
@@ -164,20 +330,47 @@ public class ProducerConnection {
 
     Queue<NetworkMessage> readQueue;
     while (true) {
+      long timeout = 0; // wait until something happens or the selector is woken up
+      boolean closed;
       synchronized (SYNC_STATE) {
-        if (state == State.CLOSED) {
-          doClose(null, (byte) 0, null);
-          return;
+        closed = state == State.CLOSED;
+        if (!closed && !batch.isEmpty()) {
+          long remaining = batchDeadline - System.nanoTime();
+          if (remaining <= 0) {
+            flushBatch();
+            continue;
+          }
+          timeout = earliest(timeout, remaining);
+        }
+        if (!closed && compressing) {
+          long remaining = client.nanosUntilFlush();
+          if (remaining == 0) {
+            try {
+              client.flush();
+            } catch (Exception e) {
+              failClause();
+            }
+            continue;
+          }
+          if (remaining != Long.MAX_VALUE) { // otherwise nothing is held back
+            timeout = earliest(timeout, remaining);
+          }
         }
       }
+      if (closed) {
+        // not while holding SYNC_STATE, as closing waits for the writer thread, which needs it
+        doClose(null, (byte) 0, null);
+        return;
+      }
 
       // Note: we cannot have the read() call in a synchronized block, as this would interfere
-      // with writing. Waiting for up to one second in read() while we cannot write is not desirable.
+      // with writing. Waiting in read() while we cannot write is not desirable.
       // This means we have to be careful here, as we may read past a close(). Sometimes this is
       // unavoidable, and not indicative of a synchronization mistake.
 
       try {
-        sel.select(1000); // avoid busy-wait
+        // avoid busy-wait; the terminate methods and the writer thread wake up the selector
+        sel.select(timeout);
         sel.selectedKeys().clear(); // act like we took care of everything
         readQueue = client.read();
       } catch (Exception e) {
@@ -187,13 +380,32 @@ public class ProducerConnection {
 
       for (NetworkMessage msg: readQueue) {
         switch (msg.type()) {
-          case MessageTypes.START -> {
+          case MessageTypes.START, MessageTypes.START_NEGOTIATED -> {
             synchronized (SYNC_STATE) {
               if (state == State.CLOSED) {
-                doClose(null, (byte) 0, null);
-                return;
+                break; // closed in the next iteration of the loop
+              }
+              if (msg.type() == MessageTypes.START_NEGOTIATED) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> startData = (Map<String, String>) msg.object();
+                version = Math.min(MessageTypes.parseVersion(startData.get("version")),
+                    MessageTypes.PROTOCOL_VERSION);
+                batching = maxBatchSize > 1 && version >= 2;
+                if (version >= 3) {
+                  clauseAddType = MessageTypes.CLAUSE_ADD_DELTA;
+                  clauseDelType = MessageTypes.CLAUSE_DEL_DELTA;
+                  clauseBatchType = MessageTypes.CLAUSE_BATCH_DELTA;
+                }
+                if (compressionBlockSize > 0
+                    && MessageTypes.COMPRESSION_LZ4.equals(startData.get("compression"))) {
+                  client.enableCompression(compressionBlockSize, compressionFlushInterval);
+                  compressing = true;
+                }
               }
               state = State.STARTED;
+              writer = new Thread(this::writerMain, "satviz-producer-writer");
+              writer.setDaemon(true);
+              writer.start();
               ls.onConnect();
             }
           }
@@ -207,6 +419,52 @@ public class ProducerConnection {
     }
   }
 
+  /**
+   * Returns the earlier of a select timeout and a deadline.
+   * @param timeout the timeout in ms, 0 meaning no timeout
+   * @param remaining the time until the deadline in ns, positive
+   * @return the new timeout in ms, positive
+   */
+  private static long earliest(long timeout, long remaining) {
+    // round up, as 0 would mean waiting indefinitely
+    long millis = (remaining + 999_999) / 1_000_000;
+    return timeout == 0 ? millis : Math.min(timeout, millis);
+  }
+
+  /**
+   * Wakes up the worker thread, so that it notices a state change.
+   * Only called while holding SYNC_STATE.
+   */
+  private void wakeUp() {
+    SYNC_STATE.notifyAll(); // in case the connection is still being established
+    if (sel != null) {
+      sel.wakeup();
+    }
+  }
+
+  /**
+   * Asks the consumer to compress this connection using LZ4.
+   * Compression is only used if the consumer agrees to it. Clause updates are then collected into
+   *     compressed blocks, which are sent once they are large enough or the oldest update has
+   *     waited for the flush interval.
+   * @param blockSize the amount of uncompressed bytes per block
+   * @param flushInterval the maximum time in ms that bytes are held back to fill a block
+   * @throws IllegalStateException if {@code establish()} has already been called
+   * @throws IllegalArgumentException if the block size or flush interval is invalid
+   */
+  public void enableCompression(int blockSize, long flushInterval) {
+    if (blockSize < 1 || blockSize > Connection.MAX_BLOCK_SIZE || flushInterval < 0) {
+      throw new IllegalArgumentException("invalid block size or flush interval");
+    }
+    synchronized (SYNC_STATE) {
+      if (state != State.INIT) {
+        throw new IllegalStateException("establish already called or connection closed");
+      }
+      compressionBlockSize = blockSize;
+      compressionFlushInterval = flushInterval;
+    }
+  }
+
   /**
    * Establishes the connection to the consumer by spawning a worker thread to read messages.
    * The thread terminates if an internal error occurs or one of the terminate methods is called.
@@ -223,52 +481,236 @@ public class ProducerConnection {
       this.pid = Objects.requireNonNull(pid);
       this.ls = Objects.requireNonNull(ls);
       state = State.ESTABLISHING;
-      new Thread(this::threadMain).start();
+      new Thread(this::threadMain, "satviz-producer-worker").start();
     }
   }
 
   /**
    * Sends a clause update over this connection.
-   * If an exception is thrown, nothing will be written and the connection is not terminated.
-   * The return value indicates if a message has actually been sent or not. There are three cases
-   *     in which the message might not be sent. First, there might be an internal socket error. In
-   *     this case, onDisconnect() is called. Second, the connection has been terminated. In that
-   *     case, onDisconnect() is not called, as it has either been called before or the termination
-   *     was initiated using one of the terminate methods (i.e., the user is aware of this).
-   *     Lastly, the clause update is not sent if a {@link SerializationException} occurs. In this
-   *     case, the connection is closed with a failure.
+   * The clause update is put into the send queue and written by a separate thread later on. If
+   *     the queue is full, this method waits, or the update or an older one is discarded,
+   *     depending on the {@link OverflowPolicy}.
+   * If batches were negotiated with the consumer, the clause update is only sent once the current
+   *     batch is full or its oldest update has waited long enough.
+   * The return value indicates if the clause update has been queued or not. It is not queued if
+   *     the connection has been terminated, or if it was discarded because the queue was full.
+   *     A queued clause update that can't be serialized (see
+   *     {@link ClauseSerializer#isSerializable}) is discarded when it is sent and counted as
+   *     dropped, without affecting the other clause updates. An internal socket error while
+   *     sending closes this connection, and onDisconnect() is called.
+   * This method should only be called by one thread at a time.
    * @param c the clause update
-   * @return true if sent, false otherwise
+   * @return true if queued, false otherwise
    * @throws IllegalStateException if the connection has not been started from the consumer
    */
   public boolean sendClauseUpdate(ClauseUpdate c) {
-    // We still need to synchronize here to make sure that no clause updates are sent after a
-    // termination message.
-    byte type = c.type() == ClauseUpdate.Type.ADD ?
-        MessageTypes.CLAUSE_ADD : MessageTypes.CLAUSE_DEL;
+    // Note: state is read without synchronization, so that a slow writer thread holding
+    // SYNC_STATE does not slow down the sender. Clause updates queued concurrently to a
+    // termination are still sent before the termination message.
+    switch (state) {
+      case INIT, ESTABLISHING, ESTABLISHED -> throw
+          new IllegalStateException("terminate before connection is established and started");
+      case STARTED -> {
+        return enqueue(Objects.requireNonNull(c));
+      }
+      default -> {
+        // case CLOSED
+        // no error message, but indication in return value
+        return false;
+      }
+    }
+  }
 
-    synchronized (SYNC_STATE) {
-      switch (state) {
-        case INIT, ESTABLISHING, ESTABLISHED -> throw
-            new IllegalStateException("terminate before connection is established and started");
-        case STARTED -> {
-          try {
-            client.write(type, c.clause());
-            return true;
-          } catch (Exception e) { // note: SerializationException DOES close this connection
-            state = State.CLOSED;
-            termMessage = "fail: clause";
-            termByte = MessageTypes.TERM_OTHER;
-            termObject = "fail: clause";
-            return false;
+  private boolean enqueue(ClauseUpdate c) {
+    if (queue.offer(c)) {
+      overflows.set(0);
+      queued.incrementAndGet();
+      return true;
+    }
+    switch (overflowPolicy) {
+      case BLOCK -> {
+        long start = System.nanoTime();
+        try {
+          // once the writer thread has stopped, stopWriter() clears the queue, so this returns
+          queue.put(c);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        } finally {
+          blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+        if (writerStopped) {
+          return false;
+        }
+      }
+      case DROP_OLDEST -> {
+        do {
+          if (queue.poll() != null) {
+            dropped.incrementAndGet();
           }
-        } default -> {
-          // case CLOSED
-          // no error message, but indication in return value
+        } while (!queue.offer(c));
+      }
+      case SAMPLE -> {
+        if (overflows.incrementAndGet() % SAMPLE_INTERVAL != 0) {
+          queued.incrementAndGet();
+          dropped.incrementAndGet();
           return false;
         }
+        do {
+          if (queue.poll() != null) {
+            dropped.incrementAndGet();
+          }
+        } while (!queue.offer(c));
+      }
+    }
+    queued.incrementAndGet();
+    return true;
+  }
+
+  private void writerMain() {
+    List<ClauseUpdate> pending = new ArrayList<>();
+    while (true) {
+      ClauseUpdate first;
+      try {
+        // while waiting, stopWriter() wakes this thread up by queueing STOP_WRITER;
+        // once closing, the queue is only drained
+        first = writerClosing ? queue.poll() : queue.take();
+      } catch (InterruptedException e) {
+        // this thread is never interrupted by this class
+        continue;
+      }
+      if (first == null) {
+        return;
+      }
+      pending.add(first);
+      queue.drainTo(pending, MAX_DRAIN - 1);
+      if (writerClosing) {
+        pending.removeIf(c -> c == STOP_WRITER);
+      }
+
+      synchronized (SYNC_STATE) {
+        // Note: after a terminate method was called, the state is already CLOSED, but the
+        // clause updates queued before must still be sent, so only drainOnClose is checked here
+        if (!writeFailed && drainOnClose) {
+          for (ClauseUpdate c : pending) {
+            if (!send(c)) {
+              break;
+            }
+          }
+          commit();
+        }
+        // otherwise, the connection is closed and the clause updates are discarded
+        if (compressing) {
+          sel.wakeup(); // so the worker thread can flush the compressed block in time
+        }
+      }
+      pending.clear();
+      if (writerClosing && queue.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  private void stopWriter() {
+    Thread writer;
+    synchronized (SYNC_STATE) {
+      writer = this.writer;
+    }
+    if (writer == null) {
+      return;
+    }
+    writerClosing = true;
+    // if the queue is full, the writer thread is not waiting and sees writerClosing in time
+    queue.offer(STOP_WRITER);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    writerStopped = true;
+    // wake up senders blocked on a full queue; nothing queued from now on is sent
+    queue.clear();
+  }
+
+  private boolean send(ClauseUpdate c) {
+    // Note: only called while holding SYNC_STATE
+    if (!ClauseSerializer.isSerializable(c.clause())) {
+      // checked before adding it to a batch, so one invalid clause doesn't fail all the others
+      dropped.incrementAndGet();
+      return true;
+    }
+    if (batching) {
+      batch.add(c);
+      if (batch.size() == 1) {
+        batchDeadline = System.nanoTime() + maxBatchDelayNanos;
+        sel.wakeup(); // so the worker thread can flush the batch in time
       }
+      return batch.size() < maxBatchSize || flushBatch();
+    }
+    byte type = c.type() == ClauseUpdate.Type.ADD
+        ? clauseAddType : clauseDelType;
+    try {
+      // the clause updates taken from the queue at once are written together, see commit()
+      client.append(type, c.clause());
+      return true;
+    } catch (Exception e) {
+      failClause();
+      return false;
+    }
+  }
+
+  private void commit() {
+    // Note: only called while holding SYNC_STATE
+    if (writeFailed) {
+      return;
+    }
+    try {
+      client.commit();
+    } catch (Exception e) {
+      failClause();
+    }
+  }
+
+  /**
+   * Returns the current counters of the send queue.
+   * @return the statistics
+   */
+  public ProducerStatistics getStatistics() {
+    return new ProducerStatistics(queued.get(), dropped.get(), blockedNanos.get());
+  }
+
+  /**
+   * Returns the amount of clause updates that are currently waiting in the send queue.
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  private boolean flushBatch() {
+    // Note: only called while holding SYNC_STATE
+    try {
+      client.write(clauseBatchType, batch);
+      return true;
+    } catch (Exception e) {
+      failClause();
+      return false;
+    } finally {
+      batch.clear();
+    }
+  }
+
+  private void failClause() {
+    writeFailed = true;
+    if (state == State.CLOSED) { // user closed, keep the termination message
+      return;
     }
+    state = State.CLOSED;
+    termMessage = "fail: clause";
+    termByte = MessageTypes.TERM_OTHER;
+    termObject = "fail: clause";
+    wakeUp();
   }
 
   /**
@@ -286,6 +728,7 @@ public class ProducerConnection {
           termMessage = null;
           termByte = MessageTypes.TERM_SOLVE;
           termObject = assign;
+          wakeUp();
         }
         // do nothing if state is CLOSED
       }
@@ -306,6 +749,7 @@ public class ProducerConnection {
           termMessage = null;
           termByte = MessageTypes.TERM_REFUTE;
           termObject = null;
+          wakeUp();
         }
         // do nothing if state is CLOSED
       }
@@ -326,6 +770,7 @@ public class ProducerConnection {
           termMessage = null;
           termByte = MessageTypes.TERM_OTHER;
           termObject = reason;
+          wakeUp();
         }
         // do nothing if state is CLOSED
       }
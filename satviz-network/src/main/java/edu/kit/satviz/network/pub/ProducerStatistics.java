@@ -0,0 +1,39 @@
+package edu.kit.satviz.network.pub;
+
+import java.util.Map;
+
+/**
+ * Counters of a {@link ProducerConnection}'s send queue.
+ * These are sent to the consumer right before a termination message.
+ *
+ * @param queuedClauses the amount of clause updates that were passed to the send queue
+ * @param droppedClauses the amount of those clause updates that were discarded because the queue
+ *     was full, so that all others have been sent
+ * @param blockedNanos the total time in nanoseconds that senders waited for space in the queue
+ */
+public record ProducerStatistics(long queuedClauses, long droppedClauses, long blockedNanos) {
+
+  Map<String, String> toMap() {
+    return Map.of(
+        "queued", Long.toString(queuedClauses),
+        "dropped", Long.toString(droppedClauses),
+        "blocked", Long.toString(blockedNanos)
+    );
+  }
+
+  static ProducerStatistics fromMap(Map<String, String> map) {
+    return new ProducerStatistics(
+        parseCounter(map.get("queued")),
+        parseCounter(map.get("dropped")),
+        parseCounter(map.get("blocked"))
+    );
+  }
+
+  private static long parseCounter(String counter) {
+    try {
+      return Long.parseLong(counter);
+    } catch (NumberFormatException e) {
+      return 0; // unknown or missing counters are not worth failing the connection for
+    }
+  }
+}
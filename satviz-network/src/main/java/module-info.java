@@ -2,6 +2,7 @@ module edu.kit.satviz.network {
 
   requires transitive edu.kit.satviz.sat;
   requires edu.kit.satviz.serial;
+  requires org.lz4.java;
 
   exports edu.kit.satviz.network.pub;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package edu.kit.satviz.network;
 
+import com.sun.management.ThreadMXBean;
 import edu.kit.satviz.network.general.Connection;
 import edu.kit.satviz.network.general.ConnectionServer;
 import edu.kit.satviz.network.general.NetworkMessage;
@@ -8,11 +9,19 @@ import edu.kit.satviz.network.pub.MessageTypes;
 import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.serial.SerializationException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 // TODO for some reason, using the same port on more than one test does not work, even if the
 // TODO previous server socket was properly closed
@@ -130,4 +139,300 @@ class ConnectionTest {
       server = null;
     }
   }
+
+  @Test
+  void testSplitMessages() {
+    final int PORT = 0;
+    final int CLAUSES = 1000;
+    try {
+      // a tiny read buffer, so messages are split across reads at every possible position
+      server = new ConnectionServer(PORT, MessageTypes.satvizBlueprint, 7);
+      client = new Connection(
+          "localhost", server.getLocalAddress().getPort(), MessageTypes.satvizBlueprint
+      );
+
+      PollEvent event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(PollEvent.EventType.ACCEPT, event.type());
+
+      for (int i = 1; i <= CLAUSES; i++) {
+        client.write(MessageTypes.CLAUSE_ADD, new Clause(new int[]{i, -i * 1000, i * 100000}));
+      }
+      for (int i = 1; i <= CLAUSES; i++) {
+        event = null;
+        while (event == null) {
+          event = server.poll();
+        }
+        assertEquals(PollEvent.EventType.READ, event.type());
+        assertEquals(MessageTypes.CLAUSE_ADD, ((NetworkMessage) event.obj()).type());
+        assertEquals(
+            new Clause(new int[]{i, -i * 1000, i * 100000}),
+            ((NetworkMessage) event.obj()).object()
+        );
+      }
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (client != null) client.close();
+      client = null;
+      if (server != null) server.close();
+      server = null;
+    }
+  }
+
+  @Test
+  void testCompression() {
+    final int PORT = 0;
+    final int CLAUSES = 10000;
+    try {
+      // a tiny read buffer, so compressed blocks are split across reads
+      server = new ConnectionServer(PORT, MessageTypes.satvizBlueprint, 7);
+      client = new Connection(
+          "localhost", server.getLocalAddress().getPort(), MessageTypes.satvizBlueprint
+      );
+
+      PollEvent event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(PollEvent.EventType.ACCEPT, event.type());
+      server.enableDecompression(event.id());
+      client.enableCompression(1024, 60_000);
+
+      // clauses that repeat often, like in a proof
+      ByteArrayOutputStream raw = new ByteArrayOutputStream();
+      for (int i = 1; i <= CLAUSES; i++) {
+        Clause c = new Clause(new int[]{i % 8 + 1, -(i % 4) - 10, 1000});
+        client.write(MessageTypes.CLAUSE_ADD, c);
+        raw.write(MessageTypes.CLAUSE_ADD);
+        MessageTypes.satvizBlueprint.serialize(MessageTypes.CLAUSE_ADD, c, raw);
+      }
+      assertTrue(client.nanosUntilFlush() > 0);
+      client.flush();
+      assertEquals(Long.MAX_VALUE, client.nanosUntilFlush());
+      assertTrue(client.getBytesWritten() < raw.size() / 2);
+
+      for (int i = 1; i <= CLAUSES; i++) {
+        event = null;
+        while (event == null) {
+          event = server.poll();
+        }
+        assertEquals(PollEvent.EventType.READ, event.type());
+        assertEquals(
+            new Clause(new int[]{i % 8 + 1, -(i % 4) - 10, 1000}),
+            ((NetworkMessage) event.obj()).object()
+        );
+      }
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (client != null) client.close();
+      client = null;
+      if (server != null) server.close();
+      server = null;
+    }
+  }
+
+  @Test
+  void testAppend() {
+    final int PORT = 0;
+    try {
+      server = new ConnectionServer(PORT, MessageTypes.satvizBlueprint);
+      client = new Connection(
+          "localhost", server.getLocalAddress().getPort(), MessageTypes.satvizBlueprint
+      );
+
+      PollEvent event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(PollEvent.EventType.ACCEPT, event.type());
+
+      Clause c1 = new Clause(new int[]{1, -2, 3});
+      Clause c2 = new Clause(new int[]{400000});
+      client.append(MessageTypes.CLAUSE_ADD, c1);
+      client.append(MessageTypes.CLAUSE_DEL, c2);
+      // the failing message is discarded, the ones before are kept
+      assertThrows(SerializationException.class,
+          () -> client.append(MessageTypes.CLAUSE_ADD, "not a clause"));
+      assertEquals(0, client.getBytesWritten());
+      assertNull(server.poll(0, 100)); // nothing sent yet
+
+      client.commit();
+      assertTrue(client.getBytesWritten() > 0);
+      event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(MessageTypes.CLAUSE_ADD, ((NetworkMessage) event.obj()).type());
+      assertEquals(c1, ((NetworkMessage) event.obj()).object());
+      event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(MessageTypes.CLAUSE_DEL, ((NetworkMessage) event.obj()).type());
+      assertEquals(c2, ((NetworkMessage) event.obj()).object());
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (client != null) client.close();
+      client = null;
+      if (server != null) server.close();
+      server = null;
+    }
+  }
+
+  @Test
+  void testFullSendBuffer() {
+    final int PORT = 0;
+    final int CLAUSES = 20000;
+    try {
+      server = new ConnectionServer(PORT, MessageTypes.satvizBlueprint);
+      client = new Connection(
+          "localhost", server.getLocalAddress().getPort(), MessageTypes.satvizBlueprint
+      );
+
+      PollEvent event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(PollEvent.EventType.ACCEPT, event.type());
+
+      // far more than the socket buffers can hold, so the writer has to wait for the reader
+      int[] lits = new int[100];
+      for (int i = 0; i < lits.length; i++) {
+        lits[i] = (i + 1) * 10000;
+      }
+      Clause c = new Clause(lits);
+      Connection writer = client;
+      Thread t = new Thread(() -> {
+        try {
+          for (int i = 0; i < CLAUSES; i++) {
+            writer.append(MessageTypes.CLAUSE_ADD, c);
+            if (i % 100 == 99) {
+              writer.commit();
+            }
+          }
+        } catch (Exception e) {
+          fail(e);
+        }
+      });
+      t.start();
+
+      Thread.sleep(200);
+      for (int i = 0; i < CLAUSES; i++) {
+        event = null;
+        while (event == null) {
+          event = server.poll();
+        }
+        assertEquals(PollEvent.EventType.READ, event.type());
+        assertEquals(c, ((NetworkMessage) event.obj()).object());
+      }
+      t.join();
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (client != null) client.close();
+      client = null;
+      if (server != null) server.close();
+      server = null;
+    }
+  }
+
+  @Test
+  void testWriteAllocation() {
+    final int PORT = 0;
+    final int CLAUSES = 10000;
+    java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+    assumeTrue(mx instanceof ThreadMXBean);
+    ThreadMXBean bean = (ThreadMXBean) mx;
+    assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+    try {
+      server = new ConnectionServer(PORT, MessageTypes.satvizBlueprint);
+      client = new Connection(
+          "localhost", server.getLocalAddress().getPort(), MessageTypes.satvizBlueprint
+      );
+
+      PollEvent event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(PollEvent.EventType.ACCEPT, event.type());
+
+      Clause c = new Clause(new int[]{1, -2, 3});
+      long threadId = Thread.currentThread().getId();
+      long[] allocated = new long[2];
+      for (int round = 0; round < 2; round++) { // the first round warms up
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CLAUSES; i++) {
+          client.write(MessageTypes.CLAUSE_ADD, c);
+        }
+        allocated[round] = bean.getThreadAllocatedBytes(threadId) - before;
+        for (int i = 0; i < CLAUSES; i++) {
+          event = null;
+          while (event == null) {
+            event = server.poll();
+          }
+        }
+      }
+      // writing does not allocate per message; allow for some unrelated allocations
+      assertTrue(allocated[1] < CLAUSES, "allocated " + allocated[1] + " bytes");
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (client != null) client.close();
+      client = null;
+      if (server != null) server.close();
+      server = null;
+    }
+  }
+
+  @Test
+  void testUnixDomainSocket(@TempDir Path dir) {
+    UnixDomainSocketAddress address = UnixDomainSocketAddress.of(dir.resolve("test.sock"));
+    try {
+      // nothing is bound yet, which is treated like a refused connection
+      assertThrows(ConnectException.class,
+          () -> new Connection(address, MessageTypes.satvizBlueprint, 1024));
+
+      server = new ConnectionServer(address, MessageTypes.satvizBlueprint, 1024, 1);
+      assertNull(server.getLocalAddress());
+      assertEquals(address, server.getLocalSocketAddress());
+      client = new Connection(address, MessageTypes.satvizBlueprint, 1024);
+      assertNull(client.getRemoteAddress());
+
+      PollEvent event = null;
+      while (event == null) {
+        event = server.poll();
+      }
+      assertEquals(PollEvent.EventType.ACCEPT, event.type());
+      assertNull(server.getRemoteAddress(event.id()));
+
+      Clause c = new Clause(new int[]{1, -2, 3});
+      for (int i = 0; i < 100; i++) {
+        client.write(MessageTypes.CLAUSE_ADD, c);
+      }
+      for (int i = 0; i < 100; i++) {
+        event = null;
+        while (event == null) {
+          event = server.poll();
+        }
+        assertEquals(PollEvent.EventType.READ, event.type());
+        assertEquals(c, ((NetworkMessage) event.obj()).object());
+      }
+
+      server.close();
+      server = null;
+      assertTrue(Files.notExists(address.getPath()));
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (client != null) client.close();
+      client = null;
+      if (server != null) server.close();
+      server = null;
+    }
+  }
 }
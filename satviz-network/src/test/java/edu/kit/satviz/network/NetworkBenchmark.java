@@ -0,0 +1,146 @@
+package edu.kit.satviz.network;
+
+import edu.kit.satviz.network.pub.*;
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.ClauseSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how many clause updates per second a consumer receives over a local connection.
+ * Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+class NetworkBenchmark {
+
+  private static final int CLAUSES = 2_000_000;
+  private static final Clause CLAUSE = new Clause(new int[]{
+      123456, -234567, 345678, -456789, 567890, -678901, 789012, -890123, 901234, -1012345});
+
+  private ConsumerConnection cons;
+
+  @Test
+  void loopback() throws Exception {
+    report("TCP loopback", measure(new InetSocketAddress(0), 1, 1, null));
+  }
+
+  @Test
+  void unixDomainSocket(@TempDir Path dir) throws Exception {
+    report("TCP loopback", measure(new InetSocketAddress(0), 1, 1, null));
+    report("Unix domain socket",
+        measure(UnixDomainSocketAddress.of(dir.resolve("consumer.sock")), 1, 1, null));
+  }
+
+  @Test
+  void multipleProducers() throws Exception {
+    final int PRODUCERS = 4;
+    report("4 producers, 1 selector", measure(new InetSocketAddress(0), PRODUCERS, 1, null));
+    report("4 producers, 2 selectors", measure(new InetSocketAddress(0), PRODUCERS, 2, null));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      report("4 producers, 2 selectors, pool",
+          measure(new InetSocketAddress(0), PRODUCERS, 2, executor));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Sends {@value #CLAUSES} clause updates from the given amount of producers, each on its own
+   * thread, to a consumer and waits until all of them have been received.
+   *
+   * @return the received clause updates per second
+   */
+  private double measure(SocketAddress address, int producers, int selectors, Executor executor)
+      throws Exception {
+    CountDownLatch connected = new CountDownLatch(producers);
+    CountDownLatch terminated = new CountDownLatch(producers);
+    LongAdder received = new LongAdder();
+    ConsumerConnectionListener listener = new ConsumerConnectionListener() {
+      @Override
+      public void onClauseUpdate(ProducerId pid, ClauseUpdate c) {
+        received.increment();
+      }
+
+      @Override
+      public void onTerminateRefuted(ProducerId pid) {
+        terminated.countDown();
+      }
+    };
+    cons = new ConsumerConnection(address, pid -> cons.connect(pid, listener), msg -> { },
+        ConsumerConnection.DEFAULT_READ_BUFFER_SIZE, selectors, executor);
+    List<ProducerConnection> prods = new ArrayList<>();
+    try {
+      cons.start();
+      SocketAddress target = address instanceof InetSocketAddress
+          ? new InetSocketAddress("localhost", cons.getPort())
+          : address;
+      for (int p = 0; p < producers; p++) {
+        ProducerConnection prod = new ProducerConnection(target,
+            ProducerConnection.DEFAULT_MAX_BATCH_SIZE, ProducerConnection.DEFAULT_MAX_BATCH_DELAY,
+            ProducerConnection.DEFAULT_QUEUE_CAPACITY, ProducerConnection.DEFAULT_OVERFLOW_POLICY);
+        prods.add(prod);
+        prod.establish(new ProofId(), new ProducerConnectionListener() {
+          @Override
+          public void onConnect() {
+            connected.countDown();
+          }
+        });
+      }
+      connected.await();
+
+      ClauseUpdate update = new ClauseUpdate(CLAUSE, ClauseUpdate.Type.ADD);
+      List<Thread> senders = new ArrayList<>();
+      long start = System.nanoTime();
+      for (ProducerConnection prod : prods) {
+        Thread sender = new Thread(() -> {
+          for (int i = 0; i < CLAUSES / producers; i++) {
+            prod.sendClauseUpdate(update);
+          }
+          prod.terminateRefuted();
+        });
+        sender.start();
+        senders.add(sender);
+      }
+      terminated.await();
+      long elapsed = System.nanoTime() - start;
+      for (Thread sender : senders) {
+        sender.join();
+      }
+      assertEquals(CLAUSES / producers * producers, received.sum());
+      return received.sum() / (elapsed / 1e9);
+    } finally {
+      for (ProducerConnection prod : prods) {
+        prod.terminateOtherwise("finally");
+      }
+      cons.stop();
+    }
+  }
+
+  private static void report(String name, double clausesPerSecond) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new ClauseSerializer().serialize(CLAUSE, out);
+    double megabytes = clausesPerSecond * out.size() / (1024.0 * 1024.0);
+    System.out.printf("%-32s %,12.0f clauses/s %8.1f MB/s of clauses%n", name, clausesPerSecond,
+        megabytes);
+  }
+
+}
@@ -1,17 +1,25 @@
 package edu.kit.satviz.network;
 
+import edu.kit.satviz.network.general.Connection;
 import edu.kit.satviz.network.pub.*;
 import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
 import edu.kit.satviz.sat.SatAssignment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.lang.invoke.StringConcatException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +36,7 @@ public class ProducerConsumerTest implements ProducerConnectionListener, Consume
   private static Map<ProducerId, SatAssignment> onTerminateSolvedCalls;
   private static List<ProducerId> onTerminateRefutedCalls;
   private static Map<ProducerId, String> onTerminateOtherCalls;
+  private static Map<ProducerId, ProducerStatistics> onStatisticsCalls;
 
   private static int onConnectCalls;
   private static List<String> onDisconnectCalls;
@@ -40,6 +49,7 @@ public class ProducerConsumerTest implements ProducerConnectionListener, Consume
     onTerminateSolvedCalls = new HashMap<>();
     onTerminateRefutedCalls = new ArrayList<>();
     onTerminateOtherCalls = new HashMap<>();
+    onStatisticsCalls = new HashMap<>();
     onConnectCalls = 0;
     onDisconnectCalls = new ArrayList<>();
   }
@@ -103,6 +113,388 @@ public class ProducerConsumerTest implements ProducerConnectionListener, Consume
     }
   }
 
+  @Test
+  void testUnixDomainSocket(@TempDir Path dir) {
+    UnixDomainSocketAddress address = UnixDomainSocketAddress.of(dir.resolve("consumer.sock"));
+    try {
+      // the producer retries until the consumer has created the socket
+      prod = new ProducerConnection(address, ProducerConnection.DEFAULT_MAX_BATCH_SIZE,
+          ProducerConnection.DEFAULT_MAX_BATCH_DELAY, ProducerConnection.DEFAULT_QUEUE_CAPACITY,
+          ProducerConnection.DEFAULT_OVERFLOW_POLICY);
+      prod.establish(new ProofId(), this);
+
+      cons = new ConsumerConnection(address, this::lsConnect, this::lsFail,
+          ConsumerConnection.DEFAULT_READ_BUFFER_SIZE, 1, null);
+      cons.start();
+      assertEquals(address, cons.getLocalAddress());
+      assertEquals(-1, cons.getPort());
+
+      synchronized (SYNC_PROD) {
+        while (onConnectCalls == 0) {
+          SYNC_PROD.wait();
+        }
+      }
+      synchronized (SYNC_CONS) {
+        while (lsConnectCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      ProducerId pid = lsConnectCalls.get(0);
+      assertEquals(OfferType.PROOF, pid.getType());
+      assertNull(pid.getAddress());
+
+      ClauseUpdate c = new ClauseUpdate(new Clause(new int[]{1, -2, 3}), ClauseUpdate.Type.ADD);
+      for (int i = 0; i < 1000; i++) {
+        assertTrue(prod.sendClauseUpdate(c));
+      }
+      prod.terminateRefuted();
+
+      synchronized (SYNC_CONS) {
+        while (onTerminateRefutedCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      assertEquals(1000, onClauseUpdateCalls.get(pid).size());
+      assertTrue(lsFailCalls.isEmpty());
+
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (prod != null) prod.terminateOtherwise("finally");
+      if (cons != null) cons.stop();
+    }
+  }
+
+  @Test
+  void testBatches() {
+    final int PORT = 34316;
+    final int CLAUSES = 5000;
+    try {
+      prod = new ProducerConnection("localhost", PORT, 64, 10);
+      prod.establish(new SolverId("cadical", false, 42), this);
+
+      cons = new ConsumerConnection(PORT, this::lsConnect, this::lsFail);
+      cons.start();
+
+      synchronized (SYNC_PROD) {
+        while (onConnectCalls == 0) {
+          SYNC_PROD.wait();
+        }
+      }
+      synchronized (SYNC_CONS) {
+        while (lsConnectCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      ProducerId pid = lsConnectCalls.get(0);
+
+      // a single clause update doesn't fill a batch, but must arrive anyway
+      ClauseUpdate first = new ClauseUpdate(new Clause(new int[]{-1, 2}), ClauseUpdate.Type.ADD);
+      assertTrue(prod.sendClauseUpdate(first));
+      synchronized (SYNC_CONS) {
+        while (!onClauseUpdateCalls.containsKey(pid)) {
+          SYNC_CONS.wait();
+        }
+      }
+      assertEquals(List.of(first), onClauseUpdateCalls.get(pid));
+
+      List<ClauseUpdate> sent = new ArrayList<>();
+      sent.add(first);
+      for (int i = 1; i <= CLAUSES; i++) {
+        ClauseUpdate c = new ClauseUpdate(
+            new Clause(new int[]{i, -i - 1}),
+            (i % 3 == 0) ? ClauseUpdate.Type.REMOVE : ClauseUpdate.Type.ADD
+        );
+        assertTrue(prod.sendClauseUpdate(c));
+        sent.add(c);
+        if (i == CLAUSES / 2) {
+          // can't be serialized, so it is left out without failing the rest of its batch
+          assertTrue(prod.sendClauseUpdate(
+              new ClauseUpdate(new Clause(new int[]{i, 0}), ClauseUpdate.Type.ADD)
+          ));
+        }
+      }
+      prod.terminateRefuted();
+
+      synchronized (SYNC_CONS) {
+        while (onTerminateRefutedCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      // clause updates held back in the last batch are sent before the termination
+      assertEquals(sent, onClauseUpdateCalls.get(pid));
+      assertTrue(lsFailCalls.isEmpty());
+      assertEquals(new ProducerStatistics(CLAUSES + 2, 1, 0), onStatisticsCalls.get(pid));
+
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (prod != null) prod.terminateOtherwise("finally");
+      if (cons != null) cons.stop();
+    }
+  }
+
+  @Test
+  void testCompression() {
+    final int PORT = 34318;
+    final int CLAUSES = 5000;
+    try {
+      prod = new ProducerConnection("localhost", PORT);
+      prod.enableCompression(4096, 10);
+      prod.establish(new ProofId(), this);
+
+      cons = new ConsumerConnection(PORT, this::lsConnect, this::lsFail);
+      cons.start();
+
+      synchronized (SYNC_PROD) {
+        while (onConnectCalls == 0) {
+          SYNC_PROD.wait();
+        }
+      }
+      synchronized (SYNC_CONS) {
+        while (lsConnectCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      ProducerId pid = lsConnectCalls.get(0);
+
+      // a single clause update doesn't fill a block, but must arrive anyway
+      ClauseUpdate first = new ClauseUpdate(new Clause(new int[]{3, -4}), ClauseUpdate.Type.ADD);
+      assertTrue(prod.sendClauseUpdate(first));
+      synchronized (SYNC_CONS) {
+        while (!onClauseUpdateCalls.containsKey(pid)) {
+          SYNC_CONS.wait();
+        }
+      }
+
+      List<ClauseUpdate> sent = new ArrayList<>();
+      sent.add(first);
+      for (int i = 1; i <= CLAUSES; i++) {
+        ClauseUpdate c = new ClauseUpdate(
+            new Clause(new int[]{i, i + 1, -i - 2}),
+            (i % 4 == 0) ? ClauseUpdate.Type.REMOVE : ClauseUpdate.Type.ADD
+        );
+        assertTrue(prod.sendClauseUpdate(c));
+        sent.add(c);
+        if (i == CLAUSES / 2) {
+          // can't be serialized, so it is left out without failing the rest of its batch
+          assertTrue(prod.sendClauseUpdate(
+              new ClauseUpdate(new Clause(new int[]{i, 0}), ClauseUpdate.Type.ADD)
+          ));
+        }
+      }
+      prod.terminateRefuted();
+
+      synchronized (SYNC_CONS) {
+        while (onTerminateRefutedCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      assertEquals(sent, onClauseUpdateCalls.get(pid));
+      assertTrue(lsFailCalls.isEmpty());
+
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (prod != null) prod.terminateOtherwise("finally");
+      if (cons != null) cons.stop();
+    }
+  }
+
+  @Test
+  void testDropOldest() {
+    final int PORT = 34317;
+    final int CLAUSES = 5000;
+    try {
+      prod = new ProducerConnection("localhost", PORT, 64, 10, 1, OverflowPolicy.DROP_OLDEST);
+      prod.establish(new SolverId("cadical", false, 42), this);
+
+      cons = new ConsumerConnection(PORT, this::lsConnect, this::lsFail);
+      cons.start();
+
+      synchronized (SYNC_PROD) {
+        while (onConnectCalls == 0) {
+          SYNC_PROD.wait();
+        }
+      }
+      synchronized (SYNC_CONS) {
+        while (lsConnectCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      ProducerId pid = lsConnectCalls.get(0);
+
+      for (int i = 1; i <= CLAUSES; i++) {
+        // the sender never waits, no matter how slowly the clause updates are written
+        assertTrue(prod.sendClauseUpdate(
+            new ClauseUpdate(new Clause(new int[]{i}), ClauseUpdate.Type.ADD)));
+      }
+      prod.terminateRefuted();
+
+      synchronized (SYNC_CONS) {
+        while (onTerminateRefutedCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      ProducerStatistics stats = onStatisticsCalls.get(pid);
+      assertNotNull(stats);
+      assertEquals(CLAUSES, stats.queuedClauses());
+      assertEquals(0, stats.blockedNanos());
+      List<ClauseUpdate> received = onClauseUpdateCalls.getOrDefault(pid, List.of());
+      assertEquals(CLAUSES - stats.droppedClauses(), received.size());
+      // the most recent clause update is never dropped
+      assertArrayEquals(new int[]{CLAUSES},
+          received.get(received.size() - 1).clause().literals());
+
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (prod != null) prod.terminateOtherwise("finally");
+      if (cons != null) cons.stop();
+    }
+  }
+
+  @Test
+  void testMultipleSelectors() {
+    final int PORT = 34319;
+    final int PRODUCERS = 4;
+    final int CLAUSES = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    List<ProducerConnection> producers = new ArrayList<>();
+    try {
+      cons = new ConsumerConnection(PORT, this::lsConnect, this::lsFail,
+          Connection.DEFAULT_READ_BUFFER_SIZE, 2, executor);
+      cons.start();
+      for (int p = 0; p < PRODUCERS; p++) {
+        ProducerConnection producer = new ProducerConnection("localhost", PORT);
+        producer.establish(new ProofId(), this);
+        producers.add(producer);
+      }
+
+      synchronized (SYNC_PROD) {
+        while (onConnectCalls < PRODUCERS) {
+          SYNC_PROD.wait();
+        }
+      }
+      synchronized (SYNC_CONS) {
+        while (lsConnectCalls.size() < PRODUCERS) {
+          SYNC_CONS.wait();
+        }
+      }
+
+      // all producers send at the same time; each one marks its clauses with its own offset
+      for (int i = 1; i <= CLAUSES; i++) {
+        for (int p = 0; p < PRODUCERS; p++) {
+          assertTrue(producers.get(p).sendClauseUpdate(new ClauseUpdate(
+              new Clause(new int[]{(p + 1) * 100000 + i}), ClauseUpdate.Type.ADD)));
+        }
+      }
+      for (ProducerConnection producer : producers) {
+        producer.terminateRefuted();
+      }
+
+      synchronized (SYNC_CONS) {
+        while (onTerminateRefutedCalls.size() < PRODUCERS) {
+          SYNC_CONS.wait();
+        }
+      }
+      assertEquals(PRODUCERS, onClauseUpdateCalls.size());
+      for (List<ClauseUpdate> received : onClauseUpdateCalls.values()) {
+        // the clause updates of every single producer arrive completely and in order
+        assertEquals(CLAUSES, received.size());
+        int offset = received.get(0).clause().literals()[0] - 1;
+        for (int i = 1; i <= CLAUSES; i++) {
+          assertArrayEquals(new int[]{offset + i}, received.get(i - 1).clause().literals());
+        }
+      }
+      assertTrue(lsFailCalls.isEmpty());
+
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      for (ProducerConnection producer : producers) {
+        producer.terminateOtherwise("finally");
+      }
+      if (cons != null) cons.stop();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testShutdownLatency() {
+    final int PORT = 34320;
+    // threads of connections from other tests may still be shutting down
+    Set<Thread> existing = Set.copyOf(Thread.getAllStackTraces().keySet());
+    try {
+      prod = new ProducerConnection("localhost", PORT);
+      prod.establish(new ProofId(), this);
+
+      cons = new ConsumerConnection(PORT, this::lsConnect, this::lsFail);
+      cons.start();
+
+      synchronized (SYNC_PROD) {
+        while (onConnectCalls == 0) {
+          SYNC_PROD.wait();
+        }
+      }
+      synchronized (SYNC_CONS) {
+        while (lsConnectCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      List<Thread> threads = findThreads("satviz-", existing);
+      Thread selector = threads.stream()
+          .filter(t -> t.getName().startsWith("satviz-consumer-selector-"))
+          .findAny().orElseThrow();
+      Thread writer = threads.stream()
+          .filter(t -> t.getName().equals("satviz-producer-writer"))
+          .findAny().orElseThrow();
+
+      // idle connections don't poll: they wait without a timeout
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (writer.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(Thread.State.WAITING, writer.getState());
+      for (Thread t : threads) {
+        assertNotEquals(Thread.State.TIMED_WAITING, t.getState(), t.getName());
+      }
+
+      // terminating does not wait for a select timeout
+      long start = System.nanoTime();
+      prod.terminateRefuted();
+      synchronized (SYNC_CONS) {
+        while (onTerminateRefutedCalls.isEmpty()) {
+          SYNC_CONS.wait();
+        }
+      }
+      assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+
+      // neither does stopping the consumer
+      start = System.nanoTime();
+      cons.stop();
+      selector.join(2000);
+      assertFalse(selector.isAlive());
+      assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+
+    } catch (Throwable t) {
+      fail(t);
+    } finally {
+      if (prod != null) prod.terminateOtherwise("finally");
+      if (cons != null) cons.stop();
+    }
+  }
+
+  private static List<Thread> findThreads(String prefix, Set<Thread> excluded) {
+    List<Thread> threads = new ArrayList<>();
+    for (Thread t : Thread.getAllStackTraces().keySet()) {
+      if (t.getName().startsWith(prefix) && !excluded.contains(t)) {
+        threads.add(t);
+      }
+    }
+    return threads;
+  }
+
   @Override
   public void onConnect() {
     synchronized (SYNC_PROD) {
@@ -165,4 +557,12 @@ public class ProducerConsumerTest implements ProducerConnectionListener, Consume
       SYNC_CONS.notifyAll();
     }
   }
+
+  @Override
+  public void onStatistics(ProducerId pid, ProducerStatistics stats) {
+    synchronized (SYNC_CONS) {
+      onStatisticsCalls.put(pid, stats);
+      SYNC_CONS.notifyAll();
+    }
+  }
 }
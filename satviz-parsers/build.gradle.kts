@@ -4,4 +4,5 @@ plugins {
 
 dependencies {
     api(project(":satviz-sat"))
+    implementation(project(":satviz-serial"))
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package edu.kit.satviz.parsers;
+
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.SerializationException;
+import edu.kit.satviz.serial.VarInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is used to parse a proof in the binary DRAT format, as emitted by solvers like
+ * CaDiCaL or Kissat.<br>
+ * <br>
+ * Each clause update starts with the byte <code>'a'</code> (addition) or <code>'d'</code>
+ * (deletion), followed by the literals and a terminating <code>0</code>.
+ * The literals are stored as {@link VarInt}s of their unsigned mapping, which is the same
+ * encoding that is used to send clauses over the network.
+ */
+public class BinaryDratParsingIterator extends ClauseParsingIterator {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final byte ADD_MARKER = 'a';
+  private static final byte DELETE_MARKER = 'd';
+
+  private static final String UNEXPECTED_BYTE_MESSAGE = "Unexpected byte 0x%02x at offset %d.";
+
+  private final InputStream in;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+  private boolean isEndOfStream = false;
+  // the offset of the first byte in the buffer, for error messages
+  private long offset = 0;
+
+  // reused for every clause, the parsed clause gets a copy
+  private int[] literals = new int[16];
+
+  /**
+   * This constructor creates an instance of the <code>BinaryDratParsingIterator</code> class.
+   *
+   * @param in The stream containing the binary DRAT proof.
+   */
+  protected BinaryDratParsingIterator(InputStream in) {
+    this.in = in;
+  }
+
+  @Override
+  protected ClauseUpdate readClauseUpdate() {
+    final ClauseUpdate.Type type = readType();
+    return new ClauseUpdate(parseClause(), type);
+  }
+
+  @Override
+  protected ClauseUpdate.Type readType() {
+    if (!fill(1)) {
+      throw new NoSuchElementException(NO_CLAUSES_LEFT_MESSAGE);
+    }
+    byte marker = buffer.get();
+    if (marker == ADD_MARKER) {
+      return ClauseUpdate.Type.ADD;
+    } else if (marker == DELETE_MARKER) {
+      return ClauseUpdate.Type.REMOVE;
+    }
+    throw unexpectedByte(marker);
+  }
+
+  private Clause parseClause() {
+    int size = 0;
+    while (true) {
+      long value;
+      buffer.mark();
+      while (true) {
+        try {
+          value = VarInt.read(buffer);
+          break;
+        } catch (BufferUnderflowException e) {
+          // the number continues behind the buffered bytes
+          buffer.reset();
+          if (!fill(buffer.remaining() + 1)) {
+            throw parsingException(UNEXPECTED_END_MESSAGE);
+          }
+          buffer.mark();
+        } catch (SerializationException e) {
+          throw unexpectedByte(buffer.get(buffer.position() - 1));
+        }
+      }
+      if (value == 0) {
+        break;
+      }
+      int literal;
+      try {
+        literal = VarInt.toLiteral(value);
+      } catch (SerializationException e) {
+        long variable = value >>> 1;
+        throw parsingException(UNEXPECTED_VARIABLE_MESSAGE,
+            String.valueOf((value & 1) == 0 ? variable : -variable));
+      }
+      if (size == literals.length) {
+        literals = Arrays.copyOf(literals, size * 2);
+      }
+      literals[size++] = literal;
+    }
+    return new Clause(Arrays.copyOf(literals, size));
+  }
+
+  /**
+   * This method makes sure that a number of bytes is buffered, reading only as much as needed,
+   * so that proofs that are still being written can be parsed right away.
+   *
+   * @param bytes The amount of bytes.
+   * @return <i>true</i>, if the bytes are buffered,<br>
+   *         <i>false</i>, if the stream has ended before.
+   */
+  private boolean fill(int bytes) {
+    if (buffer.remaining() >= bytes || isEndOfStream) {
+      return buffer.remaining() >= bytes;
+    }
+    offset += buffer.position();
+    buffer.compact();
+    try {
+      while (buffer.position() < bytes) {
+        int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+        if (read < 0) {
+          isEndOfStream = true;
+          break;
+        }
+        buffer.position(buffer.position() + read);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      buffer.flip();
+    }
+    return buffer.remaining() >= bytes;
+  }
+
+  private ParsingException unexpectedByte(byte b) {
+    return parsingException(String.format(UNEXPECTED_BYTE_MESSAGE, b & 0xff,
+        offset + buffer.position() - 1));
+  }
+
+  @Override
+  protected boolean isValidVariable(int variable) {
+    // the variables are already checked while decoding
+    return true;
+  }
+
+  @Override
+  protected boolean isValidClauseUpdate(ClauseUpdate clauseUpdate) {
+    return true;
+  }
+
+  @Override
+  protected boolean isFinalClauseUpdate(ClauseUpdate clauseUpdate) {
+    return clauseUpdate.clause().literals().length == 0;
+  }
+
+  @Override
+  protected boolean isPrematureEndOfFile() {
+    // the stream may only end between clause updates, which readType() takes care of
+    return false;
+  }
+
+}
@@ -2,7 +2,6 @@ package edu.kit.satviz.parsers;
 
 import edu.kit.satviz.sat.ClauseUpdate;
 import java.io.InputStream;
-import java.util.Scanner;
 
 /**
  * This class is used to parse an <code>InputStream</code> iteratively into
@@ -10,11 +9,26 @@ import java.util.Scanner;
  */
 public abstract class ClauseFile implements Iterable<ClauseUpdate>, AutoCloseable {
 
-  protected final Scanner scanner;
+  protected final ClauseTokenizer tokenizer;
 
   protected ClauseFile(InputStream in) {
-    scanner = new Scanner(in);
-    parseHeader();
+    this(new ClauseTokenizer(in));
+  }
+
+  /**
+   * This constructor parses the header using the entered tokenizer.
+   * If the header is invalid, the tokenizer is closed.
+   *
+   * @param tokenizer The tokenizer reading the file.
+   */
+  protected ClauseFile(ClauseTokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+    try {
+      parseHeader();
+    } catch (RuntimeException e) {
+      tokenizer.close();
+      throw e;
+    }
   }
 
   /**
@@ -24,7 +38,7 @@ public abstract class ClauseFile implements Iterable<ClauseUpdate>, AutoCloseabl
 
   @Override
   public void close() {
-    scanner.close();
+    tokenizer.close();
   }
 
 }
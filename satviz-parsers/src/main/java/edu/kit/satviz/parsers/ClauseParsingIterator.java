@@ -2,10 +2,9 @@ package edu.kit.satviz.parsers;
 
 import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
 
 /**
  * This abstract class is used to parse CNF and DRAT files (and maybe other filetypes in the future)
@@ -15,17 +14,18 @@ import java.util.Scanner;
 public abstract class ClauseParsingIterator implements Iterator<ClauseUpdate> {
 
   private static final String COMMENT_LINE_TOKEN = "c";
-  private static final String CLAUSE_END_TOKEN = "0";
 
-  private static final String NO_CLAUSES_LEFT_MESSAGE = "No clause updates left.";
+  protected static final String NO_CLAUSES_LEFT_MESSAGE = "No clause updates left.";
   private static final String UNEXPECTED_CHAR_MESSAGE = "\"%s\" contains illegal characters.";
-  private static final String UNEXPECTED_VARIABLE_MESSAGE = "The variable \"%s\" is invalid.";
+  protected static final String UNEXPECTED_VARIABLE_MESSAGE = "The variable \"%s\" is invalid.";
   private static final String UNEXPECTED_CLAUSE_MESSAGE = "There is an unexpected clause.";
-  private static final String UNEXPECTED_END_MESSAGE = "Unexpected end of file.";
+  protected static final String UNEXPECTED_END_MESSAGE = "Unexpected end of file.";
   private String unexpectedMessage;
 
-  protected final Scanner scanner;
+  protected final ClauseTokenizer tokenizer;
   private ClauseUpdate nextUpdate;
+  // reused for every clause, the parsed clause gets a copy
+  private int[] literals = new int[16];
 
   private boolean isDone = false;
   private boolean isInvalidFile = false;
@@ -35,10 +35,19 @@ public abstract class ClauseParsingIterator implements Iterator<ClauseUpdate> {
   /**
    * This constructor creates an instance of the <code>ClauseParsingIterator</code> class.
    *
-   * @param scanner The scanner, which scans through the file that should be parsed.
+   * @param tokenizer The tokenizer, which splits the file that should be parsed into tokens.
    */
-  protected ClauseParsingIterator(Scanner scanner) {
-    this.scanner = scanner;
+  protected ClauseParsingIterator(ClauseTokenizer tokenizer) {
+    this.tokenizer = tokenizer;
+  }
+
+  /**
+   * This constructor creates an instance of the <code>ClauseParsingIterator</code> class without
+   * a tokenizer, for subclasses that read clause updates themselves by overriding
+   * <code>readClauseUpdate()</code>.
+   */
+  protected ClauseParsingIterator() {
+    this(null);
   }
 
   @Override
@@ -108,12 +117,16 @@ public abstract class ClauseParsingIterator implements Iterator<ClauseUpdate> {
   }
 
   private ClauseUpdate getNextUpdate() {
-    skipCommentLines();
-    final ClauseUpdate.Type type = readType();
-    final ClauseUpdate clauseUpdate = new ClauseUpdate(parseClause(), type);
+    final ClauseUpdate clauseUpdate;
+    try {
+      clauseUpdate = readClauseUpdate();
+    } catch (NoSuchElementException e) {
+      isDone = true;
+      throw e;
+    }
 
     if (!isValidClauseUpdate(clauseUpdate)) {
-      throwParsingException(UNEXPECTED_CLAUSE_MESSAGE);
+      throw parsingException(UNEXPECTED_CLAUSE_MESSAGE);
     } else if (isFinalClauseUpdate(clauseUpdate)) {
       isDone = true;
       if (!isFinalUpdateIncluded) {
@@ -123,20 +136,32 @@ public abstract class ClauseParsingIterator implements Iterator<ClauseUpdate> {
     return clauseUpdate;
   }
 
+  /**
+   * This method reads the next clause update, without validating it.
+   *
+   * @return An instance of the <code>ClauseUpdate</code> class.
+   * @throws ParsingException In case the file is invalid.
+   * @throws NoSuchElementException In case the file ends before the next clause update.
+   */
+  protected ClauseUpdate readClauseUpdate() {
+    skipCommentLines();
+    final ClauseUpdate.Type type = readType();
+    return new ClauseUpdate(parseClause(), type);
+  }
+
   /**
    * This method skips all commented lines.
    */
   private void skipCommentLines() {
-    while (scanner.hasNext(COMMENT_LINE_TOKEN)) {
-      scanner.nextLine();
+    while (tokenizer.skipWhitespace() && tokenizer.nextTokenIs(COMMENT_LINE_TOKEN)) {
+      tokenizer.skipLine();
     }
     // If no lines are left, no more clauses can be returned
-    if (!scanner.hasNext()) {
+    if (!tokenizer.skipWhitespace()) {
       if (!isPrematureEndOfFile()) {
-        isDone = true;
         throw new NoSuchElementException(NO_CLAUSES_LEFT_MESSAGE);
       } else {
-        throwParsingException(UNEXPECTED_END_MESSAGE);
+        throw parsingException(UNEXPECTED_END_MESSAGE);
       }
     }
   }
@@ -148,60 +173,65 @@ public abstract class ClauseParsingIterator implements Iterator<ClauseUpdate> {
    */
   private Clause parseClause() {
     int variable;
-    ArrayList<Integer> list = new ArrayList<>();
-    while (!scanner.hasNext(CLAUSE_END_TOKEN)) {
+    int size = 0;
+    while (true) {
       // in case the file ends before the clause is finished with a 0.
-      if (!scanner.hasNext()) {
-        throwParsingException(UNEXPECTED_END_MESSAGE);
+      if (!tokenizer.skipWhitespace()) {
+        throw parsingException(UNEXPECTED_END_MESSAGE);
       }
       // in case the next variable is not an integer.
-      if (!scanner.hasNextInt()) {
-        throwParsingException(UNEXPECTED_CHAR_MESSAGE, scanner.next());
+      if (!tokenizer.nextInt()) {
+        throw parsingException(UNEXPECTED_CHAR_MESSAGE, tokenizer.nextToken());
+      }
+      variable = tokenizer.intValue();
+      if (variable == 0) {
+        break;
       }
-      variable = scanner.nextInt();
       // in case the next variable is invalid.
       if (!isValidVariable(variable)) {
-        throwParsingException(UNEXPECTED_VARIABLE_MESSAGE, String.valueOf(variable));
+        throw parsingException(UNEXPECTED_VARIABLE_MESSAGE, String.valueOf(variable));
       }
-      list.add(variable);
+      if (size == literals.length) {
+        literals = Arrays.copyOf(literals, size * 2);
+      }
+      literals[size++] = variable;
     }
-    scanner.next();
 
-    return new Clause(list.stream().mapToInt(i -> i).toArray());
+    return new Clause(Arrays.copyOf(literals, size));
   }
 
   /**
-   * This method throws a <code>ParsingException</code> with the entered message,
+   * This method creates a <code>ParsingException</code> with the entered message to be thrown,
    * while setting <code>isInvalidFile</code> to <code>true</code>.
    *
    * @param message The error message that should be displayed for the
    *                <code>ParsingException</code>.
+   * @return The <code>ParsingException</code>.
    */
-  private void throwParsingException(String message) {
+  protected ParsingException parsingException(String message) {
     isInvalidFile = true;
     unexpectedMessage = message;
-    throw new ParsingException(message);
+    return new ParsingException(message);
   }
 
   /**
-   * This method throws a <code>ParsingException</code> with the entered message,
+   * This method creates a <code>ParsingException</code> with the entered message to be thrown,
    * while setting <code>isInvalidFile</code> to <code>true</code>.<br>
    * To make the message dynamic <code>String.format(message, unexpectedToken)</code> is used.
    *
    * @param message The error message that should be displayed for the
    *                <code>ParsingException</code>.
+   * @return The <code>ParsingException</code>.
    */
-  private void throwParsingException(String message, String unexpectedToken) {
-    isInvalidFile = true;
-    unexpectedMessage = String.format(message, unexpectedToken);
-    throw new ParsingException(unexpectedMessage);
+  protected ParsingException parsingException(String message, String unexpectedToken) {
+    return parsingException(String.format(message, unexpectedToken));
   }
 
 
 
   /**
    * This method determines the specific type of clause update.<br>
-   * <i>It may use the scanner to read the identifier-tokens of the type.</i>
+   * <i>It may use the tokenizer to read the identifier-tokens of the type.</i>
    *
    * @return An instance of the <code>ClauseUpdate.Type</code> enum.
    */
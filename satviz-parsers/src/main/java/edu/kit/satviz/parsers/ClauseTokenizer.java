@@ -0,0 +1,294 @@
+package edu.kit.satviz.parsers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * This class splits the bytes of a DIMACS or DRAT file into whitespace-separated tokens.<br>
+ * Unlike <code>java.util.Scanner</code>, it works directly on the bytes of the file and parses
+ * integers without creating any objects, which makes it suitable for very large files.<br>
+ * <br>
+ * The input is either read from an <code>InputStream</code> into a reusable buffer,
+ * or taken from a <code>ByteBuffer</code> that holds the whole file.
+ */
+public final class ClauseTokenizer implements AutoCloseable {
+
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  // closed together with the tokenizer, e.g. the stream or the channel of a mapped file
+  private final Closeable resource;
+  private ByteBuffer buffer;
+  private int position;
+  private int limit;
+  // start of a token that has to stay in the buffer when refilling, -1 if there is none
+  private int tokenStart = -1;
+
+  private int intValue;
+
+  /**
+   * This constructor creates a tokenizer that reads from an <code>InputStream</code>.
+   *
+   * @param in The stream to read.
+   */
+  public ClauseTokenizer(InputStream in) {
+    this.in = in;
+    this.resource = in;
+    this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+    this.position = 0;
+    this.limit = 0;
+  }
+
+  /**
+   * This constructor creates a tokenizer that reads the remaining bytes of a buffer.
+   *
+   * @param buffer The buffer containing the whole input.
+   */
+  public ClauseTokenizer(ByteBuffer buffer) {
+    this(buffer, null);
+  }
+
+  /**
+   * This constructor creates a tokenizer that reads the remaining bytes of a buffer,
+   * and closes the entered resource when it is closed itself.
+   *
+   * @param buffer The buffer containing the whole input.
+   * @param resource The resource backing the buffer, or <code>null</code>.
+   */
+  public ClauseTokenizer(ByteBuffer buffer, Closeable resource) {
+    this.in = null;
+    this.resource = resource;
+    this.buffer = buffer;
+    this.position = buffer.position();
+    this.limit = buffer.limit();
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b >= 0 && b <= ' ';
+  }
+
+  private boolean available() {
+    return position < limit || refill();
+  }
+
+  private boolean refill() {
+    if (in == null) {
+      return false;
+    }
+    byte[] array = buffer.array();
+    int keep = tokenStart < 0 ? position : tokenStart;
+    if (keep > 0) {
+      System.arraycopy(array, keep, array, 0, limit - keep);
+      limit -= keep;
+      position -= keep;
+      if (tokenStart >= 0) {
+        tokenStart -= keep;
+      }
+    } else if (limit == array.length) {
+      // a single token fills the whole buffer
+      array = Arrays.copyOf(array, array.length * 2);
+      buffer = ByteBuffer.wrap(array);
+    }
+    try {
+      int read;
+      do {
+        read = in.read(array, limit, array.length - limit);
+      } while (read == 0);
+      if (read < 0) {
+        return false;
+      }
+      limit += read;
+      return true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * This method skips all whitespace, including line breaks.
+   *
+   * @return <i>true</i>, if there is another token,<br>
+   *         <i>false</i>, if the end of the input is reached.
+   */
+  public boolean skipWhitespace() {
+    while (available()) {
+      if (!isWhitespace(buffer.get(position))) {
+        return true;
+      }
+      position++;
+    }
+    return false;
+  }
+
+  /**
+   * This method skips all whitespace up to the end of the current line.
+   *
+   * @return <i>true</i>, if there is another token on the current line,<br>
+   *         <i>false</i>, if not.
+   */
+  public boolean skipBlanks() {
+    while (available()) {
+      byte b = buffer.get(position);
+      if (b == '\n' || b == '\r') {
+        return false;
+      } else if (!isWhitespace(b)) {
+        return true;
+      }
+      position++;
+    }
+    return false;
+  }
+
+  /**
+   * This method skips the rest of the current line, including the line break.
+   */
+  public void skipLine() {
+    while (available()) {
+      byte b = buffer.get(position++);
+      if (b == '\n') {
+        return;
+      } else if (b == '\r') {
+        if (available() && buffer.get(position) == '\n') {
+          position++;
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * This method skips the next token.
+   */
+  public void skipToken() {
+    while (available() && !isWhitespace(buffer.get(position))) {
+      position++;
+    }
+  }
+
+  /**
+   * This method checks, whether the next token equals the entered token, without consuming it.
+   * <i>There must be no whitespace in front of the next token.</i>
+   *
+   * @param token The expected token, consisting of ASCII characters.
+   * @return <i>true</i>, if the next token equals <code>token</code>,<br>
+   *         <i>false</i>, if not.
+   */
+  public boolean nextTokenIs(String token) {
+    tokenStart = position;
+    try {
+      for (int i = 0; i < token.length(); i++) {
+        if (!available() || buffer.get(position) != token.charAt(i)) {
+          return false;
+        }
+        position++;
+      }
+      return !available() || isWhitespace(buffer.get(position));
+    } finally {
+      position = tokenStart;
+      tokenStart = -1;
+    }
+  }
+
+  /**
+   * This method parses the next token as an integer.
+   * If it is one, the token is consumed and its value can be obtained using
+   * <code>intValue()</code>. Otherwise, nothing is consumed.
+   * <i>There must be no whitespace in front of the next token.</i>
+   *
+   * @return <i>true</i>, if the next token is an integer,<br>
+   *         <i>false</i>, if not.
+   */
+  public boolean nextInt() {
+    tokenStart = position;
+    boolean negative = false;
+    if (available()) {
+      byte sign = buffer.get(position);
+      if (sign == '-' || sign == '+') {
+        negative = sign == '-';
+        position++;
+      }
+    }
+    long value = 0;
+    int digits = 0;
+    while (available()) {
+      byte b = buffer.get(position);
+      if (b >= '0' && b <= '9') {
+        value = value * 10 + (b - '0');
+        if (value > Integer.MAX_VALUE + 1L) {
+          break;
+        }
+        digits++;
+        position++;
+      } else if (isWhitespace(b)) {
+        break;
+      } else {
+        digits = -1;
+        break;
+      }
+    }
+    if (negative) {
+      value = -value;
+    }
+    boolean valid = digits > 0 && (!available() || isWhitespace(buffer.get(position)))
+        && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    if (valid) {
+      intValue = (int) value;
+    } else {
+      position = tokenStart;
+    }
+    tokenStart = -1;
+    return valid;
+  }
+
+  /**
+   * This getter-method returns the integer read by the last successful call of
+   * <code>nextInt()</code>.
+   *
+   * @return The value of the integer.
+   */
+  public int intValue() {
+    return intValue;
+  }
+
+  /**
+   * This method reads the next token as a string.
+   * It is meant for error messages, and thus not optimized.
+   *
+   * @return The next token.
+   */
+  public String nextToken() {
+    tokenStart = position;
+    skipToken();
+    byte[] token = new byte[position - tokenStart];
+    buffer.get(tokenStart, token);
+    tokenStart = -1;
+    return new String(token, Charset.defaultCharset());
+  }
+
+  /**
+   * This getter-method returns the position of the next byte in the buffer.
+   * It is only meaningful for tokenizers that read from a <code>ByteBuffer</code>.
+   *
+   * @return The position of the next unread byte.
+   */
+  public int position() {
+    return position;
+  }
+
+  @Override
+  public void close() {
+    if (resource != null) {
+      try {
+        resource.close();
+      } catch (IOException e) {
+        // like Scanner, closing does not throw
+      }
+    }
+  }
+
+}
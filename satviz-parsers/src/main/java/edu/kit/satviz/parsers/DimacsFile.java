@@ -1,13 +1,20 @@
 package edu.kit.satviz.parsers;
 
 import edu.kit.satviz.sat.ClauseUpdate;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * This class is used to parse an <code>InputStream</code> that complies with the DIMACS CNF format.
+ * <br>
+ * A file can also be memory-mapped instead. Then, the spliterator of this class can be split
+ * at clause boundaries, so that the clauses can be parsed by a parallel stream.
  */
 public class DimacsFile extends ClauseFile {
 
@@ -17,7 +24,8 @@ public class DimacsFile extends ClauseFile {
 
   private int variableAmount;
   private int clauseAmount;
-  private final DimacsParsingIterator dimacsParsingIterator;
+  private final Iterator<ClauseUpdate> dimacsParsingIterator;
+  private final Spliterator<ClauseUpdate> spliterator;
 
   /**
    * This constructor creates an instance of the <code>DimacsFile</code> class,
@@ -28,50 +36,73 @@ public class DimacsFile extends ClauseFile {
    */
   public DimacsFile(InputStream in) {
     super(in);
-    dimacsParsingIterator = new DimacsParsingIterator(scanner, variableAmount, clauseAmount);
+    dimacsParsingIterator = new DimacsParsingIterator(tokenizer, variableAmount, clauseAmount);
+    spliterator = Spliterators.spliteratorUnknownSize(dimacsParsingIterator,
+        Spliterator.ORDERED | Spliterator.NONNULL);
+  }
+
+  /**
+   * This constructor creates an instance of the <code>DimacsFile</code> class by memory-mapping
+   * an uncompressed file, while also parsing the header of the file.
+   * The file stays open until this instance is closed.
+   *
+   * @param file The path of the file.
+   * @throws IOException In case the file can't be opened or mapped.
+   * @throws ParsingException In case no header or only an invalid header is found.
+   */
+  public DimacsFile(Path file) throws IOException {
+    this(FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  private DimacsFile(FileChannel channel) throws IOException {
+    super(headerTokenizer(channel));
+    spliterator = new DimacsSpliterator(channel, tokenizer.position(), channel.size(),
+        variableAmount, clauseAmount);
+    dimacsParsingIterator = Spliterators.iterator(spliterator);
+  }
+
+  private static ClauseTokenizer headerTokenizer(FileChannel channel) throws IOException {
+    try {
+      // only the header is parsed with this mapping, so it doesn't need to cover huge files
+      long size = Math.min(channel.size(), Integer.MAX_VALUE);
+      return new ClauseTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
   }
 
   @Override
   protected void parseHeader() {
-    while (scanner.hasNext("c")) {
-      scanner.nextLine();
+    while (tokenizer.skipWhitespace() && tokenizer.nextTokenIs("c")) {
+      tokenizer.skipLine();
     }
-    if (!scanner.hasNext()) {
+    if (!tokenizer.skipWhitespace()) {
       throw new ParsingException(INVALID_HEADER_MESSAGE);
     }
 
-    String header;
-    do {
-      header = scanner.nextLine();
-    } while (header.isBlank());
-
-    try (Scanner headerScanner = new Scanner(header)) {
-      headerScanner.useDelimiter(" ");
-
-      if (!headerScanner.hasNext("p")) {
-        throw new ParsingException(NO_HEADER_MESSAGE);
-      }
-      headerScanner.next();
-      if (!headerScanner.hasNext("cnf")) {
-        throw new ParsingException(INVALID_HEADER_MESSAGE);
-      }
-      headerScanner.next();
-      try {
-        variableAmount = headerScanner.nextInt();
-      } catch (NoSuchElementException e) {
-        throw new ParsingException(INVALID_HEADER_MESSAGE);
-      }
-      try {
-        clauseAmount = headerScanner.nextInt();
-      } catch (NoSuchElementException e) {
-        throw new ParsingException(INVALID_HEADER_MESSAGE);
-      }
-      if (variableAmount < 0 || clauseAmount < 0) {
-        throw new ParsingException(INVALID_HEADER_MESSAGE);
-      }
-      if (headerScanner.hasNext()) {
-        throw new ParsingException(INVALID_HEADER_MESSAGE);
-      }
+    // the whole header has to be on the line starting with "p"
+    if (!tokenizer.nextTokenIs("p")) {
+      throw new ParsingException(NO_HEADER_MESSAGE);
+    }
+    tokenizer.skipToken();
+    if (!tokenizer.skipBlanks() || !tokenizer.nextTokenIs("cnf")) {
+      throw new ParsingException(INVALID_HEADER_MESSAGE);
+    }
+    tokenizer.skipToken();
+    if (!tokenizer.skipBlanks() || !tokenizer.nextInt()) {
+      throw new ParsingException(INVALID_HEADER_MESSAGE);
+    }
+    variableAmount = tokenizer.intValue();
+    if (!tokenizer.skipBlanks() || !tokenizer.nextInt()) {
+      throw new ParsingException(INVALID_HEADER_MESSAGE);
+    }
+    clauseAmount = tokenizer.intValue();
+    if (variableAmount < 0 || clauseAmount < 0) {
+      throw new ParsingException(INVALID_HEADER_MESSAGE);
+    }
+    if (tokenizer.skipBlanks()) {
+      throw new ParsingException(INVALID_HEADER_MESSAGE);
     }
   }
 
@@ -80,6 +111,19 @@ public class DimacsFile extends ClauseFile {
     return dimacsParsingIterator;
   }
 
+  /**
+   * This method returns a spliterator over the clauses.
+   * If the file is memory-mapped, it splits at clause boundaries and reports the clauses in file
+   * order, so <code>StreamSupport.stream(dimacsFile.spliterator(), true)</code> parses the file
+   * in parallel. It shares its position with the iterator, so only one of them should be used.
+   *
+   * @return The spliterator.
+   */
+  @Override
+  public Spliterator<ClauseUpdate> spliterator() {
+    return spliterator;
+  }
+
   /**
    * This getter-method returns the variable amount, that is set in the header.
    *
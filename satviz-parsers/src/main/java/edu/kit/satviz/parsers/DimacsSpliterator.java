@@ -0,0 +1,265 @@
+package edu.kit.satviz.parsers;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to parse the clauses of a memory-mapped CNF file in parallel.<br>
+ * <br>
+ * The body of the file (everything after the header) is split into byte ranges at clause
+ * boundaries, that is right after a <code>0</code> that terminates a clause. A <code>0</code>
+ * only terminates a clause, if there is no comment token <code>c</code> in front of it on the
+ * same line. Every range is parsed on its own, and since a range always covers the clauses
+ * in front of the ranges split off from it, the clauses are encountered in file order.<br>
+ * <br>
+ * The clause amount from the header is checked across all ranges: an additional clause is
+ * reported as soon as it is parsed, missing clauses once the last range is parsed.
+ */
+final class DimacsSpliterator implements Spliterator<ClauseUpdate> {
+
+  // ranges smaller than this are not split any further
+  static final long MIN_SPLIT_SIZE = 1024 * 1024;
+  // the amount of bytes mapped and parsed at once
+  static final long PIECE_SIZE = 64 * 1024 * 1024;
+  private static final int WINDOW_SIZE = 64 * 1024;
+
+  private static final String UNEXPECTED_END_MESSAGE = "Unexpected end of file.";
+  private static final String CLAUSE_TOO_LONG_MESSAGE = "A clause is too long to be parsed.";
+
+  private final Body body;
+  private long start;
+  private final long end;
+  private ChunkParsingIterator piece;
+  private long pieceEnd;
+  // used to search clause boundaries, created on demand
+  private ByteBuffer window;
+  private long windowStart;
+
+  /**
+   * This constructor creates a spliterator over the body of a CNF file.
+   *
+   * @param channel The channel of the file, which must remain open while parsing.
+   * @param bodyStart The position of the first byte after the header.
+   * @param size The size of the file.
+   * @param variableAmount The variable amount, that is read in the header of the file.
+   * @param clauseAmount The clause amount, that is read in the header of the file.
+   */
+  DimacsSpliterator(FileChannel channel, long bodyStart, long size, int variableAmount,
+      int clauseAmount) {
+    this(new Body(channel, bodyStart, size, variableAmount, clauseAmount), bodyStart, size);
+  }
+
+  private DimacsSpliterator(Body body, long start, long end) {
+    this.body = body;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super ClauseUpdate> action) {
+    while (piece == null || !piece.hasNext()) {
+      if (piece != null) {
+        body.parsed(pieceEnd - start);
+        start = pieceEnd;
+        piece = null;
+      }
+      if (start >= end) {
+        // checks the clause amount of bodies without a single byte
+        body.parsed(0);
+        return false;
+      }
+      nextPiece();
+    }
+    action.accept(piece.next());
+    return true;
+  }
+
+  @Override
+  public Spliterator<ClauseUpdate> trySplit() {
+    // once parsing has begun, the remaining range is no longer split
+    if (piece != null || end - start < 2 * MIN_SPLIT_SIZE) {
+      return null;
+    }
+    long boundary = nextBoundary(start + (end - start) / 2, end);
+    if (boundary >= end) {
+      return null;
+    }
+    DimacsSpliterator prefix = new DimacsSpliterator(body, start, boundary);
+    start = boundary;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    long length = body.end - body.start;
+    if (length == 0) {
+      return 0;
+    }
+    return (long) ((double) body.clauseAmount * (end - start) / length) + 1;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | IMMUTABLE;
+  }
+
+  private void nextPiece() {
+    pieceEnd = end - start > PIECE_SIZE ? nextBoundary(start + PIECE_SIZE, end) : end;
+    if (pieceEnd - start > Integer.MAX_VALUE) {
+      throw new ParsingException(CLAUSE_TOO_LONG_MESSAGE);
+    }
+    try {
+      ByteBuffer mapped =
+          body.channel.map(FileChannel.MapMode.READ_ONLY, start, pieceEnd - start);
+      piece = new ChunkParsingIterator(new ClauseTokenizer(mapped), body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * This method searches the first clause boundary behind a position.
+   *
+   * @param from The position to start the search at, which may be in the middle of a line.
+   * @param limit The end of the searched range.
+   * @return The position right after the first terminating <code>0</code>, whose token starts
+   *         at or after <code>from</code>, or <code>limit</code>, if there is none.
+   */
+  long nextBoundary(long from, long limit) {
+    // comments end with the line, so the line has to be read from its start
+    long position = from;
+    while (position > body.start && byteAt(position - 1) != '\n') {
+      position--;
+    }
+    boolean comment = false;
+    boolean tokenStart = true;
+    for (; position < limit; position++) {
+      byte b = byteAt(position);
+      if (b == '\n') {
+        comment = false;
+        tokenStart = true;
+      } else if (b >= 0 && b <= ' ') {
+        tokenStart = true;
+      } else if (tokenStart) {
+        tokenStart = false;
+        boolean single = position + 1 == limit || isWhitespace(byteAt(position + 1));
+        if (single && b == 'c') {
+          comment = true;
+        } else if (single && b == '0' && !comment && position >= from) {
+          return position + 1;
+        }
+      }
+    }
+    return limit;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b >= 0 && b <= ' ';
+  }
+
+  private byte byteAt(long position) {
+    if (window == null) {
+      window = ByteBuffer.allocate(WINDOW_SIZE);
+      windowStart = -1;
+    }
+    if (windowStart < 0 || position < windowStart || position >= windowStart + window.limit()) {
+      windowStart = position - position % WINDOW_SIZE;
+      window.clear();
+      try {
+        // positional reads can be used by several threads at once
+        int read = 0;
+        while (window.hasRemaining() && read >= 0) {
+          read = body.channel.read(window, windowStart + window.position());
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      window.flip();
+      if (position >= windowStart + window.limit()) {
+        throw new UncheckedIOException(new EOFException());
+      }
+    }
+    return window.get((int) (position - windowStart));
+  }
+
+  /**
+   * The state shared by all spliterators of one file.
+   */
+  private static final class Body {
+
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+    private final int variableAmount;
+    private final int clauseAmount;
+    private final AtomicLong clauses = new AtomicLong();
+    private final AtomicLong remaining;
+    private final AtomicBoolean checked = new AtomicBoolean();
+
+    private Body(FileChannel channel, long start, long end, int variableAmount,
+        int clauseAmount) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+      this.variableAmount = variableAmount;
+      this.clauseAmount = clauseAmount;
+      this.remaining = new AtomicLong(end - start);
+    }
+
+    private void parsed(long bytes) {
+      if (remaining.addAndGet(-bytes) == 0 && checked.compareAndSet(false, true)
+          && clauses.get() < clauseAmount) {
+        throw new ParsingException(UNEXPECTED_END_MESSAGE);
+      }
+    }
+
+  }
+
+  /**
+   * This class parses the clauses of a single range.
+   */
+  private static final class ChunkParsingIterator extends ClauseParsingIterator {
+
+    private final Body body;
+
+    private ChunkParsingIterator(ClauseTokenizer tokenizer, Body body) {
+      super(tokenizer);
+      this.body = body;
+    }
+
+    @Override
+    protected ClauseUpdate.Type readType() {
+      return ClauseUpdate.Type.ADD;
+    }
+
+    @Override
+    protected boolean isValidVariable(int variable) {
+      return Math.abs(variable) <= body.variableAmount;
+    }
+
+    @Override
+    protected boolean isValidClauseUpdate(ClauseUpdate clauseUpdate) {
+      return body.clauses.incrementAndGet() <= body.clauseAmount;
+    }
+
+    @Override
+    protected boolean isFinalClauseUpdate(ClauseUpdate clauseUpdate) {
+      return false;
+    }
+
+    @Override
+    protected boolean isPrematureEndOfFile() {
+      return false;
+    }
+
+  }
+
+}
@@ -1,24 +1,105 @@
 package edu.kit.satviz.parsers;
 
 import edu.kit.satviz.sat.ClauseUpdate;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 /**
  * This class is used to parse an <code>InputStream</code> that complies with the DRAT format.
+ * Both the textual and the binary DRAT format are supported; the format is detected
+ * automatically by looking at the start of the stream.
  */
 public class DratFile extends ClauseFile {
 
-  private final DratParsingIterator dratParsingIterator;
+  // the amount of bytes looked at to tell binary and textual proofs apart
+  private static final int DETECTION_LENGTH = 4096;
+
+  private final boolean binary;
+  private final Iterator<ClauseUpdate> dratParsingIterator;
 
   /**
    * This constructor creates an instance of the <code>DratFile</code> class.
    *
    * @param in An instance of the <code>InputStream</code> class.
+   * @throws UncheckedIOException In case the start of the stream can't be read.
    */
   public DratFile(InputStream in) {
+    this(new PushbackInputStream(in, DETECTION_LENGTH));
+  }
+
+  private DratFile(PushbackInputStream in) {
+    // the tokenizer does not read anything until it is used
     super(in);
-    dratParsingIterator = new DratParsingIterator(scanner);
+    binary = isBinary(in);
+    if (binary) {
+      dratParsingIterator = new BinaryDratParsingIterator(in);
+    } else {
+      dratParsingIterator = new DratParsingIterator(tokenizer);
+    }
+  }
+
+  /**
+   * This method checks, whether a proof is in the binary DRAT format, without consuming anything.
+   * A binary proof starts with the byte <code>'a'</code> or <code>'d'</code>, followed by encoded
+   * literals and a zero byte. A textual proof starts with a literal, a deletion, a comment or
+   * whitespace, and only contains printable characters.<br>
+   * If a proof starts with <code>'d'</code>, the first byte that is not printable decides that it
+   * is binary. Since the encoded literals may look like any character, the proof is only
+   * considered textual once a complete textual line has been read.<br>
+   * <i>No more than the first line is read, so that proofs that are still being written can be
+   * parsed right away.</i>
+   */
+  private static boolean isBinary(PushbackInputStream in) {
+    byte[] start = new byte[DETECTION_LENGTH];
+    int length = 0;
+    Boolean binary = null;
+    try {
+      while (binary == null && length < start.length) {
+        int b = in.read();
+        if (b < 0) {
+          break;
+        }
+        start[length++] = (byte) b;
+        if (length == 1) {
+          if (b == 'a') {
+            binary = true;
+          } else if (b != 'd') {
+            binary = false;
+          }
+        } else if (b == 0 || b >= 0x7f || (b < ' ' && b != '\t' && b != '\r' && b != '\n')) {
+          binary = true;
+        } else if (b == '\n' && isTextualDeletion(start, length - 1)) {
+          binary = false;
+        }
+      }
+      in.unread(start, 0, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return binary != null && binary;
+  }
+
+  /**
+   * This method checks, whether a line starting with <code>'d'</code> is a textual deletion,
+   * i.e. the <code>'d'</code> is followed by whitespace separated literals and a <code>0</code>.
+   */
+  private static boolean isTextualDeletion(byte[] line, int length) {
+    while (length > 1 && Character.isWhitespace(line[length - 1])) {
+      length--;
+    }
+    if (length < 3 || line[length - 1] != '0' || !Character.isWhitespace(line[length - 2])) {
+      return false;
+    }
+    for (int i = 1; i < length; i++) {
+      byte b = line[i];
+      if (!Character.isWhitespace(b) && b != '-' && (b < '0' || b > '9')) {
+        return false;
+      }
+    }
+    return Character.isWhitespace(line[1]);
   }
 
   @Override
@@ -31,4 +112,14 @@ public class DratFile extends ClauseFile {
     return dratParsingIterator;
   }
 
+  /**
+   * This getter-method returns, whether the proof is in the binary DRAT format.
+   *
+   * @return <i>true</i>, if the proof is binary,<br>
+   *         <i>false</i>, if it is textual.
+   */
+  public boolean isBinary() {
+    return binary;
+  }
+
 }
@@ -1,7 +1,6 @@
 package edu.kit.satviz.parsers;
 
 import edu.kit.satviz.sat.ClauseUpdate;
-import java.util.Scanner;
 
 /**
  * This class is used to validate and read the clause types from a file in the DRAT format.
@@ -11,16 +10,16 @@ public class DratParsingIterator extends ClauseParsingIterator {
   /**
    * his constructor creates an instance of the <code>DratParsingIterator</code> class.
    *
-   * @param scanner The scanner, that scans the DRAT file.
+   * @param tokenizer The tokenizer, that splits the DRAT file into tokens.
    */
-  protected DratParsingIterator(Scanner scanner) {
-    super(scanner);
+  protected DratParsingIterator(ClauseTokenizer tokenizer) {
+    super(tokenizer);
   }
 
   @Override
   protected ClauseUpdate.Type readType() {
-    if (scanner.hasNext("d")) {
-      scanner.next();
+    if (tokenizer.nextTokenIs("d")) {
+      tokenizer.skipToken();
       return ClauseUpdate.Type.REMOVE;
     } else {
       return ClauseUpdate.Type.ADD;
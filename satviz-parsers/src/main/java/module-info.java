@@ -1,6 +1,7 @@
 module edu.kit.satviz.parsers {
 
   requires transitive edu.kit.satviz.sat;
+  requires edu.kit.satviz.serial;
   
   exports edu.kit.satviz.parsers;
 
@@ -0,0 +1,122 @@
+package edu.kit.satviz.parsers;
+
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import edu.kit.satviz.serial.ClauseSerializer;
+import edu.kit.satviz.serial.DeltaClauseSerializer;
+import edu.kit.satviz.serial.SerializationException;
+import edu.kit.satviz.serial.Serializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the size and decoding speed of {@link ClauseSerializer} and
+ * {@link DeltaClauseSerializer} on real instances and proofs.
+ * Run with <code>gradle benchmark -Dbenchmark.inputs=instance.cnf,proof.drat</code>; without
+ * inputs, the example files of the tests are used.
+ */
+@Tag("benchmark")
+class ClauseEncodingBenchmark {
+
+  private static final String[] EXAMPLES = {
+      "/dimacs_ex/aim-100-1_6-no-1.cnf", "/drat_ex/example-5-vars.drat"
+  };
+  // every input is decoded at least this many clauses, so that small inputs can be timed
+  private static final int MIN_DECODED = 10_000_000;
+  private static final int RUNS = 3;
+
+  @Test
+  void encodings() throws IOException, SerializationException {
+    String inputs = System.getProperty("benchmark.inputs");
+    if (inputs == null) {
+      for (String example : EXAMPLES) {
+        try (InputStream in = ClauseEncodingBenchmark.class.getResourceAsStream(example)) {
+          compare(example, parse(example, in));
+        }
+      }
+    } else {
+      for (String input : inputs.split(",")) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(input)))) {
+          compare(input, parse(input, in));
+        }
+      }
+    }
+  }
+
+  private static List<Clause> parse(String name, InputStream in) {
+    List<Clause> clauses = new ArrayList<>();
+    try (ClauseFile file = name.endsWith(".cnf") ? new DimacsFile(in) : new DratFile(in)) {
+      for (ClauseUpdate update : file) {
+        clauses.add(update.clause());
+      }
+    }
+    return clauses;
+  }
+
+  private static void compare(String name, List<Clause> clauses)
+      throws IOException, SerializationException {
+    List<Clause> sorted = new ArrayList<>();
+    for (Clause clause : clauses) {
+      int[] literals = clause.literals().clone();
+      Integer[] boxed = Arrays.stream(literals).boxed().toArray(Integer[]::new);
+      Arrays.sort(boxed, Comparator.comparingInt(Math::abs));
+      sorted.add(new Clause(Arrays.stream(boxed).mapToInt(Integer::intValue).toArray()));
+    }
+    System.out.printf("%s: %,d clauses%n", name, clauses.size());
+    int plain = report("plain", new ClauseSerializer(), clauses, -1);
+    report("delta", new DeltaClauseSerializer(), clauses, plain);
+    report("delta, sorted", new DeltaClauseSerializer(), sorted, plain);
+  }
+
+  private static int report(String name, Serializer<Clause> serializer, List<Clause> clauses,
+      int plainSize) throws IOException, SerializationException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Clause clause : clauses) {
+      serializer.serialize(clause, out);
+    }
+    ByteBuffer encoded = ByteBuffer.wrap(out.toByteArray());
+    int repetitions = Math.max(1, MIN_DECODED / Math.max(1, clauses.size()));
+
+    decode(serializer, encoded, clauses.size(), 1); // warm-up
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      decode(serializer, encoded, clauses.size(), repetitions);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    double seconds = best / 1e9;
+    System.out.printf("  %-14s %,12d bytes %6.1f%% %,14.0f clauses/s %8.1f MB/s%n", name,
+        encoded.capacity(), plainSize < 0 ? 100.0 : 100.0 * encoded.capacity() / plainSize,
+        (double) clauses.size() * repetitions / seconds,
+        (double) encoded.capacity() * repetitions / seconds / (1024 * 1024));
+    return encoded.capacity();
+  }
+
+  private static void decode(Serializer<Clause> serializer, ByteBuffer encoded, int clauses,
+      int repetitions) throws SerializationException {
+    for (int r = 0; r < repetitions; r++) {
+      encoded.clear();
+      int decoded = 0;
+      while (encoded.hasRemaining()) {
+        serializer.deserialize(encoded);
+        decoded++;
+      }
+      assertEquals(clauses, decoded);
+    }
+  }
+
+}
@@ -4,11 +4,16 @@ import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -164,4 +169,139 @@ class DimacsFileTest {
     assertThrows(ParsingException.class, iterator::hasNext);
   }
 
+  /**
+   * This tests a file that is larger than the read buffer, so that tokens are split between
+   * reads, using different kinds of whitespace.
+   */
+  @Test
+  void iterator_largeFile_test() {
+    final int clauses = 20000;
+    StringBuilder builder = new StringBuilder("c generated\r\np cnf 1000000 " + clauses + "\r\n");
+    for (int i = 0; i < clauses; i++) {
+      builder.append(i + 1).append('\t').append(-(i * 37 % 1000000 + 1)).append("  ")
+          .append(999999).append(i % 3 == 0 ? "\r\n0\r\n" : " 0\n");
+      if (i % 1000 == 0) {
+        builder.append("c comment ").append(i).append('\n');
+      }
+    }
+    InputStream inputStream = new ByteArrayInputStream(builder.toString().getBytes());
+    DimacsFile dimacsFile = new DimacsFile(inputStream);
+    assertEquals(1000000, dimacsFile.getVariableAmount());
+    int i = 0;
+    for (ClauseUpdate update : dimacsFile) {
+      Clause expected = new Clause(new int[]{i + 1, -(i * 37 % 1000000 + 1), 999999});
+      assertEquals(new ClauseUpdate(expected, ClauseUpdate.Type.ADD), update);
+      i++;
+    }
+    assertEquals(clauses, i);
+  }
+
+  /**
+   * This tests, that invalid tokens and variables are reported with the offending token.
+   */
+  @Test
+  void iterator_errorMessages_test() {
+    String file = "p cnf 3 1\n1 -x2 0\n";
+    DimacsFile dimacsFile1 = new DimacsFile(new ByteArrayInputStream(file.getBytes()));
+    ParsingException e = assertThrows(ParsingException.class, dimacsFile1.iterator()::next);
+    assertEquals("\"-x2\" contains illegal characters.", e.getMessage());
+
+    file = "p cnf 3 1\n1 2147483648 0\n";
+    DimacsFile dimacsFile2 = new DimacsFile(new ByteArrayInputStream(file.getBytes()));
+    e = assertThrows(ParsingException.class, dimacsFile2.iterator()::next);
+    assertEquals("\"2147483648\" contains illegal characters.", e.getMessage());
+
+    file = "p cnf 3 1\n1 -4 0\n";
+    DimacsFile dimacsFile3 = new DimacsFile(new ByteArrayInputStream(file.getBytes()));
+    e = assertThrows(ParsingException.class, dimacsFile3.iterator()::next);
+    assertEquals("The variable \"-4\" is invalid.", e.getMessage());
+  }
+
+  /**
+   * This tests, that the header has to be on a single line.
+   */
+  @Test
+  void parseHeader_multipleLines_test() {
+    String header = "p cnf 3\n3\n";
+    InputStream inputStream = new ByteArrayInputStream(header.getBytes());
+    assertThrows(ParsingException.class, () -> new DimacsFile(inputStream));
+  }
+
+  /**
+   * This tests, that a memory-mapped file is split at clause boundaries and parsed in parallel,
+   * without mistaking a <code>0</code> in a comment for the end of a clause.
+   */
+  @Test
+  void spliterator_parallel_test(@TempDir Path tempDir) throws IOException {
+    final int clauses = 300000;
+    StringBuilder builder = new StringBuilder("c 0 generated 0\np cnf 100000 " + clauses + "\n");
+    for (int i = 0; i < clauses; i++) {
+      builder.append(i % 100000 + 1).append(' ').append(-(i * 7 % 100000 + 1));
+      if (i % 5 == 0) {
+        builder.append("\n");
+      }
+      builder.append(" 0");
+      if (i % 303 == 0) {
+        // comments after a clause end with the line
+        builder.append(" c done 0 of 0 0");
+      }
+      builder.append(i % 3 == 0 ? "\n" : " ");
+      if (i % 97 == 0) {
+        builder.append("c comment 0 0\n");
+      }
+    }
+    Path file = tempDir.resolve("large.cnf");
+    Files.writeString(file, builder);
+
+    ClauseUpdate[] expected;
+    try (DimacsFile dimacsFile = new DimacsFile(Files.newInputStream(file))) {
+      expected = StreamSupport.stream(dimacsFile.spliterator(), false)
+          .toArray(ClauseUpdate[]::new);
+    }
+    try (DimacsFile dimacsFile = new DimacsFile(file)) {
+      assertNotNull(dimacsFile.spliterator().trySplit());
+    }
+    try (DimacsFile dimacsFile = new DimacsFile(file)) {
+      assertEquals(100000, dimacsFile.getVariableAmount());
+      ClauseUpdate[] actual = StreamSupport.stream(dimacsFile.spliterator(), true)
+          .toArray(ClauseUpdate[]::new);
+      assertEquals(clauses, actual.length);
+      assertArrayEquals(expected, actual);
+    }
+  }
+
+  /**
+   * This tests a small memory-mapped file, and that its clause amount is checked.
+   */
+  @Test
+  void iterator_mappedFile_test(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("simple.cnf");
+    try (InputStream in = DimacsFileTest.class.getResourceAsStream("/dimacs_ex/simple_v3_c2.cnf")) {
+      Files.copy(in, file);
+    }
+    try (DimacsFile dimacsFile = new DimacsFile(file)) {
+      Iterator<ClauseUpdate> iterator = dimacsFile.iterator();
+      assertEquals(simpleFileUpdates[0], iterator.next());
+      assertEquals(simpleFileUpdates[1], iterator.next());
+      assertFalse(iterator.hasNext());
+    }
+
+    Files.writeString(file, "p cnf 3 2\n1 2 0\n");
+    try (DimacsFile dimacsFile = new DimacsFile(file)) {
+      assertThrows(ParsingException.class,
+          () -> StreamSupport.stream(dimacsFile.spliterator(), true).count());
+    }
+    Files.writeString(file, "p cnf 3 1\n");
+    try (DimacsFile dimacsFile = new DimacsFile(file)) {
+      assertThrows(ParsingException.class, () -> dimacsFile.iterator().hasNext());
+    }
+    Files.writeString(file, "p cnf 3 1\n1 2 0\n-3 0\n");
+    try (DimacsFile dimacsFile = new DimacsFile(file)) {
+      assertThrows(ParsingException.class,
+          () -> StreamSupport.stream(dimacsFile.spliterator(), true).count());
+    }
+    Files.writeString(file, "p cnf 3\n");
+    assertThrows(ParsingException.class, () -> new DimacsFile(file));
+  }
+
 }
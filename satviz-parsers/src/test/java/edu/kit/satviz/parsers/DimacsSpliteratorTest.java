@@ -0,0 +1,41 @@
+package edu.kit.satviz.parsers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DimacsSpliteratorTest {
+
+  /**
+   * This tests, that only zeros terminating a clause are used as boundaries.
+   */
+  @Test
+  void nextBoundary_test(@TempDir Path tempDir) throws IOException {
+    String body = "1 10 0\nc 0 of 0\n-20 0 c 0\n 30 0\n";
+    Path file = tempDir.resolve("boundary.cnf");
+    Files.writeString(file, body);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      DimacsSpliterator spliterator = new DimacsSpliterator(channel, 0, body.length(), 30, 4);
+      // the second digit of "10" is not a token of its own
+      assertEquals(6, spliterator.nextBoundary(0, body.length()));
+      assertEquals(6, spliterator.nextBoundary(3, body.length()));
+      // zeros on comment lines and in comments after a clause are skipped
+      assertEquals(body.indexOf("-20 0") + 5, spliterator.nextBoundary(6, body.length()));
+      assertEquals(body.indexOf("-20 0") + 5, spliterator.nextBoundary(9, body.length()));
+      assertEquals(body.length() - 1, spliterator.nextBoundary(body.indexOf("c 0\n "),
+          body.length()));
+      assertEquals(body.length() - 1, spliterator.nextBoundary(body.indexOf(" 30"),
+          body.length()));
+      assertEquals(body.length() - 3, spliterator.nextBoundary(body.indexOf(" 30"),
+          body.length() - 3));
+    }
+  }
+
+}
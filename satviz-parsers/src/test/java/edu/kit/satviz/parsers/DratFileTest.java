@@ -4,6 +4,7 @@ import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -62,4 +63,89 @@ class DratFileTest {
     assertEquals(6, removeClauseCounter);
   }
 
+  @Test
+  void iterator_deletionToken_test() {
+    String proof = "c proof\nd 1 2 0\nd1 0\n";
+    DratFile dratFile = new DratFile(new ByteArrayInputStream(proof.getBytes()));
+    Iterator<ClauseUpdate> iterator = dratFile.iterator();
+    assertEquals(new ClauseUpdate(new Clause(new int[]{1, 2}), ClauseUpdate.Type.REMOVE),
+        iterator.next());
+    // "d" is only a deletion if it is a separate token
+    ParsingException e = assertThrows(ParsingException.class, iterator::next);
+    assertEquals("\"d1\" contains illegal characters.", e.getMessage());
+  }
+
+  @Test
+  void iterator_binary_test() {
+    // the updates of examples-4-vars.drat, followed by the empty clause
+    byte[] proof = {
+        'a', 3, 0,
+        'd', 3, 5, 6, 0,
+        'd', 3, 7, 9, 0,
+        'd', 3, 4, 8, 0,
+        'a', 4, 0,
+        'a', 0
+    };
+    DratFile dratFile = new DratFile(new ByteArrayInputStream(proof));
+    assertTrue(dratFile.isBinary());
+    Iterator<ClauseUpdate> iterator = dratFile.iterator();
+    for (int i = 0; i < 5; i++) {
+      assertTrue(iterator.hasNext());
+      assertEquals(example4Updates[i], iterator.next());
+    }
+    assertFalse(iterator.hasNext());
+    assertThrows(NoSuchElementException.class, iterator::next);
+  }
+
+  @Test
+  void iterator_binaryLargeVariables_test() {
+    // 2 * 300 + 1 = 0b1001011001 and 2 * 2147483647
+    byte[] proof = {'d', (byte) 0xd9, 0x04, (byte) 0xfe, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+        0x0f, 0};
+    DratFile dratFile = new DratFile(new ByteArrayInputStream(proof));
+    assertTrue(dratFile.isBinary());
+    assertEquals(new ClauseUpdate(new Clause(new int[]{-300, Integer.MAX_VALUE}),
+        ClauseUpdate.Type.REMOVE), dratFile.iterator().next());
+  }
+
+  @Test
+  void iterator_binaryInvalid_test() {
+    byte[] truncated = {'a', 2, 4};
+    DratFile dratFile1 = new DratFile(new ByteArrayInputStream(truncated));
+    ParsingException e = assertThrows(ParsingException.class, dratFile1.iterator()::next);
+    assertEquals("Unexpected end of file.", e.getMessage());
+    assertThrows(ParsingException.class, dratFile1.iterator()::hasNext);
+
+    byte[] invalidMarker = {'a', 2, 0, 'x', 2, 0};
+    DratFile dratFile2 = new DratFile(new ByteArrayInputStream(invalidMarker));
+    Iterator<ClauseUpdate> iterator = dratFile2.iterator();
+    iterator.next();
+    e = assertThrows(ParsingException.class, iterator::next);
+    assertEquals("Unexpected byte 0x78 at offset 3.", e.getMessage());
+  }
+
+  @Test
+  void isBinary_text_test() {
+    assertFalse(new DratFile(example4FileStream).isBinary());
+    String proof = "d 1 2 0\n";
+    assertFalse(new DratFile(new ByteArrayInputStream(proof.getBytes())).isBinary());
+    proof = "d\n1 -2 0\n";
+    assertFalse(new DratFile(new ByteArrayInputStream(proof.getBytes())).isBinary());
+    assertFalse(new DratFile(new ByteArrayInputStream(new byte[0])).isBinary());
+  }
+
+  @Test
+  void isBinary_printableLiterals_test() {
+    // 0x0a is the literal 5 and 0x20 the literal 16, which look like a newline and a space
+    byte[] proof = {'d', 0x0a, 0x20, 0, 'd', 0x0a, 0};
+    DratFile dratFile = new DratFile(new ByteArrayInputStream(proof));
+    assertTrue(dratFile.isBinary());
+    Iterator<ClauseUpdate> iterator = dratFile.iterator();
+    assertEquals(new ClauseUpdate(new Clause(new int[]{5, 16}), ClauseUpdate.Type.REMOVE),
+        iterator.next());
+    assertEquals(new ClauseUpdate(new Clause(new int[]{5}), ClauseUpdate.Type.REMOVE),
+        iterator.next());
+    assertFalse(iterator.hasNext());
+  }
+
 }
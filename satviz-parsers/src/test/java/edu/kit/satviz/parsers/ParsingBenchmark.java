@@ -0,0 +1,123 @@
+package edu.kit.satviz.parsers;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the parsing throughput in MB/s. Run with <code>gradle benchmark</code>.
+ */
+@Tag("benchmark")
+class ParsingBenchmark {
+
+  private static final int VARIABLES = 1_000_000;
+  private static final int CLAUSES = 4_000_000;
+  private static final int RUNS = 3;
+
+  @TempDir
+  static Path dir;
+  static Path cnf;
+  static Path drat;
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    Random random = new Random(42);
+    cnf = dir.resolve("bench.cnf");
+    drat = dir.resolve("bench.drat");
+    try (BufferedWriter cnfOut = Files.newBufferedWriter(cnf);
+         BufferedWriter dratOut = Files.newBufferedWriter(drat)) {
+      cnfOut.write("c generated\np cnf " + VARIABLES + " " + CLAUSES + "\n");
+      for (int i = 0; i < CLAUSES; i++) {
+        StringBuilder clause = new StringBuilder();
+        int length = 2 + random.nextInt(random.nextInt(10) == 0 ? 40 : 4);
+        for (int j = 0; j < length; j++) {
+          int variable = 1 + random.nextInt(VARIABLES);
+          clause.append(random.nextBoolean() ? variable : -variable).append(' ');
+        }
+        clause.append("0\n");
+        cnfOut.write(clause.toString());
+        if (i % 4 == 3) {
+          dratOut.write("d ");
+        }
+        dratOut.write(clause.toString());
+      }
+    }
+  }
+
+  @Test
+  void dimacsStream() throws IOException {
+    report("DIMACS, stream", cnf, () -> {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(cnf), 1 << 16);
+           DimacsFile file = new DimacsFile(in)) {
+        return count(file);
+      }
+    });
+  }
+
+  @Test
+  void dimacsMapped() throws IOException {
+    report("DIMACS, mapped", cnf, () -> {
+      try (DimacsFile file = new DimacsFile(cnf)) {
+        return count(file);
+      }
+    });
+  }
+
+  @Test
+  void dimacsMappedParallel() throws IOException {
+    report("DIMACS, mapped, parallel", cnf, () -> {
+      try (DimacsFile file = new DimacsFile(cnf)) {
+        return StreamSupport.stream(file.spliterator(), true).count();
+      }
+    });
+  }
+
+  @Test
+  void dratText() throws IOException {
+    report("DRAT, text", drat, () -> {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(drat), 1 << 16);
+           DratFile file = new DratFile(in)) {
+        return count(file);
+      }
+    });
+  }
+
+  private static long count(ClauseFile file) {
+    long count = 0;
+    for (ClauseUpdate ignored : file) {
+      count++;
+    }
+    return count;
+  }
+
+  private static void report(String name, Path file, Run run) throws IOException {
+    double megabytes = Files.size(file) / (1024.0 * 1024.0);
+    assertEquals(CLAUSES, run.parse()); // warm-up
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      assertEquals(CLAUSES, run.parse());
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-28s %8.1f MB/s (%.0f MB)%n", name, megabytes / (best / 1e9), megabytes);
+  }
+
+  @FunctionalInterface
+  private interface Run {
+    long parse() throws IOException;
+  }
+
+}
@@ -8,6 +8,9 @@ import edu.kit.satviz.producer.cli.ProducerConstraints;
 import edu.kit.satviz.producer.cli.ProducerParameters;
 import edu.kit.satviz.producer.mode.ProofMode;
 import edu.kit.satviz.producer.mode.SolverMode;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,8 +44,16 @@ public class ProducerApplication {
       logger.info("Opening clause source");
       ProducerModeData data = selectedMode.apply(parameters);
       logger.info("Clause source opened");
-      ProducerConnection connection = new ProducerConnection(
-          parameters.getHost(), parameters.getPort());
+      SocketAddress consumerAddress = parameters.getUnixSocket() != null
+          ? UnixDomainSocketAddress.of(parameters.getUnixSocket())
+          : InetSocketAddress.createUnresolved(parameters.getHost(), parameters.getPort());
+      ProducerConnection connection = new ProducerConnection(consumerAddress,
+          ProducerConnection.DEFAULT_MAX_BATCH_SIZE, ProducerConnection.DEFAULT_MAX_BATCH_DELAY,
+          parameters.getQueueSize(), parameters.getOverflowPolicy());
+      if (parameters.isCompress()) {
+        connection.enableCompression(parameters.getCompressionBlockSize(),
+            parameters.getCompressionFlushInterval());
+      }
       SourceControlConnectionListener ls = new SourceControlConnectionListener(connection,
           data.source());
       logger.info("Waiting for network connection...");
@@ -1,11 +1,14 @@
 package edu.kit.satviz.producer.cli;
 
 import edu.kit.satviz.common.PathArgumentType;
+import edu.kit.satviz.network.pub.OverflowPolicy;
+import edu.kit.satviz.network.pub.ProducerConnection;
 import java.util.Locale;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 
 /**
  * A utility class defining the command line {@code ArgumentParser} used by this application.
@@ -25,10 +28,13 @@ public final class ProducerCli {
                         A clause producer for satviz.
                         Can be started with either a solver and a SAT instance or a proof.""");
     // TODO PARSER.addArgument("-l", "--log-level")
-    PARSER.addArgument("--host", "-H")
-        .required(true)
+    MutuallyExclusiveGroup target = PARSER.addMutuallyExclusiveGroup("consumer").required(true);
+    target.addArgument("--host", "-H")
         .type(String.class)
         .help("The host address of the target clause consumer");
+    target.addArgument("--unix-socket", "-U")
+        .type(PathArgumentType.get())
+        .help("Path to the Unix domain socket of a clause consumer on the same machine");
     PARSER.addArgument("--port", "-P")
         .setDefault(34312)
         .type(int.class)
@@ -41,11 +47,33 @@ public final class ProducerCli {
         .help("Path to a DIMACS CNF instance file or '-' for standard input");
     PARSER.addArgument("--proof", "-p")
         .type(PathArgumentType.get())
-        .help("Path to a DRAT proof or '-' for standard input");
+        .help("Path to a textual or binary DRAT proof or '-' for standard input");
     PARSER.addArgument("--no-wait")
         .type(boolean.class)
         .action(Arguments.storeTrue())
         .help("Do not wait for a connection to be established, start solving immediately");
+    PARSER.addArgument("--queue-size")
+        .setDefault(ProducerConnection.DEFAULT_QUEUE_CAPACITY)
+        .type(int.class)
+        .choices(Arguments.range(1, Integer.MAX_VALUE))
+        .metavar("SIZE")
+        .help("Maximum amount of clause updates waiting to be sent to the consumer");
+    PARSER.addArgument("--overflow-policy")
+        .setDefault(ProducerConnection.DEFAULT_OVERFLOW_POLICY)
+        .type(Arguments.caseInsensitiveEnumType(OverflowPolicy.class))
+        .help("What to do with clause updates while the send queue is full");
+    PARSER.addArgument("--compress")
+        .type(boolean.class)
+        .action(Arguments.storeTrue())
+        .help("Compress the connection to the consumer, if the consumer supports it");
+    PARSER.addArgument("--compression-block-size")
+        .setDefault(ProducerConnection.DEFAULT_COMPRESSION_BLOCK_SIZE)
+        .type(int.class)
+        .help("Amount of uncompressed bytes per compressed block");
+    PARSER.addArgument("--compression-flush-interval")
+        .setDefault(ProducerConnection.DEFAULT_COMPRESSION_FLUSH_INTERVAL)
+        .type(long.class)
+        .help("Maximum time in ms that clause updates are held back to fill a compressed block");
   }
 
   private ProducerCli() {
@@ -1,5 +1,7 @@
 package edu.kit.satviz.producer.cli;
 
+import edu.kit.satviz.network.pub.OverflowPolicy;
+import edu.kit.satviz.network.pub.ProducerConnection;
 import java.nio.file.Path;
 import java.util.Objects;
 import net.sourceforge.argparse4j.annotation.Arg;
@@ -24,9 +26,27 @@ public final class ProducerParameters {
   @Arg
   private String host;
 
+  @Arg(dest = "unix_socket")
+  private Path unixSocket;
+
   @Arg(dest = "no_wait")
   private boolean noWait;
 
+  @Arg(dest = "queue_size")
+  private int queueSize = ProducerConnection.DEFAULT_QUEUE_CAPACITY;
+
+  @Arg(dest = "overflow_policy")
+  private OverflowPolicy overflowPolicy = ProducerConnection.DEFAULT_OVERFLOW_POLICY;
+
+  @Arg
+  private boolean compress;
+
+  @Arg(dest = "compression_block_size")
+  private int compressionBlockSize = ProducerConnection.DEFAULT_COMPRESSION_BLOCK_SIZE;
+
+  @Arg(dest = "compression_flush_interval")
+  private long compressionFlushInterval = ProducerConnection.DEFAULT_COMPRESSION_FLUSH_INTERVAL;
+
   public Path getInstanceFile() {
     return instanceFile;
   }
@@ -47,10 +67,34 @@ public final class ProducerParameters {
     return host;
   }
 
+  public Path getUnixSocket() {
+    return unixSocket;
+  }
+
   public boolean isNoWait() {
     return noWait;
   }
 
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public boolean isCompress() {
+    return compress;
+  }
+
+  public int getCompressionBlockSize() {
+    return compressionBlockSize;
+  }
+
+  public long getCompressionFlushInterval() {
+    return compressionFlushInterval;
+  }
+
   public void setInstanceFile(Path instanceFile) {
     this.instanceFile = instanceFile;
   }
@@ -71,10 +115,34 @@ public final class ProducerParameters {
     this.host = host;
   }
 
+  public void setUnixSocket(Path unixSocket) {
+    this.unixSocket = unixSocket;
+  }
+
   public void setNoWait(boolean noWait) {
     this.noWait = noWait;
   }
 
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public void setCompress(boolean compress) {
+    this.compress = compress;
+  }
+
+  public void setCompressionBlockSize(int compressionBlockSize) {
+    this.compressionBlockSize = compressionBlockSize;
+  }
+
+  public void setCompressionFlushInterval(long compressionFlushInterval) {
+    this.compressionFlushInterval = compressionFlushInterval;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -86,15 +154,22 @@ public final class ProducerParameters {
     ProducerParameters that = (ProducerParameters) o;
     return port == that.port
         && noWait == that.noWait
+        && queueSize == that.queueSize
+        && overflowPolicy == that.overflowPolicy
+        && compress == that.compress
+        && compressionBlockSize == that.compressionBlockSize
+        && compressionFlushInterval == that.compressionFlushInterval
         && Objects.equals(instanceFile, that.instanceFile)
         && Objects.equals(solverFile, that.solverFile)
         && Objects.equals(proofFile, that.proofFile)
-        && Objects.equals(host, that.host);
+        && Objects.equals(host, that.host)
+        && Objects.equals(unixSocket, that.unixSocket);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(instanceFile, solverFile, proofFile, port, host, noWait);
+    return Objects.hash(instanceFile, solverFile, proofFile, port, host, unixSocket, noWait,
+        queueSize, overflowPolicy, compress, compressionBlockSize, compressionFlushInterval);
   }
 
   @Override
@@ -105,7 +180,13 @@ public final class ProducerParameters {
         + ", proofFile=" + proofFile
         + ", port=" + port
         + ", host='" + host + '\''
+        + ", unixSocket=" + unixSocket
         + ", noWait=" + noWait
+        + ", queueSize=" + queueSize
+        + ", overflowPolicy=" + overflowPolicy
+        + ", compress=" + compress
+        + ", compressionBlockSize=" + compressionBlockSize
+        + ", compressionFlushInterval=" + compressionFlushInterval
         + '}';
   }
 }
@@ -10,9 +10,11 @@ import edu.kit.satviz.producer.cli.ProducerParameters;
 import edu.kit.satviz.producer.source.ProofSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 /**
- * A mode for when the producer should get its clauses from a DRAT proof.
+ * A mode for when the producer should get its clauses from a DRAT proof, in either the textual or
+ * the binary format.
  */
 public class ProofMode implements ProducerMode {
   @Override
@@ -24,12 +26,13 @@ public class ProofMode implements ProducerMode {
   public ProducerModeData apply(ProducerParameters parameters) throws SourceException {
     try {
       InputStream proofStream = Compression.openPossiblyCompressed(parameters.getProofFile());
+      // textual and binary proofs are told apart by DratFile
       DratFile drat = new DratFile(proofStream);
       return new ProducerModeData(
           new ProofSource(drat),
           new ProofId()
       );
-    } catch (IOException e) {
+    } catch (IOException | UncheckedIOException e) {
       throw new SourceException("Could not create source - I/O error", e);
     }
   }
@@ -6,6 +6,7 @@ import edu.kit.satviz.producer.ClauseSource;
 import edu.kit.satviz.producer.SourceException;
 import edu.kit.satviz.sat.ClauseUpdate;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 /**
@@ -52,6 +53,8 @@ public class ProofSource extends ClauseSource {
       }
     } catch (ParsingException e) {
       throw new SourceException("DRAT proof parsing error", e);
+    } catch (UncheckedIOException e) {
+      throw new SourceException("DRAT proof I/O error", e);
     }
 
     if (!stop) {
@@ -1,5 +1,6 @@
 package edu.kit.satviz.producer;
 
+import edu.kit.satviz.network.pub.OverflowPolicy;
 import edu.kit.satviz.producer.cli.ProducerCli;
 import edu.kit.satviz.producer.cli.ProducerParameters;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
@@ -17,6 +18,13 @@ class ProducerCliTest {
     assertThrows(ArgumentParserException.class, () -> ProducerCli.parseArgs(args));
   }
 
+  @Test
+  void test_parseArgs_invalidQueueSize() {
+    String[] args = {"-H", "example.com", "-p", "foo/bar.drat", "--queue-size", "0"};
+    var e = assertThrows(ArgumentParserException.class, () -> ProducerCli.parseArgs(args));
+    assertTrue(e.getMessage().contains("--queue-size"));
+  }
+
   @Test
   void test_parseArgs_missingHost() {
     String[] args = {};
@@ -56,4 +64,45 @@ class ProducerCliTest {
     }
   }
 
+  @Test
+  void test_parseArgs_queue() {
+    var expected = new ProducerParameters();
+    expected.setPort(34312);
+    expected.setHost("example.com");
+    expected.setProofFile(Paths.get("foo/bar.drat"));
+    expected.setQueueSize(128);
+    expected.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+    expected.setCompress(true);
+    expected.setCompressionBlockSize(4096);
+    String[] args = {"-H", "example.com", "-p", "foo/bar.drat", "--queue-size", "128",
+        "--overflow-policy", "drop_oldest", "--compress", "--compression-block-size", "4096"};
+    try {
+      var params = ProducerCli.parseArgs(args);
+      assertEquals(expected, params);
+    } catch (ArgumentParserException e) {
+      fail(e);
+    }
+  }
+
+  @Test
+  void test_parseArgs_unixSocket() {
+    var expected = new ProducerParameters();
+    expected.setPort(34312);
+    expected.setUnixSocket(Paths.get("/tmp/satviz/producer.sock"));
+    expected.setProofFile(Paths.get("foo/bar.drat"));
+    String[] args = {"-U", "/tmp/satviz/producer.sock", "-p", "foo/bar.drat"};
+    try {
+      var params = ProducerCli.parseArgs(args);
+      assertEquals(expected, params);
+    } catch (ArgumentParserException e) {
+      fail(e);
+    }
+  }
+
+  @Test
+  void test_parseArgs_hostAndUnixSocket() {
+    String[] args = {"-H", "example.com", "-U", "producer.sock", "-p", "foo/bar.drat"};
+    assertThrows(ArgumentParserException.class, () -> ProducerCli.parseArgs(args));
+  }
+
 }
@@ -49,4 +49,16 @@ class ProofSourceTest {
     assertEquals(PROOF_UPDATES, updates);
   }
 
+  @Test
+  void test_open_binaryClauses() throws IOException, SourceException {
+    var params = new ProducerParameters();
+    params.setHost("example.com");
+    params.setProofFile(extractResource("/proof.bdrat"));
+    ProducerModeData data = mode.apply(params);
+    List<ClauseUpdate> updates = new ArrayList<>();
+    data.source().subscribe(updates::add);
+    data.source().open();
+    assertEquals(PROOF_UPDATES, updates);
+  }
+
 }
@@ -1,6 +1,8 @@
 package edu.kit.satviz.serial;
 
 import edu.kit.satviz.sat.Clause;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * A {@link SerialBuilder} for SAT clauses.
@@ -13,7 +15,7 @@ public class ClauseSerialBuilder extends SerialBuilder<Clause> {
   int numLiterals;
   int[] literals;
   Clause clause;
-  int acc;
+  long acc;
   int currentShift;
 
   public ClauseSerialBuilder() {
@@ -30,44 +32,67 @@ public class ClauseSerialBuilder extends SerialBuilder<Clause> {
     literals[numLiterals++] = lit;
   }
 
-  private int unsignedMappingToLit(int unsignedMapping) throws SerializationException {
-    int lit = (unsignedMapping % 2) == 0 ? unsignedMapping / 2 : -(unsignedMapping - 1) / 2;
-    if (lit == 0) {
-      fail("invalid unsigned literal mapping value");
+  private void terminate(long acc) throws SerializationException {
+    if (acc != 0) {
+      fail("literal mapping not terminated correctly");
     }
-    return lit;
+    // crop array
+    clause = new Clause(Arrays.copyOf(literals, numLiterals));
+    finish();
   }
 
   @Override
   protected void processAddByte(byte b) throws SerializationException {
     if (b == 0) {
-      if (acc != 0) {
-        fail("literal mapping not terminated correctly");
-      }
-      // crop array
-      int[] cutLiterals = new int[numLiterals];
-      System.arraycopy(literals, 0, cutLiterals, 0, numLiterals);
-      clause = new Clause(cutLiterals);
-      finish();
+      terminate(acc);
       return;
     }
 
     if ((b & 0x80) != 0) {
       // literal not done
-      acc |= (b & 0x7f) << currentShift;
+      acc |= (long) (b & 0x7f) << currentShift;
       currentShift += 7;
       if (currentShift > 28) {
         fail("unsigned literal mapping too big");
       }
     } else {
       // literal done with this byte; add and reset
-      acc |= b << currentShift;
-      addLiteral(unsignedMappingToLit(acc));
+      acc |= (long) b << currentShift;
+      addLiteral(VarInt.toLiteral(acc));
       acc = 0;
       currentShift = 0;
     }
   }
 
+  @Override
+  protected void processAddBytes(ByteBuffer buf) throws SerializationException {
+    // same as processAddByte, but keeps the partial literal in local variables
+    long acc = this.acc;
+    int currentShift = this.currentShift;
+    while (buf.hasRemaining()) {
+      byte b = buf.get();
+      if (b == 0) {
+        terminate(acc);
+        this.acc = 0;
+        this.currentShift = 0;
+        return;
+      }
+      if ((b & 0x80) != 0) {
+        acc |= (long) (b & 0x7f) << currentShift;
+        currentShift += 7;
+        if (currentShift > 28) {
+          fail("unsigned literal mapping too big");
+        }
+      } else {
+        addLiteral(VarInt.toLiteral(acc | (long) b << currentShift));
+        acc = 0;
+        currentShift = 0;
+      }
+    }
+    this.acc = acc;
+    this.currentShift = currentShift;
+  }
+
   @Override
   protected Clause processGetObject() {
     return clause;
@@ -76,7 +101,10 @@ public class ClauseSerialBuilder extends SerialBuilder<Clause> {
   @Override
   protected void processReset() {
     numLiterals = 0;
-    literals = new int[DEFAULT_CAP];
+    // the literal array is kept, as the finished clause uses a copy of it
+    if (literals == null) {
+      literals = new int[DEFAULT_CAP];
+    }
     clause = null;
     acc = 0;
     currentShift = 0;
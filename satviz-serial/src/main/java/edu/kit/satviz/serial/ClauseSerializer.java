@@ -14,18 +14,29 @@ public class ClauseSerializer extends Serializer<Clause> {
   public void serialize(Clause clause, OutputStream out) throws IOException {
     int[] literals = clause.literals();
     for (int lit : literals) {
-      int unsignedMapping = (lit > 0) ? 2 * lit : (-2 * lit) + 1;
-      // split into 7 bit blocks
-      while (unsignedMapping > 0x7f) {
-        out.write((unsignedMapping & 0x7f) | 0x80);
-        unsignedMapping >>>= 7;
-      }
-      out.write(unsignedMapping); // last byte has MSB 0
+      VarInt.write(VarInt.toUnsignedMapping(lit), out);
     }
     // need to write trailing 0 manually
     out.write(0);
   }
 
+  /**
+   * Checks whether a clause can be serialized by the clause serializers.
+   * A literal must neither be 0, which terminates a clause, nor {@code Integer.MIN_VALUE},
+   * which can't be negated.
+   *
+   * @param clause the clause
+   * @return whether all literals of the clause are valid
+   */
+  public static boolean isSerializable(Clause clause) {
+    for (int lit : clause.literals()) {
+      if (lit == 0 || lit == Integer.MIN_VALUE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public SerialBuilder<Clause> getBuilder() {
     return new ClauseSerialBuilder();
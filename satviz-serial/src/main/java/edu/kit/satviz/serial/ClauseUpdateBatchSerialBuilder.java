@@ -0,0 +1,91 @@
+package edu.kit.satviz.serial;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link SerialBuilder} corresponding to {@link ClauseUpdateBatchSerializer}.
+ */
+public class ClauseUpdateBatchSerialBuilder extends SerialBuilder<List<ClauseUpdate>> {
+  /** Upper bound for the initial capacity, so a corrupt size can't allocate huge arrays. */
+  private static final int MAX_INITIAL_CAP = 4096;
+
+  private final IntSerialBuilder sizeBuilder = new IntSerialBuilder();
+  private final SerialBuilder<ClauseUpdate> clauseUpdateBuilder;
+
+  private int size = -1;
+  private List<ClauseUpdate> batch = null;
+
+  /**
+   * Creates a new builder that reads clauses as specified by {@link ClauseSerializer}.
+   */
+  public ClauseUpdateBatchSerialBuilder() {
+    this(new ClauseUpdateSerialBuilder());
+  }
+
+  /**
+   * Creates a new builder that reads clause updates using the given builder.
+   * @param clauseUpdateBuilder the builder for the clause updates
+   */
+  public ClauseUpdateBatchSerialBuilder(SerialBuilder<ClauseUpdate> clauseUpdateBuilder) {
+    this.clauseUpdateBuilder = clauseUpdateBuilder;
+  }
+
+  private void startBatch() throws SerializationException {
+    size = sizeBuilder.getObject();
+    if (size < 0) {
+      fail("negative batch size");
+    }
+    batch = new ArrayList<>(Math.min(size, MAX_INITIAL_CAP));
+    if (size == 0) {
+      finish();
+    }
+  }
+
+  private void addClauseUpdate() {
+    batch.add(clauseUpdateBuilder.getObject());
+    clauseUpdateBuilder.reset();
+    if (batch.size() == size) {
+      finish();
+    }
+  }
+
+  @Override
+  protected void processAddByte(byte b) throws SerializationException {
+    if (size < 0) {
+      if (sizeBuilder.addByte(b)) {
+        startBatch();
+      }
+    } else if (clauseUpdateBuilder.addByte(b)) {
+      addClauseUpdate();
+    }
+  }
+
+  @Override
+  protected void processAddBytes(ByteBuffer buf) throws SerializationException {
+    while (buf.hasRemaining() && !finished()) {
+      if (size < 0) {
+        if (sizeBuilder.addBytes(buf)) {
+          startBatch();
+        }
+      } else if (clauseUpdateBuilder.addBytes(buf)) {
+        addClauseUpdate();
+      }
+    }
+  }
+
+  @Override
+  protected List<ClauseUpdate> processGetObject() {
+    return batch;
+  }
+
+  @Override
+  protected void processReset() {
+    sizeBuilder.reset();
+    clauseUpdateBuilder.reset();
+    size = -1;
+    batch = null;
+  }
+}
@@ -0,0 +1,46 @@
+package edu.kit.satviz.serial;
+
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A {@link Serializer} for batches of {@code ClauseUpdate}s.<br>
+ * Uses four bytes for the amount of clause updates as specified by {@link IntSerializer},
+ * followed by the clause updates themselves as specified by {@link ClauseUpdateSerializer}.
+ */
+public class ClauseUpdateBatchSerializer extends Serializer<List<ClauseUpdate>> {
+
+  private static final IntSerializer intSerializer = new IntSerializer();
+  private final ClauseUpdateSerializer clauseUpdateSerializer;
+
+  /**
+   * Creates a new serializer that writes clauses as specified by {@link ClauseSerializer}.
+   */
+  public ClauseUpdateBatchSerializer() {
+    this(new ClauseUpdateSerializer());
+  }
+
+  /**
+   * Creates a new serializer that writes clause updates using the given serializer.
+   * @param clauseUpdateSerializer the serializer for the clause updates
+   */
+  public ClauseUpdateBatchSerializer(ClauseUpdateSerializer clauseUpdateSerializer) {
+    this.clauseUpdateSerializer = clauseUpdateSerializer;
+  }
+
+  @Override
+  public void serialize(List<ClauseUpdate> batch, OutputStream out)
+      throws IOException, SerializationException {
+    intSerializer.serialize(batch.size(), out);
+    for (ClauseUpdate clauseUpdate : batch) {
+      clauseUpdateSerializer.serialize(clauseUpdate, out);
+    }
+  }
+
+  @Override
+  public SerialBuilder<List<ClauseUpdate>> getBuilder() {
+    return new ClauseUpdateBatchSerialBuilder(clauseUpdateSerializer.getBuilder());
+  }
+}
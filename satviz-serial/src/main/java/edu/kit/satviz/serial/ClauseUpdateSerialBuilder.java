@@ -2,6 +2,7 @@ package edu.kit.satviz.serial;
 
 import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
+import java.nio.ByteBuffer;
 import java.util.NoSuchElementException;
 
 /**
@@ -9,10 +10,25 @@ import java.util.NoSuchElementException;
  */
 public class ClauseUpdateSerialBuilder extends SerialBuilder<ClauseUpdate> {
 
-  private final SerialBuilder<Clause> clauseSerialBuilder = new ClauseSerialBuilder();
+  private final SerialBuilder<Clause> clauseSerialBuilder;
 
   private ClauseUpdate.Type type;
 
+  /**
+   * Creates a new builder that reads clauses as specified by {@link ClauseSerializer}.
+   */
+  public ClauseUpdateSerialBuilder() {
+    this(new ClauseSerialBuilder());
+  }
+
+  /**
+   * Creates a new builder that reads clauses using the given builder.
+   * @param clauseSerialBuilder the builder for the clauses
+   */
+  public ClauseUpdateSerialBuilder(SerialBuilder<Clause> clauseSerialBuilder) {
+    this.clauseSerialBuilder = clauseSerialBuilder;
+  }
+
   @Override
   protected void processAddByte(byte b) throws SerializationException {
     if (type == null) {
@@ -28,6 +44,16 @@ public class ClauseUpdateSerialBuilder extends SerialBuilder<ClauseUpdate> {
     }
   }
 
+  @Override
+  protected void processAddBytes(ByteBuffer buf) throws SerializationException {
+    if (type == null && buf.hasRemaining()) {
+      processAddByte(buf.get());
+    }
+    if (buf.hasRemaining() && clauseSerialBuilder.addBytes(buf)) {
+      finish();
+    }
+  }
+
   @Override
   protected ClauseUpdate processGetObject() {
     return new ClauseUpdate(clauseSerialBuilder.getObject(), type);
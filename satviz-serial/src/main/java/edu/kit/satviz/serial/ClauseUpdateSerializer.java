@@ -1,5 +1,6 @@
 package edu.kit.satviz.serial;
 
+import edu.kit.satviz.sat.Clause;
 import edu.kit.satviz.sat.ClauseUpdate;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -7,11 +8,27 @@ import java.io.OutputStream;
 /**
  * A {@link Serializer} for {@code ClauseUpdate}s, i.e. the combination of a {@code Clause} and
  * a {@code ClauseUpdate.Type}.<br>
- * Uses one byte for the type and the rest as specified by {@link ClauseSerializer}.
+ * Uses one byte for the type and the rest as specified by {@link ClauseSerializer}, or another
+ * clause serializer given on construction.
  */
 public class ClauseUpdateSerializer extends Serializer<ClauseUpdate> {
 
-  private static final ClauseSerializer clauseSerializer = new ClauseSerializer();
+  private final Serializer<Clause> clauseSerializer;
+
+  /**
+   * Creates a new serializer that writes clauses as specified by {@link ClauseSerializer}.
+   */
+  public ClauseUpdateSerializer() {
+    this(new ClauseSerializer());
+  }
+
+  /**
+   * Creates a new serializer that writes clauses using the given serializer.
+   * @param clauseSerializer the serializer for the clauses
+   */
+  public ClauseUpdateSerializer(Serializer<Clause> clauseSerializer) {
+    this.clauseSerializer = clauseSerializer;
+  }
 
   @Override
   public void serialize(ClauseUpdate clauseUpdate, OutputStream out)
@@ -22,6 +39,6 @@ public class ClauseUpdateSerializer extends Serializer<ClauseUpdate> {
 
   @Override
   public SerialBuilder<ClauseUpdate> getBuilder() {
-    return new ClauseUpdateSerialBuilder();
+    return new ClauseUpdateSerialBuilder(clauseSerializer.getBuilder());
   }
 }
@@ -0,0 +1,141 @@
+package edu.kit.satviz.serial;
+
+import edu.kit.satviz.sat.Clause;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The {@link SerialBuilder} corresponding to {@link DeltaClauseSerializer}.
+ */
+public class DeltaClauseSerialBuilder extends SerialBuilder<Clause> {
+  /** Default capacity for the growing literal array. */
+  private static final int DEFAULT_CAP = 8;
+  /** Upper bound for the initial capacity, so a corrupt size can't allocate huge arrays. */
+  private static final int MAX_INITIAL_CAP = 4096;
+
+  int size;
+  int numLiterals;
+  int[] literals;
+  boolean delta;
+  int previous;
+  Clause clause;
+  long acc;
+  int currentShift;
+
+  public DeltaClauseSerialBuilder() {
+    processReset();
+  }
+
+  private void startClause(long header) throws SerializationException {
+    long size = header >>> 1;
+    if (size > Integer.MAX_VALUE) {
+      fail("clause too long");
+    }
+    this.size = (int) size;
+    this.delta = (header & 1) != 0;
+    if (literals.length < Math.min(this.size, MAX_INITIAL_CAP)) {
+      literals = new int[Math.min(this.size, MAX_INITIAL_CAP)];
+    }
+    if (this.size == 0) {
+      terminate();
+    }
+  }
+
+  private void addLiteral(long value) throws SerializationException {
+    int literal;
+    try {
+      literal = delta ? VarInt.toDeltaLiteral(previous, value) : VarInt.toLiteral(value);
+    } catch (SerializationException e) {
+      fail(e.getMessage());
+      return;
+    }
+    previous = Math.abs(literal);
+
+    if (numLiterals == literals.length) {
+      literals = Arrays.copyOf(literals, literals.length * 2);
+    }
+    literals[numLiterals++] = literal;
+    if (numLiterals == size) {
+      terminate();
+    }
+  }
+
+  private void terminate() {
+    // crop array
+    clause = new Clause(Arrays.copyOf(literals, numLiterals));
+    finish();
+  }
+
+  private void addValue(long value) throws SerializationException {
+    if (size < 0) {
+      startClause(value);
+    } else {
+      addLiteral(value);
+    }
+  }
+
+  @Override
+  protected void processAddByte(byte b) throws SerializationException {
+    acc |= (long) (b & 0x7f) << currentShift;
+    if ((b & 0x80) != 0) {
+      // number not done
+      currentShift += 7;
+      if (currentShift > 28) {
+        fail("number too big");
+      }
+    } else {
+      // number done with this byte; add and reset
+      long value = acc;
+      acc = 0;
+      currentShift = 0;
+      addValue(value);
+    }
+  }
+
+  @Override
+  protected void processAddBytes(ByteBuffer buf) throws SerializationException {
+    // same as processAddByte, but keeps the partial number in local variables
+    long acc = this.acc;
+    int currentShift = this.currentShift;
+    while (buf.hasRemaining()) {
+      byte b = buf.get();
+      acc |= (long) (b & 0x7f) << currentShift;
+      if ((b & 0x80) != 0) {
+        currentShift += 7;
+        if (currentShift > 28) {
+          fail("number too big");
+        }
+      } else {
+        long value = acc;
+        acc = 0;
+        currentShift = 0;
+        addValue(value);
+        if (finished()) {
+          break;
+        }
+      }
+    }
+    this.acc = acc;
+    this.currentShift = currentShift;
+  }
+
+  @Override
+  protected Clause processGetObject() {
+    return clause;
+  }
+
+  @Override
+  protected void processReset() {
+    size = -1;
+    numLiterals = 0;
+    // the literal array is kept, as the finished clause uses a copy of it
+    if (literals == null) {
+      literals = new int[DEFAULT_CAP];
+    }
+    delta = false;
+    previous = 0;
+    clause = null;
+    acc = 0;
+    currentShift = 0;
+  }
+}
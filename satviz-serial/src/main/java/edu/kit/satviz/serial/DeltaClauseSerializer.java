@@ -0,0 +1,58 @@
+package edu.kit.satviz.serial;
+
+import edu.kit.satviz.sat.Clause;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link Serializer} for SAT clauses that stores the differences between variables where that
+ * is smaller.
+ * The variables within a clause are often close to each other. Their differences are then much
+ * smaller than the variables themselves, especially for instances with many variables.<br>
+ * Each clause starts with its amount of literals, shifted left by one, with a flag in the lowest
+ * bit that tells how the literals are stored. Without the flag, each literal is stored as its
+ * unsigned mapping, as in {@link ClauseSerializer}. With the flag, each literal is stored as its
+ * {@link VarInt#toDeltaMapping(int, int) delta mapping}: the difference between its variable and
+ * the variable of the previous literal (or 0 for the first literal) in zigzag encoding, shifted
+ * left by one, with the sign of the literal in the lowest bit. The delta mapping is only used if
+ * it makes the clause smaller, so no clause is stored in more bytes than by
+ * {@link ClauseSerializer}, apart from the length, which rarely needs more than one byte.
+ * All numbers are written as unsigned variable-length integers, 7 bits per byte.
+ * The order of the literals is kept; clauses whose literals are sorted by variable benefit most.
+ */
+public class DeltaClauseSerializer extends Serializer<Clause> {
+
+  @Override
+  public void serialize(Clause clause, OutputStream out)
+      throws IOException, SerializationException {
+    int[] literals = clause.literals();
+    for (int lit : literals) {
+      if (lit == 0 || lit == Integer.MIN_VALUE) {
+        throw new SerializationException("invalid literal " + lit);
+      }
+    }
+
+    long plainSize = 0;
+    long deltaSize = 0;
+    int previous = 0;
+    for (int lit : literals) {
+      plainSize += VarInt.size(VarInt.toUnsignedMapping(lit));
+      deltaSize += VarInt.size(VarInt.toDeltaMapping(previous, lit));
+      previous = Math.abs(lit);
+    }
+    boolean delta = deltaSize < plainSize;
+
+    VarInt.write(((long) literals.length << 1) | (delta ? 1 : 0), out);
+    previous = 0;
+    for (int lit : literals) {
+      VarInt.write(delta ? VarInt.toDeltaMapping(previous, lit) : VarInt.toUnsignedMapping(lit),
+          out);
+      previous = Math.abs(lit);
+    }
+  }
+
+  @Override
+  public SerialBuilder<Clause> getBuilder() {
+    return new DeltaClauseSerialBuilder();
+  }
+}
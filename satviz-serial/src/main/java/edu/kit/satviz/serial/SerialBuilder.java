@@ -1,8 +1,11 @@
 package edu.kit.satviz.serial;
 
+import java.nio.ByteBuffer;
+
 /**
  * A class to deserialize objects of type <code>T</code>.
  * The deserialization process can be done in several steps, as individual bytes are added.
+ * Once an object has been retrieved, the builder can be {@link #reset() reset} and reused.
  *
  * @param <T> the type of deserialized objects
  */
@@ -70,6 +73,31 @@ public abstract class SerialBuilder<T> {
     return finished;
   }
 
+  /**
+   * Adds bytes from a buffer to the deserialization process.
+   * Bytes are consumed until either the object is finished or the buffer has no bytes remaining.
+   * Afterwards, the position of the buffer is directly behind the last consumed byte, so the
+   *     remaining bytes can be used for the next object.
+   * Adding bytes after the process has finished will change this builder to the failed state.
+   *
+   * @param buf the buffer to read from
+   * @return whether the process is finished or not
+   * @throws SerializationException if the process failed or finished before, or failed now
+   */
+  public final boolean addBytes(ByteBuffer buf) throws SerializationException {
+    if (failed || finished) {
+      failed = true;
+      throw new SerializationException("no more bytes expected");
+    }
+    try {
+      processAddBytes(buf); // may change fail or finish
+    } catch (SerializationException e) {
+      failed = true;
+      throw e;
+    }
+    return finished;
+  }
+
   /**
    * Gets the finished object.
    *
@@ -102,6 +130,22 @@ public abstract class SerialBuilder<T> {
    */
   protected abstract void processAddByte(byte b) throws SerializationException;
 
+  /**
+   * Adds bytes from a buffer to the deserialization process.
+   * This is the primitive method to the template <code>addBytes</code>.
+   * It must not consume any bytes after the one that finishes the object.
+   * The default implementation calls <code>processAddByte</code> for each byte; concrete classes
+   *     may override this with a faster loop.
+   *
+   * @param buf the buffer to read from
+   * @throws SerializationException if a byte is invalid
+   */
+  protected void processAddBytes(ByteBuffer buf) throws SerializationException {
+    while (!finished && buf.hasRemaining()) {
+      processAddByte(buf.get());
+    }
+  }
+
   /**
    * Gets the finished object.
    * This is the primitive method to the template <code>getObject</code>.
@@ -3,6 +3,7 @@ package edu.kit.satviz.serial;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * An abstract class for serializing and deserializing objects.
@@ -72,6 +73,27 @@ public abstract class Serializer<T> {
     return builder.getObject();
   }
 
+  /**
+   * Deserializes an object of type <code>T</code> from a buffer.
+   * Only the bytes belonging to the object are consumed; the position of the buffer is left
+   *     directly behind them.
+   *
+   * @param in the buffer to read from
+   * @return the object that was constructed
+   * @throws SerializationException if the buffer contains invalid data or ends before the object
+   */
+  public T deserialize(ByteBuffer in) throws SerializationException {
+    SerialBuilder<T> builder = getBuilder();
+    if (builder == null) {
+      throw new NullPointerException("no builder available");
+    }
+
+    if (!builder.addBytes(in)) {
+      throw new SerializationException("unexpected end of buffer");
+    }
+    return builder.getObject();
+  }
+
   /**
    * Gets a new {@link SerialBuilder} to deserialize an object of type <code>T</code> in steps.
    *
@@ -12,7 +12,7 @@ public class StringMapSerialBuilder extends SerialBuilder<Map<String, String>> {
   private boolean buildingKey = true;
   private boolean escaped = false;
   private String currentKey = null;
-  private final Map<String, String> map = new HashMap<>();
+  private Map<String, String> map = new HashMap<>();
 
   @Override
   protected void processAddByte(byte b) throws SerializationException {
@@ -75,6 +75,7 @@ public class StringMapSerialBuilder extends SerialBuilder<Map<String, String>> {
     buildingKey = true;
     escaped = false;
     currentKey = null;
-    map.clear();
+    // the previous map may still be in use by whoever got it from getObject()
+    map = new HashMap<>();
   }
 }
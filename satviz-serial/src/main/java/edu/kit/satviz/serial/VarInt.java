@@ -0,0 +1,134 @@
+package edu.kit.satviz.serial;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Helper methods for the variable-length unsigned numbers used by the clause formats.<br>
+ * A number is split into blocks of 7 bits, starting with the lowest block. Every block is written
+ * as one byte, whose most significant bit is set if further blocks follow. Literals are stored
+ * as their unsigned mapping, as in the binary DRAT format (<code>2 * v</code> for a positive and
+ * <code>2 * v + 1</code> for a negative literal of variable <code>v</code>).
+ */
+public final class VarInt {
+
+  /** The maximum amount of bytes of a single number. */
+  public static final int MAX_BYTES = 5;
+
+  private VarInt() {
+  }
+
+  /**
+   * Writes a number.
+   *
+   * @param value The number, which must not be negative.
+   * @param out The stream to write to.
+   * @throws IOException If writing to the stream fails.
+   */
+  public static void write(long value, OutputStream out) throws IOException {
+    // split into 7 bit blocks
+    while (value > 0x7f) {
+      out.write((int) (value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value); // last byte has MSB 0
+  }
+
+  /**
+   * Calculates how many bytes {@link #write(long, OutputStream)} writes for a number.
+   *
+   * @param value The number, which must not be negative.
+   * @return The amount of bytes.
+   */
+  public static int size(long value) {
+    int bytes = 1;
+    while (value > 0x7f) {
+      value >>>= 7;
+      bytes++;
+    }
+    return bytes;
+  }
+
+  /**
+   * Reads a complete number, starting at the position of a buffer.
+   *
+   * @param buf The buffer, whose position is advanced past the number.
+   * @return The number.
+   * @throws SerializationException If the number is longer than {@value #MAX_BYTES} bytes.
+   * @throws java.nio.BufferUnderflowException If the buffer ends within the number.
+   */
+  public static long read(ByteBuffer buf) throws SerializationException {
+    long acc = 0;
+    int shift = 0;
+    byte b;
+    while (((b = buf.get()) & 0x80) != 0) {
+      acc |= (long) (b & 0x7f) << shift;
+      shift += 7;
+      if (shift > 28) {
+        throw new SerializationException("number too big");
+      }
+    }
+    return acc | (long) b << shift;
+  }
+
+  /**
+   * Calculates the unsigned mapping of a literal.
+   *
+   * @param literal The literal, which must be neither 0 nor <code>Integer.MIN_VALUE</code>.
+   * @return The unsigned mapping.
+   */
+  public static long toUnsignedMapping(int literal) {
+    return literal > 0 ? 2L * literal : -2L * literal + 1;
+  }
+
+  /**
+   * Calculates the literal of an unsigned mapping.
+   *
+   * @param unsignedMapping The unsigned mapping.
+   * @return The literal.
+   * @throws SerializationException If the value is not the mapping of a valid literal.
+   */
+  public static int toLiteral(long unsignedMapping) throws SerializationException {
+    long variable = unsignedMapping >>> 1;
+    if (variable == 0 || variable > Integer.MAX_VALUE) {
+      throw new SerializationException("invalid unsigned literal mapping value");
+    }
+    return (unsignedMapping & 1) == 0 ? (int) variable : (int) -variable;
+  }
+
+  /**
+   * Calculates the delta mapping of a literal, as used by {@link DeltaClauseSerializer}: the
+   * difference between its variable and the variable of the previous literal in zigzag encoding,
+   * shifted left by one, with the sign of the literal in the lowest bit.
+   *
+   * @param previousVariable The variable of the previous literal, or 0 for the first literal.
+   * @param literal The literal, which must be neither 0 nor <code>Integer.MIN_VALUE</code>.
+   * @return The delta mapping.
+   */
+  public static long toDeltaMapping(int previousVariable, int literal) {
+    long delta = (long) Math.abs(literal) - previousVariable;
+    long zigzag = (delta << 1) ^ (delta >> 63);
+    return (zigzag << 1) | (literal < 0 ? 1 : 0);
+  }
+
+  /**
+   * Calculates the literal of a delta mapping.
+   *
+   * @param previousVariable The variable of the previous literal, or 0 for the first literal.
+   * @param deltaMapping The delta mapping.
+   * @return The literal.
+   * @throws SerializationException If the value is not the mapping of a valid literal.
+   * @see #toDeltaMapping(int, int)
+   */
+  public static int toDeltaLiteral(int previousVariable, long deltaMapping)
+      throws SerializationException {
+    long zigzag = deltaMapping >>> 1;
+    long variable = previousVariable + ((zigzag >>> 1) ^ -(zigzag & 1));
+    if (variable < 1 || variable > Integer.MAX_VALUE) {
+      throw new SerializationException("invalid variable delta");
+    }
+    return (deltaMapping & 1) == 0 ? (int) variable : (int) -variable;
+  }
+
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ClauseTest {
@@ -65,4 +66,52 @@ class ClauseTest {
 
     assertArrayEquals(lits, result.literals());
   }
+
+  @Test
+  void testBulkDecoding() throws IOException, SerializationException {
+    int[][] clauses = {{1, 2, 3}, {}, {-1000000, 1000000}, {42}, {-5, 6, -7, 8}};
+    ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+    for (int[] lits : clauses) {
+      serial.serialize(new Clause(lits), byteOut);
+    }
+    byte[] bytes = byteOut.toByteArray();
+
+    // feed the bytes in chunks of every size, so clauses and literals are split at every position
+    for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+      SerialBuilder<Clause> builder = serial.getBuilder();
+      int decoded = 0;
+      for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+        ByteBuffer buf = ByteBuffer.wrap(
+            bytes, offset, Math.min(chunkSize, bytes.length - offset)
+        );
+        while (buf.hasRemaining()) {
+          if (builder.addBytes(buf)) {
+            assertArrayEquals(clauses[decoded++], builder.getObject().literals());
+            builder.reset();
+          }
+        }
+      }
+      assertEquals(clauses.length, decoded);
+    }
+  }
+
+  @Test
+  void testBulkDecodingFromBuffer() throws IOException, SerializationException {
+    ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+    serial.serialize(new Clause(new int[]{1, -2}), byteOut);
+    serial.serialize(new Clause(new int[]{3}), byteOut);
+    ByteBuffer buf = ByteBuffer.wrap(byteOut.toByteArray());
+
+    assertArrayEquals(new int[]{1, -2}, serial.deserialize(buf).literals());
+    assertArrayEquals(new int[]{3}, serial.deserialize(buf).literals());
+    assertThrows(SerializationException.class, () -> serial.deserialize(buf));
+  }
+
+  @Test
+  void testIsSerializable() {
+    assertTrue(ClauseSerializer.isSerializable(new Clause(new int[]{1, -Integer.MAX_VALUE})));
+    assertTrue(ClauseSerializer.isSerializable(new Clause(new int[0])));
+    assertFalse(ClauseSerializer.isSerializable(new Clause(new int[]{1, 0})));
+    assertFalse(ClauseSerializer.isSerializable(new Clause(new int[]{Integer.MIN_VALUE})));
+  }
 }
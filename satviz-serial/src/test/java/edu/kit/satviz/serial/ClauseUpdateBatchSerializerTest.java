@@ -0,0 +1,76 @@
+package edu.kit.satviz.serial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClauseUpdateBatchSerializerTest {
+
+  private ClauseUpdateBatchSerializer serializer;
+  private List<ClauseUpdate> batch;
+
+  @BeforeEach
+  void setUp() {
+    serializer = new ClauseUpdateBatchSerializer();
+    batch = List.of(
+        new ClauseUpdate(new Clause(new int[] {1, 2, -4, 6}), ClauseUpdate.Type.ADD),
+        new ClauseUpdate(new Clause(new int[0]), ClauseUpdate.Type.ADD),
+        new ClauseUpdate(new Clause(new int[] {-1000000, 3}), ClauseUpdate.Type.REMOVE)
+    );
+  }
+
+  private byte[] serialize(List<ClauseUpdate> updates) throws IOException {
+    var out = new ByteArrayOutputStream();
+    try {
+      serializer.serialize(updates, out);
+    } catch (SerializationException e) {
+      fail(e);
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  void testLoopback() throws IOException, SerializationException {
+    var in = new ByteArrayInputStream(serialize(batch));
+    assertEquals(batch, serializer.deserialize(in));
+  }
+
+  @Test
+  void testEmptyBatch() throws IOException, SerializationException {
+    byte[] bytes = serialize(List.of());
+    assertEquals(4, bytes.length);
+    assertEquals(List.of(), serializer.deserialize(new ByteArrayInputStream(bytes)));
+  }
+
+  @Test
+  void testBulkDecoding() throws IOException, SerializationException {
+    byte[] bytes = serialize(batch);
+    for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+      SerialBuilder<List<ClauseUpdate>> builder = serializer.getBuilder();
+      boolean finished = false;
+      for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+        assertFalse(finished);
+        finished = builder.addBytes(
+            ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset))
+        );
+      }
+      assertTrue(finished);
+      assertEquals(batch, builder.getObject());
+    }
+  }
+
+  @Test
+  void testNegativeSize() {
+    var in = new ByteArrayInputStream(new byte[] {-1, -1, -1, -1});
+    assertThrows(SerializationException.class, () -> serializer.deserialize(in));
+  }
+
+}
@@ -0,0 +1,124 @@
+package edu.kit.satviz.serial;
+
+import edu.kit.satviz.sat.Clause;
+import edu.kit.satviz.sat.ClauseUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaClauseTest {
+  DeltaClauseSerializer serial = new DeltaClauseSerializer();
+
+  @Test
+  void testClauses() throws IOException, SerializationException {
+    testClause(new int[]{1, 2, 3, 4, 5, 6});
+    testClause(new int[]{-20, 10, 10, 20});
+    testClause(new int[0]);
+    testClause(new int[]{-1000000, 1000000});
+    testClause(new int[]{-1, 1, -2, 2, -3, 3, -4, 4, -5, 5});
+    testClause(new int[]{Integer.MAX_VALUE, 1, -Integer.MAX_VALUE});
+  }
+
+  void testClause(int[] lits) throws IOException, SerializationException {
+    ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+    serial.serialize(new Clause(lits), byteOut);
+
+    ByteArrayInputStream byteIn = new ByteArrayInputStream(byteOut.toByteArray());
+    Clause result = serial.deserialize(byteIn);
+
+    assertArrayEquals(lits, result.literals());
+  }
+
+  @Test
+  void testSmallerThanClauseSerializer() throws IOException, SerializationException {
+    int[] lits = {-5000000, 5000001, 5000003, -5000010, 5000100};
+    ByteArrayOutputStream deltaOut = new ByteArrayOutputStream();
+    serial.serialize(new Clause(lits), deltaOut);
+    ByteArrayOutputStream plainOut = new ByteArrayOutputStream();
+    new ClauseSerializer().serialize(new Clause(lits), plainOut);
+
+    // the first literal still needs 4 bytes, all following ones fit into 1 or 2 bytes
+    assertEquals(1 + 4 + 1 + 1 + 1 + 2, deltaOut.size());
+    assertTrue(deltaOut.size() < plainOut.size());
+  }
+
+  @Test
+  void testNotLargerThanClauseSerializer() throws IOException, SerializationException {
+    // the variables are far apart, so their differences are larger than the variables
+    int[] lits = {1000000, -1, 1000000, 2, -2000000};
+    ByteArrayOutputStream deltaOut = new ByteArrayOutputStream();
+    serial.serialize(new Clause(lits), deltaOut);
+    ByteArrayOutputStream plainOut = new ByteArrayOutputStream();
+    new ClauseSerializer().serialize(new Clause(lits), plainOut);
+
+    // the length takes the place of the terminating 0
+    assertEquals(plainOut.size(), deltaOut.size());
+    testClause(lits);
+  }
+
+  @Test
+  void testInvalidLiterals() {
+    ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+    assertThrows(SerializationException.class,
+        () -> serial.serialize(new Clause(new int[]{1, 0}), byteOut));
+    assertThrows(SerializationException.class,
+        () -> serial.serialize(new Clause(new int[]{Integer.MIN_VALUE}), byteOut));
+    // nothing is written for invalid clauses
+    assertEquals(0, byteOut.size());
+
+    // variable 0: size 1 in the delta format, delta 0, positive
+    assertThrows(SerializationException.class,
+        () -> serial.deserialize(new ByteArrayInputStream(new byte[]{3, 0})));
+    // variable -1: size 1 in the delta format, delta -1 (zigzag 1), positive
+    assertThrows(SerializationException.class,
+        () -> serial.deserialize(new ByteArrayInputStream(new byte[]{3, 2})));
+    // variable 0: size 1 in the plain format, unsigned mapping 1
+    assertThrows(SerializationException.class,
+        () -> serial.deserialize(new ByteArrayInputStream(new byte[]{2, 1})));
+  }
+
+  @Test
+  void testBulkDecoding() throws IOException, SerializationException {
+    int[][] clauses = {{1, 2, 3}, {}, {-1000000, 1000000}, {42}, {-5, 6, -7, 8}, {9, 3}};
+    ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+    for (int[] lits : clauses) {
+      serial.serialize(new Clause(lits), byteOut);
+    }
+    byte[] bytes = byteOut.toByteArray();
+
+    // feed the bytes in chunks of every size, so clauses and literals are split at every position
+    for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+      SerialBuilder<Clause> builder = serial.getBuilder();
+      int decoded = 0;
+      for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+        ByteBuffer buf = ByteBuffer.wrap(
+            bytes, offset, Math.min(chunkSize, bytes.length - offset)
+        );
+        while (buf.hasRemaining()) {
+          if (builder.addBytes(buf)) {
+            assertArrayEquals(clauses[decoded++], builder.getObject().literals());
+            builder.reset();
+          }
+        }
+      }
+      assertEquals(clauses.length, decoded);
+    }
+  }
+
+  @Test
+  void testUpdates() throws IOException, SerializationException {
+    ClauseUpdateSerializer updateSerial = new ClauseUpdateSerializer(serial);
+    ClauseUpdate update = new ClauseUpdate(
+        new Clause(new int[]{3, -4, 100}), ClauseUpdate.Type.REMOVE
+    );
+    ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+    updateSerial.serialize(update, byteOut);
+
+    ByteArrayInputStream byteIn = new ByteArrayInputStream(byteOut.toByteArray());
+    assertEquals(update, updateSerial.deserialize(byteIn));
+  }
+}
@@ -0,0 +1,62 @@
+package edu.kit.satviz.serial;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VarIntTest {
+
+  @Test
+  void testNumbers() throws IOException, SerializationException {
+    long[] values = {0, 1, 0x7f, 0x80, 0x3fff, 0x4000, Integer.MAX_VALUE, 0xffffffffL};
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : values) {
+      VarInt.write(value, out);
+    }
+    ByteBuffer buf = ByteBuffer.wrap(out.toByteArray());
+    for (long value : values) {
+      int position = buf.position();
+      assertEquals(value, VarInt.read(buf));
+      assertEquals(buf.position() - position, VarInt.size(value));
+    }
+    assertFalse(buf.hasRemaining());
+  }
+
+  @Test
+  void testTooBig() {
+    ByteBuffer buf = ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, -1, 1});
+    assertThrows(SerializationException.class, () -> VarInt.read(buf));
+  }
+
+  @Test
+  void testLiterals() throws SerializationException {
+    for (int lit : new int[]{1, -1, 42, -42, Integer.MAX_VALUE, -Integer.MAX_VALUE}) {
+      assertEquals(lit, VarInt.toLiteral(VarInt.toUnsignedMapping(lit)));
+    }
+    assertEquals(2, VarInt.toUnsignedMapping(1));
+    assertEquals(3, VarInt.toUnsignedMapping(-1));
+    assertThrows(SerializationException.class, () -> VarInt.toLiteral(1));
+    assertThrows(SerializationException.class, () -> VarInt.toLiteral(0x100000000L));
+  }
+
+  @Test
+  void testDeltaLiterals() throws SerializationException {
+    int[][] pairs = {
+        {0, 1}, {0, -1}, {5, 3}, {5, -7}, {Integer.MAX_VALUE, 1}, {1, -Integer.MAX_VALUE}
+    };
+    for (int[] pair : pairs) {
+      long mapping = VarInt.toDeltaMapping(pair[0], pair[1]);
+      assertEquals(pair[1], VarInt.toDeltaLiteral(pair[0], mapping));
+    }
+    // delta 2 (zigzag 4), negative
+    assertEquals(9, VarInt.toDeltaMapping(3, -5));
+    // delta -2 (zigzag 3), positive
+    assertEquals(6, VarInt.toDeltaMapping(5, 3));
+    assertThrows(SerializationException.class, () -> VarInt.toDeltaLiteral(0, 0));
+    assertThrows(SerializationException.class, () -> VarInt.toDeltaLiteral(1, 2));
+  }
+
+}